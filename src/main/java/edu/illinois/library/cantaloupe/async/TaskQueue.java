@@ -1,22 +1,61 @@
 package edu.illinois.library.cantaloupe.async;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Queue of serial tasks, backed internally by {@link ThreadPool}. Should be
- * preferred over {@link ThreadPool} for tasks that are not time-sensitive.
+ * <p>Queue of tasks that are not time-sensitive, like cache maintenance and
+ * temporary file deletion. Should be preferred over {@link ThreadPool} for
+ * such tasks.</p>
+ *
+ * <p>The queue is drained by {@link Key#TASK_QUEUE_WORKERS} workers, each
+ * running in a {@link ThreadPool#startThread(String, Runnable) thread of its
+ * own} so as not to tie up the pools, so tasks may run concurrently and
+ * complete out of order. It is bounded to {@link Key#TASK_QUEUE_SIZE} tasks;
+ * when it is full, submitted tasks are run in the submitting thread instead,
+ * which slows down submitters until the workers catch up.</p>
+ *
+ * <p>Tasks that update the same kind of thing over and over again, like
+ * last-accessed times, should use a {@link WriteBehindBuffer} instead, which
+ * coalesces and batches them before they get here.</p>
  */
 public final class TaskQueue {
 
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(TaskQueue.class);
+
+    private static final int DEFAULT_NUM_WORKERS = 4;
+    private static final int DEFAULT_QUEUE_SIZE  = 10000;
+
     private static TaskQueue instance = new TaskQueue();
 
-    private final TaskRunner runner;
+    private final BlockingQueue<Object> queue;
+    private final int numWorkers;
+    private final List<Thread> workerThreads     = new ArrayList<>();
+    private final AtomicBoolean workersShouldWork = new AtomicBoolean(true);
+    private final AtomicInteger numActiveWorkers = new AtomicInteger();
+    private final AtomicLong numCompletedTasks   = new AtomicLong();
+    private final AtomicLong numRejectedTasks    = new AtomicLong();
 
     /**
      * For testing only.
      */
     static synchronized void clearInstance() {
+        instance.shutdown();
         instance = new TaskQueue();
     }
 
@@ -28,32 +67,82 @@ public final class TaskQueue {
     }
 
     private TaskQueue() {
-        runner = new TaskRunner();
-        ThreadPool.getInstance().submit(runner);
+        final Configuration config = Configuration.getInstance();
+        numWorkers = Math.max(1,
+                config.getInt(Key.TASK_QUEUE_WORKERS, DEFAULT_NUM_WORKERS));
+        queue = new LinkedBlockingQueue<>(Math.max(1,
+                config.getInt(Key.TASK_QUEUE_SIZE, DEFAULT_QUEUE_SIZE)));
+        for (int i = 0; i < numWorkers; i++) {
+            workerThreads.add(ThreadPool.getInstance().startThread(
+                    "taskqueue", new TaskRunner(queue, workersShouldWork,
+                            numActiveWorkers, numCompletedTasks)));
+        }
+    }
+
+    /**
+     * @return Statistics about the queue, including its size, number of busy
+     *         workers, number of rejected tasks (which were run in the
+     *         calling thread instead), and the state of every {@link
+     *         WriteBehindBuffer}.
+     */
+    public Map<String,Object> getStatistics() {
+        final Map<String,Object> stats = new LinkedHashMap<>();
+        stats.put("numWorkers", numWorkers);
+        stats.put("numActiveWorkers", numActiveWorkers.get());
+        stats.put("queueSize", queue.size());
+        stats.put("maxQueueSize", queue.size() + queue.remainingCapacity());
+        stats.put("numCompletedTasks", numCompletedTasks.get());
+        stats.put("numRejectedTasks", numRejectedTasks.get());
+        stats.put("writeBehindBuffers", WriteBehindBuffer.getAllStatistics());
+        return stats;
     }
 
     /**
-     * @return Unmodifiable list of all queued tasks, including the one
-     *         currently running, if any. Completed tasks are not included.
-     *         Tasks may change from moment to moment, but the returned list
-     *         is fixed and immutable.
+     * @return Unmodifiable list of all queued tasks, not including the ones
+     *         currently running. Completed tasks are not included. Tasks may
+     *         change from moment to moment, but the returned list is fixed
+     *         and immutable.
      */
     List<Object> queuedTasks() {
-        return runner.queuedTasks();
+        return List.of(queue.toArray());
+    }
+
+    /**
+     * Stops the workers. Tasks that are still in the queue are not run.
+     */
+    private void shutdown() {
+        workersShouldWork.set(false);
+        workerThreads.forEach(Thread::interrupt);
     }
 
     /**
      * Adds a task to the queue.
      */
     public void submit(Callable<?> callable) {
-        runner.submit(callable);
+        enqueue(callable);
     }
 
     /**
      * Adds a task to the queue.
      */
     public void submit(Runnable runnable) {
-        runner.submit(runnable);
+        if (runnable instanceof AuditableFutureTask) {
+            AuditableFutureTask<?> aTask = (AuditableFutureTask<?>) runnable;
+            aTask.setStatus(TaskStatus.QUEUED);
+            aTask.setInstantQueued(Instant.now());
+        }
+        enqueue(runnable);
+    }
+
+    private void enqueue(Object task) {
+        LOGGER.trace("enqueue(): {} (queue size: {})", task, queue.size());
+        if (!queue.offer(task)) {
+            numRejectedTasks.incrementAndGet();
+            LOGGER.debug("enqueue(): queue is full; running {} in the " +
+                    "calling thread", task);
+            TaskRunner.runTask(task);
+            numCompletedTasks.incrementAndGet();
+        }
     }
 
 }
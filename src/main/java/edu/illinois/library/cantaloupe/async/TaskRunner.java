@@ -3,72 +3,83 @@ package edu.illinois.library.cantaloupe.async;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.Instant;
-import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * One of the workers of a {@link TaskQueue}, which takes tasks out of the
+ * queue and runs them until it is told to stop. Interruption is otherwise
+ * ignored, so that a task that interrupts its own thread doesn't stop the
+ * worker.
+ */
 final class TaskRunner implements Runnable {
 
     private static final Logger LOGGER = LoggerFactory.
             getLogger(TaskRunner.class);
 
-    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Object> queue;
+    private final AtomicBoolean shouldWork;
+    private final AtomicInteger numActiveRunners;
+    private final AtomicLong numCompletedTasks;
 
     /**
-     * @return Unmodifiable list of all queued tasks, including the one
-     *         currently running, if any. Completed tasks are not included.
-     *         Tasks may change from moment to moment, but the returned list
-     *         is fixed.
+     * Runs a task, logging rather than propagating any exception.
+     *
+     * @param task {@link Runnable} or {@link Callable}.
      */
-    List<Object> queuedTasks() {
-        Object[] tasks = new Object[] {};
-        return List.of(queue.toArray(tasks));
-    }
-
-    @Override
-    public void run() {
-        while (true) {
-            Object object;
-            try {
-                object = queue.take();
-
-                LOGGER.trace("run(): running {}", object);
-                if (object instanceof Runnable) {
-                    ((Runnable) object).run();
-                } else if (object instanceof Callable) {
-                    ((Callable<?>) object).call();
-                }
-            } catch (Exception e) {
-                LOGGER.error("run(): {}", e.getMessage(), e);
+    static void runTask(Object task) {
+        try {
+            LOGGER.trace("runTask(): running {}", task);
+            if (task instanceof Runnable) {
+                ((Runnable) task).run();
+            } else if (task instanceof Callable) {
+                ((Callable<?>) task).call();
             }
+        } catch (Exception e) {
+            LOGGER.error("runTask(): {}", e.getMessage(), e);
         }
     }
 
     /**
-     * @param callable Object to submit to the queue.
-     * @throws IllegalStateException If the queue is full.
+     * @param queue             Queue shared by all of the runners.
+     * @param shouldWork        Shared flag that, when set to {@code false},
+     *                          stops the runners once they are interrupted
+     *                          or done with their current task.
+     * @param numActiveRunners  Shared count of runners that are running a
+     *                          task.
+     * @param numCompletedTasks Shared count of completed tasks.
      */
-    boolean submit(Callable<?> callable) {
-        LOGGER.trace("submit(): {} (queue size: {})", callable, queue.size());
-        return queue.add(callable);
+    TaskRunner(BlockingQueue<Object> queue,
+               AtomicBoolean shouldWork,
+               AtomicInteger numActiveRunners,
+               AtomicLong numCompletedTasks) {
+        this.queue             = queue;
+        this.shouldWork        = shouldWork;
+        this.numActiveRunners  = numActiveRunners;
+        this.numCompletedTasks = numCompletedTasks;
     }
 
-    /**
-     * @param runnable Object to submit to the queue.
-     * @throws IllegalStateException If the queue is full.
-     */
-    boolean submit(Runnable runnable) {
-        LOGGER.trace("submit(): {} (queue size: {})", runnable, queue.size());
-        final boolean result = queue.add(runnable);
-
-        if (runnable instanceof AuditableFutureTask) {
-            AuditableFutureTask<?> aTask = (AuditableFutureTask<?>) runnable;
-            aTask.setStatus(TaskStatus.QUEUED);
-            aTask.setInstantQueued(Instant.now());
+    @Override
+    public void run() {
+        while (shouldWork.get()) {
+            final Object task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                LOGGER.debug("run(): interrupted");
+                continue;
+            }
+            numActiveRunners.incrementAndGet();
+            try {
+                runTask(task);
+            } finally {
+                numActiveRunners.decrementAndGet();
+                numCompletedTasks.incrementAndGet();
+            }
         }
-        return result;
     }
 
 }
@@ -1,14 +1,48 @@
 package edu.illinois.library.cantaloupe.async;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Global application thread pool Singleton.
+ * <p>Global application thread pool Singleton.</p>
+ *
+ * <p>Tasks are run in one of three general-purpose pools, one per {@link
+ * Priority}, or in the {@link #submitCompute(Runnable) compute pool}, which
+ * is reserved for short CPU-bound tasks like pixel operations. All of the
+ * pools are bounded in both their number of threads and the length of their
+ * queue, so that the application doesn't spawn an unlimited number of
+ * threads under load. When a pool and its queue are both full, submitted
+ * tasks are run in the submitting thread instead, which slows down
+ * submitters until the pool catches up. That is only appropriate for short
+ * tasks that don't block waiting on the submitter, so:</p>
+ *
+ * <ul>
+ *     <li>Tasks that only serve to speed things up, like read-aheads, should
+ *     be submitted via {@link #submitOptional(Runnable)}, which discards them
+ *     instead.</li>
+ *     <li>Long-lived tasks, like workers that loop until they are told to
+ *     stop, should be started via {@link #startThread(String, Runnable)},
+ *     which runs them in a thread of their own outside of the pools.</li>
+ * </ul>
+ *
+ * <p>The pools are sized by {@link Key#THREAD_POOL_MAX_THREADS}, {@link
+ * Key#THREAD_POOL_QUEUE_SIZE}, and {@link Key#THREAD_POOL_COMPUTE_THREADS}
+ * when the instance is created.</p>
  */
 public final class ThreadPool {
 
@@ -38,6 +72,81 @@ public final class ThreadPool {
         }
     }
 
+    /**
+     * Task submitted via {@link #submitOptional(Runnable)}.
+     */
+    private static class OptionalTask<T> extends FutureTask<T> {
+        OptionalTask(Runnable runnable, T result) {
+            super(runnable, result);
+        }
+    }
+
+    /**
+     * Bounded executor that counts the tasks it has rejected, and runs them
+     * in the submitting thread instead unless they are {@link OptionalTask
+     * optional}, in which case they are cancelled, or the executor has been
+     * shut down.
+     */
+    private static class BoundedExecutor extends ThreadPoolExecutor {
+
+        private final AtomicLong numRejectedTasks = new AtomicLong();
+
+        BoundedExecutor(int maxThreads,
+                        int queueSize,
+                        ThreadFactory threadFactory) {
+            super(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize), threadFactory);
+            allowCoreThreadTimeOut(true);
+            setRejectedExecutionHandler(new CallerRunsHandler());
+        }
+
+        private class CallerRunsHandler implements RejectedExecutionHandler {
+            @Override
+            public void rejectedExecution(Runnable runnable,
+                                          ThreadPoolExecutor executor) {
+                numRejectedTasks.incrementAndGet();
+                if (runnable instanceof OptionalTask) {
+                    LOGGER.trace("Pool is saturated; discarding {}", runnable);
+                    ((OptionalTask<?>) runnable).cancel(false);
+                } else if (!executor.isShutdown()) {
+                    LOGGER.trace("Pool is saturated; running {} in the " +
+                            "calling thread", runnable);
+                    runnable.run();
+                }
+            }
+        }
+
+        Map<String,Object> getStatistics() {
+            final Map<String,Object> stats = new LinkedHashMap<>();
+            stats.put("maxThreads", getMaximumPoolSize());
+            stats.put("numThreads", getPoolSize());
+            stats.put("numActiveThreads", getActiveCount());
+            stats.put("queueSize", getQueue().size());
+            stats.put("maxQueueSize",
+                    getQueue().size() + getQueue().remainingCapacity());
+            stats.put("numCompletedTasks", getCompletedTaskCount());
+            stats.put("numRejectedTasks", numRejectedTasks.get());
+            return stats;
+        }
+
+    }
+
+    private static class ComputeThreadFactory
+            extends AbstractThreadFactory implements ThreadFactory {
+        @Override
+        String getThreadNamePrefix() {
+            return "work-cp";
+        }
+    }
+
+    private static class DedicatedThreadFactory
+            extends AbstractThreadFactory implements ThreadFactory {
+        @Override
+        String getThreadNamePrefix() {
+            return "work-dd";
+        }
+    }
+
     private static class LowPriorityThreadFactory
             extends AbstractThreadFactory implements ThreadFactory {
         @Override
@@ -62,15 +171,20 @@ public final class ThreadPool {
         }
     }
 
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ThreadPool.class);
+
+    private static final int DEFAULT_MAX_THREADS = 256;
+    private static final int DEFAULT_QUEUE_SIZE  = 1024;
+    private static final int KEEP_ALIVE_SECONDS  = 60;
+
     private static ThreadPool instance;
 
     private boolean isShutdown = false;
-    private final ExecutorService lowPriorityPool =
-            Executors.newCachedThreadPool(new LowPriorityThreadFactory());
-    private final ExecutorService normalPriorityPool =
-            Executors.newCachedThreadPool(new NormalPriorityThreadFactory());
-    private final ExecutorService highPriorityPool =
-            Executors.newCachedThreadPool(new HighPriorityThreadFactory());
+    private final BoundedExecutor computePool;
+    private final BoundedExecutor lowPriorityPool;
+    private final BoundedExecutor normalPriorityPool;
+    private final BoundedExecutor highPriorityPool;
 
     /**
      * @return Shared instance.
@@ -91,6 +205,46 @@ public final class ThreadPool {
     }
 
     private ThreadPool() {
+        final Configuration config = Configuration.getInstance();
+        final int maxThreads = Math.max(1,
+                config.getInt(Key.THREAD_POOL_MAX_THREADS, DEFAULT_MAX_THREADS));
+        final int queueSize = Math.max(1,
+                config.getInt(Key.THREAD_POOL_QUEUE_SIZE, DEFAULT_QUEUE_SIZE));
+        int numComputeThreads = config.getInt(Key.THREAD_POOL_COMPUTE_THREADS, 0);
+        if (numComputeThreads < 1) {
+            numComputeThreads = Runtime.getRuntime().availableProcessors();
+        }
+        computePool = new BoundedExecutor(
+                numComputeThreads, queueSize, new ComputeThreadFactory());
+        lowPriorityPool = new BoundedExecutor(
+                maxThreads, queueSize, new LowPriorityThreadFactory());
+        normalPriorityPool = new BoundedExecutor(
+                maxThreads, queueSize, new NormalPriorityThreadFactory());
+        highPriorityPool = new BoundedExecutor(
+                maxThreads, queueSize, new HighPriorityThreadFactory());
+    }
+
+    /**
+     * @return Number of threads in the {@link #submitCompute(Runnable)
+     *         compute pool}.
+     */
+    public int getNumComputeThreads() {
+        return computePool.getMaximumPoolSize();
+    }
+
+    /**
+     * @return Map of pool names to statistics about each pool, including its
+     *         size, number of active threads, queue size, and number of
+     *         rejected tasks (which were run in the calling thread, or
+     *         discarded if they were optional).
+     */
+    public Map<String,Object> getStatistics() {
+        final Map<String,Object> stats = new LinkedHashMap<>();
+        stats.put("compute", computePool.getStatistics());
+        stats.put("low", lowPriorityPool.getStatistics());
+        stats.put("normal", normalPriorityPool.getStatistics());
+        stats.put("high", highPriorityPool.getStatistics());
+        return stats;
     }
 
     public boolean isShutdown() {
@@ -98,12 +252,51 @@ public final class ThreadPool {
     }
 
     public void shutdown() {
+        computePool.shutdownNow();
         lowPriorityPool.shutdownNow();
         normalPriorityPool.shutdownNow();
         highPriorityPool.shutdownNow();
         isShutdown = true;
     }
 
+    /**
+     * Submits a short CPU-bound task to the compute pool, which has only as
+     * many threads as there are processors (by default). Tasks that may
+     * block, for example on I/O, should be submitted via one of the {@literal
+     * submit()} methods instead.
+     */
+    public Future<?> submitCompute(Runnable task) {
+        return computePool.submit(task);
+    }
+
+    /**
+     * Starts a long-lived task in a new daemon thread of its own. The task is
+     * responsible for exiting when it is no longer needed; {@link
+     * #shutdown()} does not stop it.
+     *
+     * @param name Name of the task, to appear in the name of the thread.
+     * @param task Task to run.
+     * @return     Started thread.
+     */
+    public Thread startThread(String name, Runnable task) {
+        final Thread thread = new DedicatedThreadFactory().newThread(task);
+        thread.setName(thread.getName() + "-" + name);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Submits a task whose execution is not essential, like a read-ahead or
+     * cleanup, for immediate execution. If the pool is saturated, the task
+     * is not run at all, and the returned instance is {@link
+     * Future#isCancelled() cancelled}.
+     */
+    public Future<?> submitOptional(Runnable task) {
+        final OptionalTask<?> future = new OptionalTask<>(task, null);
+        normalPriorityPool.execute(future);
+        return future;
+    }
+
     /**
      * Submits a task for immediate execution.
      */
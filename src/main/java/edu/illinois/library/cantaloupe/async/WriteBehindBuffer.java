@@ -0,0 +1,258 @@
+package edu.illinois.library.cantaloupe.async;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Buffers keyed writes, like last-accessed time updates, and writes them
+ * in batches via the {@link TaskQueue}.</p>
+ *
+ * <p>Writes to a key that is already buffered replace the buffered value, so
+ * that, for example, a hundred touches of the same cache entry result in one
+ * update. Buffered writes are handed to the {@link BatchWriter} in batches of
+ * up to {@link #getMaxBatchSize()} entries, so that a backend that supports
+ * it can write them all at once, for example with a single JDBC batch.</p>
+ *
+ * <p>At most one batch per instance is queued or being written by the {@link
+ * TaskQueue} at a time; writes that arrive in the meantime accumulate into
+ * the next batch. The buffer is bounded to {@link #getMaxSize()} keys; when
+ * it is full, the submitting thread writes a batch itself before buffering
+ * its write.</p>
+ *
+ * <p>Writes are not guaranteed to be durable: anything still buffered when
+ * the application exits is lost. So this class is only suitable for writes
+ * that are not important enough to wait for.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ * @since 6.0
+ */
+public final class WriteBehindBuffer<K,V> {
+
+    /**
+     * Writes a batch of buffered writes to a backend.
+     */
+    @FunctionalInterface
+    public interface BatchWriter<K,V> {
+
+        /**
+         * @param batch Map of keys to their most recent values, in the order
+         *              in which they were first buffered.
+         */
+        void write(Map<K,V> batch) throws Exception;
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    private static final int DEFAULT_MAX_SIZE       = 10000;
+
+    /**
+     * All instances by name, for {@link #getAllStatistics()}.
+     */
+    private static final Map<String,WriteBehindBuffer<?,?>> ALL_INSTANCES =
+            new ConcurrentHashMap<>();
+
+    private final String name;
+    private final int maxBatchSize;
+    private final int maxSize;
+    private final BatchWriter<K,V> writer;
+
+    /**
+     * Buffered writes. Guarded by {@literal this}.
+     */
+    private final Map<K,V> pending = new LinkedHashMap<>();
+
+    // All of these are guarded by this.
+    private boolean isFlushQueued;
+    private long numSubmitted, numCoalesced, numBatches, numWritten,
+            numFailed, numCallerFlushes;
+
+    /**
+     * @return Map of instance names to statistics about each instance.
+     */
+    static Map<String,Object> getAllStatistics() {
+        final Map<String,Object> stats = new TreeMap<>();
+        ALL_INSTANCES.forEach((name, buffer) ->
+                stats.put(name, buffer.getStatistics()));
+        return stats;
+    }
+
+    /**
+     * @param name   Name of the instance.
+     * @param writer Writes batches.
+     * @return       New instance sized according to {@link
+     *               Key#TASK_QUEUE_BATCH_SIZE} and {@link
+     *               Key#TASK_QUEUE_SIZE}.
+     */
+    public static <K,V> WriteBehindBuffer<K,V> newInstance(
+            String name, BatchWriter<K,V> writer) {
+        final Configuration config = Configuration.getInstance();
+        return new WriteBehindBuffer<>(name,
+                config.getInt(Key.TASK_QUEUE_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE),
+                config.getInt(Key.TASK_QUEUE_SIZE, DEFAULT_MAX_SIZE),
+                writer);
+    }
+
+    /**
+     * @param name         Name of the instance, which appears in {@link
+     *                     TaskQueue#getStatistics() statistics}. If another
+     *                     instance with the same name exists, it is replaced
+     *                     in the statistics.
+     * @param maxBatchSize Maximum number of entries to hand to the writer at
+     *                     once.
+     * @param maxSize      Maximum number of entries to buffer.
+     * @param writer       Writes batches.
+     */
+    public WriteBehindBuffer(String name,
+                             int maxBatchSize,
+                             int maxSize,
+                             BatchWriter<K,V> writer) {
+        this.name         = name;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxSize      = Math.max(this.maxBatchSize, maxSize);
+        this.writer       = writer;
+        ALL_INSTANCES.put(name, this);
+    }
+
+    /**
+     * Writes everything that is currently buffered in the calling thread.
+     */
+    public void flush() {
+        Map<K,V> batch;
+        while (!(batch = nextBatch()).isEmpty()) {
+            write(batch);
+        }
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return Number of buffered entries.
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    synchronized Map<String,Object> getStatistics() {
+        final Map<String,Object> stats = new LinkedHashMap<>();
+        stats.put("size", pending.size());
+        stats.put("maxSize", maxSize);
+        stats.put("numSubmitted", numSubmitted);
+        stats.put("numCoalesced", numCoalesced);
+        stats.put("numBatches", numBatches);
+        stats.put("numWritten", numWritten);
+        stats.put("numFailed", numFailed);
+        stats.put("numCallerFlushes", numCallerFlushes);
+        return stats;
+    }
+
+    /**
+     * Buffers a write. If the given key is already buffered, its value is
+     * replaced.
+     *
+     * @param key   Key to write.
+     * @param value Value to write.
+     */
+    public void put(K key, V value) {
+        boolean isFull;
+        synchronized (this) {
+            numSubmitted++;
+            isFull = (pending.size() >= maxSize && !pending.containsKey(key));
+            if (isFull) {
+                numCallerFlushes++;
+            }
+        }
+        if (isFull) {
+            LOGGER.debug("put(): {} is full; writing a batch in the " +
+                    "calling thread", name);
+            write(nextBatch());
+        }
+        boolean isQueuingFlush = false;
+        synchronized (this) {
+            if (pending.put(key, value) != null) {
+                numCoalesced++;
+            }
+            if (!isFlushQueued) {
+                isFlushQueued  = true;
+                isQueuingFlush = true;
+            }
+        }
+        if (isQueuingFlush) {
+            TaskQueue.getInstance().submit(this::flushQueued);
+        }
+    }
+
+    /**
+     * Writes one batch and then, if there is anything left, queues another
+     * invocation of itself, so that a busy instance doesn't monopolize a
+     * {@link TaskQueue} worker.
+     */
+    private void flushQueued() {
+        write(nextBatch());
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                isFlushQueued = false;
+                return;
+            }
+        }
+        TaskQueue.getInstance().submit(this::flushQueued);
+    }
+
+    /**
+     * Removes and returns up to {@link #maxBatchSize} of the oldest entries.
+     */
+    private synchronized Map<K,V> nextBatch() {
+        final Map<K,V> batch = new LinkedHashMap<>();
+        final Iterator<Map.Entry<K,V>> it = pending.entrySet().iterator();
+        while (it.hasNext() && batch.size() < maxBatchSize) {
+            Map.Entry<K,V> entry = it.next();
+            batch.put(entry.getKey(), entry.getValue());
+            it.remove();
+        }
+        return batch;
+    }
+
+    private void write(Map<K,V> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        LOGGER.trace("write(): writing {} entries from {}", batch.size(), name);
+        boolean isSuccessful = false;
+        try {
+            writer.write(batch);
+            isSuccessful = true;
+        } catch (Exception e) {
+            LOGGER.error("write(): failed to write {} entries from {}: {}",
+                    batch.size(), name, e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                numBatches++;
+                if (isSuccessful) {
+                    numWritten += batch.size();
+                } else {
+                    numFailed += batch.size();
+                }
+            }
+        }
+    }
+
+}
@@ -15,6 +15,7 @@ import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.operation.Encode;
 import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.util.ClientRegistry;
 import edu.illinois.library.cantaloupe.util.Stopwatch;
 import edu.illinois.library.cantaloupe.util.StringUtils;
 import org.slf4j.Logger;
@@ -27,6 +28,8 @@ import java.net.URISyntaxException;
 import java.security.InvalidKeyException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
@@ -146,7 +149,13 @@ class AzureStorageCache implements DerivativeCache {
 
     private static final String INFO_EXTENSION = ".json";
 
-    private static CloudBlobClient client;
+    /**
+     * Clients keyed by {@link #getClientSettings() settings}.
+     */
+    private static final ClientRegistry<List<String>,CloudBlobClient,Exception>
+            CLIENTS = new ClientRegistry<>(
+                    AzureStorageCache.class.getSimpleName(), 1,
+                    AzureStorageCache::newClient, client -> {});
 
     /**
      * Blob keys currently being written to Azure Storage from any thread.
@@ -154,31 +163,51 @@ class AzureStorageCache implements DerivativeCache {
     private static final Set<String> uploadingKeys =
             new ConcurrentSkipListSet<>();
 
-    static synchronized CloudBlobClient getClientInstance() {
-        if (client == null) {
-            try {
-                final Configuration config = Configuration.getInstance();
-                final String accountName =
-                        config.getString(Key.AZURESTORAGECACHE_ACCOUNT_NAME);
-                final String accountKey =
-                        config.getString(Key.AZURESTORAGECACHE_ACCOUNT_KEY);
-
-                final String connectionString = String.format(
-                        "DefaultEndpointsProtocol=https;" +
-                                "AccountName=%s;" +
-                                "AccountKey=%s", accountName, accountKey);
-                final CloudStorageAccount account =
-                        CloudStorageAccount.parse(connectionString);
-
-                LOGGER.info("Using account: {}", accountName);
-
-                client = account.createCloudBlobClient();
-
-                client.getContainerReference(getContainerName()).
-                        createIfNotExists();
-            } catch (StorageException | URISyntaxException | InvalidKeyException e) {
-                LOGGER.error(e.getMessage());
-            }
+    /**
+     * @return Shared client, or {@code null} if the configured account name
+     *         or key is invalid.
+     */
+    static CloudBlobClient getClientInstance() {
+        try {
+            return CLIENTS.get(getClientSettings());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return Account name, account key, and container name from the
+     *         application configuration.
+     */
+    private static List<String> getClientSettings() {
+        final Configuration config = Configuration.getInstance();
+        return Arrays.asList(
+                config.getString(Key.AZURESTORAGECACHE_ACCOUNT_NAME),
+                config.getString(Key.AZURESTORAGECACHE_ACCOUNT_KEY),
+                getContainerName());
+    }
+
+    private static CloudBlobClient newClient(List<String> settings)
+            throws URISyntaxException, InvalidKeyException {
+        final String accountName = settings.get(0);
+        final String accountKey  = settings.get(1);
+        final String connectionString = String.format(
+                "DefaultEndpointsProtocol=https;" +
+                        "AccountName=%s;" +
+                        "AccountKey=%s", accountName, accountKey);
+        final CloudStorageAccount account =
+                CloudStorageAccount.parse(connectionString);
+
+        LOGGER.info("Using account: {}", accountName);
+
+        final CloudBlobClient client = account.createCloudBlobClient();
+        try {
+            client.getContainerReference(settings.get(2)).createIfNotExists();
+        } catch (StorageException e) {
+            LOGGER.error(e.getMessage());
         }
         return client;
     }
@@ -252,7 +281,8 @@ class AzureStorageCache implements DerivativeCache {
             final CloudBlockBlob blob = container.getBlockBlobReference(objectKey);
             if (blob.exists()) {
                 if (isValid(blob)) {
-                    return blob.openInputStream();
+                    return new SizedInputStream(blob.openInputStream(),
+                            blob.getProperties().getLength());
                 } else {
                     LOGGER.debug("newDerivativeImageInputStream(): " +
                                     "deleting invalid item asynchronously: " +
@@ -5,12 +5,15 @@ import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.operation.OperationList;
 import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.source.LookupCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -45,6 +48,19 @@ public final class CacheFacade {
         return CacheFactory.getDerivativeCache();
     }
 
+    /**
+     * @return Statistics about the current derivative cache, if it is a
+     *         {@link HeapCache}, or an empty map otherwise.
+     * @since 6.0
+     */
+    public Map<String,Object> getDerivativeCacheStatistics() {
+        Optional<DerivativeCache> optCache = getDerivativeCache();
+        if (optCache.isPresent() && optCache.get() instanceof HeapCache) {
+            return ((HeapCache) optCache.get()).getStatistics();
+        }
+        return Collections.emptyMap();
+    }
+
     /**
      * Retrieves an info corresponding to the given identifier from the info
      * or derivative cache.
@@ -67,6 +83,22 @@ public final class CacheFacade {
         return InfoService.getInstance().getOrReadInfo(identifier, processor);
     }
 
+    /**
+     * Variant of {@link #getOrReadInfo(Identifier, Processor)} that also
+     * records the {@link Info#getSourceVersion() version} of the source
+     * image.
+     *
+     * @param sourceVersion Entity tag or last-modified time of the source
+     *                      image. May be {@code null}.
+     * @since 6.0
+     */
+    public Optional<Info> getOrReadInfo(Identifier identifier,
+                                        Processor processor,
+                                        String sourceVersion) throws IOException {
+        return InfoService.getInstance().getOrReadInfo(
+                identifier, processor, sourceVersion);
+    }
+
     /**
      * @see CacheFactory#getSourceCache
      */
@@ -129,6 +161,9 @@ public final class CacheFacade {
         // Purge the info service.
         InfoService.getInstance().purgeObjectCache();
 
+        // Purge the source lookup caches.
+        LookupCache.purgeAll();
+
         // Purge the derivative cache.
         Optional<DerivativeCache> optDerivativeCache = getDerivativeCache();
         if (optDerivativeCache.isPresent()) {
@@ -149,6 +184,9 @@ public final class CacheFacade {
         // Purge it from the info service.
         InfoService.getInstance().purgeObjectCache(identifier);
 
+        // Purge it from the source lookup caches.
+        LookupCache.purgeAll(identifier);
+
         // Purge it from the derivative cache.
         Optional<DerivativeCache> optDerivativeCache = getDerivativeCache();
         if (optDerivativeCache.isPresent()) {
@@ -6,6 +6,7 @@ import edu.illinois.library.cantaloupe.image.Info;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -127,4 +128,23 @@ public interface DerivativeCache extends Cache {
      */
     void put(Identifier identifier, String info) throws IOException;
 
+    /**
+     * <p>Synchronously adds image information for several images to the
+     * cache, as if by invoking {@link #put(Identifier, Info)} for each of
+     * them.</p>
+     *
+     * <p>This default implementation does exactly that. Implementations that
+     * can write several infos more efficiently than one at a time should
+     * override it.</p>
+     *
+     * @param infos Map of image identifiers to information about the
+     *              corresponding images.
+     * @since 6.0
+     */
+    default void putAll(Map<Identifier,Info> infos) throws IOException {
+        for (Map.Entry<Identifier,Info> entry : infos.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
 }
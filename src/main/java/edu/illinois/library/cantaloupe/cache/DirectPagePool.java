@@ -0,0 +1,201 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Pool of pages of off-heap memory, used by {@link HeapCache} to store data
+ * outside of the Java heap.</p>
+ *
+ * <p>Pages come in power-of-two size classes from {@link #MIN_PAGE_SIZE} to
+ * {@link #PAGE_SIZE}, so that data that doesn't fill a whole page, like the
+ * tail of an image or a small tile, doesn't tie up a whole page. Pages are
+ * carved out of larger direct {@link ByteBuffer} slabs of a single size
+ * class, which are allocated on demand. Released pages are returned to a free
+ * list for reuse rather than being freed, because freeing direct memory
+ * depends on the garbage collector and allocating it is comparatively slow.
+ * Slabs whose pages are all free can be given up with {@link #trim(long)}.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @since 6.0
+ */
+final class DirectPagePool {
+
+    /**
+     * Set of pages carved out of the same direct buffer.
+     */
+    private static final class Slab {
+        private final int pageSize;
+        private int numFreePages = PAGES_PER_SLAB;
+
+        Slab(int pageSize) {
+            this.pageSize = pageSize;
+        }
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(DirectPagePool.class);
+
+    /**
+     * Size of the largest pages.
+     */
+    static final int PAGE_SIZE = 1024 * 64;
+
+    /**
+     * Size of the smallest pages.
+     */
+    static final int MIN_PAGE_SIZE = 1024 * 4;
+
+    private static final int PAGES_PER_SLAB = 64;
+
+    /**
+     * Free pages of each size class, from smallest to largest.
+     */
+    private final List<Deque<ByteBuffer>> freePages = new ArrayList<>();
+    private final Map<ByteBuffer, Slab> slabsByPage = new IdentityHashMap<>();
+    private final List<Slab> slabs = new ArrayList<>();
+    private long allocatedBytes, freeBytes;
+
+    /**
+     * @param minSize Minimum page size.
+     * @return        Smallest page size that is at least the given size, up
+     *                to {@link #PAGE_SIZE}.
+     */
+    static int getPageSize(int minSize) {
+        int size = MIN_PAGE_SIZE;
+        while (size < minSize && size < PAGE_SIZE) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    DirectPagePool() {
+        for (int size = MIN_PAGE_SIZE; size <= PAGE_SIZE; size <<= 1) {
+            freePages.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * @return Cleared page of {@link #PAGE_SIZE} bytes, which must
+     *         eventually be {@link #release(ByteBuffer) released}, or {@code
+     *         null} if the direct memory limit has been reached.
+     */
+    ByteBuffer acquire() {
+        return acquire(PAGE_SIZE);
+    }
+
+    /**
+     * @param minSize Minimum size of the page.
+     * @return        Cleared page of the {@link #getPageSize(int) smallest
+     *                size} that will hold the given size, which must
+     *                eventually be {@link #release(ByteBuffer) released}, or
+     *                {@code null} if the direct memory limit has been
+     *                reached.
+     */
+    synchronized ByteBuffer acquire(int minSize) {
+        final int pageSize = getPageSize(minSize);
+        final Deque<ByteBuffer> queue = getFreePages(pageSize);
+        if (queue.isEmpty() && !allocateSlab(pageSize, queue)) {
+            return null;
+        }
+        final ByteBuffer page = queue.pop();
+        slabsByPage.get(page).numFreePages--;
+        freeBytes -= pageSize;
+        page.clear();
+        return page;
+    }
+
+    private boolean allocateSlab(int pageSize, Deque<ByteBuffer> queue) {
+        final ByteBuffer slab;
+        try {
+            slab = ByteBuffer.allocateDirect(pageSize * PAGES_PER_SLAB);
+        } catch (OutOfMemoryError e) {
+            LOGGER.debug("allocateSlab(): {}", e.getMessage());
+            return false;
+        }
+        final Slab slabInfo = new Slab(pageSize);
+        for (int i = 0; i < PAGES_PER_SLAB; i++) {
+            slab.limit((i + 1) * pageSize).position(i * pageSize);
+            final ByteBuffer page = slab.slice();
+            queue.add(page);
+            slabsByPage.put(page, slabInfo);
+        }
+        slabs.add(slabInfo);
+        allocatedBytes += (long) pageSize * PAGES_PER_SLAB;
+        freeBytes      += (long) pageSize * PAGES_PER_SLAB;
+        return true;
+    }
+
+    /**
+     * @return Total amount of off-heap memory allocated by the instance,
+     *         whether in use or not.
+     */
+    synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return Amount of allocated off-heap memory that is not in use.
+     */
+    synchronized long getFreeBytes() {
+        return freeBytes;
+    }
+
+    private Deque<ByteBuffer> getFreePages(int pageSize) {
+        return freePages.get(Integer.numberOfTrailingZeros(pageSize) -
+                Integer.numberOfTrailingZeros(MIN_PAGE_SIZE));
+    }
+
+    /**
+     * Returns a page to the pool. The page must not be used afterwards.
+     */
+    synchronized void release(ByteBuffer page) {
+        final Slab slab = slabsByPage.get(page);
+        slab.numFreePages++;
+        freeBytes += slab.pageSize;
+        getFreePages(slab.pageSize).push(page);
+    }
+
+    /**
+     * Gives up slabs whose pages are all free, until no more than the given
+     * amount of memory is allocated, so that the garbage collector can free
+     * them.
+     *
+     * @param maxAllocatedBytes Amount of allocated memory to trim down to.
+     * @return                  Amount of memory given up.
+     */
+    synchronized long trim(long maxAllocatedBytes) {
+        final long allocatedBytesBefore = allocatedBytes;
+        final Iterator<Slab> it = slabs.iterator();
+        while (allocatedBytes > maxAllocatedBytes && it.hasNext()) {
+            final Slab slab = it.next();
+            if (slab.numFreePages == PAGES_PER_SLAB) {
+                final long slabSize = (long) slab.pageSize * PAGES_PER_SLAB;
+                final Iterator<ByteBuffer> pages =
+                        getFreePages(slab.pageSize).iterator();
+                while (pages.hasNext()) {
+                    final ByteBuffer page = pages.next();
+                    if (slabsByPage.get(page) == slab) {
+                        pages.remove();
+                        slabsByPage.remove(page);
+                    }
+                }
+                it.remove();
+                allocatedBytes -= slabSize;
+                freeBytes      -= slabSize;
+            }
+        }
+        return allocatedBytesBefore - allocatedBytes;
+    }
+
+}
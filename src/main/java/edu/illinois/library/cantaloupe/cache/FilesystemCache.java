@@ -17,6 +17,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileVisitOption;
@@ -587,7 +588,13 @@ class FilesystemCache implements SourceCache, DerivativeCache {
                 try {
                     LOGGER.debug("newDerivativeImageInputStream(): hit: {} ({})",
                             ops, cacheFile);
-                    inputStream = Files.newInputStream(cacheFile);
+                    final FileChannel channel = FileChannel.open(cacheFile);
+                    try {
+                        inputStream = new SizedInputStream(channel);
+                    } catch (IOException e) {
+                        channel.close();
+                        throw e;
+                    }
                 } catch (NoSuchFileException e) {
                     LOGGER.error(e.getMessage(), e);
                 }
@@ -1,6 +1,10 @@
 package edu.illinois.library.cantaloupe.cache;
 
-import com.google.protobuf.ByteString;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import edu.illinois.library.cantaloupe.async.ThreadPool;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.ConfigurationException;
@@ -16,49 +20,67 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static edu.illinois.library.cantaloupe.config.Key.*;
 
 /**
- * <p>Heap-based LRU cache.</p>
+ * <p>Heap-based cache.</p>
  *
- * <p>This implementation is size-limited rather than time-limited. When the
+ * <p>This implementation is size-limited rather than time-limited. Its
+ * contents are stored in a <a href="https://github.com/ben-manes/caffeine">
+ * Caffeine</a> cache bounded by the total byte size of its items. When the
  * target size
  * ({@link edu.illinois.library.cantaloupe.config.Key#HEAPCACHE_TARGET_SIZE})
- * has been exceeded, the minimum number of least-recently-accessed items are
- * purged that will reduce it back down to this size. (The configured target
- * size may be safely changed while the application is running.)</p>
+ * is exceeded, items are evicted by the thread that added the item that
+ * exceeded it, according to Caffeine's Window TinyLFU policy (which behaves
+ * approximately like LRU with frequency-based admission). (The configured
+ * target size may be safely changed while the application is running; it is
+ * re-read periodically.)</p>
  *
  * <p>Because this cache is not time-limited,
  * {@link edu.illinois.library.cantaloupe.config.Key#DERIVATIVE_CACHE_TTL} does not
  * apply.</p>
  *
+ * <p>When {@link edu.illinois.library.cantaloupe.config.Key#HEAPCACHE_OFF_HEAP}
+ * is enabled, derivative image data is stored outside of the Java heap, in
+ * pages of direct memory managed by a {@link DirectPagePool}, which keeps
+ * large caches from inflating garbage collection pause times. (The total
+ * size of these pages is limited by the {@code -XX:MaxDirectMemorySize} VM
+ * option.) Items count against the target size by the total size of their
+ * pages rather than the length of their data, and pages that are no longer
+ * needed are given up when the target size shrinks. Cache hits are served
+ * straight from the pages. Infos are always stored on the heap.</p>
+ *
  * <p>The cache supports startup/shutdown persistence, using
  * {@link edu.illinois.library.cantaloupe.config.Key#HEAPCACHE_PERSIST}. When
- * enabled, its contents will be serialized to a file on application shutdown,
- * and read back in at startup. The file is coded using
- * <a href="https://developers.google.com/protocol-buffers/">Google Protocol
- * Buffers</a>.</p>
+ * enabled, its contents will be written to a {@link HeapCacheStore} during
+ * cache worker shifts and on application shutdown, and read back in at
+ * startup. Only content that has been added since the last write is written
+ * each time. At startup, the most recently accessed items that fit within the
+ * target size are read back in in parallel.</p>
+ *
+ * <p>Prior to version 6.0, the contents were persisted in a single file coded
+ * using <a href="https://developers.google.com/protocol-buffers/">Google
+ * Protocol Buffers</a>. Such a file is still read at startup, and replaced
+ * with a store at the next write.</p>
  *
- * @see <a href="https://github.com/google/protobuf">Protocol Buffers</a>
- * @see <a href="https://developers.google.com/protocol-buffers/docs/javatutorial">
- *     Protocol Buffer Basics: Java</a>
  * @since 3.4
  */
 class HeapCache implements DerivativeCache {
@@ -72,26 +94,247 @@ class HeapCache implements DerivativeCache {
     static class Item {
 
         private final byte[] data;
+        private volatile long lastAccessedTime;
+        private volatile HeapCacheStore.Location storeLocation;
 
+        /**
+         * @param data Item data. Subclasses that store their data elsewhere
+         *             may supply {@code null}.
+         */
         Item(byte[] data) {
             this.data = data;
+            touch();
         }
 
+        /**
+         * @return Item data, or {@code null} if the item has been {@link
+         *         #release() released}.
+         */
         byte[] getData() {
             return data;
         }
 
+        int getLength() {
+            return data.length;
+        }
+
+        /**
+         * @return Amount of memory occupied by the item data, which counts
+         *         against the target size.
+         */
+        long getWeight() {
+            return getLength();
+        }
+
+        /**
+         * @return Stream from which to read the item data, or {@code null} if
+         *         the item has been {@link #release() released}.
+         */
+        InputStream newInputStream() {
+            return new ByteArrayInputStream(data);
+        }
+
+        /**
+         * Invoked when the item is removed from the cache. Does nothing.
+         */
+        void release() {}
+
+        long getLastAccessedTime() {
+            return lastAccessedTime;
+        }
+
+        /**
+         * @return Location of the item's data in the persistent store, or
+         *         {@code null} if it has not been written to it.
+         */
+        HeapCacheStore.Location getStoreLocation() {
+            return storeLocation;
+        }
+
+        void setStoreLocation(HeapCacheStore.Location location) {
+            this.storeLocation = location;
+        }
+
+        void setLastAccessedTime(long time) {
+            this.lastAccessedTime = time;
+        }
+
+        /**
+         * Updates the last-accessed time.
+         */
+        void touch() {
+            lastAccessedTime = System.currentTimeMillis();
+        }
+
+    }
+
+    /**
+     * <p>Image item whose data is stored off-heap, in pages obtained from a
+     * {@link DirectPagePool}.</p>
+     *
+     * <p>The item is reference-counted, starting with the reference held by
+     * the cache. Each stream returned from {@link #newInputStream()} holds
+     * another reference until it is closed. When the item is removed from the
+     * cache and all of its streams have been closed, its pages are returned
+     * to the pool.</p>
+     */
+    static final class OffHeapItem extends Item {
+
+        private final DirectPagePool pool;
+        private final List<ByteBuffer> pages;
+        private final int length;
+        private final long weight;
+        private final AtomicInteger refCount = new AtomicInteger(1);
+
+        /**
+         * @param pool   Pool from which the pages were acquired.
+         * @param pages  Pages containing the data, all full except possibly
+         *               the last one.
+         * @param length Total data length.
+         */
+        OffHeapItem(DirectPagePool pool, List<ByteBuffer> pages, int length) {
+            super(null);
+            this.pool   = pool;
+            this.pages  = pages;
+            this.length = length;
+            this.weight = pages.stream().mapToLong(ByteBuffer::capacity).sum();
+        }
+
+        /**
+         * @return Read-only views of the data in each page, which are only
+         *         valid while the caller holds a reference, i.e. until the
+         *         stream returned from {@link #newInputStream()} is closed.
+         */
+        List<ByteBuffer> getDataViews() {
+            return pages.stream()
+                    .map(page -> page.asReadOnlyBuffer().flip())
+                    .collect(Collectors.toUnmodifiableList());
+        }
+
+        @Override
+        byte[] getData() {
+            if (!retain()) {
+                return null;
+            }
+            try {
+                final byte[] data = new byte[length];
+                int offset = 0;
+                for (ByteBuffer page : pages) {
+                    final ByteBuffer view = page.duplicate().flip();
+                    final int len = view.remaining();
+                    view.get(data, offset, len);
+                    offset += len;
+                }
+                return data;
+            } finally {
+                release();
+            }
+        }
+
+        @Override
+        int getLength() {
+            return length;
+        }
+
+        /**
+         * @return Total capacity of the item's pages, which is what the item
+         *         occupies in direct memory.
+         */
+        @Override
+        long getWeight() {
+            return weight;
+        }
+
+        @Override
+        InputStream newInputStream() {
+            if (!retain()) {
+                return null;
+            }
+            return new InputStream() {
+                private final Iterator<ByteBuffer> it = pages.iterator();
+                private ByteBuffer current;
+                private boolean isClosed;
+
+                private boolean advance() {
+                    while (current == null || !current.hasRemaining()) {
+                        if (isClosed || !it.hasNext()) {
+                            return false;
+                        }
+                        current = it.next().duplicate().flip();
+                    }
+                    return true;
+                }
+
+                @Override
+                public int available() {
+                    return (advance()) ? current.remaining() : 0;
+                }
+
+                @Override
+                public void close() {
+                    if (!isClosed) {
+                        isClosed = true;
+                        release();
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return (advance()) ? current.get() & 0xff : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) {
+                        return 0;
+                    } else if (!advance()) {
+                        return -1;
+                    }
+                    len = Math.min(len, current.remaining());
+                    current.get(b, off, len);
+                    return len;
+                }
+            };
+        }
+
+        /**
+         * Releases a reference, returning the pages to the pool if it was the
+         * last one.
+         */
+        @Override
+        void release() {
+            if (refCount.decrementAndGet() == 0) {
+                pages.forEach(pool::release);
+            }
+        }
+
+        /**
+         * Acquires a reference.
+         *
+         * @return Whether a reference was acquired. If {@code false}, the
+         *         pages have already been returned to the pool.
+         */
+        private boolean retain() {
+            int count;
+            do {
+                count = refCount.get();
+                if (count <= 0) {
+                    return false;
+                }
+            } while (!refCount.compareAndSet(count, count + 1));
+            return true;
+        }
+
     }
 
     /**
      * Item key. There are different constructors depending on what the
      * instance is intended to point to.
      */
-    static class Key implements Comparable<Key> {
+    static class Key {
 
         private final String imageId;
         private String opList;
-        private long lastAccessedTime;
 
         /**
          * Info constructor.
@@ -100,7 +343,6 @@ class HeapCache implements DerivativeCache {
          */
         Key(String imageId) {
             this.imageId = imageId;
-            touch();
         }
 
         /**
@@ -116,11 +358,6 @@ class HeapCache implements DerivativeCache {
             this.opList = opList;
         }
 
-        @Override
-        public int compareTo(Key o) {
-            return equals(o) ? 0 : 1;
-        }
-
         @Override
         public boolean equals(Object obj) {
             if (obj == this) {
@@ -132,15 +369,11 @@ class HeapCache implements DerivativeCache {
             return super.equals(obj);
         }
 
-        private String getIdentifier() {
+        String getIdentifier() {
             return imageId;
         }
 
-        private long getLastAccessedTime() {
-            return lastAccessedTime;
-        }
-
-        private String getOperationList() {
+        String getOperationList() {
             return opList;
         }
 
@@ -149,23 +382,12 @@ class HeapCache implements DerivativeCache {
             return toString().hashCode();
         }
 
-        synchronized void setLastAccessedTime(long time) {
-            this.lastAccessedTime = time;
-        }
-
         @Override
         public String toString() {
             return (getOperationList() != null) ?
                     "op:" + getOperationList() : "id:" + getIdentifier();
         }
 
-        /**
-         * Updates the last-accessed time.
-         */
-        synchronized void touch() {
-            lastAccessedTime = System.currentTimeMillis();
-        }
-
     }
 
     /**
@@ -219,7 +441,117 @@ class HeapCache implements DerivativeCache {
     }
 
     /**
-     * Periodically purges excess contents from the cache.
+     * <p>Writes data into off-heap pages and adds it to the cache as an {@link
+     * OffHeapItem} upon closure. The last page is swapped for the smallest
+     * page that will hold its contents.</p>
+     *
+     * <p>If the pool runs out of direct memory, the data written so far is
+     * discarded, and further writes are ignored, so that writing to the
+     * response that the data is also being written to can go on.</p>
+     */
+    private class OffHeapCacheOutputStream extends CompletableOutputStream {
+
+        private final OperationList opList;
+        private final DirectPagePool pool;
+        private final List<ByteBuffer> pages = new ArrayList<>();
+        private ByteBuffer currentPage;
+        private long length;
+        private boolean isClosed, isDiscarded;
+
+        OffHeapCacheOutputStream(OperationList opList, DirectPagePool pool) {
+            this.opList = opList;
+            this.pool   = pool;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            LOGGER.debug("Closing stream for {}", opList);
+            if (isComplete() && !isDiscarded && length <= Integer.MAX_VALUE) {
+                compactLastPage();
+                Key key = itemKey(opList);
+                Item item = new OffHeapItem(pool, pages, (int) length);
+                cache.put(key, item);
+            } else {
+                pages.forEach(pool::release);
+            }
+            super.close();
+        }
+
+        private void compactLastPage() {
+            if (currentPage == null ||
+                    DirectPagePool.getPageSize(currentPage.position()) >=
+                            currentPage.capacity()) {
+                return;
+            }
+            final ByteBuffer smallerPage =
+                    pool.acquire(currentPage.position());
+            if (smallerPage != null) {
+                smallerPage.put(currentPage.flip());
+                pool.release(currentPage);
+                pages.set(pages.size() - 1, smallerPage);
+                currentPage = smallerPage;
+            }
+        }
+
+        /**
+         * @return Page with space remaining, or {@code null} if the stream
+         *         has been discarded.
+         */
+        private ByteBuffer getWritablePage() throws IOException {
+            if (isClosed) {
+                throw new IOException("Stream is closed");
+            }
+            if (isDiscarded) {
+                return null;
+            }
+            if (currentPage == null || !currentPage.hasRemaining()) {
+                currentPage = pool.acquire();
+                if (currentPage == null) {
+                    LOGGER.warn("Out of direct memory; not caching {}",
+                            opList);
+                    isDiscarded = true;
+                    pages.forEach(pool::release);
+                    pages.clear();
+                    return null;
+                }
+                pages.add(currentPage);
+            }
+            return currentPage;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            final ByteBuffer page = getWritablePage();
+            if (page != null) {
+                page.put((byte) b);
+                length++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                final ByteBuffer page = getWritablePage();
+                if (page == null) {
+                    return;
+                }
+                final int chunkLength = Math.min(len, page.remaining());
+                page.put(b, off, chunkLength);
+                off += chunkLength;
+                len -= chunkLength;
+                length += chunkLength;
+            }
+        }
+
+    }
+
+    /**
+     * Periodically applies changes in the configured target size to the
+     * cache. (Eviction itself happens as items are added.)
      */
     private class Worker implements Runnable {
 
@@ -233,8 +565,8 @@ class HeapCache implements DerivativeCache {
                 if (workerShouldWork.get()) {
                     try {
                         purgeExcess();
-                        logger.trace("Cache size: {} items ({} bytes)",
-                                size(), getByteSize());
+                        logger.trace("Cache size: {} items ({} bytes); {}",
+                                size(), getByteSize(), cache.stats());
                         Thread.sleep(INTERVAL_SECONDS * 1000);
                     } catch (ConfigurationException e) {
                         logger.error("run(): {}", e.getMessage());
@@ -253,16 +585,53 @@ class HeapCache implements DerivativeCache {
     private static final Logger LOGGER =
             LoggerFactory.getLogger(HeapCache.class);
 
-    private final ConcurrentMap<Key, Item> cache = new ConcurrentHashMap<>();
+    private final Cache<Key, Item> cache;
+
+    /**
+     * Initialized by {@link #getPagePool()}.
+     */
+    private volatile DirectPagePool pagePool;
     private final AtomicBoolean isDirty          = new AtomicBoolean(false);
     private final AtomicBoolean workerShouldWork = new AtomicBoolean(true);
+    private volatile Thread workerThread;
 
     private final Object persistenceLock = new Object();
 
     /**
-     * <p>Dumps the cache contents to the file specified by
-     * {@link edu.illinois.library.cantaloupe.config.Key#HEAPCACHE_PATHNAME},
-     * first deleting the file that already exists at that path, if any.</p>
+     * Guarded by {@link #persistenceLock}. Initialized by {@link
+     * #getStore(Path)}.
+     */
+    private HeapCacheStore store;
+
+    HeapCache() {
+        long maxSize;
+        try {
+            maxSize = getTargetByteSize();
+        } catch (ConfigurationException e) {
+            // The target size will be applied when it becomes valid.
+            maxSize = Long.MAX_VALUE;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((Key key, Item item) ->
+                        (int) Math.min(item.getWeight(), Integer.MAX_VALUE))
+                // Evict on the calling thread, so that the cache cannot
+                // outgrow its bound by more than one item in bursts.
+                .executor(Runnable::run)
+                .removalListener((Key key, Item item, RemovalCause cause) -> {
+                    if (item != null) {
+                        item.release();
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * <p>Writes the cache contents to the store whose index file is specified
+     * by {@link edu.illinois.library.cantaloupe.config.Key#HEAPCACHE_PATHNAME}.
+     * Only items that are not already in the store are written; the index is
+     * rewritten to reflect the current contents.</p>
      *
      * <p>Concurrent calls will block.</p>
      *
@@ -274,51 +643,22 @@ class HeapCache implements DerivativeCache {
         synchronized (persistenceLock) {
             final Path path = getPath();
             if (path != null) {
-                // Delete any existing file that is in the way.
-                Files.deleteIfExists(path);
                 // Create any necessary directories up to the parent.
                 Files.createDirectories(path.getParent());
-                // Write out the contents.
                 LOGGER.debug("Dumping to {}...", path);
 
-                final long size = size();
-                final long byteSize = getByteSize();
-
-                final HeapCacheProtos.Cache.Builder cacheBuilder =
-                        HeapCacheProtos.Cache.newBuilder();
-
-                // Iterate over the cache keys and add cache values one-by-one to
-                // the protobuf cache, removing them from the cache along the way
-                // to save memory.
-                final Iterator<Map.Entry<Key,Item>> it = cache.entrySet().iterator();
-                while (it.hasNext()) {
-                    final Map.Entry<Key,Item> entry = it.next();
-                    final Key key                   = entry.getKey();
-                    final Item item                 = entry.getValue();
-                    if (key.getOperationList() != null) { // it's an image
-                        final HeapCacheProtos.Image image =
-                                HeapCacheProtos.Image.newBuilder()
-                                        .setLastAccessed(key.getLastAccessedTime())
-                                        .setIdentifier(key.getIdentifier())
-                                        .setOperationList(key.getOperationList())
-                                        .setData(ByteString.copyFrom(item.getData()))
-                                        .build();
-                        cacheBuilder.addImage(image);
-                    } else { // it's an info
-                        final HeapCacheProtos.Info info =
-                                HeapCacheProtos.Info.newBuilder()
-                                        .setLastAccessed(key.getLastAccessedTime())
-                                        .setIdentifier(key.getIdentifier())
-                                        .setJson(new String(item.getData(), StandardCharsets.UTF_8))
-                                        .build();
-                        cacheBuilder.addInfo(info);
-                    }
-                    it.remove();
-                }
-                try (OutputStream fos = Files.newOutputStream(path)) {
-                    cacheBuilder.build().writeTo(fos);
+                // Anything added from here on will need to be written next
+                // time.
+                isDirty.set(false);
+                final HeapCacheStore store = getStore(path);
+                try {
+                    store.write(cache.asMap().entrySet());
+                } catch (IOException e) {
+                    isDirty.set(true);
+                    throw e;
                 }
-                LOGGER.debug("Dumped {} items ({} bytes)", size, byteSize);
+                LOGGER.debug("Dumped {} items ({} bytes); store is {} bytes",
+                        size(), getByteSize(), store.getSegmentsSize());
             } else {
                 throw new IOException("dumpToPersistentStore(): " +
                         HEAPCACHE_PATHNAME + " is not set");
@@ -336,9 +676,9 @@ class HeapCache implements DerivativeCache {
      * @return Item corresponding to the given key. May be <code>null</code>.
      */
     private Item get(Key key) {
-        Item item = cache.get(key);
+        Item item = cache.getIfPresent(key);
         if (item != null) {
-            touch(item);
+            item.touch();
         }
         return item;
     }
@@ -347,8 +687,26 @@ class HeapCache implements DerivativeCache {
      * @return Current size of the contents in bytes.
      */
     long getByteSize() {
-        return cache.values().parallelStream()
-                .mapToLong(t -> t.getData().length).sum();
+        cache.cleanUp();
+        return getEviction().weightedSize().orElse(0);
+    }
+
+    private DirectPagePool getPagePool() {
+        DirectPagePool pool = pagePool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = pagePool;
+                if (pool == null) {
+                    pool = new DirectPagePool();
+                    pagePool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private Policy.Eviction<Key,Item> getEviction() {
+        return cache.policy().eviction().orElseThrow();
     }
 
     @Override
@@ -362,16 +720,24 @@ class HeapCache implements DerivativeCache {
         return Optional.empty();
     }
 
-    private List<Key> getKeysSortedByLastAccessedTime() {
-        List<Key> sortedKeys = new ArrayList<>(cache.keySet());
-        sortedKeys.sort((Key k1, Key k2) -> {
-            if (k1.getLastAccessedTime() == k2.getLastAccessedTime()) {
-                return 0;
-            }
-            return (k1.getLastAccessedTime() < k2.getLastAccessedTime()) ?
-                    -1 : 1;
-        });
-        return sortedKeys;
+    /**
+     * @return Hit, miss, and eviction statistics since the instance was
+     *         created.
+     */
+    Map<String,Object> getStatistics() {
+        final CacheStats stats = cache.stats();
+        final Map<String,Object> map = new LinkedHashMap<>();
+        map.put("size", size());
+        map.put("byteSize", getByteSize());
+        map.put("hitCount", stats.hitCount());
+        map.put("missCount", stats.missCount());
+        map.put("evictionCount", stats.evictionCount());
+        final DirectPagePool pool = pagePool;
+        if (pool != null) {
+            map.put("offHeapAllocatedBytes", pool.getAllocatedBytes());
+            map.put("offHeapFreeBytes", pool.getFreeBytes());
+        }
+        return map;
     }
 
     /**
@@ -388,6 +754,22 @@ class HeapCache implements DerivativeCache {
         return null;
     }
 
+    /**
+     * Must be called while holding {@link #persistenceLock}.
+     *
+     * @param path Index file path.
+     * @return     Store with the given index file path.
+     */
+    private HeapCacheStore getStore(Path path) {
+        if (store == null || !store.getIndexPath().equals(path)) {
+            if (store != null) {
+                store.close();
+            }
+            store = new HeapCacheStore(path);
+        }
+        return store;
+    }
+
     /**
      * @return Capacity of the instance based on the application configuration.
      * @throws ConfigurationException If the capacity in the configuration is
@@ -409,23 +791,36 @@ class HeapCache implements DerivativeCache {
 
     @Override
     public void initialize() {
+        try {
+            purgeExcess();
+        } catch (ConfigurationException e) {
+            LOGGER.error("initialize(): {}", e.getMessage());
+        }
+
         if (isPersistenceEnabled()) {
             loadFromPersistentStore();
         }
 
         // Start a worker thread to manage the size.
-        try {
-            ThreadPool.getInstance().submit(new Worker(),
-                    ThreadPool.Priority.LOW);
-        } catch (RejectedExecutionException e) {
-            LOGGER.error("initialize(): {}", e.getMessage());
-        }
+        workerThread = ThreadPool.getInstance().startThread(
+                "heapcache", new Worker());
     }
 
     boolean isDirty() {
         return isDirty.get();
     }
 
+    /**
+     * @return Value of
+     *         {@link edu.illinois.library.cantaloupe.config.Key#HEAPCACHE_OFF_HEAP}
+     *         in the application configuration, or {@literal false} if it is
+     *         not set.
+     */
+    boolean isOffHeapEnabled() {
+        final Configuration config = Configuration.getInstance();
+        return config.getBoolean(HEAPCACHE_OFF_HEAP, false);
+    }
+
     /**
      * @return Value of
      *         {@link edu.illinois.library.cantaloupe.config.Key#HEAPCACHE_PERSIST}
@@ -455,34 +850,28 @@ class HeapCache implements DerivativeCache {
         return new Key(opList.getIdentifier().toString(), opList.toString());
     }
 
+    /**
+     * <p>Reads the store whose index file is specified by {@link
+     * edu.illinois.library.cantaloupe.config.Key#HEAPCACHE_PATHNAME} into the
+     * cache. Only the most recently accessed items that fit within the {@link
+     * #getTargetByteSize() target size} are read, and they are read in
+     * parallel.</p>
+     *
+     * <p>If the file is a cache file in the format used prior to version 6.0,
+     * it is read instead.</p>
+     */
     void loadFromPersistentStore() {
         synchronized (persistenceLock) {
             final Path path = getPath();
 
             if (path != null && Files.exists(path)) {
                 LOGGER.debug("loadFromPersistentStore(): reading {}...", path);
-
-                try (InputStream is = Files.newInputStream(path)) {
-                    final HeapCacheProtos.Cache protoCache =
-                            HeapCacheProtos.Cache.parseFrom(is);
-
-                    // Read in the images.
-                    for (HeapCacheProtos.Image image : protoCache.getImageList()) {
-                        final Key key = new Key(image.getIdentifier(),
-                                image.getOperationList());
-                        key.setLastAccessedTime(image.getLastAccessed());
-                        final Item item = new Item(image.getData().toByteArray());
-                        cache.put(key, item);
-                    }
-
-                    // Read in the infos.
-                    for (HeapCacheProtos.Info info : protoCache.getInfoList()) {
-                        final Key key = new Key(info.getIdentifier());
-                        key.setLastAccessedTime(info.getLastAccessed());
-                        final Item item = new Item(info.getJsonBytes().toByteArray());
-                        cache.put(key, item);
+                try {
+                    if (HeapCacheStore.isIndex(path)) {
+                        loadFromStore(getStore(path));
+                    } else {
+                        loadFromLegacyFile(path);
                     }
-
                     LOGGER.debug("Loaded {} items ({} bytes)",
                             size(), getByteSize());
                 } catch (NoSuchFileException e) {
@@ -498,11 +887,143 @@ class HeapCache implements DerivativeCache {
         }
     }
 
+    private void loadFromStore(HeapCacheStore store) throws IOException {
+        long maxSize;
+        try {
+            maxSize = getTargetByteSize();
+        } catch (ConfigurationException e) {
+            maxSize = Long.MAX_VALUE;
+        }
+        // Select the most recently accessed entries that will fit.
+        final List<HeapCacheStore.Entry> entries = store.readIndex();
+        entries.sort(Comparator.comparingLong(
+                HeapCacheStore.Entry::getLastAccessedTime).reversed());
+        final List<HeapCacheStore.Entry> selectedEntries = new ArrayList<>();
+        long size = 0;
+        for (HeapCacheStore.Entry entry : entries) {
+            size += entry.getLength();
+            if (size > maxSize) {
+                break;
+            }
+            selectedEntries.add(entry);
+        }
+        // Read them in parallel, and add them least-recently-accessed first,
+        // so that they are the first to be evicted.
+        Collections.reverse(selectedEntries);
+        try {
+            final List<Item> items = selectedEntries.parallelStream()
+                    .map(entry -> readItem(store, entry))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < items.size(); i++) {
+                final Item item = items.get(i);
+                if (item != null) {
+                    cache.put(selectedEntries.get(i).getKey(), item);
+                }
+            }
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Reads an item from a store into the heap, or off-heap if {@link
+     * #isOffHeapEnabled()} and the item is an image.
+     *
+     * @return New item, or {@code null} if it could not be read.
+     */
+    private Item readItem(HeapCacheStore store, HeapCacheStore.Entry entry) {
+        final int length = entry.getLength();
+        final Item item;
+        try {
+            if (entry.getKey().getOperationList() != null &&
+                    isOffHeapEnabled()) {
+                final DirectPagePool pool = getPagePool();
+                final List<ByteBuffer> pages = new ArrayList<>();
+                try {
+                    long position = 0;
+                    while (position < length) {
+                        final ByteBuffer page = pool.acquire((int) Math.min(
+                                DirectPagePool.PAGE_SIZE, length - position));
+                        if (page == null) {
+                            throw new IOException("Out of direct memory");
+                        }
+                        pages.add(page);
+                        page.limit((int) Math.min(
+                                page.capacity(), length - position));
+                        store.read(entry, position, page);
+                        position += page.position();
+                    }
+                } catch (IOException e) {
+                    pages.forEach(pool::release);
+                    throw e;
+                }
+                item = new OffHeapItem(pool, pages, length);
+            } else {
+                final ByteBuffer buffer = ByteBuffer.allocate(length);
+                store.read(entry, 0, buffer);
+                item = new Item(buffer.array());
+            }
+        } catch (IOException e) {
+            LOGGER.warn("readItem(): failed to read {}: {}",
+                    entry.getKey(), e.getMessage());
+            return null;
+        }
+        item.setLastAccessedTime(entry.getLastAccessedTime());
+        item.setStoreLocation(entry.getLocation());
+        return item;
+    }
+
+    /**
+     * Reads a cache file in the Protocol Buffers-based format used prior to
+     * version 6.0.
+     */
+    private void loadFromLegacyFile(Path path) throws IOException {
+        try (InputStream is = Files.newInputStream(path)) {
+            final HeapCacheProtos.Cache protoCache =
+                    HeapCacheProtos.Cache.parseFrom(is);
+
+            // Read in the images, least-recently-accessed first, so that
+            // they are the first to be evicted.
+            protoCache.getImageList().stream()
+                    .sorted(Comparator.comparingLong(
+                            HeapCacheProtos.Image::getLastAccessed))
+                    .forEach(image -> {
+                        final Key key = new Key(image.getIdentifier(),
+                                image.getOperationList());
+                        final Item item = new Item(image.getData().toByteArray());
+                        item.setLastAccessedTime(image.getLastAccessed());
+                        cache.put(key, item);
+                    });
+
+            // Read in the infos.
+            for (HeapCacheProtos.Info info : protoCache.getInfoList()) {
+                final Key key = new Key(info.getIdentifier());
+                final Item item = new Item(info.getJsonBytes().toByteArray());
+                item.setLastAccessedTime(info.getLastAccessed());
+                cache.put(key, item);
+            }
+        }
+    }
+
+    /**
+     * @return Stream from which to read the image. If the image is stored
+     *         off-heap, the {@link SizedInputStream#getBuffers() buffers}
+     *         containing it are available from the stream as well.
+     */
     @Override
     public InputStream newDerivativeImageInputStream(OperationList opList) {
         Item item = get(itemKey(opList));
         if (item != null) {
-            return new ByteArrayInputStream(item.getData());
+            // This will be null if the item was evicted and released since
+            // it was retrieved, which is equivalent to a miss.
+            final InputStream is = item.newInputStream();
+            if (is != null) {
+                if (item instanceof OffHeapItem) {
+                    return new SizedInputStream(is, item.getLength(),
+                            ((OffHeapItem) item).getDataViews());
+                }
+                return new SizedInputStream(is, item.getLength());
+            }
         }
         return null;
     }
@@ -511,15 +1032,18 @@ class HeapCache implements DerivativeCache {
     public CompletableOutputStream
     newDerivativeImageOutputStream(OperationList opList) {
         final Key key = itemKey(opList);
-        final Item item = cache.get(key);
+        final Item item = cache.policy().getIfPresentQuietly(key);
         if (item != null) {
             LOGGER.debug("newDerivativeImageOutputStream(): hit for {}", opList);
-            touch(item);
+            item.touch();
             return new CompletableNullOutputStream();
         } else {
             LOGGER.debug("newDerivativeImageOutputStream(): miss; caching {}",
                     opList);
             isDirty.lazySet(true);
+            if (isOffHeapEnabled()) {
+                return new OffHeapCacheOutputStream(opList, getPagePool());
+            }
             return new HeapCacheOutputStream(opList);
         }
     }
@@ -540,59 +1064,56 @@ class HeapCache implements DerivativeCache {
 
     @Override
     public void purge() {
-        LOGGER.debug("purge(): purging {} items", cache.size());
-        cache.clear();
+        LOGGER.debug("purge(): purging {} items", size());
+        cache.invalidateAll();
     }
 
     @Override
     public void purge(Identifier identifier) {
         LOGGER.debug("purge(Identifier): purging {}...", identifier);
         final String imageId = itemKey(identifier).getIdentifier();
-        cache.keySet().removeIf(k -> k.getIdentifier().equals(imageId));
+        cache.asMap().keySet().removeIf(k -> k.getIdentifier().equals(imageId));
     }
 
     @Override
     public void purge(OperationList opList) {
         LOGGER.debug("purge(OperationList): purging {}...", opList.toString());
-        cache.remove(itemKey(opList));
+        cache.invalidate(itemKey(opList));
     }
 
     /**
-     * Purges as much content as needed to reduce the current size below the
-     * target size, starting with the least-recently-used first.
+     * Applies the current {@link #getTargetByteSize() target size} to the
+     * cache, purging as much content as needed to reduce the current size
+     * below it.
      */
     void purgeExcess() throws ConfigurationException {
-        synchronized (Worker.class) {
-            final long size = getByteSize();
-            final long targetSize = getTargetByteSize();
-            long excess = size - targetSize;
-            excess = (excess < 0) ? 0 : excess;
-            LOGGER.debug("purgeExcess(): cache size: {}; target: {}; excess: {}",
-                    size, targetSize, excess);
-            if (excess > 0) {
-                long purgedItems = 0;
-                long purgedSize = 0;
-                for (Key key : getKeysSortedByLastAccessedTime()) {
-                    Item item = cache.get(key);
-                    if (item != null) {
-                        cache.remove(key);
-                        purgedItems++;
-                        purgedSize += item.getData().length;
-                    }
-                    if (purgedSize >= excess) {
-                        break;
-                    }
-                }
+        final long targetSize = getTargetByteSize();
+        final Policy.Eviction<Key,Item> eviction = getEviction();
+        if (eviction.getMaximum() != targetSize) {
+            LOGGER.debug("purgeExcess(): target size changed from {} to {}",
+                    eviction.getMaximum(), targetSize);
+            final long sizeBefore = getByteSize();
+            eviction.setMaximum(targetSize);
+            final long sizeAfter = getByteSize();
+            if (sizeAfter < sizeBefore) {
                 isDirty.lazySet(true);
-                LOGGER.debug("purgeExcess(): purged {} items ({} bytes)",
-                        purgedItems, purgedSize);
+                LOGGER.debug("purgeExcess(): purged {} bytes",
+                        sizeBefore - sizeAfter);
+            }
+        }
+        final DirectPagePool pool = pagePool;
+        if (pool != null) {
+            final long trimmedSize = pool.trim(targetSize);
+            if (trimmedSize > 0) {
+                LOGGER.debug("purgeExcess(): gave up {} bytes of direct memory",
+                        trimmedSize);
             }
         }
     }
 
     @Override
     public void purgeInfos() {
-        cache.entrySet().removeIf(entry -> entry.getKey().opList == null);
+        cache.asMap().keySet().removeIf(key -> key.opList == null);
     }
 
     /**
@@ -616,7 +1137,7 @@ class HeapCache implements DerivativeCache {
         // Rather than storing the info instance itself, we store its JSON
         // serialization, mainly in order to be able to easily get its size.
         Item item = new Item(info.toJSON().getBytes(StandardCharsets.UTF_8));
-        cache.putIfAbsent(key, item);
+        cache.asMap().putIfAbsent(key, item);
     }
 
     @Override
@@ -625,19 +1146,22 @@ class HeapCache implements DerivativeCache {
         isDirty.lazySet(true);
         Key key   = itemKey(identifier);
         Item item = new Item(info.getBytes(StandardCharsets.UTF_8));
-        cache.putIfAbsent(key, item);
+        cache.asMap().putIfAbsent(key, item);
     }
 
     /**
      * @return Number of cached items.
      */
     long size() {
-        return cache.size();
+        return cache.asMap().size();
     }
 
     @Override
     public void shutdown() {
         workerShouldWork.set(false);
+        if (workerThread != null) {
+            workerThread.interrupt();
+        }
 
         // Dump the cache contents to disk, if the cache is dirty, and if
         // PERSIST_CONFIG_KEY is set to true.
@@ -650,17 +1174,4 @@ class HeapCache implements DerivativeCache {
         }
     }
 
-    /**
-     * Updates the last-accessed time of the key corresponding to the given
-     * item.
-     *
-     * @param item Item whose key should be touched.
-     */
-    private void touch(Item item) {
-        cache.entrySet().parallelStream()
-                .filter(entry -> Objects.equals(entry.getValue(), item))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toUnmodifiableSet()).forEach(Key::touch);
-    }
-
 }
@@ -0,0 +1,540 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>On-disk store for the contents of a {@link HeapCache}.</p>
+ *
+ * <p>A store consists of an index file, at the path supplied to the
+ * constructor, and any number of segment files alongside it, which are named
+ * after the index file with a numeric extension. Segment files contain nothing
+ * but concatenated item data, and are only ever appended to. The index file
+ * lists every item in the store along with its key, last-accessed time, and
+ * location within a segment. It is small relative to the segments, and is
+ * rewritten in full, and atomically, every time the store is {@link
+ * #write(Collection) written}.</p>
+ *
+ * <p>Writes are incremental: only items that are not already in the store
+ * are appended to a segment. The data of items that have since been evicted
+ * or purged remains in the segments until it makes up more than half of their
+ * total size, at which point all items are rewritten into new segments and the
+ * old ones are deleted.</p>
+ *
+ * <p>Because each item is located independently, items can be {@link
+ * #read(Entry, long, ByteBuffer) read} in any order and from any number of
+ * threads, without reading the whole store into memory first.</p>
+ *
+ * <p>Apart from {@link #read(Entry, long, ByteBuffer)}, methods of this class
+ * are not thread-safe.</p>
+ *
+ * @since 6.0
+ */
+final class HeapCacheStore implements Closeable {
+
+    /**
+     * Index entry describing an item in the store.
+     */
+    static final class Entry {
+
+        private final HeapCache.Key key;
+        private final long lastAccessedTime;
+        private final Location location;
+        private final int length;
+
+        private Entry(HeapCache.Key key,
+                      long lastAccessedTime,
+                      Location location,
+                      int length) {
+            this.key              = key;
+            this.lastAccessedTime = lastAccessedTime;
+            this.location         = location;
+            this.length           = length;
+        }
+
+        HeapCache.Key getKey() {
+            return key;
+        }
+
+        long getLastAccessedTime() {
+            return lastAccessedTime;
+        }
+
+        Location getLocation() {
+            return location;
+        }
+
+        int getLength() {
+            return length;
+        }
+
+    }
+
+    /**
+     * Location of an item's data within a particular store. Cache items hold
+     * on to their location so that they are not written again.
+     */
+    static final class Location {
+
+        private final HeapCacheStore store;
+        private final int generation;
+        private final long segment;
+        private final long offset;
+
+        private Location(HeapCacheStore store,
+                         int generation,
+                         long segment,
+                         long offset) {
+            this.store      = store;
+            this.generation = generation;
+            this.segment    = segment;
+            this.offset     = offset;
+        }
+
+    }
+
+    /**
+     * Appends to a segment file.
+     */
+    private final class SegmentWriter implements Closeable {
+
+        private final long segment;
+        private final FileChannel channel;
+        private final OutputStream outputStream;
+        private long size;
+
+        SegmentWriter(long segment) throws IOException {
+            this.segment = segment;
+            this.channel = FileChannel.open(getSegmentPath(segment),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            this.size = channel.size();
+            this.outputStream = new BufferedOutputStream(
+                    Channels.newOutputStream(channel), BUFFER_SIZE);
+            segmentSizes.put(segment, size);
+        }
+
+        Location append(InputStream data) throws IOException {
+            final long offset = size;
+            size += data.transferTo(outputStream);
+            segmentSizes.put(segment, size);
+            return new Location(HeapCacheStore.this, generation, segment,
+                    offset);
+        }
+
+        boolean isFull() {
+            return size >= MAX_SEGMENT_SIZE;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                outputStream.flush();
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(HeapCacheStore.class);
+
+    private static final int BUFFER_SIZE = 1024 * 64;
+
+    /**
+     * First four bytes of an index file: "HCS1".
+     */
+    private static final int MAGIC = 0x48435331;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Size beyond which a segment is no longer appended to.
+     */
+    static final long MAX_SEGMENT_SIZE = 1024 * 1024 * 256;
+
+    private final Path indexPath;
+
+    /**
+     * Map of segment numbers to segment sizes, containing all segment files
+     * that exist on disk.
+     */
+    private final TreeMap<Long,Long> segmentSizes = new TreeMap<>();
+
+    private final Map<Long,FileChannel> readChannels =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Incremented when the store is compacted, invalidating all existing
+     * {@link Location}s.
+     */
+    private int generation;
+
+    private long nextSegment;
+    private boolean isScanned;
+
+    /**
+     * @param path Path of a file.
+     * @return     Whether the file at the given path is a store index file.
+     */
+    static boolean isIndex(Path path) throws IOException {
+        try (DataInputStream is =
+                     new DataInputStream(Files.newInputStream(path))) {
+            return is.readInt() == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static String readString(DataInputStream is) throws IOException {
+        final int length = is.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        is.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream os,
+                                    String string) throws IOException {
+        if (string == null) {
+            os.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        os.writeInt(bytes.length);
+        os.write(bytes);
+    }
+
+    /**
+     * @param indexPath Path of the index file, which need not exist. Its
+     *                  parent directory must exist.
+     */
+    HeapCacheStore(Path indexPath) {
+        this.indexPath = indexPath;
+    }
+
+    /**
+     * Closes any segment files that were opened for reading.
+     */
+    @Override
+    public void close() {
+        final Iterator<FileChannel> it = readChannels.values().iterator();
+        while (it.hasNext()) {
+            try {
+                it.next().close();
+            } catch (IOException e) {
+                LOGGER.warn("close(): {}", e.getMessage());
+            }
+            it.remove();
+        }
+    }
+
+    private void deleteUnreferencedSegments(Set<Long> referencedSegments) {
+        final Iterator<Long> it = segmentSizes.keySet().iterator();
+        while (it.hasNext()) {
+            final Long segment = it.next();
+            if (!referencedSegments.contains(segment)) {
+                final FileChannel channel = readChannels.remove(segment);
+                try {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                    Files.deleteIfExists(getSegmentPath(segment));
+                    it.remove();
+                } catch (IOException e) {
+                    LOGGER.warn("deleteUnreferencedSegments(): {}",
+                            e.getMessage());
+                }
+            }
+        }
+    }
+
+    Path getIndexPath() {
+        return indexPath;
+    }
+
+    private FileChannel getReadChannel(long segment) {
+        return readChannels.computeIfAbsent(segment, s -> {
+            try {
+                return FileChannel.open(getSegmentPath(s),
+                        StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    Path getSegmentPath(long segment) {
+        return indexPath.resolveSibling(indexPath.getFileName() + "." + segment);
+    }
+
+    /**
+     * @return Total size of all segment files.
+     */
+    long getSegmentsSize() {
+        return segmentSizes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @param location Location to check.
+     * @return Whether the given location refers to data that is still present
+     *         in this store.
+     */
+    boolean isValid(Location location) {
+        return location != null &&
+                location.store == this &&
+                location.generation == generation;
+    }
+
+    /**
+     * @param isAppendable Whether the newest existing segment may be appended
+     *                     to, if it is not full.
+     */
+    private SegmentWriter newSegmentWriter(boolean isAppendable)
+            throws IOException {
+        if (isAppendable && !segmentSizes.isEmpty() &&
+                segmentSizes.lastEntry().getValue() < MAX_SEGMENT_SIZE) {
+            return new SegmentWriter(segmentSizes.lastKey());
+        }
+        return new SegmentWriter(nextSegment++);
+    }
+
+    /**
+     * Fills the given buffer with data of the given entry. This method is
+     * thread-safe.
+     *
+     * @param entry    Entry to read.
+     * @param position Position within the entry's data to start reading from.
+     * @param buffer   Buffer to fill up to its limit. The number of bytes
+     *                 remaining in it must not exceed the number of bytes
+     *                 remaining in the entry.
+     */
+    void read(Entry entry,
+              long position,
+              ByteBuffer buffer) throws IOException {
+        final Location location = entry.getLocation();
+        final FileChannel channel;
+        try {
+            channel = getReadChannel(location.segment);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        long filePosition = location.offset + position;
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, filePosition);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of " +
+                        getSegmentPath(location.segment));
+            }
+            filePosition += n;
+        }
+    }
+
+    /**
+     * Reads the index file, skipping any entries whose data is not present
+     * in its segment.
+     *
+     * @return All entries in the index, in no particular order.
+     */
+    List<Entry> readIndex() throws IOException {
+        scanIfNecessary();
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(indexPath), BUFFER_SIZE))) {
+            if (is.readInt() != MAGIC) {
+                throw new IOException("Not a store index: " + indexPath);
+            }
+            final int version = is.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported store index version (" +
+                        version + "): " + indexPath);
+            }
+            final int count = is.readInt();
+            final List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final String identifier   = readString(is);
+                final String opList       = readString(is);
+                final long lastAccessed   = is.readLong();
+                final long segment        = is.readLong();
+                final long offset         = is.readLong();
+                final int length          = is.readInt();
+                final Long segmentSize    = segmentSizes.get(segment);
+                if (segmentSize == null || offset + length > segmentSize) {
+                    LOGGER.warn("readIndex(): data for {} is missing from " +
+                            "segment {}; skipping", identifier, segment);
+                    continue;
+                }
+                final HeapCache.Key key = (opList != null) ?
+                        new HeapCache.Key(identifier, opList) :
+                        new HeapCache.Key(identifier);
+                entries.add(new Entry(key, lastAccessed,
+                        new Location(this, generation, segment, offset),
+                        length));
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Finds any existing segment files, so that their numbers are not reused
+     * and so that they get deleted if they are not referenced.
+     */
+    private void scanIfNecessary() throws IOException {
+        if (isScanned) {
+            return;
+        }
+        final String prefix = indexPath.getFileName() + ".";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                indexPath.getParent(), prefix + "*")) {
+            for (Path path : stream) {
+                final String suffix =
+                        path.getFileName().toString().substring(prefix.length());
+                if (suffix.matches("\\d+")) {
+                    final long segment = Long.parseLong(suffix);
+                    segmentSizes.put(segment, Files.size(path));
+                    nextSegment = Math.max(nextSegment, segment + 1);
+                }
+            }
+        }
+        isScanned = true;
+    }
+
+    /**
+     * <p>Writes the given cache items to the store, appending the data of
+     * items that are not already in it to a segment, and then rewrites the
+     * index file to reference all of them. Segments that are no longer
+     * referenced are then deleted.</p>
+     *
+     * <p>Items that are not already in the store are {@link
+     * HeapCache.Item#setStoreLocation(Location) assigned} a location within
+     * it.</p>
+     *
+     * @param items Items to write. May be modified concurrently.
+     */
+    void write(Collection<Map.Entry<HeapCache.Key,HeapCache.Item>> items)
+            throws IOException {
+        scanIfNecessary();
+
+        // If most of the segment data belongs to items that are no longer in
+        // the cache, invalidate all existing locations so that every item gets
+        // rewritten and the old segments get deleted.
+        long liveSize = 0;
+        for (Map.Entry<HeapCache.Key,HeapCache.Item> entry : items) {
+            final HeapCache.Item item = entry.getValue();
+            if (isValid(item.getStoreLocation())) {
+                liveSize += item.getLength();
+            }
+        }
+        final long segmentsSize = getSegmentsSize();
+        final boolean isCompacting = (liveSize < segmentsSize / 2);
+        if (isCompacting) {
+            LOGGER.debug("write(): compacting ({} of {} bytes are live)",
+                    liveSize, segmentsSize);
+            generation++;
+        }
+
+        final List<Entry> entries = new ArrayList<>();
+        SegmentWriter writer = null;
+        try {
+            for (Map.Entry<HeapCache.Key,HeapCache.Item> entry : items) {
+                final HeapCache.Item item = entry.getValue();
+                Location location = item.getStoreLocation();
+                if (!isValid(location)) {
+                    try (InputStream is = item.newInputStream()) {
+                        if (is == null) { // it's been released concurrently
+                            continue;
+                        }
+                        if (writer == null || writer.isFull()) {
+                            if (writer != null) {
+                                writer.close();
+                            }
+                            // When compacting, the existing segments are
+                            // about to be deleted, so don't append to them.
+                            writer = newSegmentWriter(
+                                    !isCompacting || writer != null);
+                        }
+                        location = writer.append(is);
+                    }
+                    item.setStoreLocation(location);
+                }
+                entries.add(new Entry(entry.getKey(),
+                        item.getLastAccessedTime(), location,
+                        item.getLength()));
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        writeIndex(entries);
+
+        final Set<Long> referencedSegments = new HashSet<>();
+        for (Entry entry : entries) {
+            referencedSegments.add(entry.getLocation().segment);
+        }
+        deleteUnreferencedSegments(referencedSegments);
+    }
+
+    private void writeIndex(List<Entry> entries) throws IOException {
+        final Path tempPath =
+                indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final DataOutputStream os = new DataOutputStream(
+                    new BufferedOutputStream(
+                            Channels.newOutputStream(channel), BUFFER_SIZE));
+            os.writeInt(MAGIC);
+            os.writeInt(VERSION);
+            os.writeInt(entries.size());
+            for (Entry entry : entries) {
+                writeString(os, entry.getKey().getIdentifier());
+                writeString(os, entry.getKey().getOperationList());
+                os.writeLong(entry.getLastAccessedTime());
+                os.writeLong(entry.getLocation().segment);
+                os.writeLong(entry.getLocation().offset);
+                os.writeInt(entry.getLength());
+            }
+            os.flush();
+            channel.force(true);
+        }
+        Files.move(tempPath, indexPath,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -1,7 +1,7 @@
 package edu.illinois.library.cantaloupe.cache;
 
 import com.fasterxml.jackson.core.JsonParseException;
-import edu.illinois.library.cantaloupe.async.TaskQueue;
+import edu.illinois.library.cantaloupe.async.WriteBehindBuffer;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Identifier;
@@ -13,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -30,6 +31,10 @@ public final class InfoService {
 
     private final InfoCache infoCache = new InfoCache();
 
+    private final WriteBehindBuffer<Identifier,Info> cacheWriteBuffer =
+            WriteBehindBuffer.newInstance("InfoService.cacheWrites",
+                    this::putInCaches);
+
     /**
      * For testing only!
      */
@@ -138,6 +143,28 @@ public final class InfoService {
      */
     Optional<Info> getOrReadInfo(final Identifier identifier,
                                  final Processor proc) throws IOException {
+        return getOrReadInfo(identifier, proc, null);
+    }
+
+    /**
+     * Variant of {@link #getOrReadInfo(Identifier, Processor)} that also
+     * records the {@link Info#getSourceVersion() version} of the source
+     * image. If a cached instance records a different version, it is
+     * updated and cached again.
+     *
+     * @param identifier    Identifier of the source image for which to
+     *                      retrieve the info.
+     * @param proc          Processor to use to read the info if necessary.
+     * @param sourceVersion Entity tag or last-modified time of the source
+     *                      image. May be {@code null} if the source image
+     *                      has not been accessed.
+     * @return              Info for the image with the given identifier.
+     * @throws IOException if there is an error reading or writing to or from
+     *                   the cache.
+     */
+    Optional<Info> getOrReadInfo(final Identifier identifier,
+                                 final Processor proc,
+                                 final String sourceVersion) throws IOException {
         Optional<Info> optInfo = Optional.empty();
         // Try to retrieve it from a cache. In the (hopefully impossible) event
         // that it is corrupt and cannot be deserialized, log the problem and
@@ -151,12 +178,16 @@ public final class InfoService {
             // Read it from the processor and then add it to both the
             // derivative and object caches.
             Info info = readInfo(identifier, proc);
+            info.setSourceVersion(sourceVersion);
 
             // Add it to the derivative and object caches.
-            final DerivativeCache derivCache =
-                    CacheFactory.getDerivativeCache().orElse(null);
-            putInCachesAsync(identifier, info, derivCache);
+            putInCachesAsync(identifier, info);
             optInfo = Optional.of(info);
+        } else if (sourceVersion != null &&
+                !sourceVersion.equals(optInfo.get().getSourceVersion())) {
+            Info info = optInfo.get();
+            info.setSourceVersion(sourceVersion);
+            putInCachesAsync(identifier, info);
         }
         LOGGER.trace("Info for {}: {}", identifier, optInfo.get().toJSON());
         return optInfo;
@@ -193,22 +224,24 @@ public final class InfoService {
     }
 
     /**
-     * Adds an info to the object and derivative caches asynchronously.
+     * Adds infos to the object and derivative caches synchronously.
      */
-    private void putInCachesAsync(Identifier identifier,
-                                  Info info,
-                                  DerivativeCache derivCache) {
-        TaskQueue.getInstance().submit(() -> {
-            putInObjectCache(identifier, info);
-            if (derivCache != null) {
-                try {
-                    derivCache.put(identifier, info);
-                } catch (IOException e) {
-                    LOGGER.error("putInCachesAsync(): {}", e.getMessage());
-                }
-            }
-            return null;
-        });
+    private void putInCaches(Map<Identifier,Info> infos) throws IOException {
+        infos.forEach(this::putInObjectCache);
+        Optional<DerivativeCache> optDerivCache =
+                CacheFactory.getDerivativeCache();
+        if (optDerivCache.isPresent()) {
+            optDerivCache.get().putAll(infos);
+        }
+    }
+
+    /**
+     * Adds an info to the object and derivative caches asynchronously. Infos
+     * that are added while others are waiting to be written are written
+     * along with them, and duplicates are only written once.
+     */
+    private void putInCachesAsync(Identifier identifier, Info info) {
+        cacheWriteBuffer.put(identifier, info);
     }
 
     /**
@@ -3,11 +3,13 @@ package edu.illinois.library.cantaloupe.cache;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.zaxxer.hikari.HikariDataSource;
 import edu.illinois.library.cantaloupe.async.TaskQueue;
+import edu.illinois.library.cantaloupe.async.WriteBehindBuffer;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.util.ClientRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,7 +23,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -160,51 +165,78 @@ class JdbcCache implements DerivativeCache {
     static final String INFO_TABLE_INFO_COLUMN = "info";
     static final String INFO_TABLE_LAST_ACCESSED_COLUMN = "last_accessed";
 
-    private static HikariDataSource dataSource;
+    /**
+     * Connection pools keyed by {@link #getDataSourceSettings() settings}.
+     */
+    private static final ClientRegistry<List<Object>,HikariDataSource,SQLException>
+            DATA_SOURCES = new ClientRegistry<>(
+                    JdbcCache.class.getSimpleName(), 1,
+                    JdbcCache::newDataSource, HikariDataSource::close);
+
+    private final WriteBehindBuffer<String,Timestamp> derivativeImageAccessBuffer =
+            WriteBehindBuffer.newInstance("JdbcCache.derivativeImageAccess",
+                    this::accessDerivativeImages);
+    private final WriteBehindBuffer<String,Timestamp> infoAccessBuffer =
+            WriteBehindBuffer.newInstance("JdbcCache.infoAccess",
+                    this::accessInfos);
 
     /**
      * @return Connection from the connection pool. Clients must call
      *         {@link Connection#close} when they are done with it.
      */
-    public static synchronized Connection getConnection() throws SQLException {
-        if (dataSource == null) {
-            final Configuration config = Configuration.getInstance();
-            final String connectionString = config.
-                    getString(Key.JDBCCACHE_JDBC_URL, "");
-            final int connectionTimeout = 1000 *
-                    config.getInt(Key.JDBCCACHE_CONNECTION_TIMEOUT, 10);
-            final int maxPoolSize =
-                    Runtime.getRuntime().availableProcessors() * 2 + 1;
-            final String user = config.getString(Key.JDBCCACHE_USER, "");
-            final String password = config.getString(Key.JDBCCACHE_PASSWORD, "");
-
-            dataSource = new HikariDataSource();
-            dataSource.setJdbcUrl(connectionString);
-            dataSource.setUsername(user);
-            dataSource.setPassword(password);
-            dataSource.setPoolName("JdbcCachePool");
-            dataSource.setMaximumPoolSize(maxPoolSize);
-            dataSource.setConnectionTimeout(connectionTimeout);
-
-            // Create a connection in order to log some things and check
-            // whether the database is sane.
-            try (Connection connection = dataSource.getConnection()) {
-                final DatabaseMetaData metadata = connection.getMetaData();
-                LOGGER.info("Using {} {}", metadata.getDriverName(),
-                        metadata.getDriverVersion());
-                LOGGER.info("Connection URL: {}",
-                        config.getString(Key.JDBCCACHE_JDBC_URL));
-
-                final String[] tableNames = { getDerivativeImageTableName(),
-                        getInfoTableName() };
-                for (String tableName : tableNames) {
-                    if (!tableExists(connection, tableName)) {
-                        LOGGER.error("Missing table: {}", tableName);
-                    }
+    public static Connection getConnection() throws SQLException {
+        return DATA_SOURCES.get(getDataSourceSettings()).getConnection();
+    }
+
+    /**
+     * @return Settings of the connection pool from the application
+     *         configuration, in the order expected by {@link
+     *         #newDataSource(List)}.
+     */
+    private static List<Object> getDataSourceSettings() {
+        final Configuration config = Configuration.getInstance();
+        return Arrays.asList(
+                config.getString(Key.JDBCCACHE_JDBC_URL, ""),
+                config.getString(Key.JDBCCACHE_USER, ""),
+                config.getString(Key.JDBCCACHE_PASSWORD, ""),
+                config.getInt(Key.JDBCCACHE_CONNECTION_TIMEOUT, 10));
+    }
+
+    private static HikariDataSource newDataSource(List<Object> settings)
+            throws SQLException {
+        final String connectionString = (String) settings.get(0);
+        final int connectionTimeout   = 1000 * (int) settings.get(3);
+        final int maxPoolSize =
+                Runtime.getRuntime().availableProcessors() * 2 + 1;
+
+        final HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(connectionString);
+        dataSource.setUsername((String) settings.get(1));
+        dataSource.setPassword((String) settings.get(2));
+        dataSource.setPoolName("JdbcCachePool");
+        dataSource.setMaximumPoolSize(maxPoolSize);
+        dataSource.setConnectionTimeout(connectionTimeout);
+
+        // Create a connection in order to log some things and check
+        // whether the database is sane.
+        try (Connection connection = dataSource.getConnection()) {
+            final DatabaseMetaData metadata = connection.getMetaData();
+            LOGGER.info("Using {} {}", metadata.getDriverName(),
+                    metadata.getDriverVersion());
+            LOGGER.info("Connection URL: {}", connectionString);
+
+            final String[] tableNames = { getDerivativeImageTableName(),
+                    getInfoTableName() };
+            for (String tableName : tableNames) {
+                if (!tableExists(connection, tableName)) {
+                    LOGGER.error("Missing table: {}", tableName);
                 }
             }
+        } catch (SQLException | RuntimeException e) {
+            dataSource.close();
+            throw e;
         }
-        return dataSource.getConnection();
+        return dataSource;
     }
 
     /**
@@ -247,24 +279,19 @@ class JdbcCache implements DerivativeCache {
     }
 
     /**
-     * Updates the last-accessed time of the derivative image corresponding to
-     * the given operation list.
+     * Updates the last-accessed times of the derivative images corresponding
+     * to the given operation list strings in one batch.
+     *
+     * @param batch Map of operation list strings to last-accessed times.
      */
-    private void accessDerivativeImage(OperationList opList,
-                                       Connection connection)
+    private void accessDerivativeImages(Map<String,Timestamp> batch)
             throws SQLException {
         final String sql = String.format(
                 "UPDATE %s SET %s = ? WHERE %s = ?",
                 getDerivativeImageTableName(),
                 DERIVATIVE_IMAGE_TABLE_LAST_ACCESSED_COLUMN,
                 DERIVATIVE_IMAGE_TABLE_OPERATIONS_COLUMN);
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setTimestamp(1, now());
-            statement.setString(2, opList.toString());
-
-            LOGGER.trace(sql);
-            statement.executeUpdate();
-        }
+        executeAccessBatch(sql, batch);
     }
 
     /**
@@ -272,48 +299,58 @@ class JdbcCache implements DerivativeCache {
      * the given operation list asynchronously.
      */
     private void accessDerivativeImageAsync(OperationList opList) {
-        TaskQueue.getInstance().submit(() -> {
-            try (Connection conn = getConnection()) {
-                accessDerivativeImage(opList, conn);
-            } catch (SQLException e) {
-                LOGGER.error("accessDerivativeImageAsync(): {}", e.getMessage());
-            }
-        });
+        derivativeImageAccessBuffer.put(opList.toString(), now());
     }
 
     /**
-     * Updates the last-accessed time of the info corresponding to the given
-     * identifier.
+     * Updates the last-accessed times of the infos corresponding to the given
+     * identifier strings in one batch.
+     *
+     * @param batch Map of identifier strings to last-accessed times.
      */
-    private void accessInfo(Identifier identifier, Connection connection)
-            throws SQLException {
+    private void accessInfos(Map<String,Timestamp> batch) throws SQLException {
         final String sql = String.format(
                 "UPDATE %s SET %s = ? WHERE %s = ?",
                 getInfoTableName(),
                 INFO_TABLE_LAST_ACCESSED_COLUMN,
                 INFO_TABLE_IDENTIFIER_COLUMN);
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setTimestamp(1, now());
-            statement.setString(2, identifier.toString());
-
-            LOGGER.trace(sql);
-            statement.executeUpdate();
-        }
+        executeAccessBatch(sql, batch);
     }
 
     /**
      * Updates the last-accessed time of the info corresponding to the given
-     * operation list asynchronously.
+     * identifier asynchronously.
      */
     private void accessInfoAsync(Identifier identifier) {
-        TaskQueue.getInstance().submit(() -> {
-            try (Connection conn = getConnection()) {
-                accessInfo(identifier, conn);
+        infoAccessBuffer.put(identifier.toString(), now());
+    }
+
+    /**
+     * Executes the given {@literal UPDATE} statement, whose first parameter
+     * is a last-accessed time and whose second parameter is a key, for every
+     * entry in the given batch, in one transaction.
+     */
+    private static void executeAccessBatch(String sql,
+                                           Map<String,Timestamp> batch)
+            throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                for (Map.Entry<String,Timestamp> entry : batch.entrySet()) {
+                    statement.setTimestamp(1, entry.getValue());
+                    statement.setString(2, entry.getKey());
+                    statement.addBatch();
+                }
+                LOGGER.trace("{} ({} rows)", sql, batch.size());
+                statement.executeBatch();
+                conn.commit();
             } catch (SQLException e) {
-                LOGGER.error("accessInfoAsync(): {}", e.getMessage());
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-        });
+        }
     }
 
     Timestamp earliestValidDate() {
@@ -6,6 +6,7 @@ import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.util.ClientRegistry;
 import io.lettuce.core.MapScanCursor;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
@@ -23,6 +24,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -195,22 +200,51 @@ class RedisCache implements DerivativeCache {
     private static final String INFO_HASH_KEY =
             "edu.illinois.library.cantaloupe.info";
 
-    private static StatefulRedisConnection<String, byte[]> connection;
-
-    private static synchronized StatefulRedisConnection<String, byte[]> getConnection() {
-        if (connection == null) {
-            Configuration config = Configuration.getInstance();
-            RedisURI redisUri =
-                    RedisURI.Builder.redis(config.getString(Key.REDISCACHE_HOST)).
-                            withPort(config.getInt(Key.REDISCACHE_PORT, 6379)).
-                            withSsl(config.getBoolean(Key.REDISCACHE_SSL, false)).
-                            withPassword(config.getString(Key.REDISCACHE_PASSWORD, "").toCharArray()).
-                            withDatabase(config.getInt(Key.REDISCACHE_DATABASE, 0)).
-                            build();
-            RedisClient client = RedisClient.create(redisUri);
-            connection = client.connect(new CustomRedisCodec());
-        }
-        return connection;
+    /**
+     * Clients keyed by {@link #getConnectionSettings() settings}.
+     */
+    private static final ClientRegistry<List<Object>,RedisClient,RuntimeException>
+            CLIENTS = new ClientRegistry<>(
+                    RedisCache.class.getSimpleName(), 1,
+                    RedisCache::newClient, RedisClient::shutdown);
+
+    /**
+     * Connections of the {@link #CLIENTS}, which are thread-safe, keyed by
+     * the same settings.
+     */
+    private static final ClientRegistry<List<Object>,StatefulRedisConnection<String,byte[]>,RuntimeException>
+            CONNECTIONS = new ClientRegistry<>(
+                    RedisCache.class.getSimpleName(), 1,
+                    settings -> CLIENTS.get(settings).connect(new CustomRedisCodec()),
+                    StatefulRedisConnection::close);
+
+    private static StatefulRedisConnection<String, byte[]> getConnection() {
+        return CONNECTIONS.get(getConnectionSettings());
+    }
+
+    /**
+     * @return Host, port, SSL flag, password, and database from the
+     *         application configuration, in that order.
+     */
+    private static List<Object> getConnectionSettings() {
+        final Configuration config = Configuration.getInstance();
+        return Arrays.asList(
+                config.getString(Key.REDISCACHE_HOST),
+                config.getInt(Key.REDISCACHE_PORT, 6379),
+                config.getBoolean(Key.REDISCACHE_SSL, false),
+                config.getString(Key.REDISCACHE_PASSWORD, ""),
+                config.getInt(Key.REDISCACHE_DATABASE, 0));
+    }
+
+    private static RedisClient newClient(List<Object> settings) {
+        RedisURI redisUri =
+                RedisURI.Builder.redis((String) settings.get(0)).
+                        withPort((int) settings.get(1)).
+                        withSsl((boolean) settings.get(2)).
+                        withPassword(((String) settings.get(3)).toCharArray()).
+                        withDatabase((int) settings.get(4)).
+                        build();
+        return RedisClient.create(redisUri);
     }
 
     private static String imageKey(OperationList opList) {
@@ -324,6 +358,34 @@ class RedisCache implements DerivativeCache {
                 info.getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Writes all of the given infos with a single {@literal HSET} command.
+     */
+    @Override
+    public void putAll(Map<Identifier,Info> infos) throws IOException {
+        final Map<String,byte[]> fields = new HashMap<>(infos.size());
+        for (Map.Entry<Identifier,Info> entry : infos.entrySet()) {
+            final Identifier identifier = entry.getKey();
+            final Info info             = entry.getValue();
+            if (!info.isPersistable()) {
+                LOGGER.debug("putAll(): info for {} is incomplete; ignoring",
+                        identifier);
+                continue;
+            }
+            try {
+                fields.put(infoKey(identifier),
+                        info.toJSON().getBytes(StandardCharsets.UTF_8));
+            } catch (JsonProcessingException e) {
+                LOGGER.error("putAll(): {}", e.getMessage());
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        if (!fields.isEmpty()) {
+            LOGGER.debug("putAll(): caching {} infos", fields.size());
+            getConnection().async().hset(INFO_HASH_KEY, fields);
+        }
+    }
+
     @Override
     public void shutdown() {
         getConnection().close();
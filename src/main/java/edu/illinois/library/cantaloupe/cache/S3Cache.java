@@ -2,6 +2,7 @@ package edu.illinois.library.cantaloupe.cache;
 
 import edu.illinois.library.cantaloupe.async.TaskQueue;
 import edu.illinois.library.cantaloupe.async.ThreadPool;
+import edu.illinois.library.cantaloupe.async.WriteBehindBuffer;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.http.Reference;
@@ -10,6 +11,7 @@ import edu.illinois.library.cantaloupe.image.MediaType;
 import edu.illinois.library.cantaloupe.operation.Encode;
 import edu.illinois.library.cantaloupe.operation.OperationList;
 import edu.illinois.library.cantaloupe.image.Info;
+import edu.illinois.library.cantaloupe.util.ClientRegistry;
 import edu.illinois.library.cantaloupe.util.S3ClientBuilder;
 import edu.illinois.library.cantaloupe.util.S3Utils;
 import edu.illinois.library.cantaloupe.util.Stopwatch;
@@ -36,8 +38,11 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -70,31 +75,50 @@ class S3Cache implements DerivativeCache {
     private static final String INFO_KEY_PREFIX  = "info/";
 
     /**
-     * Lazy-initialized by {@link #getClientInstance}.
+     * Clients keyed by {@link #getClientSettings() settings}.
      */
-    private static S3Client client;
-
-    static synchronized S3Client getClientInstance() {
-        if (client == null) {
-            final Configuration config = Configuration.getInstance();
-            final String endpointStr = config.getString(Key.S3CACHE_ENDPOINT);
-            URI endpointURI = null;
-            if (endpointStr != null) {
-                try {
-                    endpointURI = new URI(endpointStr);
-                } catch (URISyntaxException e) {
-                    LOGGER.error("Invalid URI for {}: {}",
-                            Key.S3CACHE_ENDPOINT, e.getMessage());
-                }
+    private static final ClientRegistry<List<String>,S3Client,RuntimeException>
+            CLIENTS = new ClientRegistry<>(
+                    S3Cache.class.getSimpleName(), 1,
+                    S3Cache::newClient, S3Client::close);
+
+    private final WriteBehindBuffer<String,Instant> touchBuffer =
+            WriteBehindBuffer.newInstance("S3Cache.touch", this::touch);
+
+    static S3Client getClientInstance() {
+        return CLIENTS.get(getClientSettings());
+    }
+
+    /**
+     * @return Endpoint, region, access key ID, and secret access key from the
+     *         application configuration, in that order.
+     */
+    private static List<String> getClientSettings() {
+        final Configuration config = Configuration.getInstance();
+        return Arrays.asList(
+                config.getString(Key.S3CACHE_ENDPOINT),
+                config.getString(Key.S3CACHE_REGION),
+                config.getString(Key.S3CACHE_ACCESS_KEY_ID),
+                config.getString(Key.S3CACHE_SECRET_KEY));
+    }
+
+    private static S3Client newClient(List<String> settings) {
+        final String endpointStr = settings.get(0);
+        URI endpointURI = null;
+        if (endpointStr != null) {
+            try {
+                endpointURI = new URI(endpointStr);
+            } catch (URISyntaxException e) {
+                LOGGER.error("Invalid URI for {}: {}",
+                        Key.S3CACHE_ENDPOINT, e.getMessage());
             }
-            client = new S3ClientBuilder()
-                    .accessKeyID(config.getString(Key.S3CACHE_ACCESS_KEY_ID))
-                    .secretAccessKey(config.getString(Key.S3CACHE_SECRET_KEY))
-                    .endpointURI(endpointURI)
-                    .region(config.getString(Key.S3CACHE_REGION))
-                    .build();
         }
-        return client;
+        return new S3ClientBuilder()
+                .accessKeyID(settings.get(2))
+                .secretAccessKey(settings.get(3))
+                .endpointURI(endpointURI)
+                .region(settings.get(1))
+                .build();
     }
 
     /**
@@ -178,7 +202,8 @@ class S3Cache implements DerivativeCache {
             // This extra validity check may be needed with minio server
             if (is != null && is.response().lastModified().isAfter(earliestValidInstant())) {
                 touchAsync(objectKey);
-                return is;
+                final Long length = is.response().contentLength();
+                return (length != null) ? new SizedInputStream(is, length) : is;
             } else {
                 consumeStreamAsync(is);
                 LOGGER.debug("{} in bucket {} is invalid; purging asynchronously",
@@ -410,7 +435,7 @@ class S3Cache implements DerivativeCache {
      * reading it. This method does that and then closes the stream.
      */
     private void consumeStreamAsync(InputStream inputStream) {
-        ThreadPool.getInstance().submit(() -> {
+        final Future<?> future = ThreadPool.getInstance().submitOptional(() -> {
             try {
                 inputStream.readAllBytes();
             } catch (IOException e) {
@@ -425,33 +450,61 @@ class S3Cache implements DerivativeCache {
                 }
             }
         });
+        if (future.isCancelled()) {
+            // The pool is saturated, so give up the connection rather than
+            // consuming the stream in this thread.
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                LOGGER.warn("consumeStreamAsync(): failed to close the stream: {}",
+                        e.getMessage());
+            }
+        }
     }
 
     /**
-     * Updates an object's "last-accessed time." Since S3 doesn't support a
-     * last-accessed time and S3 objects are immutable, this method copies the
-     * object with the given key to a new object with the same key. The new
-     * object has a new last-modified time which will serve as a last-accessed
-     * time.
+     * Updates an object's "last-accessed time" asynchronously. Repeated
+     * touches of the same object before it has been touched are coalesced.
+     *
+     * @see #touch(Map)
      */
     private void touchAsync(String objectKey) {
+        touchBuffer.put(objectKey, Instant.now());
+    }
+
+    /**
+     * Updates the "last-accessed times" of the given objects. Since S3
+     * doesn't support a last-accessed time and S3 objects are immutable, this
+     * method copies each object to a new object with the same key. The new
+     * object has a new last-modified time which will serve as a last-accessed
+     * time. S3 has no batch copy operation, so the objects are copied one at
+     * a time.
+     *
+     * @param batch Map of object keys to last-accessed times.
+     */
+    private void touch(Map<String,Instant> batch) {
         final S3Client client   = getClientInstance();
         final String bucketName = getBucketName();
-        ThreadPool.getInstance().submit(() -> {
-            LOGGER.debug("touchAsync(): {}", objectKey);
-            client.copyObject(CopyObjectRequest.builder()
-                    .copySource(bucketName + "/" + Reference.encode(objectKey))
-                    .destinationBucket(bucketName)
-                    .destinationKey(objectKey)
-                    // We aren't ever going to read this back in, but S3
-                    // requires some kind of change to the object before it can
-                    // be copied over itself. See:
-                    // https://docs.aws.amazon.com/AmazonS3/latest/dev/UsingMetadata.html
-                    .metadata(Map.of("x-amz-meta-last-accessed",
-                            String.valueOf(Instant.now().toEpochMilli())))
-                    .metadataDirective(MetadataDirective.REPLACE)
-                    .build());
-        }, ThreadPool.Priority.LOW);
+        batch.forEach((objectKey, instant) -> {
+            LOGGER.debug("touch(): {}", objectKey);
+            try {
+                client.copyObject(CopyObjectRequest.builder()
+                        .copySource(bucketName + "/" + Reference.encode(objectKey))
+                        .destinationBucket(bucketName)
+                        .destinationKey(objectKey)
+                        // We aren't ever going to read this back in, but S3
+                        // requires some kind of change to the object before
+                        // it can be copied over itself. See:
+                        // https://docs.aws.amazon.com/AmazonS3/latest/dev/UsingMetadata.html
+                        .metadata(Map.of("x-amz-meta-last-accessed",
+                                String.valueOf(instant.toEpochMilli())))
+                        .metadataDirective(MetadataDirective.REPLACE)
+                        .build());
+            } catch (SdkException e) {
+                LOGGER.warn("touch(): failed to touch {}: {}",
+                        objectKey, e.getMessage());
+            }
+        });
     }
 
 }
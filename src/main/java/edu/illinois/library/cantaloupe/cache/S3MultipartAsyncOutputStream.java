@@ -29,8 +29,8 @@ import java.util.concurrent.LinkedBlockingQueue;
  * creating the upload, uploading the parts, and completing the upload. Each of
  * these are encapsulated in {@link Runnable runnable} inner classes. The
  * {@link #write} methods add appropriate instances of these to a queue which
- * is consumed by a worker running in the {@link ThreadPool#getInstance()
- * application thread pool}.</p>
+ * is consumed by a worker running in a {@link ThreadPool#startThread(String,
+ * Runnable) dedicated thread}.</p>
  *
  * <p>Clients will notice that calls to {@link #write} and {@link #close()}
  * (that would otherwise block on communication with S3) return immediately.
@@ -254,7 +254,7 @@ public class S3MultipartAsyncOutputStream extends CompletableOutputStream {
         this.key         = key;
         this.contentType = contentType;
         this.instance    = this;
-        ThreadPool.getInstance().submit(worker);
+        ThreadPool.getInstance().startThread("s3-upload", worker);
     }
 
     @Override
@@ -0,0 +1,86 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Wraps a stream whose total length is known in advance. {@link
+ * DerivativeCache#newDerivativeImageInputStream} implementations return
+ * instances of this class when they can determine the size of the image
+ * cheaply, so that it can be sent in a {@code Content-Length} response
+ * header. When the image is read from a file, its {@link FileChannel} is
+ * available too, and when it is read from memory, the {@link ByteBuffer}s
+ * containing it are, so that it can be written to the response without
+ * passing through the heap.
+ *
+ * @since 6.0
+ */
+public final class SizedInputStream extends FilterInputStream {
+
+    private final long size;
+    private final FileChannel channel;
+    private final List<ByteBuffer> buffers;
+
+    /**
+     * @param in   Stream to wrap.
+     * @param size Number of bytes that can be read from the stream.
+     */
+    public SizedInputStream(InputStream in, long size) {
+        this(in, size, null);
+    }
+
+    /**
+     * @param in      Stream to wrap.
+     * @param size    Number of bytes that can be read from the stream.
+     * @param buffers Buffers containing the same data as the stream, which
+     *                must remain valid until the instance is closed.
+     */
+    public SizedInputStream(InputStream in, long size, List<ByteBuffer> buffers) {
+        super(in);
+        this.size    = size;
+        this.channel = null;
+        this.buffers = buffers;
+    }
+
+    /**
+     * @param channel Channel to read from, which will be closed along with
+     *                the instance.
+     */
+    public SizedInputStream(FileChannel channel) throws IOException {
+        super(Channels.newInputStream(channel));
+        this.size    = channel.size();
+        this.channel = channel;
+        this.buffers = null;
+    }
+
+    /**
+     * @return Buffers containing the data that the stream reads, which are
+     *         valid until the instance is closed, or {@code null} if it does
+     *         not read from memory. Reading from them does not advance the
+     *         stream.
+     */
+    public List<ByteBuffer> getBuffers() {
+        return buffers;
+    }
+
+    /**
+     * @return Channel from which the stream reads, or {@code null} if it does
+     *         not read from a file.
+     */
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return Number of bytes that can be read from the stream in total.
+     */
+    public long getSize() {
+        return size;
+    }
+
+}
@@ -164,6 +164,20 @@ public interface Configuration {
      */
     Iterator<String> getKeys();
 
+    /**
+     * Returns a number that changes whenever any of the key-value pairs in
+     * the instance change, which enables {@link ConfigurationProvider} to
+     * memoize values until then. The default implementation returns {@code
+     * 0}, which is only appropriate for implementations whose contents never
+     * change.
+     *
+     * @return Modification count.
+     * @since 6.0
+     */
+    default long getModificationCount() {
+        return 0;
+    }
+
     /**
      * @see #getLong(String)
      */
@@ -13,7 +13,7 @@ public final class ConfigurationFactory {
 
     public static final String CONFIG_VM_ARGUMENT = "cantaloupe.config";
 
-    private static Configuration instance;
+    private static volatile Configuration instance;
 
     public static synchronized void clearInstance() {
         if (instance != null) {
@@ -32,7 +32,17 @@ public final class ConfigurationFactory {
      * @throws MissingConfigurationException if the {@link #CONFIG_VM_ARGUMENT}
      *         VM argument is not set.
      */
-    static synchronized Configuration getInstance() {
+    static Configuration getInstance() {
+        // This is called many times per request, so it avoids locking once
+        // the instance has been created.
+        Configuration config = instance;
+        if (config == null) {
+            config = createInstance();
+        }
+        return config;
+    }
+
+    private static synchronized Configuration createInstance() {
         if (instance == null) {
             // We are going to return a ConfigurationProvider with either a
             // MapConfiguration at position 0 (for testing) or an
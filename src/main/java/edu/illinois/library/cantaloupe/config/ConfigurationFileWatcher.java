@@ -66,7 +66,7 @@ public final class ConfigurationFileWatcher {
                         FileChangeHandlerRunner runner =
                                 new FileChangeHandlerRunner(file.get());
                         CHANGE_HANDLERS.add(runner);
-                        ThreadPool.getInstance().submit(runner, ThreadPool.Priority.LOW);
+                        ThreadPool.getInstance().startThread("config-watcher", runner);
                     }
                 });
     }
@@ -1,21 +1,86 @@
 package edu.illinois.library.cantaloupe.config;
 
+import edu.illinois.library.cantaloupe.util.StringUtils;
+
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 
 /**
- * Configuration whose accessors access an ordered list of other configurations,
- * which enables "falling back" from one configuration source to another.
+ * <p>Configuration whose accessors access an ordered list of other
+ * configurations, which enables "falling back" from one configuration source
+ * to another.</p>
+ *
+ * <p>The instance is consulted many times per request, so the typed accessors
+ * memoize the values they resolve in a {@link Snapshot}, which is read
+ * without locking. A snapshot remains valid until the {@link
+ * Configuration#getModificationCount() modification count} of any of the
+ * wrapped configurations changes, for example when the configuration file is
+ * reloaded, whereupon it is atomically replaced by a new, empty one.</p>
  */
 public final class ConfigurationProvider implements Configuration {
 
-    private List<Configuration> wrappedConfigs;
+    /**
+     * Type of a memoized value.
+     */
+    private enum Type {
+        BOOLEAN, DOUBLE, FLOAT, INT, LONG, LONG_BYTES, PROPERTY, STRING
+    }
+
+    /**
+     * Values memoized from the wrapped configurations while they had
+     * particular modification counts. Each key maps to an array of values
+     * indexed by {@link Type#ordinal()}, in which a {@code null} element
+     * means that the value has not been resolved yet and an {@link #ABSENT}
+     * element means that none of the wrapped configurations contains a
+     * usable value.
+     */
+    private static final class Snapshot {
+
+        private final long[] modificationCounts;
+        private final Map<String,AtomicReferenceArray<Object>> values =
+                new ConcurrentHashMap<>();
+
+        private Snapshot(long[] modificationCounts) {
+            this.modificationCounts = modificationCounts;
+        }
+
+        private AtomicReferenceArray<Object> getValues(String key) {
+            AtomicReferenceArray<Object> keyValues = values.get(key);
+            if (keyValues == null) {
+                keyValues = values.computeIfAbsent(key,
+                        k -> new AtomicReferenceArray<>(NUM_TYPES));
+            }
+            return keyValues;
+        }
+
+        private boolean isCurrent(List<Configuration> configs) {
+            for (int i = 0; i < modificationCounts.length; i++) {
+                if (configs.get(i).getModificationCount() !=
+                        modificationCounts[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    private static final Object ABSENT = new Object();
+
+    private static final int NUM_TYPES = Type.values().length;
+
+    private final List<Configuration> wrappedConfigs;
+
+    private volatile Snapshot snapshot;
 
     /**
      * @param wrappedConfigs Backing configurations in the order they should be
@@ -37,6 +102,11 @@ public final class ConfigurationProvider implements Configuration {
 
     @Override
     public boolean getBoolean(String key) {
+        final Object value = getMemoized(key, Type.BOOLEAN);
+        if (value != ABSENT) {
+            return (Boolean) value;
+        }
+        // Not memoized, so that the appropriate exception is thrown.
         for (Configuration config : wrappedConfigs) {
             try {
                 return config.getBoolean(key);
@@ -47,16 +117,17 @@ public final class ConfigurationProvider implements Configuration {
 
     @Override
     public boolean getBoolean(String key, boolean defaultValue) {
-        for (Configuration config : wrappedConfigs) {
-            try {
-                return config.getBoolean(key);
-            } catch (NoSuchElementException | NumberFormatException ignore) {}
-        }
-        return defaultValue;
+        final Object value = getMemoized(key, Type.BOOLEAN);
+        return (value != ABSENT) ? (Boolean) value : defaultValue;
     }
 
     @Override
     public double getDouble(String key) {
+        final Object value = getMemoized(key, Type.DOUBLE);
+        if (value != ABSENT) {
+            return (Double) value;
+        }
+        // Not memoized, so that the appropriate exception is thrown.
         for (Configuration config : wrappedConfigs) {
             try {
                 return config.getDouble(key);
@@ -67,12 +138,8 @@ public final class ConfigurationProvider implements Configuration {
 
     @Override
     public double getDouble(String key, double defaultValue) {
-        for (Configuration config : wrappedConfigs) {
-            try {
-                return config.getDouble(key);
-            } catch (NoSuchElementException | NumberFormatException ignore) {}
-        }
-        return defaultValue;
+        final Object value = getMemoized(key, Type.DOUBLE);
+        return (value != ABSENT) ? (Double) value : defaultValue;
     }
 
     @Override
@@ -88,6 +155,11 @@ public final class ConfigurationProvider implements Configuration {
 
     @Override
     public float getFloat(String key) {
+        final Object value = getMemoized(key, Type.FLOAT);
+        if (value != ABSENT) {
+            return (Float) value;
+        }
+        // Not memoized, so that the appropriate exception is thrown.
         for (Configuration config : wrappedConfigs) {
             try {
                 return config.getFloat(key);
@@ -98,16 +170,17 @@ public final class ConfigurationProvider implements Configuration {
 
     @Override
     public float getFloat(String key, float defaultValue) {
-        for (Configuration config : wrappedConfigs) {
-            try {
-                return config.getFloat(key);
-            } catch (NoSuchElementException | NumberFormatException ignore) {}
-        }
-        return defaultValue;
+        final Object value = getMemoized(key, Type.FLOAT);
+        return (value != ABSENT) ? (Float) value : defaultValue;
     }
 
     @Override
     public int getInt(String key) {
+        final Object value = getMemoized(key, Type.INT);
+        if (value != ABSENT) {
+            return (Integer) value;
+        }
+        // Not memoized, so that the appropriate exception is thrown.
         for (Configuration config : wrappedConfigs) {
             try {
                 return config.getInt(key);
@@ -118,12 +191,8 @@ public final class ConfigurationProvider implements Configuration {
 
     @Override
     public int getInt(String key, int defaultValue) {
-        for (Configuration config : wrappedConfigs) {
-            try {
-                return config.getInt(key);
-            } catch (NoSuchElementException | NumberFormatException ignore) {}
-        }
-        return defaultValue;
+        final Object value = getMemoized(key, Type.INT);
+        return (value != ABSENT) ? (Integer) value : defaultValue;
     }
 
     @Override
@@ -154,6 +223,11 @@ public final class ConfigurationProvider implements Configuration {
 
     @Override
     public long getLong(String key) {
+        final Object value = getMemoized(key, Type.LONG);
+        if (value != ABSENT) {
+            return (Long) value;
+        }
+        // Not memoized, so that the appropriate exception is thrown.
         for (Configuration config : wrappedConfigs) {
             try {
                 return config.getLong(key);
@@ -164,53 +238,135 @@ public final class ConfigurationProvider implements Configuration {
 
     @Override
     public long getLong(String key, long defaultValue) {
+        final Object value = getMemoized(key, Type.LONG);
+        return (value != ABSENT) ? (Long) value : defaultValue;
+    }
+
+    @Override
+    public long getLongBytes(String key, long defaultValue) {
+        final Object value = getMemoized(key, Type.LONG_BYTES);
+        return (value != ABSENT) ? (Long) value : defaultValue;
+    }
+
+    /**
+     * Returns the value of the given type corresponding to the given key
+     * from the current {@link Snapshot}, resolving it first if necessary.
+     *
+     * @return Memoized value, or {@link #ABSENT}.
+     */
+    private Object getMemoized(String key, Type type) {
+        final AtomicReferenceArray<Object> values =
+                getSnapshot().getValues(key);
+        Object value = values.get(type.ordinal());
+        if (value == null) {
+            value = resolve(key, type);
+            values.set(type.ordinal(), value);
+        }
+        return value;
+    }
+
+    @Override
+    public long getModificationCount() {
+        long count = 0;
         for (Configuration config : wrappedConfigs) {
-            try {
-                return config.getLong(key);
-            } catch (NoSuchElementException | NumberFormatException ignore) {}
+            count += config.getModificationCount();
         }
-        return defaultValue;
+        return count;
     }
 
     @Override
     public Object getProperty(String key) {
-        Object value = null;
-        for (Configuration config : wrappedConfigs) {
-            value = config.getProperty(key);
-            if (value != null) {
-                break;
+        final Object value = getMemoized(key, Type.PROPERTY);
+        return (value != ABSENT) ? value : null;
+    }
+
+    /**
+     * @return Current snapshot, which is replaced first if any of the wrapped
+     *         configurations has been modified since it was created.
+     */
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null || !current.isCurrent(wrappedConfigs)) {
+            // The modification counts must be read before any values are
+            // resolved, so that a modification made in the meantime
+            // invalidates the new snapshot rather than being missed.
+            final long[] counts = new long[wrappedConfigs.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = wrappedConfigs.get(i).getModificationCount();
             }
+            current  = new Snapshot(counts);
+            snapshot = current;
         }
-        return value;
+        return current;
     }
 
     @Override
     public String getString(String key) {
-        String value = null;
-        for (Configuration config : wrappedConfigs) {
-            value = config.getString(key);
-            if (value != null) {
-                break;
-            }
-        }
-        return value;
+        final Object value = getMemoized(key, Type.STRING);
+        return (value != ABSENT) ? (String) value : null;
     }
 
     @Override
     public String getString(String key, String defaultValue) {
-        for (Configuration config : wrappedConfigs) {
-            String value = config.getString(key);
-            if (value != null) {
-                return value;
-            }
-        }
-        return defaultValue;
+        final Object value = getMemoized(key, Type.STRING);
+        return (value != ABSENT) ? (String) value : defaultValue;
     }
 
     public List<Configuration> getWrappedConfigurations() {
         return wrappedConfigs;
     }
 
+    /**
+     * Resolves the value of the given type corresponding to the given key
+     * from the wrapped configurations, consulting each of them in order until
+     * one of them contains a usable value.
+     *
+     * @return Resolved value, or {@link #ABSENT}.
+     */
+    private Object resolve(String key, Type type) {
+        if (Type.LONG_BYTES.equals(type)) {
+            final String str = getString(key);
+            if (str != null && !str.isEmpty()) {
+                try {
+                    return StringUtils.toByteSize(str);
+                } catch (NumberFormatException ignore) {}
+            }
+            return ABSENT;
+        }
+        for (Configuration config : wrappedConfigs) {
+            try {
+                Object value;
+                switch (type) {
+                    case BOOLEAN:
+                        value = config.getBoolean(key);
+                        break;
+                    case DOUBLE:
+                        value = config.getDouble(key);
+                        break;
+                    case FLOAT:
+                        value = config.getFloat(key);
+                        break;
+                    case INT:
+                        value = config.getInt(key);
+                        break;
+                    case LONG:
+                        value = config.getLong(key);
+                        break;
+                    case PROPERTY:
+                        value = config.getProperty(key);
+                        break;
+                    default:
+                        value = config.getString(key);
+                        break;
+                }
+                if (value != null) {
+                    return value;
+                }
+            } catch (NoSuchElementException | NumberFormatException ignore) {}
+        }
+        return ABSENT;
+    }
+
     @Override
     public void reload() {
         wrappedConfigs.forEach(c -> {
@@ -6,6 +6,7 @@ import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 /**
  * <p>Read-only configuration backed by the environment.</p>
@@ -18,10 +19,12 @@ import java.util.Optional;
  */
 class EnvironmentConfiguration implements Configuration {
 
-    private static final String ENVIRONMENT_KEY_REPLACEMENT = "[^A-Za-z0-9]";
+    private static final Pattern ENVIRONMENT_KEY_REPLACEMENT =
+            Pattern.compile("[^A-Za-z0-9]");
 
     static String toEnvironmentKey(String key) {
-        return key.toUpperCase().replaceAll(ENVIRONMENT_KEY_REPLACEMENT, "_");
+        return ENVIRONMENT_KEY_REPLACEMENT.matcher(key.toUpperCase())
+                .replaceAll("_");
     }
 
     /**
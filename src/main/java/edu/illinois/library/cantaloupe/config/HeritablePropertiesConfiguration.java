@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.StampedLock;
 
 /**
@@ -52,6 +53,8 @@ class HeritablePropertiesConfiguration implements MultipleFileConfiguration {
      */
     private byte[] mainContentsChecksum = new byte[0];
 
+    private final AtomicLong modificationCount = new AtomicLong();
+
     /**
      * @return Wrapped configurations in order from main to most distant
      *         ancestor.
@@ -80,6 +83,7 @@ class HeritablePropertiesConfiguration implements MultipleFileConfiguration {
         try {
             propertiesDocs.values().forEach(PropertiesDocument::clear);
             mainContentsChecksum = new byte[0];
+            modificationCount.incrementAndGet();
         } finally {
             lock.unlock(stamp);
         }
@@ -90,6 +94,7 @@ class HeritablePropertiesConfiguration implements MultipleFileConfiguration {
         final long stamp = lock.writeLock();
         try {
             propertiesDocs.values().forEach(doc -> doc.clearKey(key));
+            modificationCount.incrementAndGet();
         } finally {
             lock.unlock(stamp);
         }
@@ -310,6 +315,11 @@ class HeritablePropertiesConfiguration implements MultipleFileConfiguration {
         return allKeys.iterator();
     }
 
+    @Override
+    public long getModificationCount() {
+        return modificationCount.get();
+    }
+
     @Override
     public long getLong(String key) {
         Long lon = readLongOptimistically(key);
@@ -445,6 +455,7 @@ class HeritablePropertiesConfiguration implements MultipleFileConfiguration {
 
                 propertiesDocs.clear();
                 loadFileAndAncestors(mainConfigFile);
+                modificationCount.incrementAndGet();
             } catch (IOException | NoSuchAlgorithmException e) {
                 LOGGER.error("reload(): {}", e.getMessage(), e);
             } finally {
@@ -497,6 +508,7 @@ class HeritablePropertiesConfiguration implements MultipleFileConfiguration {
                     doc.set(key, value.toString());
                 }
             }
+            modificationCount.incrementAndGet();
         } finally {
             lock.unlock(stamp);
         }
@@ -13,6 +13,12 @@ package edu.illinois.library.cantaloupe.config;
  */
 public enum Key {
 
+    ADMISSION_CONTROL_CACHE_HITS_MAX_CONCURRENT("admission_control.cache_hits.max_concurrent"),
+    ADMISSION_CONTROL_ENABLED("admission_control.enabled"),
+    ADMISSION_CONTROL_INFO_MAX_CONCURRENT("admission_control.info.max_concurrent"),
+    ADMISSION_CONTROL_PROCESSING_MAX_PIXELS("admission_control.processing.max_pixels"),
+    ADMISSION_CONTROL_RETRY_AFTER("admission_control.retry_after_seconds"),
+    ADMISSION_CONTROL_TIMEOUT("admission_control.timeout_seconds"),
     ACCESS_LOG_CONSOLEAPPENDER_ENABLED("log.access.ConsoleAppender.enabled"),
     ACCESS_LOG_FILEAPPENDER_ENABLED("log.access.FileAppender.enabled"),
     ACCESS_LOG_FILEAPPENDER_PATHNAME("log.access.FileAppender.pathname"),
@@ -54,6 +60,7 @@ public enum Key {
     AZURESTORAGESOURCE_CHUNK_SIZE("AzureStorageSource.chunking.chunk_size"),
     AZURESTORAGESOURCE_CHUNK_CACHE_ENABLED("AzureStorageSource.chunking.cache.enabled"),
     AZURESTORAGESOURCE_CHUNK_CACHE_MAX_SIZE("AzureStorageSource.chunking.cache.max_size"),
+    AZURESTORAGESOURCE_CHUNK_READ_AHEAD("AzureStorageSource.chunking.read_ahead"),
     AZURESTORAGESOURCE_CONTAINER_NAME("AzureStorageSource.container_name"),
     AZURESTORAGESOURCE_LOOKUP_STRATEGY("AzureStorageSource.lookup_strategy"),
     BASE_URI("base_uri"),
@@ -92,6 +99,7 @@ public enum Key {
     FILESYSTEMSOURCE_PATH_SUFFIX("FilesystemSource.BasicLookupStrategy.path_suffix"),
     HEALTH_DEPENDENCY_CHECK("endpoint.health.dependency_check"),
     HEALTH_ENDPOINT_ENABLED("endpoint.health.enabled"),
+    HEAPCACHE_OFF_HEAP("HeapCache.off_heap"),
     HEAPCACHE_PATHNAME("HeapCache.persist.filesystem.pathname"),
     HEAPCACHE_PERSIST("HeapCache.persist"),
     HEAPCACHE_TARGET_SIZE("HeapCache.target_size"),
@@ -108,6 +116,7 @@ public enum Key {
     HTTPSOURCE_CHUNK_SIZE("HttpSource.chunking.chunk_size"),
     HTTPSOURCE_CHUNK_CACHE_ENABLED("HttpSource.chunking.cache.enabled"),
     HTTPSOURCE_CHUNK_CACHE_MAX_SIZE("HttpSource.chunking.cache.max_size"),
+    HTTPSOURCE_CHUNK_READ_AHEAD("HttpSource.chunking.read_ahead"),
     HTTPSOURCE_HTTP_PROXY_HOST("HttpSource.proxy.http.host"),
     HTTPSOURCE_HTTP_PROXY_PORT("HttpSource.proxy.http.port"),
     HTTPSOURCE_LOOKUP_STRATEGY("HttpSource.lookup_strategy"),
@@ -140,6 +149,9 @@ public enum Key {
     JDBCSOURCE_PASSWORD("JdbcSource.password"),
     JDBCSOURCE_USER("JdbcSource.user"),
     LOG_ERROR_RESPONSES("log_error_responses"),
+    LOOKUP_CACHE_ENABLED("cache.server.lookup.enabled"),
+    LOOKUP_CACHE_MAX_SIZE("cache.server.lookup.max_size"),
+    LOOKUP_CACHE_TTL("cache.server.lookup.ttl_seconds"),
     MAX_PIXELS("max_pixels"),
     MAX_SCALE("max_scale"),
     META_IDENTIFIER_TRANSFORMER("meta_identifier.transformer"),
@@ -165,9 +177,14 @@ public enum Key {
     OVERLAY_TYPE("overlays.BasicStrategy.type"),
     PRINT_STACK_TRACE_ON_ERROR_PAGES("print_stack_trace_on_error_pages"),
     PROCESSOR_BACKGROUND_COLOR("processor.background_color"),
+    PROCESSOR_COALESCE_ENABLED("processor.coalesce.enabled"),
+    PROCESSOR_COALESCE_MAX_SIZE("processor.coalesce.max_size"),
+    PROCESSOR_COALESCE_TIMEOUT("processor.coalesce.timeout_seconds"),
     PROCESSOR_DOWNSCALE_LINEAR("processor.downscale_linear"),
     PROCESSOR_DOWNSCALE_FILTER("processor.downscale_filter"),
     PROCESSOR_DPI("processor.dpi"),
+    PROCESSOR_EXTERNAL_MAX_PROCESSES("processor.external.max_processes"),
+    PROCESSOR_EXTERNAL_TIMEOUT("processor.external.timeout_seconds"),
     PROCESSOR_PDF_SCRATCH_FILE_ENABLED("processor.pdf.scratch_file_enabled"),
     PROCESSOR_PDF_MAX_MEMORY_BYTES("processor.pdf.max_memory_bytes"),
     PROCESSOR_FALLBACK("processor.ManualSelectionStrategy.fallback"),
@@ -199,6 +216,7 @@ public enum Key {
     S3SOURCE_CHUNK_SIZE("S3Source.chunking.chunk_size"),
     S3SOURCE_CHUNK_CACHE_ENABLED("S3Source.chunking.cache.enabled"),
     S3SOURCE_CHUNK_CACHE_MAX_SIZE("S3Source.chunking.cache.max_size"),
+    S3SOURCE_CHUNK_READ_AHEAD("S3Source.chunking.read_ahead"),
     S3SOURCE_ENDPOINT("S3Source.endpoint"),
     S3SOURCE_LOOKUP_STRATEGY("S3Source.lookup_strategy"),
     S3SOURCE_PATH_PREFIX("S3Source.BasicLookupStrategy.path_prefix"),
@@ -209,7 +227,13 @@ public enum Key {
     SOURCE_CACHE("cache.server.source"),
     SOURCE_CACHE_TTL("cache.server.source.ttl_seconds"),
     STANDARD_META_IDENTIFIER_TRANSFORMER_DELIMITER("meta_identifier.transformer.StandardMetaIdentifierTransformer.delimiter"),
-    TEMP_PATHNAME("temp_pathname");
+    TASK_QUEUE_BATCH_SIZE("task_queue.batch_size"),
+    TASK_QUEUE_SIZE("task_queue.queue_size"),
+    TASK_QUEUE_WORKERS("task_queue.workers"),
+    TEMP_PATHNAME("temp_pathname"),
+    THREAD_POOL_COMPUTE_THREADS("thread_pool.compute.threads"),
+    THREAD_POOL_MAX_THREADS("thread_pool.max_threads"),
+    THREAD_POOL_QUEUE_SIZE("thread_pool.queue_size");
 
     private final String key;
 
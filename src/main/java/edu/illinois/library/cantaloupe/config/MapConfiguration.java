@@ -9,6 +9,7 @@ import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * In-memory configuration that cannot be persisted.
@@ -18,16 +19,23 @@ public class MapConfiguration implements Configuration {
     private final ConcurrentMap<String,Object> configuration =
             new ConcurrentHashMap<>();
 
+    private final AtomicLong modificationCount = new AtomicLong();
+
     @Override
     public void clear() {
         configuration.keySet().clear();
+        modificationCount.incrementAndGet();
     }
 
     @Override
     public void clearProperty(String key) {
         configuration.remove(key);
+        modificationCount.incrementAndGet();
     }
 
+    /**
+     * @return Backing map, which must not be modified directly.
+     */
     public Map<String,Object> getBackingMap() {
         return configuration;
     }
@@ -115,6 +123,11 @@ public class MapConfiguration implements Configuration {
         return configuration.keySet().iterator();
     }
 
+    @Override
+    public long getModificationCount() {
+        return modificationCount.get();
+    }
+
     @Override
     public long getLong(String key) {
         Object value = configuration.get(key);
@@ -171,6 +184,7 @@ public class MapConfiguration implements Configuration {
     @Override
     public void setProperty(String key, Object value) {
         configuration.put(key, value);
+        modificationCount.incrementAndGet();
     }
 
 }
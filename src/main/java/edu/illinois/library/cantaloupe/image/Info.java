@@ -210,7 +210,7 @@ public final class Info {
 
         /**
          * <p>Added a {@code serializationTimestamp} key containing an ISO 8601
-         * timestamp in UTC.</p>
+         * timestamp in UTC, and an optional {@code sourceVersion} key.</p>
          *
          * <p>Introduced in application version 6.0.</p>
          */
@@ -235,6 +235,7 @@ public final class Info {
     private Metadata metadata               = new Metadata();
     private Serialization serialization     = Serialization.CURRENT;
     private Instant serializationTimestamp;
+    private String sourceVersion;
 
     /**
      * Ordered list of subimages. The main image is at index {@code 0}.
@@ -280,7 +281,7 @@ public final class Info {
 
     /**
      * N.B.: the {@link #getSerializationTimestamp() serialization timestamp}
-     * is not considered.
+     * and {@link #getSourceVersion() source version} are not considered.
      */
     @Override
     public boolean equals(Object obj) {
@@ -421,6 +422,19 @@ public final class Info {
         return Format.UNKNOWN;
     }
 
+    /**
+     * N.B.: This is stored with the instance so that an entity tag can be
+     * derived for a derivative image that is streamed from a cache without
+     * accessing the source image.
+     *
+     * @return Entity tag or last-modified time of the source image at the
+     *         time it was last accessed, or {@code null} if unknown.
+     * @since 6.0
+     */
+    public String getSourceVersion() {
+        return sourceVersion;
+    }
+
     @Override
     public int hashCode() {
         int[] codes = new int[7];
@@ -543,6 +557,15 @@ public final class Info {
         }
     }
 
+    /**
+     * @param sourceVersion Entity tag or last-modified time of the source
+     *                      image.
+     * @since 6.0
+     */
+    public void setSourceVersion(String sourceVersion) {
+        this.sourceVersion = sourceVersion;
+    }
+
     /**
      * @return JSON representation of the instance.
      */
@@ -18,6 +18,7 @@ import static edu.illinois.library.cantaloupe.image.InfoSerializer.METADATA_KEY;
 import static edu.illinois.library.cantaloupe.image.InfoSerializer.NUM_RESOLUTIONS_KEY;
 import static edu.illinois.library.cantaloupe.image.InfoSerializer.SERIALIZATION_TIMESTAMP_KEY;
 import static edu.illinois.library.cantaloupe.image.InfoSerializer.SERIALIZATION_VERSION_KEY;
+import static edu.illinois.library.cantaloupe.image.InfoSerializer.SOURCE_VERSION_KEY;
 
 /**
  * Deserializes an {@link Info}.
@@ -64,6 +65,12 @@ final class InfoDeserializer extends JsonDeserializer<Info> {
                 info.setMediaType(new MediaType(mediaTypeNode.textValue()));
             }
         }
+        { // sourceVersion (does not exist in < 6.0 serializations)
+            JsonNode sourceVersionNode = node.get(SOURCE_VERSION_KEY);
+            if (sourceVersionNode != null) {
+                info.setSourceVersion(sourceVersionNode.textValue());
+            }
+        }
         { // numResolutions (does not exist in < 4.0 serializations)
             JsonNode numResolutionsNode = node.get(NUM_RESOLUTIONS_KEY);
             if (numResolutionsNode != null) {
@@ -24,6 +24,7 @@ final class InfoSerializer extends JsonSerializer<Info> {
     static final String NUM_RESOLUTIONS_KEY         = "numResolutions";
     static final String SERIALIZATION_TIMESTAMP_KEY = "serializationTimestamp";
     static final String SERIALIZATION_VERSION_KEY   = "serializationVersion";
+    static final String SOURCE_VERSION_KEY          = "sourceVersion";
 
     @Override
     public void serialize(Info info,
@@ -49,6 +50,11 @@ final class InfoSerializer extends JsonSerializer<Info> {
             generator.writeStringField(MEDIA_TYPE_KEY,
                     info.getMediaType().toString());
         }
+        // sourceVersion
+        if (info.getSourceVersion() != null) {
+            generator.writeStringField(SOURCE_VERSION_KEY,
+                    info.getSourceVersion());
+        }
         // numResolutions
         generator.writeNumberField(NUM_RESOLUTIONS_KEY,
                 info.getNumResolutions());
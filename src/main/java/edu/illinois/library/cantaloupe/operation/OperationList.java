@@ -10,6 +10,7 @@ import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.image.MetaIdentifier;
 import edu.illinois.library.cantaloupe.image.Metadata;
 import edu.illinois.library.cantaloupe.image.Orientation;
+import edu.illinois.library.cantaloupe.image.Rectangle;
 import edu.illinois.library.cantaloupe.image.ScaleConstraint;
 import edu.illinois.library.cantaloupe.operation.overlay.Overlay;
 import edu.illinois.library.cantaloupe.operation.overlay.OverlayFactory;
@@ -42,7 +43,9 @@ import java.util.stream.Stream;
  *     <li>To describe a list of image transform operations;</li>
  *     <li>To uniquely identify a post-processed (&quot;derivative&quot;) image
  *     created using the instance. For example, the return values of {@link
- *     #toString()} or {@link #toFilename()} may be used in cache keys.</li>
+ *     #toString()} or {@link #toFilename()} may be used in cache keys. To
+ *     make equivalent instances produce equal keys, {@link
+ *     #canonicalize(Dimension)} should be invoked first.</li>
  * </ol>
  *
  * <p>Endpoints translate request arguments into instances of this class, in
@@ -116,6 +119,12 @@ public final class OperationList implements Iterable<Operation> {
     private final Map<String,Object> options = new HashMap<>();
     private int pageIndex;
 
+    /**
+     * Set by {@link #canonicalize(Dimension)}, and reset by every mutator, as
+     * it may no longer reflect the operations afterwards.
+     */
+    private List<String> canonicalOperations;
+
     public static OperationList.Builder builder() {
         return new Builder();
     }
@@ -144,6 +153,7 @@ public final class OperationList implements Iterable<Operation> {
     public void add(Operation op) {
         if (op != null) {
             checkFrozen();
+            invalidateCanonicalForm();
             operations.add(op);
         }
     }
@@ -157,6 +167,7 @@ public final class OperationList implements Iterable<Operation> {
     public void add(int index, Operation op) {
         if (op != null) {
             checkFrozen();
+            invalidateCanonicalForm();
             operations.add(index, op);
         }
     }
@@ -176,6 +187,7 @@ public final class OperationList implements Iterable<Operation> {
                          Class<? extends Operation> afterClass) {
         if (op != null) {
             checkFrozen();
+            invalidateCanonicalForm();
             final int index = lastIndexOf(afterClass);
             if (index >= 0) {
                 operations.add(index + 1, op);
@@ -199,6 +211,7 @@ public final class OperationList implements Iterable<Operation> {
                           Class<? extends Operation> beforeClass) {
         if (op != null) {
             checkFrozen();
+            invalidateCanonicalForm();
             int index = firstIndexOf(beforeClass);
             if (index >= 0) {
                 operations.add(index, op);
@@ -227,6 +240,7 @@ public final class OperationList implements Iterable<Operation> {
     public void applyNonEndpointMutations(final Info info,
                                           final DelegateProxy delegateProxy) {
         checkFrozen();
+        invalidateCanonicalForm();
 
         // If there is a scale constraint set, but no Scale operation, add one.
         if (getScaleConstraint().hasEffect()) {
@@ -375,6 +389,77 @@ public final class OperationList implements Iterable<Operation> {
         }
     }
 
+    /**
+     * <p>Computes a canonical representation of the instance, relative to the
+     * given full source image size, which is used by {@link #toString()} and
+     * {@link #toFilename()} thereafter. Within it:</p>
+     *
+     * <ul>
+     *     <li>{@link Crop}s are expressed as pixel rectangles, and {@link
+     *     Scale}s as resulting pixel sizes, so that e.g. {@literal pct:50},
+     *     {@literal 500,} and {@literal !500,500} requests for a 1000&times;1000
+     *     image are equal;</li>
+     *     <li>Operations that have no effect are omitted;</li>
+     *     <li>{@link #getOptions() Options}, which are copied from the request
+     *     query and don't affect the resulting image, are omitted.</li>
+     * </ul>
+     *
+     * <p>This method should be called after {@link
+     * #applyNonEndpointMutations}, and after any other mutations, but before
+     * the instance is used in a derivative cache key.</p>
+     *
+     * @param fullSize Full size of the source image, or of the page indicated
+     *                 by {@link #getPageIndex()}.
+     * @throws IllegalStateException if the instance is frozen.
+     */
+    public void canonicalize(Dimension fullSize) {
+        checkFrozen();
+        final ScaleConstraint scaleConstraint = getScaleConstraint();
+        final List<String> parts = new ArrayList<>();
+        Dimension size = fullSize;
+        for (Operation op : operations) {
+            final Dimension resultingSize =
+                    op.getResultingSize(size, scaleConstraint);
+            if (op instanceof Crop) {
+                final Rectangle rect =
+                        ((Crop) op).getRectangle(size, scaleConstraint);
+                if (rect.intX() != 0 || rect.intY() != 0 ||
+                        !isSamePixelSize(rect.size(), size)) {
+                    parts.add("crop:" + rect.intX() + "," + rect.intY() + "," +
+                            rect.intWidth() + "," + rect.intHeight());
+                }
+            } else if (op instanceof Scale) {
+                if (!isSamePixelSize(resultingSize, size)) {
+                    String part = "scale:" + resultingSize.intWidth() + "," +
+                            resultingSize.intHeight();
+                    final Scale.Filter filter = ((Scale) op).getFilter();
+                    if (filter != null) {
+                        part += "," + filter.name().toLowerCase();
+                    }
+                    parts.add(part);
+                }
+            } else if (op.hasEffect(fullSize, this)) {
+                final String opName = op.getClass().getSimpleName().toLowerCase();
+                parts.add(opName + ":" + op.toString());
+            }
+            size = resultingSize;
+        }
+        canonicalOperations = Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * Discards the result of {@link #canonicalize(Dimension)}, which must be
+     * invoked again after the mutation.
+     */
+    private void invalidateCanonicalForm() {
+        canonicalOperations = null;
+    }
+
+    private static boolean isSamePixelSize(Dimension size1, Dimension size2) {
+        return size1.intWidth() == size2.intWidth() &&
+                size1.intHeight() == size2.intHeight();
+    }
+
     private void checkFrozen() {
         if (isFrozen) {
             throw new IllegalStateException("Instance is frozen.");
@@ -386,6 +471,7 @@ public final class OperationList implements Iterable<Operation> {
      */
     public void clear() {
         checkFrozen();
+        invalidateCanonicalForm();
         operations.clear();
     }
 
@@ -580,7 +666,24 @@ public final class OperationList implements Iterable<Operation> {
         if (isFrozen) {
             return Collections.unmodifiableList(operations).iterator();
         }
-        return operations.iterator();
+        final Iterator<Operation> it = operations.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Operation next() {
+                return it.next();
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+                invalidateCanonicalForm();
+            }
+        };
     }
 
     /**
@@ -599,6 +702,7 @@ public final class OperationList implements Iterable<Operation> {
 
     public void remove(Operation op) {
         checkFrozen();
+        invalidateCanonicalForm();
         operations.remove(op);
     }
 
@@ -609,6 +713,7 @@ public final class OperationList implements Iterable<Operation> {
      */
     public void setIdentifier(Identifier identifier) {
         checkFrozen();
+        invalidateCanonicalForm();
         this.identifier = identifier;
     }
 
@@ -622,6 +727,7 @@ public final class OperationList implements Iterable<Operation> {
      */
     public void setMetaIdentifier(MetaIdentifier metaIdentifier) {
         checkFrozen();
+        invalidateCanonicalForm();
         this.metaIdentifier = metaIdentifier;
     }
 
@@ -635,6 +741,7 @@ public final class OperationList implements Iterable<Operation> {
     @Deprecated
     public void setPageIndex(int pageIndex) {
         checkFrozen();
+        invalidateCanonicalForm();
         if (pageIndex < 0) {
             throw new IllegalArgumentException("Page index must be >= 0");
         }
@@ -651,6 +758,10 @@ public final class OperationList implements Iterable<Operation> {
      *
      * <p>{@literal [hashed identifier]_[page number + hashed scale constraint + operation list + options list].[output format extension]}</p>
      *
+     * <p>If the instance has been {@link #canonicalize(Dimension)
+     * canonicalized}, the canonical operation list is used instead, and
+     * options are omitted.</p>
+     *
      * @return Filename string.
      */
     public String toFilename() {
@@ -663,14 +774,18 @@ public final class OperationList implements Iterable<Operation> {
         if (getScaleConstraint().hasEffect()) {
             parts.add(0, getScaleConstraint().toString());
         }
-        // Add operations
-        parts.addAll(stream().
-                filter(Operation::hasEffect).
-                map(Operation::toString).
-                collect(Collectors.toList()));
-        // Add options
-        for (String key : getOptions().keySet()) {
-            parts.add(key + ":" + this.getOptions().get(key));
+        if (canonicalOperations != null) {
+            parts.addAll(canonicalOperations);
+        } else {
+            // Add operations
+            parts.addAll(stream().
+                    filter(Operation::hasEffect).
+                    map(Operation::toString).
+                    collect(Collectors.toList()));
+            // Add options
+            for (String key : getOptions().keySet()) {
+                parts.add(key + ":" + this.getOptions().get(key));
+            }
         }
 
         String opsString = StringUtils.md5(String.join("_", parts));
@@ -727,7 +842,9 @@ public final class OperationList implements Iterable<Operation> {
     /**
      * @return String representation of the instance, guaranteed to uniquely
      *         represent the instance, but not guaranteed to have any particular
-     *         format.
+     *         format. If the instance has been {@link
+     *         #canonicalize(Dimension) canonicalized}, equivalent instances
+     *         have equal representations.
      */
     @Override
     public String toString() {
@@ -739,6 +856,10 @@ public final class OperationList implements Iterable<Operation> {
             parts.add(getPageIndex() + "");
         }
         parts.add(getScaleConstraint().toString());
+        if (canonicalOperations != null) {
+            parts.addAll(canonicalOperations);
+            return String.join("_", parts);
+        }
         for (Operation op : this) {
             if (op.hasEffect()) {
                 final String opName = op.getClass().getSimpleName().toLowerCase();
@@ -1,6 +1,5 @@
 package edu.illinois.library.cantaloupe.processor;
 
-import edu.illinois.library.cantaloupe.async.ThreadPool;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Dimension;
@@ -137,39 +136,36 @@ class FfmpegProcessor extends AbstractProcessor implements FileProcessor {
         final ByteArrayOutputStream errorBucket = new ByteArrayOutputStream();
         try {
             final ProcessBuilder pb = getProcessBuilder(opList);
-            LOGGER.trace("Invoking {}", String.join(" ", pb.command()));
-            final Process process = pb.start();
-
-            try (final InputStream processInputStream = process.getInputStream();
-                 final InputStream processErrorStream = process.getErrorStream()) {
-                ThreadPool.getInstance().submit(
-                        new StreamCopier(processErrorStream, errorBucket));
 
+            // The process is closed, freeing its slot for another request,
+            // as soon as its output has been read.
+            BufferedImage image;
+            try (ProcessLauncher.LaunchedProcess process =
+                         ProcessLauncher.getInstance().launch(pb, errorBucket);
+                 InputStream processInputStream = process.getInputStream()) {
                 final ImageReader reader = new ImageReaderFactory().newImageReader(
                         Format.get("bmp"), processInputStream);
                 try {
-                    BufferedImage image = reader.read(0);
-                    image = Java2DPostProcessor.postProcess(
-                            image, null, opList, imageInfo, null);
-                    ImageWriterFacade.write(
-                            image,
-                            (Encode) opList.getFirst(Encode.class),
-                            outputStream);
-                    final int code = process.waitFor();
-                    if (code != 0) {
-                        LOGGER.error("{} returned with code {}",
-                                FFMPEG_NAME, code);
-                        final String errorStr = errorBucket.toString(StandardCharsets.UTF_8);
-                        if (errorStr != null && errorStr.isBlank()) {
-                            throw new ProcessorException(errorStr);
-                        }
-                    }
+                    image = reader.read(0);
                 } finally {
                     reader.dispose();
                 }
-            } finally {
-                process.destroy();
+                final int code = process.waitFor();
+                if (code != 0) {
+                    LOGGER.error("{} returned with code {}",
+                            FFMPEG_NAME, code);
+                    final String errorStr = errorBucket.toString(StandardCharsets.UTF_8);
+                    if (errorStr != null && errorStr.isBlank()) {
+                        throw new ProcessorException(errorStr);
+                    }
+                }
             }
+            image = Java2DPostProcessor.postProcess(
+                    image, null, opList, imageInfo, null);
+            ImageWriterFacade.write(
+                    image,
+                    (Encode) opList.getFirst(Encode.class),
+                    outputStream);
         } catch (Exception e) {
             String msg = e.getMessage();
             final String errorStr = errorBucket.toString(StandardCharsets.UTF_8);
@@ -401,6 +401,9 @@ class GrokProcessor  extends AbstractProcessor implements FileProcessor {
             LOGGER.debug(msg, e);
             throw new ProcessorException(msg, e);
         } catch (IOException | InterruptedException e) {
+            if (ProcessLauncher.isRejection(e)) {
+                throw new ProcessorException(e.getMessage(), e);
+            }
             final String errorStr = toString(errorBucket);
             //if (errorStr.contains("does not contain a JPEG 2000 code stream")) {
                 throw new SourceFormatException(getSourceFormat());
@@ -419,19 +422,17 @@ class GrokProcessor  extends AbstractProcessor implements FileProcessor {
         final ByteArrayOutputStream inputBucket = new ByteArrayOutputStream();
         final Path intermediateFile = getIntermediateImageFile(opList);
         final ReductionFactor reductionFactor = new ReductionFactor();
-        final ThreadPool pool = ThreadPool.getInstance();
 
         final ProcessBuilder pb = getProcessBuilder(
                 opList, info.getSize(), info.getNumResolutions(),
                 reductionFactor, intermediateFile);
-        LOGGER.debug("Invoking {}", String.join(" ", pb.command()));
-        final Process process = pb.start();
 
-        try (final InputStream processInputStream =
-                     new BufferedInputStream(process.getInputStream());
-             final InputStream processErrorStream = process.getErrorStream()) {
-            pool.submit(new StreamCopier(processErrorStream, errorOutput));
-            pool.submit(new StreamCopier(processInputStream, inputBucket));
+        try (ProcessLauncher.LaunchedProcess process =
+                     ProcessLauncher.getInstance().launch(pb, errorOutput);
+             InputStream processInputStream =
+                     new BufferedInputStream(process.getInputStream())) {
+            ThreadPool.getInstance().submit(
+                    new StreamCopier(processInputStream, inputBucket));
 
             final int code = process.waitFor();
             if (code != 0) {
@@ -440,8 +441,6 @@ class GrokProcessor  extends AbstractProcessor implements FileProcessor {
                 errorStr += "\nPathname: " + getSourceFile();
                 throw new IOException(errorStr);
             }
-        } finally {
-            process.destroy();
         }
 
         try (InputStream is = Files.newInputStream(intermediateFile)) {
@@ -481,49 +480,45 @@ class GrokProcessor  extends AbstractProcessor implements FileProcessor {
         final ProcessBuilder pb = getProcessBuilder(
                 opList, info.getSize(), info.getNumResolutions(),
                 reductionFactor, stdoutSymlink);
-        LOGGER.debug("Invoking {}", String.join(" ", pb.command()));
-        final Process process = pb.start();
-
-        try (final InputStream processInputStream =
-                     new BufferedInputStream(process.getInputStream());
-             final InputStream processErrorStream = process.getErrorStream()) {
-            ThreadPool.getInstance().submit(
-                    new StreamCopier(processErrorStream, errorOutput));
 
+        // The process is closed, freeing its slot for another request, as
+        // soon as its output has been read.
+        BufferedImage image;
+        try (ProcessLauncher.LaunchedProcess process =
+                     ProcessLauncher.getInstance().launch(pb, errorOutput);
+             InputStream processInputStream =
+                     new BufferedInputStream(process.getInputStream())) {
             final ImageReader reader = new ImageReaderFactory().newImageReader(
                     Format.get("bmp"), processInputStream);
             try {
-                final Set<ReaderHint> hints =
-                        EnumSet.of(ReaderHint.ALREADY_CROPPED);
-
-                BufferedImage image = reader.read(0);
-                image = Java2DPostProcessor.postProcess(
-                        image, hints, opList, info, reductionFactor);
-
-                ImageWriterFacade.write(image,
-                        (Encode) opList.getFirst(Encode.class),
-                        outputStream);
-
-                final int code = process.waitFor();
-                if (code != 0) {
-                    LOGGER.warn("{} returned with code {}",
-                            GRK_DECOMPRESS_NAME, code);
-                    String errorStr = toString(errorOutput);
-                    errorStr += "\nPathname: " + getSourceFile();
-                    throw new IOException(errorStr);
-                }
+                image = reader.read(0);
             } finally {
                 reader.dispose();
             }
-        } finally {
-            process.destroy();
 
+            final int code = process.waitFor();
+            if (code != 0) {
+                LOGGER.warn("{} returned with code {}",
+                        GRK_DECOMPRESS_NAME, code);
+                String errorStr = toString(errorOutput);
+                errorStr += "\nPathname: " + getSourceFile();
+                throw new IOException(errorStr);
+            }
+        } finally {
             TaskQueue.getInstance().submit(() -> {
                 LOGGER.debug("Deleting {}", stdoutSymlink);
                 Files.delete(stdoutSymlink);
                 return null;
             });
         }
+
+        final Set<ReaderHint> hints = EnumSet.of(ReaderHint.ALREADY_CROPPED);
+        image = Java2DPostProcessor.postProcess(
+                image, hints, opList, info, reductionFactor);
+
+        ImageWriterFacade.write(image,
+                (Encode) opList.getFirst(Encode.class),
+                outputStream);
     }
 
     /**
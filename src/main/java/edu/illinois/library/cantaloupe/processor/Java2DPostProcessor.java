@@ -104,17 +104,29 @@ final class Java2DPostProcessor {
             }
         }
 
-        if (!readerHints.contains(ReaderHint.ALREADY_ORIENTED) &&
-                !Orientation.ROTATE_0.equals(orientation)) {
-            image = Java2DUtil.rotate(image, orientation);
-        }
-
-        // Apply redactions.
         final Set<Redaction> redactions = opList.stream()
                 .filter(op -> op instanceof Redaction &&
                         op.hasEffect(fullSize, opList))
                 .map(op -> (Redaction) op)
                 .collect(Collectors.toSet());
+
+        // Right-angle rotations and transpositions are not applied right
+        // away, but accumulated here until some other operation needs the
+        // image, and then applied all at once in one pass. This includes the
+        // orientation correction, which would otherwise have to be applied
+        // before any redactions, which are relative to the oriented image.
+        final List<Operation> pendingTransforms = new ArrayList<>();
+
+        if (!readerHints.contains(ReaderHint.ALREADY_ORIENTED) &&
+                !Orientation.ROTATE_0.equals(orientation)) {
+            if (redactions.isEmpty()) {
+                pendingTransforms.add(new Rotate(orientation.getDegrees()));
+            } else {
+                image = Java2DUtil.rotate(image, orientation);
+            }
+        }
+
+        // Apply redactions.
         Java2DUtil.applyRedactions(image, fullSize, crop,
                 new double[] { 1.0, 1.0 }, reductionFactor,
                 opList.getScaleConstraint(), redactions);
@@ -124,20 +136,27 @@ final class Java2DPostProcessor {
             if (!op.hasEffect(fullSize, opList)) {
                 continue;
             }
+            if (isRightAngleTransform(op)) {
+                pendingTransforms.add(op);
+                continue;
+            }
+            if (op instanceof Scale || op instanceof Rotate ||
+                    op instanceof ColorTransform || op instanceof Sharpen ||
+                    op instanceof Overlay) {
+                image = applyTransforms(image, pendingTransforms);
+            }
             if (op instanceof Scale) {
                 final Scale scale = (Scale) op;
                 final boolean isLinear = scale.isLinear() &&
                         !scale.isUp(fullSize, opList.getScaleConstraint());
                 if (isLinear) {
-                    image = Java2DUtil.convertColorToLinearRGB(image);
-                }
-                image = Java2DUtil.scale(image, scale,
-                        opList.getScaleConstraint(), reductionFactor, isLinear);
-                if (isLinear) {
-                    image = Java2DUtil.convertColorToSRGB(image);
+                    image = Java2DUtil.scaleLinearly(image, scale,
+                            opList.getScaleConstraint(), reductionFactor);
+                } else {
+                    image = Java2DUtil.scale(image, scale,
+                            opList.getScaleConstraint(), reductionFactor,
+                            false);
                 }
-            } else if (op instanceof Transpose) {
-                image = Java2DUtil.transpose(image, (Transpose) op);
             } else if (op instanceof Rotate) {
                 image = Java2DUtil.rotate(image, (Rotate) op);
             } else if (op instanceof ColorTransform) {
@@ -148,6 +167,33 @@ final class Java2DPostProcessor {
                 Java2DUtil.applyOverlay(image, (Overlay) op);
             }
         }
+        return applyTransforms(image, pendingTransforms);
+    }
+
+    /**
+     * @return Whether the given operation is a {@link Transpose} or a
+     *         right-angle {@link Rotate}, which can be combined with others
+     *         of its kind by {@link Java2DUtil#rotateAndTranspose}.
+     */
+    private static boolean isRightAngleTransform(Operation op) {
+        return op instanceof Transpose ||
+                (op instanceof Rotate && ((Rotate) op).getDegrees() % 90 == 0);
+    }
+
+    /**
+     * Applies and clears the given transforms.
+     *
+     * @param image      Image to transform.
+     * @param transforms Transforms accepted by {@link
+     *                   Java2DUtil#rotateAndTranspose}.
+     * @return           Transformed image.
+     */
+    private static BufferedImage applyTransforms(BufferedImage image,
+                                                 List<Operation> transforms) {
+        if (!transforms.isEmpty()) {
+            image = Java2DUtil.rotateAndTranspose(image, transforms);
+            transforms.clear();
+        }
         return image;
     }
 
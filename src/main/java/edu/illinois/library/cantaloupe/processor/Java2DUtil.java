@@ -48,10 +48,12 @@ import java.awt.image.ColorConvertOp;
 import java.awt.image.ColorModel;
 import java.awt.image.ComponentColorModel;
 import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -954,6 +956,80 @@ public final class Java2DUtil {
         return outImage;
     }
 
+    /**
+     * <p>Applies a sequence of right-angle rotations and/or transpositions to
+     * an image in one pass.</p>
+     *
+     * <p>The operations are combined into a single pixel remapping, so the
+     * image is copied only once no matter how many of them there are. Unlike
+     * {@link #rotate(BufferedImage, Rotate)}, the returned image has the same
+     * type as the input image.</p>
+     *
+     * @param inImage Image to transform.
+     * @param ops     {@link Transpose}s and {@link Rotate}s by multiples of
+     *                90 degrees, in the order in which they are to be applied.
+     * @return        Transformed image, or the input image if the given
+     *                operations cancel each other out.
+     * @throws IllegalArgumentException if any of the operations is not a
+     *         right-angle rotation or a transposition.
+     */
+    static BufferedImage rotateAndTranspose(final BufferedImage inImage,
+                                            final List<Operation> ops) {
+        final Stopwatch watch = new Stopwatch();
+        final AffineTransform tx = new AffineTransform();
+        int width  = inImage.getWidth();
+        int height = inImage.getHeight();
+        for (Operation op : ops) {
+            // Each step maps the pixels of a width x height image onto the
+            // same pixel grid as that of the rotated or flipped image.
+            AffineTransform step;
+            if (op instanceof Transpose) {
+                switch ((Transpose) op) {
+                    case VERTICAL:
+                        step = new AffineTransform(1, 0, 0, -1, 0, height);
+                        break;
+                    default:
+                        step = new AffineTransform(-1, 0, 0, 1, width, 0);
+                        break;
+                }
+            } else if (op instanceof Rotate &&
+                    ((Rotate) op).getDegrees() % 90 == 0) {
+                switch ((int) ((Rotate) op).getDegrees() / 90 % 4) {
+                    case 1:
+                        step = new AffineTransform(0, 1, -1, 0, height, 0);
+                        break;
+                    case 2:
+                        step = new AffineTransform(-1, 0, 0, -1, width, height);
+                        break;
+                    case 3:
+                        step = new AffineTransform(0, -1, 1, 0, 0, width);
+                        break;
+                    default:
+                        continue;
+                }
+                if (step.getShearX() != 0) {
+                    final int tmp = width;
+                    width  = height;
+                    height = tmp;
+                }
+            } else {
+                throw new IllegalArgumentException(
+                        "Not a right-angle rotation or transposition: " + op);
+            }
+            step.concatenate(tx);
+            tx.setTransform(step);
+        }
+        if (tx.isIdentity()) {
+            return inImage;
+        }
+        final AffineTransformOp op = new AffineTransformOp(tx,
+                AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
+        final BufferedImage outImage = op.filter(inImage, null);
+        LOGGER.trace("rotateAndTranspose(): applied {} operations in {}",
+                ops.size(), watch);
+        return outImage;
+    }
+
     /**
      * <p>Scales an image, taking an already-applied reduction factor into
      * account. In other words, the dimensions of the input image have already
@@ -982,6 +1058,74 @@ public final class Java2DUtil {
                                final ScaleConstraint scaleConstraint,
                                final ReductionFactor reductionFactor,
                                final boolean isLinear) {
+        return scale(inImage, scale, scaleConstraint, reductionFactor,
+                isLinear, false);
+    }
+
+    /**
+     * <p>Variant of {@link #scale(BufferedImage, Scale, ScaleConstraint,
+     * ReductionFactor, boolean)} that scales an sRGB image in linear
+     * light.</p>
+     *
+     * <p>When possible, the resampler linearizes the image as it reads it and
+     * re-encodes the result as it writes it, which avoids converting the
+     * whole image to a linear color space beforehand and back afterwards.
+     * Otherwise, the image is converted.</p>
+     *
+     * @param inImage         Image to scale.
+     * @param scale           Requested size ignoring any reduction factor.
+     * @param scaleConstraint Scale constraint.
+     * @param reductionFactor Reduction factor that has already been applied to
+     *                        {@literal inImage}.
+     * @return                Scaled image in the sRGB color space, or the
+     *                        input image if the given arguments would result
+     *                        in a no-op.
+     */
+    static BufferedImage scaleLinearly(BufferedImage inImage,
+                                       final Scale scale,
+                                       final ScaleConstraint scaleConstraint,
+                                       final ReductionFactor reductionFactor) {
+        if (isLinearizable(inImage)) {
+            return scale(inImage, scale, scaleConstraint, reductionFactor,
+                    false, true);
+        }
+        BufferedImage outImage = convertColorToLinearRGB(inImage);
+        outImage = scale(outImage, scale, scaleConstraint, reductionFactor,
+                true, false);
+        return convertColorToSRGB(outImage);
+    }
+
+    /**
+     * @return Whether the given image can be {@link
+     *         ResampleOp#setLinearizing(boolean) linearized by the
+     *         resampler}, i.e. whether it has three or four 8-bit
+     *         non-premultiplied sRGB channels.
+     */
+    private static boolean isLinearizable(BufferedImage image) {
+        final ColorModel cm = image.getColorModel();
+        if (!cm.getColorSpace().isCS_sRGB() ||
+                cm instanceof IndexColorModel ||
+                cm.isAlphaPremultiplied()) {
+            return false;
+        }
+        final int numBands = image.getSampleModel().getNumBands();
+        if (numBands != 3 && numBands != 4) {
+            return false;
+        }
+        for (int size : cm.getComponentSize()) {
+            if (size != 8) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static BufferedImage scale(BufferedImage inImage,
+                                       final Scale scale,
+                                       final ScaleConstraint scaleConstraint,
+                                       final ReductionFactor reductionFactor,
+                                       final boolean isLinear,
+                                       final boolean isLinearizing) {
         /*
         This method uses resampling code derived from
         com.mortennobel.imagescaling (see
@@ -1044,6 +1188,7 @@ public final class Java2DUtil {
                 final ResampleOp resampleOp = new ResampleOp(
                         targetSize.intWidth(), targetSize.intHeight(),
                         isLinear);
+                resampleOp.setLinearizing(isLinearizing);
 
                 // Try to use the requested resample filter.
                 ResampleFilter filter = null;
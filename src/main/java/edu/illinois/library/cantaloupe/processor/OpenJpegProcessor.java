@@ -16,11 +16,10 @@ import edu.illinois.library.cantaloupe.operation.OperationList;
 import edu.illinois.library.cantaloupe.operation.ReductionFactor;
 import edu.illinois.library.cantaloupe.operation.Scale;
 import edu.illinois.library.cantaloupe.operation.Crop;
-import edu.illinois.library.cantaloupe.processor.codec.ImageReader;
-import edu.illinois.library.cantaloupe.processor.codec.ImageReaderFactory;
 import edu.illinois.library.cantaloupe.processor.codec.ImageWriterFactory;
 import edu.illinois.library.cantaloupe.processor.codec.ImageWriterFacade;
 import edu.illinois.library.cantaloupe.processor.codec.jpeg2000.JPEG2000MetadataReader;
+import edu.illinois.library.cantaloupe.processor.codec.pnm.PNMDecoder;
 import edu.illinois.library.cantaloupe.processor.codec.ReaderHint;
 import edu.illinois.library.cantaloupe.source.stream.BufferedImageInputStream;
 import edu.illinois.library.cantaloupe.util.CommandLocator;
@@ -60,14 +59,17 @@ import java.util.regex.Pattern;
  * tool.</p>
  *
  * <p>{@literal opj_decompress} is used for cropping and acquiring a scale-
- * reduced intermediate BMP, which is streamed into an Image I/O reader. (BMP
- * does not copy embedded ICC profiles into output images, but {@literal
- * opj_decompress} converts the RGB source data itself.) Java 2D is used for
- * all remaining processing steps.</p>
+ * reduced intermediate PAM image, which is decoded by {@link PNMDecoder}
+ * straight into a raster as it is being read. (PAM does not copy embedded ICC
+ * profiles into output images, but {@literal opj_decompress} converts the RGB
+ * source data itself.) Java 2D is used for all remaining processing steps.
+ * When {@literal opj_decompress} supports it, it is told to decode using an
+ * equal share of the compute threads among the {@link ProcessLauncher
+ * processes} that may run at once.</p>
  *
  * <p>{@literal opj_decompress} reads and writes the files named in the
  * {@literal -i} and {@literal -o} arguments passed to it, respectively. The
- * file in the {@literal -o} argument must have a {@literal .bmp} extension.
+ * file in the {@literal -o} argument must have a {@literal .pam} extension.
  * This means that it's not possible to natively write to a {@link
  * Process#getInputStream() process input stream}. The way this is dealt with
  * differs between Windows and Unix:</p>
@@ -75,10 +77,12 @@ import java.util.regex.Pattern;
  * <dl>
  *     <dt>Unix</dt>
  *     <dd>A symlink is created by {@link #initialize()} from {@literal
- *     /tmp/whatever.bmp} to {@literal /dev/stdout}, and set to {@link
+ *     /tmp/whatever.pam} to {@literal /dev/stdout}, and set to {@link
  *     java.io.File#deleteOnExit() delete on exit}. {@literal opj_decompress}
  *     then effectively writes to standard output, which can be read from a
- *     {@link Process#getInputStream() process' input stream}.</dd>
+ *     {@link Process#getInputStream() process' input stream}. As every
+ *     process has its own standard output, the symlink is shared by all
+ *     instances.</dd>
  *     <dt>Windows</dt>
  *     <dd>Windows doesn't have anything like {@literal /dev/stdout}. (Actually
  *     it has {@literal CON}, but experimentation reveals it won't work.) So
@@ -121,15 +125,21 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
             OpenJpegProcessor.class.getSimpleName() + "-scratch";
 
     /**
-     * Set by {@link #isQuietModeSupported()}.
+     * Set by {@link #checkVersion()}.
      */
-    private static boolean checkedForQuietMode = false;
+    private static boolean checkedVersion = false;
 
     /**
-     * Set by {@link #isQuietModeSupported()}.
+     * Set by {@link #checkVersion()}.
      */
     private static boolean isQuietModeSupported = true;
 
+    /**
+     * Set by {@link #checkVersion()}. The {@literal -threads} argument is
+     * available as of version 2.3.0.
+     */
+    private static boolean isThreadingSupported = false;
+
     /**
      * Set by {@link #initialize()}.
      */
@@ -142,10 +152,18 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
     private static String initializationError;
 
     /**
+     * Extension of the intermediate images written by {@literal
+     * opj_decompress}, which it uses to infer their format.
+     *
      * @see <a href="https://github.com/cantaloupe-project/cantaloupe/issues/190">
      *     OpenJpegProcessor operating on low bit-depth images</a>
      */
-    private final static Format intermediateFormat = Format.get("bmp");
+    private static final String INTERMEDIATE_EXTENSION = "pam";
+
+    /**
+     * Set by {@link #initialize()}. Not used in Windows.
+     */
+    private static Path stdoutSymlink;
 
     private Path sourceFile;
 
@@ -174,7 +192,7 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
     private static Path getIntermediateImageFile(OperationList opList) {
         final String name = opList.toFilename() + "-" +
                 Thread.currentThread().getName() + "." +
-                intermediateFormat.getPreferredExtension();
+                INTERMEDIATE_EXTENSION;
         return getScratchDir().resolve(name);
     }
 
@@ -197,8 +215,9 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
 
             if (isWindows()) {
                 initializeForWindows();
+            } else {
+                getStdoutSymlink();
             }
-            // Unix doesn't need any initialization.
         } catch (IOException e) {
             initializationError = e.getMessage();
         }
@@ -228,14 +247,28 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
     }
 
     static synchronized boolean isQuietModeSupported() {
-        if (!checkedForQuietMode) {
+        checkVersion();
+        return isQuietModeSupported;
+    }
+
+    static synchronized boolean isThreadingSupported() {
+        checkVersion();
+        return isThreadingSupported;
+    }
+
+    /**
+     * Checks which features the installed version of {@literal
+     * opj_decompress} supports.
+     */
+    private static synchronized void checkVersion() {
+        if (!checkedVersion) {
             final List<String> command = new ArrayList<>();
             command.add(getPath());
             command.add("-h");
 
             ProcessBuilder pb = new ProcessBuilder(command);
             pb.redirectErrorStream(true);
-            LOGGER.debug("isQuietModeSupported(): invoking {}",
+            LOGGER.debug("checkVersion(): invoking {}",
                     String.join(" ", pb.command()));
             try {
                 Process process = pb.start();
@@ -261,11 +294,13 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
                             int minor = Integer.parseInt(parts[1]);
                             isQuietModeSupported =
                                     ((major >= 2 && minor >= 2) || major > 2);
+                            isThreadingSupported =
+                                    ((major == 2 && minor >= 3) || major > 2);
                         }
                     }
                 }
             } catch (IOException e) {
-                LOGGER.error("isQuietModeSupported(): {}", e.getMessage());
+                LOGGER.error("checkVersion(): {}", e.getMessage());
             }
 
             if (!isQuietModeSupported) {
@@ -274,9 +309,8 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
                         " OpenJPEG to version 2.2.0 or later.");
             }
 
-            checkedForQuietMode = true;
+            checkedVersion = true;
         }
-        return isQuietModeSupported;
     }
 
     /**
@@ -316,21 +350,33 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
     }
 
     /**
-     * <p>Creates a symlink to {@literal /dev/stdout} in a temporary directory.
-     * The symlink is for the exclusive use of the instance and should be
-     * cleaned up when no longer needed.</p>
+     * <p>Returns a symlink to {@literal /dev/stdout} in a temporary directory,
+     * creating it if it does not exist (which may be the case if the
+     * temporary directory has been cleaned up since it was last created).
+     * If something other than a symlink has taken its place, that is deleted
+     * and a new symlink is created, as {@literal opj_decompress} would
+     * otherwise write its output there rather than to standard output. The
+     * symlink is shared by all instances and deleted on exit.</p>
      *
      * <p>Not used in Windows.</p>
      */
-    private Path createStdoutSymlink() throws IOException {
-        final String name = OpenJpegProcessor.class.getSimpleName() + "-" +
-                UUID.randomUUID() + "." +
-                intermediateFormat.getPreferredExtension();
-        final Path link = Application.getTempPath().resolve(name);
-        final Path devStdout = Paths.get("/dev/stdout");
-
-        LOGGER.debug("Creating link from {} to {}", link, devStdout);
-        return Files.createSymbolicLink(link, devStdout);
+    private static synchronized Path getStdoutSymlink() throws IOException {
+        if (stdoutSymlink == null || !Files.isSymbolicLink(stdoutSymlink)) {
+            if (stdoutSymlink != null) {
+                LOGGER.debug("Deleting {}, which is not a link",
+                        stdoutSymlink);
+                Files.deleteIfExists(stdoutSymlink);
+            }
+            final String name = OpenJpegProcessor.class.getSimpleName() + "-" +
+                    UUID.randomUUID() + "." + INTERMEDIATE_EXTENSION;
+            final Path link = Application.getTempPath().resolve(name);
+            final Path devStdout = Paths.get("/dev/stdout");
+
+            LOGGER.debug("Creating link from {} to {}", link, devStdout);
+            stdoutSymlink = Files.createSymbolicLink(link, devStdout);
+            stdoutSymlink.toFile().deleteOnExit();
+        }
+        return stdoutSymlink;
     }
 
     @Override
@@ -508,19 +554,17 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
         final ByteArrayOutputStream inputBucket = new ByteArrayOutputStream();
         final Path intermediateFile = getIntermediateImageFile(opList);
         final ReductionFactor reductionFactor = new ReductionFactor();
-        final ThreadPool pool = ThreadPool.getInstance();
 
         final ProcessBuilder pb = getProcessBuilder(
                 opList, info.getSize(), info.getNumResolutions(),
                 reductionFactor, intermediateFile);
-        LOGGER.debug("Invoking {}", String.join(" ", pb.command()));
-        final Process process = pb.start();
 
-        try (final InputStream processInputStream =
-                     new BufferedInputStream(process.getInputStream());
-             final InputStream processErrorStream = process.getErrorStream()) {
-            pool.submit(new StreamCopier(processErrorStream, errorOutput));
-            pool.submit(new StreamCopier(processInputStream, inputBucket));
+        try (ProcessLauncher.LaunchedProcess process =
+                     ProcessLauncher.getInstance().launch(pb, errorOutput);
+             InputStream processInputStream =
+                     new BufferedInputStream(process.getInputStream())) {
+            ThreadPool.getInstance().submit(
+                    new StreamCopier(processInputStream, inputBucket));
 
             final int code = process.waitFor();
             if (code != 0) {
@@ -529,27 +573,19 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
                 errorStr += "\nPathname: " + getSourceFile();
                 throw new IOException(errorStr);
             }
-        } finally {
-            process.destroy();
         }
 
         try (InputStream is = Files.newInputStream(intermediateFile)) {
-            final ImageReader reader =
-                    new ImageReaderFactory().newImageReader(Format.get("bmp"), is);
-            try {
-                final BufferedImage image = reader.read(0);
-                final Set<ReaderHint> hints =
-                        EnumSet.of(ReaderHint.ALREADY_CROPPED);
-
-                Java2DPostProcessor.postProcess(
-                        image, hints, opList, info, reductionFactor);
-
-                ImageWriterFacade.write(image,
-                        (Encode) opList.getFirst(Encode.class),
-                        outputStream);
-            } finally {
-                reader.dispose();
-            }
+            final Set<ReaderHint> hints =
+                    EnumSet.of(ReaderHint.ALREADY_CROPPED);
+
+            BufferedImage image = PNMDecoder.decode(is);
+            image = Java2DPostProcessor.postProcess(
+                    image, hints, opList, info, reductionFactor);
+
+            ImageWriterFacade.write(image,
+                    (Encode) opList.getFirst(Encode.class),
+                    outputStream);
         } finally {
             TaskQueue.getInstance().submit(() -> {
                 LOGGER.debug("Deleting {}", intermediateFile);
@@ -566,53 +602,46 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
             throws IOException, InterruptedException {
         final ReductionFactor reductionFactor = new ReductionFactor();
 
-        final Path stdoutSymlink = createStdoutSymlink();
         final ProcessBuilder pb = getProcessBuilder(
                 opList, info.getSize(), info.getNumResolutions(),
-                reductionFactor, stdoutSymlink);
-        LOGGER.debug("Invoking {}", String.join(" ", pb.command()));
-        final Process process = pb.start();
+                reductionFactor, getStdoutSymlink());
 
-        try (final InputStream processInputStream =
-                     new BufferedInputStream(process.getInputStream());
-             final InputStream processErrorStream = process.getErrorStream()) {
-            ThreadPool.getInstance().submit(
-                    new StreamCopier(processErrorStream, errorOutput));
+        // The process is closed, freeing its slot for another request, as
+        // soon as its output has been decoded.
+        BufferedImage image;
+        try (ProcessLauncher.LaunchedProcess process =
+                     ProcessLauncher.getInstance().launch(pb, errorOutput);
+             InputStream processInputStream =
+                     new BufferedInputStream(process.getInputStream())) {
+            image = PNMDecoder.decode(processInputStream);
 
-            final ImageReader reader = new ImageReaderFactory().newImageReader(
-                    Format.get("bmp"), processInputStream);
-            try {
-                final Set<ReaderHint> hints =
-                        EnumSet.of(ReaderHint.ALREADY_CROPPED);
-
-                BufferedImage image = reader.read(0);
-                image = Java2DPostProcessor.postProcess(
-                        image, hints, opList, info, reductionFactor);
-
-                ImageWriterFacade.write(image,
-                        (Encode) opList.getFirst(Encode.class),
-                        outputStream);
-
-                final int code = process.waitFor();
-                if (code != 0) {
-                    LOGGER.warn("{} returned with code {}",
-                            OPJ_DECOMPRESS_NAME, code);
-                    String errorStr = toString(errorOutput);
-                    errorStr += "\nPathname: " + getSourceFile();
-                    throw new IOException(errorStr);
-                }
-            } finally {
-                reader.dispose();
+            final int code = process.waitFor();
+            if (code != 0) {
+                LOGGER.warn("{} returned with code {}",
+                        OPJ_DECOMPRESS_NAME, code);
+                String errorStr = toString(errorOutput);
+                errorStr += "\nPathname: " + getSourceFile();
+                throw new IOException(errorStr);
             }
-        } finally {
-            process.destroy();
-
-            TaskQueue.getInstance().submit(() -> {
-                LOGGER.debug("Deleting {}", stdoutSymlink);
-                Files.delete(stdoutSymlink);
-                return null;
-            });
         }
+
+        final Set<ReaderHint> hints = EnumSet.of(ReaderHint.ALREADY_CROPPED);
+        image = Java2DPostProcessor.postProcess(
+                image, hints, opList, info, reductionFactor);
+
+        ImageWriterFacade.write(image,
+                (Encode) opList.getFirst(Encode.class),
+                outputStream);
+    }
+
+    /**
+     * @return Number of threads for {@literal opj_decompress} to decode
+     *         with, so that all of the processes that may run at once
+     *         together use no more than the compute threads.
+     */
+    private static int getNumDecodingThreads() {
+        return Math.max(1, ThreadPool.getInstance().getNumComputeThreads() /
+                ProcessLauncher.getInstance().getMaxProcesses());
     }
 
     /**
@@ -640,6 +669,10 @@ class OpenJpegProcessor extends AbstractProcessor implements FileProcessor {
         if (isQuietModeSupported()) {
             command.add("-quiet");
         }
+        if (isThreadingSupported()) {
+            command.add("-threads");
+            command.add(getNumDecodingThreads() + "");
+        }
 
         command.add("-i");
         command.add(getSourceFile().toString());
@@ -0,0 +1,221 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.resource.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Launches the external decoder processes used by processors like {@link
+ * OpenJpegProcessor}, {@link GrokProcessor}, and {@link FfmpegProcessor}.</p>
+ *
+ * <p>The number of processes that may run at once is capped by {@link
+ * Key#PROCESSOR_EXTERNAL_MAX_PROCESSES}, which defaults to the number of
+ * processor cores. Requests beyond that wait their turn rather than forking
+ * yet another process to compete for the same cores, for up to {@link
+ * Key#PROCESSOR_EXTERNAL_TIMEOUT} seconds, after which they are rejected with
+ * a {@link ServiceUnavailableException}. Callers should {@link
+ * LaunchedProcess#close() close} the process as soon as they have consumed
+ * its output, before post-processing it, so that the slot is held only as
+ * long as the process runs. Each process's standard
+ * error is drained on a thread of the launcher's own, so that it can't end up
+ * being drained by the requesting thread when the application {@link
+ * edu.illinois.library.cantaloupe.async.ThreadPool} is saturated, which would
+ * deadlock it against a process blocked on writing to standard output. When a
+ * {@link LaunchedProcess} is closed, its process is terminated, and killed if
+ * it doesn't exit promptly, before its slot is handed to the next caller.</p>
+ *
+ * @since 6.0
+ */
+final class ProcessLauncher {
+
+    /**
+     * Running process that occupies one of the launcher's slots until it is
+     * {@link #close() closed}.
+     */
+    final class LaunchedProcess implements AutoCloseable {
+
+        private final Process process;
+        private final Future<?> errorDrainer;
+        private final AtomicBoolean isClosed = new AtomicBoolean();
+
+        private LaunchedProcess(Process process, OutputStream errorOutput) {
+            this.process = process;
+            this.errorDrainer = streamExecutor.submit(new StreamCopier(
+                    process.getErrorStream(), errorOutput));
+        }
+
+        InputStream getInputStream() {
+            return process.getInputStream();
+        }
+
+        /**
+         * Waits for the process to exit and for its standard error to have
+         * been fully drained.
+         *
+         * @return Exit code of the process.
+         */
+        int waitFor() throws InterruptedException {
+            final int code = process.waitFor();
+            try {
+                errorDrainer.get(KILL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                LOGGER.debug("waitFor(): {}", e.getMessage());
+            }
+            return code;
+        }
+
+        /**
+         * Terminates the process if it is still running and releases its
+         * slot. Calling this more than once has no effect.
+         */
+        @Override
+        public void close() {
+            if (!isClosed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (process.isAlive()) {
+                    process.destroy();
+                    if (!process.waitFor(KILL_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                        LOGGER.warn("close(): process {} did not exit; killing it",
+                                process.pid());
+                        process.destroyForcibly();
+                    }
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            } finally {
+                numRunningProcesses.decrementAndGet();
+                permits.release();
+            }
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ProcessLauncher.class);
+
+    /**
+     * Time to wait for a terminated process to exit before killing it.
+     */
+    private static final long KILL_TIMEOUT_SECONDS = 5;
+
+    private static final int DEFAULT_RETRY_AFTER_SECONDS = 5;
+    private static final int DEFAULT_TIMEOUT_SECONDS     = 30;
+
+    private static ProcessLauncher instance;
+
+    private final int maxProcesses;
+    private final Semaphore permits;
+    private final AtomicInteger numRunningProcesses = new AtomicInteger();
+    private final ExecutorService streamExecutor =
+            Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setName("process-stream-" + thread.getId());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static synchronized ProcessLauncher getInstance() {
+        if (instance == null) {
+            instance = new ProcessLauncher();
+        }
+        return instance;
+    }
+
+    /**
+     * For testing only.
+     */
+    static synchronized void clearInstance() {
+        if (instance != null) {
+            instance.streamExecutor.shutdown();
+        }
+        instance = null;
+    }
+
+    private ProcessLauncher() {
+        final Configuration config = Configuration.getInstance();
+        int max = config.getInt(Key.PROCESSOR_EXTERNAL_MAX_PROCESSES, 0);
+        if (max < 1) {
+            max = Runtime.getRuntime().availableProcessors();
+        }
+        maxProcesses = max;
+        permits      = new Semaphore(max, true);
+    }
+
+    int getMaxProcesses() {
+        return maxProcesses;
+    }
+
+    int getNumRunningProcesses() {
+        return numRunningProcesses.get();
+    }
+
+    /**
+     * @return Whether the given exception, or any of its causes, was thrown
+     *         by {@link #launch} because no slot became free in time.
+     */
+    static boolean isRejection(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            if (t instanceof ServiceUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits for a free slot and starts a process in it.
+     *
+     * @param processBuilder Builder of the process to start.
+     * @param errorOutput    Stream to which the process's standard error will
+     *                       be copied.
+     * @return               Running process, which must be closed.
+     * @throws IOException if the process could not be started, or, with a
+     *         {@link ServiceUnavailableException} cause, if no slot became
+     *         free within {@link Key#PROCESSOR_EXTERNAL_TIMEOUT} seconds.
+     */
+    LaunchedProcess launch(ProcessBuilder processBuilder,
+                           OutputStream errorOutput)
+            throws IOException, InterruptedException {
+        final Configuration config = Configuration.getInstance();
+        final int timeout = config.getInt(Key.PROCESSOR_EXTERNAL_TIMEOUT,
+                DEFAULT_TIMEOUT_SECONDS);
+        if (!permits.tryAcquire(timeout, TimeUnit.SECONDS)) {
+            LOGGER.debug("launch(): no slot became free in {} seconds; " +
+                    "rejecting the request", timeout);
+            final ServiceUnavailableException e =
+                    new ServiceUnavailableException(
+                            "The server is too busy to handle this request.",
+                            config.getInt(Key.ADMISSION_CONTROL_RETRY_AFTER,
+                                    DEFAULT_RETRY_AFTER_SECONDS));
+            throw new IOException(e.getMessage(), e);
+        }
+        try {
+            LOGGER.debug("Invoking {}", String.join(" ", processBuilder.command()));
+            final Process process = processBuilder.start();
+            numRunningProcesses.incrementAndGet();
+            return new LaunchedProcess(process, errorOutput);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+}
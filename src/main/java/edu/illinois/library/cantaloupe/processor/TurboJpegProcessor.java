@@ -23,9 +23,12 @@ import edu.illinois.library.cantaloupe.operation.redaction.Redaction;
 import edu.illinois.library.cantaloupe.processor.codec.ImageWriter;
 import edu.illinois.library.cantaloupe.processor.codec.ImageWriterFactory;
 import edu.illinois.library.cantaloupe.processor.codec.jpeg.JPEGMetadataReader;
+import edu.illinois.library.cantaloupe.processor.codec.jpeg.TransformationNotSupportedException;
+import edu.illinois.library.cantaloupe.processor.codec.jpeg.TurboJPEGImage;
 import edu.illinois.library.cantaloupe.processor.codec.jpeg.TurboJPEGImageReader;
 import edu.illinois.library.cantaloupe.processor.codec.jpeg.TurboJPEGImageWriter;
 import edu.illinois.library.cantaloupe.source.StreamFactory;
+import edu.illinois.library.cantaloupe.util.Rational;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +63,11 @@ public class TurboJpegProcessor extends AbstractProcessor
     private static final boolean USE_FAST_DECODE_DCT = false;
     private static final boolean USE_FAST_ENCODE_DCT = true;
 
+    /**
+     * libjpeg-turbo can scale by as little as 1/8 while decompressing.
+     */
+    private static final int MAX_REDUCTION_FACTOR = 3;
+
     private static String initializationError;
 
     private TurboJPEGImageReader imageReader;
@@ -164,10 +172,166 @@ public class TurboJpegProcessor extends AbstractProcessor
         }
     }
 
+    /**
+     * Maps a region of the source image to the coordinate space of the image
+     * after the given transform has been applied to it.
+     *
+     * @param region    Region of the source image.
+     * @param fullSize  Full size of the source image.
+     * @param transform Transform to apply.
+     * @return          Transformed region.
+     */
+    static Rectangle transformRegion(Rectangle region,
+                                     Dimension fullSize,
+                                     TurboJPEGImageReader.Transform transform) {
+        final int x = region.intX(), y = region.intY();
+        final int w = region.intWidth(), h = region.intHeight();
+        final int fullWidth = fullSize.intWidth(), fullHeight = fullSize.intHeight();
+        switch (transform) {
+            case FLIP_HORIZONTAL:
+                return new Rectangle(fullWidth - x - w, y, w, h);
+            case FLIP_VERTICAL:
+                return new Rectangle(x, fullHeight - y - h, w, h);
+            case ROTATE_90:
+                return new Rectangle(fullHeight - y - h, x, h, w);
+            case ROTATE_180:
+                return new Rectangle(fullWidth - x - w, fullHeight - y - h, w, h);
+            case ROTATE_270:
+                return new Rectangle(y, fullWidth - x - w, h, w);
+            case TRANSPOSE:
+                return new Rectangle(y, x, h, w);
+            case TRANSVERSE:
+                return new Rectangle(fullHeight - y - h, fullWidth - x - w, h, w);
+            default:
+                return new Rectangle(region);
+        }
+    }
+
+    /**
+     * @return Lossless transform equivalent to the given rotation, or {@code
+     *         null} if there is none.
+     */
+    private static TurboJPEGImageReader.Transform toTransform(Rotate rotate) {
+        final double degrees = rotate.getDegrees() % 360;
+        if (degrees == 90) {
+            return TurboJPEGImageReader.Transform.ROTATE_90;
+        } else if (degrees == 180) {
+            return TurboJPEGImageReader.Transform.ROTATE_180;
+        } else if (degrees == 270) {
+            return TurboJPEGImageReader.Transform.ROTATE_270;
+        }
+        return null;
+    }
+
+    /**
+     * <p>Attempts to fulfill the given operation list by transforming the
+     * source image losslessly, in the DCT domain, and writing the result
+     * without decompressing and recompressing it. This is possible when the
+     * operations consist of nothing more than a crop aligned to the MCU block
+     * boundaries, a rotation by a multiple of 90 degrees or a flip, and/or
+     * grayscale conversion, and the output format is JPEG.</p>
+     *
+     * <p>The source image's quality and metadata are retained, and the
+     * requested quality is ignored.</p>
+     *
+     * @return Whether the image was written.
+     */
+    private boolean processLosslessly(final OperationList opList,
+                                      final Info info,
+                                      final OutputStream outputStream)
+            throws IOException {
+        final Dimension fullSize = info.getSize();
+        final Metadata metadata  = info.getMetadata();
+        if (opList.getScaleConstraint().hasEffect() ||
+                (metadata != null &&
+                        !Orientation.ROTATE_0.equals(metadata.getOrientation()))) {
+            return false;
+        }
+
+        Rectangle region = null;
+        TurboJPEGImageReader.Transform transform = null;
+        boolean isGray = false;
+        for (Operation op : opList) {
+            if (op instanceof Encode) {
+                if (((Encode) op).isInterlacing()) {
+                    return false;
+                }
+                continue;
+            }
+            if (!op.hasEffect(fullSize, opList)) {
+                continue;
+            }
+            if (op instanceof Crop && region == null && transform == null) {
+                region = ((Crop) op).getRectangle(fullSize);
+            } else if (op instanceof Transpose && transform == null) {
+                transform = Transpose.HORIZONTAL.equals(op) ?
+                        TurboJPEGImageReader.Transform.FLIP_HORIZONTAL :
+                        TurboJPEGImageReader.Transform.FLIP_VERTICAL;
+            } else if (op instanceof Rotate && transform == null) {
+                transform = toTransform((Rotate) op);
+                if (transform == null) {
+                    return false;
+                }
+            } else if (ColorTransform.GRAY.equals(op)) {
+                isGray = true;
+            } else {
+                return false;
+            }
+        }
+        if (region == null && transform == null && !isGray) {
+            return false;
+        }
+        if ((transform != null || isGray) && !imageReader.isTransformable()) {
+            return false;
+        }
+        if (region != null) {
+            region = new Rectangle(region.intX(), region.intY(),
+                    region.intWidth(), region.intHeight());
+            if (transform != null) {
+                region = transformRegion(region, fullSize, transform);
+            }
+            if (!imageReader.isRegionLossless(region, transform)) {
+                return false;
+            }
+        }
+
+        try {
+            if (transform != null) {
+                imageReader.setTransform(transform);
+            }
+            if (isGray) {
+                imageReader.setUseGrayscaleConversion(true);
+            }
+        } catch (TransformationNotSupportedException e) {
+            // isTransformable() has already been checked, so this should
+            // never happen.
+            throw new IOException(e);
+        }
+        if (region != null) {
+            imageReader.setRegion(region.intX(), region.intY(),
+                    region.intWidth(), region.intHeight());
+        }
+        final TurboJPEGImage image = imageReader.read();
+        new TurboJPEGImageWriter().write(image, outputStream);
+        LOGGER.debug("processLosslessly(): transformed losslessly: {}",
+                opList);
+        return true;
+    }
+
     private void processUsingTurboJPEGWriter(
             final OperationList opList,
             final Info info,
             final OutputStream outputStream) throws FormatException, ProcessorException {
+        try {
+            if (processLosslessly(opList, info, outputStream)) {
+                return;
+            }
+        } catch (SourceFormatException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new ProcessorException(e);
+        }
+
         final Dimension fullSize              = info.getSize();
         final ReductionFactor reductionFactor = new ReductionFactor();
         final ScaleConstraint scaleConstraint = opList.getScaleConstraint();
@@ -178,9 +342,7 @@ public class TurboJpegProcessor extends AbstractProcessor
             writer.setUseFastDCT(USE_FAST_ENCODE_DCT);
             writer.setSubsampling(imageReader.getSubsampling());
 
-            final Rectangle roiWithinSafeRegion = new Rectangle();
-            BufferedImage image =
-                    imageReader.readAsBufferedImage(roiWithinSafeRegion);
+            BufferedImage image = readRegion(opList, fullSize, reductionFactor);
 
             Orientation orientation = Orientation.ROTATE_0;
             final Metadata metadata = info.getMetadata();
@@ -188,20 +350,12 @@ public class TurboJpegProcessor extends AbstractProcessor
                 orientation = metadata.getOrientation();
             }
 
-            // Apply the crop operation, if present, and retain a reference
-            // to it for subsequent operations to refer to.
+            // Retain a reference to the crop operation, if present, for
+            // subsequent operations to refer to. It has already been applied.
             Crop crop = new CropByPercent();
             for (Operation op : opList) {
                 if (op instanceof Crop) {
                     crop = (Crop) op;
-                    if (crop.hasEffect(fullSize, opList)) {
-                        // The TurboJPEG writer cannot deal with a
-                        // BufferedImage that has been "virtually cropped" by
-                        // BufferedImage.getSubimage(). We must tell this
-                        // method to copy the underlying raster.
-                        image = Java2DUtil.crop(image, crop, reductionFactor,
-                                scaleConstraint, true);
-                    }
                 }
             }
 
@@ -236,12 +390,11 @@ public class TurboJpegProcessor extends AbstractProcessor
                     final boolean isLinear = scale.isLinear() &&
                             !scale.isUp(fullSize, scaleConstraint);
                     if (isLinear) {
-                        image = Java2DUtil.convertColorToLinearRGB(image);
-                    }
-                    image = Java2DUtil.scale(image, scale,
-                            scaleConstraint, reductionFactor, isLinear);
-                    if (isLinear) {
-                        image = Java2DUtil.convertColorToSRGB(image);
+                        image = Java2DUtil.scaleLinearly(image, scale,
+                                scaleConstraint, reductionFactor);
+                    } else {
+                        image = Java2DUtil.scale(image, scale,
+                                scaleConstraint, reductionFactor, false);
                     }
                 } else if (op instanceof Transpose) {
                     image = Java2DUtil.transpose(image, (Transpose) op);
@@ -274,9 +427,7 @@ public class TurboJpegProcessor extends AbstractProcessor
         try {
             imageReader.setUseFastDCT(USE_FAST_DECODE_DCT);
 
-            final Rectangle roiWithinSafeRegion = new Rectangle();
-            BufferedImage image =
-                    imageReader.readAsBufferedImage(roiWithinSafeRegion);
+            BufferedImage image = readRegion(opList, fullSize, reductionFactor);
 
             Orientation orientation = Orientation.ROTATE_0;
             final Metadata metadata = info.getMetadata();
@@ -284,20 +435,12 @@ public class TurboJpegProcessor extends AbstractProcessor
                 orientation = metadata.getOrientation();
             }
 
-            // Apply the crop operation, if present, and retain a reference
-            // to it for subsequent operations to refer to.
+            // Retain a reference to the crop operation, if present, for
+            // subsequent operations to refer to. It has already been applied.
             Crop crop = new CropByPercent();
             for (Operation op : opList) {
                 if (op instanceof Crop) {
                     crop = (Crop) op;
-                    if (crop.hasEffect(fullSize, opList)) {
-                        // The TurboJPEG writer cannot deal with a
-                        // BufferedImage that has been "virtually cropped" by
-                        // BufferedImage.getSubimage(). We must tell this
-                        // method to copy the underlying raster.
-                        image = Java2DUtil.crop(image, crop, reductionFactor,
-                                scaleConstraint, true);
-                    }
                 }
             }
 
@@ -325,12 +468,11 @@ public class TurboJpegProcessor extends AbstractProcessor
                     final boolean isLinear = scale.isLinear() &&
                             !scale.isUp(fullSize, scaleConstraint);
                     if (isLinear) {
-                        image = Java2DUtil.convertColorToLinearRGB(image);
-                    }
-                    image = Java2DUtil.scale(image, scale,
-                            scaleConstraint, reductionFactor, isLinear);
-                    if (isLinear) {
-                        image = Java2DUtil.convertColorToSRGB(image);
+                        image = Java2DUtil.scaleLinearly(image, scale,
+                                scaleConstraint, reductionFactor);
+                    } else {
+                        image = Java2DUtil.scale(image, scale,
+                                scaleConstraint, reductionFactor, false);
                     }
                 } else if (op instanceof Transpose) {
                     image = Java2DUtil.transpose(image, (Transpose) op);
@@ -354,6 +496,70 @@ public class TurboJpegProcessor extends AbstractProcessor
         }
     }
 
+    /**
+     * <p>Reads the region of the source image that is covered by the crop
+     * operation in the given list, if any, at the smallest scale supported by
+     * libjpeg-turbo that is not smaller than the scale operation requires.</p>
+     *
+     * <p>The region is cropped losslessly, on MCU block boundaries, before
+     * decompression, so only the blocks that intersect it are decompressed,
+     * and they are scaled down by the decompressor's IDCT. Any leftover
+     * margin is then cropped off of the result.</p>
+     *
+     * @param reductionFactor Will be set to the factor by which the returned
+     *                        image has been reduced.
+     * @return                Image cropped to the region of interest.
+     */
+    private BufferedImage readRegion(OperationList opList,
+                                     Dimension fullSize,
+                                     ReductionFactor reductionFactor)
+            throws IOException {
+        final ScaleConstraint scaleConstraint = opList.getScaleConstraint();
+        Dimension roiSize = fullSize;
+        for (Operation op : opList) {
+            if (!op.hasEffect(fullSize, opList)) {
+                continue;
+            }
+            if (op instanceof Crop) {
+                final Rectangle region = ((Crop) op).getRectangle(
+                        fullSize, scaleConstraint);
+                imageReader.setRegion(region.intX(), region.intY(),
+                        region.intWidth(), region.intHeight());
+                roiSize = region.size();
+            } else if (op instanceof Scale) {
+                final int factor = ((Scale) op).getReductionFactor(
+                        roiSize, scaleConstraint, MAX_REDUCTION_FACTOR).factor;
+                try {
+                    imageReader.setScale(new Rational(1, 1 << factor));
+                    reductionFactor.factor = factor;
+                } catch (TransformationNotSupportedException e) {
+                    LOGGER.debug("readRegion(): {}", e.getMessage());
+                }
+            }
+        }
+
+        final Rectangle roiWithinSafeRegion = new Rectangle();
+        BufferedImage image =
+                imageReader.readAsBufferedImage(roiWithinSafeRegion);
+
+        if (roiWithinSafeRegion.width() > 0 &&
+                roiWithinSafeRegion.height() > 0) {
+            final double scale = reductionFactor.getScale();
+            final int x = (int) Math.round(roiWithinSafeRegion.x() * scale);
+            final int y = (int) Math.round(roiWithinSafeRegion.y() * scale);
+            final int width = Math.max(1, Math.min(image.getWidth() - x,
+                    (int) Math.round(roiWithinSafeRegion.width() * scale)));
+            final int height = Math.max(1, Math.min(image.getHeight() - y,
+                    (int) Math.round(roiWithinSafeRegion.height() * scale)));
+            // The TurboJPEG writer cannot deal with a BufferedImage that has
+            // been "virtually cropped" by BufferedImage.getSubimage(). We must
+            // tell this method to copy the underlying raster.
+            image = Java2DUtil.crop(image,
+                    new Rectangle(x, y, width, height), true);
+        }
+        return image;
+    }
+
     @Override
     public Info readInfo() throws IOException {
         return Info.builder()
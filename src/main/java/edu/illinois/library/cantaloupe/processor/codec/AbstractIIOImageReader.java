@@ -35,6 +35,13 @@ import java.util.Set;
  */
 public abstract class AbstractIIOImageReader {
 
+    /**
+     * Maximum reduction factor by which an image will be subsampled while it
+     * is being read. 1/32 of a 30000x30000 image is still big enough for most
+     * thumbnails.
+     */
+    private static final int MAX_SUBSAMPLING_FACTOR = 5;
+
     /**
      * Assigned by {@link #createReader()}.
      */
@@ -390,11 +397,21 @@ public abstract class AbstractIIOImageReader {
                               final Set<ReaderHint> hints) throws IOException {
         BufferedImage image;
         try {
-            if (crop != null && !hints.contains(ReaderHint.IGNORE_CROP)) {
+            if (!hints.contains(ReaderHint.IGNORE_CROP)) {
                 final Dimension fullSize = new Dimension(
                         iioReader.getWidth(0), iioReader.getHeight(0));
-                image = tileAwareRead(
-                        imageIndex, crop.getRectangle(fullSize), hints);
+                final Rectangle region = (crop != null) ?
+                        crop.getRectangle(fullSize) :
+                        new Rectangle(0, 0, fullSize.width(), fullSize.height());
+                final int subsamplingFactor = getSubsamplingFactor(
+                        region.size(), scale, scaleConstraint);
+                if (crop != null || subsamplingFactor > 0) {
+                    image = tileAwareRead(imageIndex, region,
+                            subsamplingFactor, hints);
+                    reductionFactor.factor = subsamplingFactor;
+                } else {
+                    image = iioReader.read(imageIndex);
+                }
             } else {
                 image = iioReader.read(imageIndex);
             }
@@ -411,24 +428,67 @@ public abstract class AbstractIIOImageReader {
     }
 
     /**
-     * Reads a particular image from a multi-image file.
+     * Reads a particular image from a multi-image file. If the requested
+     * scale is small enough, the image is subsampled while it is being read.
      *
      * @param imageIndex      Image index.
      * @param crop            Requested crop.
+     * @param scale           Requested scale.
      * @param scaleConstraint Virtual scale constraint applied to the image.
+     * @param reductionFactor Will be set to the reduction factor of the
+     *                        returned image.
+     * @param hints           Will be populated by information returned by the
+     *                        reader.
      * @return                Smallest image fitting the requested operations.
      * @see                   #readSmallestUsableSubimage
      */
     protected BufferedImage readMonoResolution(
             final int imageIndex,
             final Crop crop,
+            final Scale scale,
             final ScaleConstraint scaleConstraint,
+            final ReductionFactor reductionFactor,
             final Set<ReaderHint> hints) throws IOException {
         final Dimension fullSize = new Dimension(
                 iioReader.getWidth(0), iioReader.getHeight(0));
         final Rectangle regionRect = crop.getRectangle(
                 fullSize, new ReductionFactor(), scaleConstraint);
-        return tileAwareRead(imageIndex, regionRect, hints);
+        final int subsamplingFactor = getSubsamplingFactor(
+                regionRect.size(), scale, scaleConstraint);
+        final BufferedImage image = tileAwareRead(
+                imageIndex, regionRect, subsamplingFactor, hints);
+        reductionFactor.factor = subsamplingFactor;
+        return image;
+    }
+
+    /**
+     * <p>Returns the reduction factor by which a region of the given size can
+     * be subsampled while it is being read, in order to fulfill the given
+     * scale.</p>
+     *
+     * <p>Subsampling simply skips pixels, so the subsampled image is kept at
+     * least twice as large as the requested scale requires, leaving something
+     * for the resample that follows to work with. Consequently, scales of more
+     * than 25% are never subsampled.</p>
+     *
+     * @param regionSize      Size of the region to read.
+     * @param scale           Requested scale. May be {@code null}.
+     * @param scaleConstraint Virtual scale constraint applied to the image.
+     * @return                Subsampling reduction factor, which may be
+     *                        {@code 0}.
+     */
+    static int getSubsamplingFactor(Dimension regionSize,
+                                    Scale scale,
+                                    ScaleConstraint scaleConstraint) {
+        if (scale == null) {
+            scale = new ScaleByPercent();
+        }
+        if (!scale.hasEffect() && !scaleConstraint.hasEffect()) {
+            return 0;
+        }
+        final int factor = scale.getReductionFactor(
+                regionSize, scaleConstraint, MAX_SUBSAMPLING_FACTOR + 1).factor - 1;
+        return Math.max(factor, 0);
     }
 
     /**
@@ -539,6 +599,29 @@ public abstract class AbstractIIOImageReader {
     private BufferedImage tileAwareRead(final int imageIndex,
                                         final Rectangle region,
                                         final Set<ReaderHint> hints) throws IOException {
+        return tileAwareRead(imageIndex, region, 0, hints);
+    }
+
+    /**
+     * Variant of {@link #tileAwareRead(int, Rectangle, Set)} that also
+     * subsamples the region while it is being read, so that the full-resolution
+     * region never has to be held in memory.
+     *
+     * @param imageIndex        Index of the image to read from the
+     *                          ImageReader.
+     * @param region            Image region to retrieve, in full-resolution
+     *                          coordinates.
+     * @param subsamplingFactor Reduction factor by which to subsample the
+     *                          region. The returned image will be 1/(2^{@code
+     *                          subsamplingFactor}) the size of the region.
+     * @param hints             Will be populated with information returned
+     *                          from the reader.
+     * @see #getSubsamplingFactor
+     */
+    private BufferedImage tileAwareRead(final int imageIndex,
+                                        final Rectangle region,
+                                        final int subsamplingFactor,
+                                        final Set<ReaderHint> hints) throws IOException {
         final Dimension imageSize = getSize(imageIndex);
         final Dimension tileSize = getTileSize(imageIndex);
 
@@ -564,6 +647,12 @@ public abstract class AbstractIIOImageReader {
         hints.add(ReaderHint.ALREADY_CROPPED);
         final ImageReadParam param = iioReader.getDefaultReadParam();
         param.setSourceRegion(region.toAWTRectangle());
+        if (subsamplingFactor > 0) {
+            final int period = 1 << subsamplingFactor;
+            getLogger().debug("Subsampling every {} pixels ({}x reduction factor)",
+                    period, subsamplingFactor);
+            param.setSourceSubsampling(period, period, 0, 0);
+        }
 
         return iioReader.read(imageIndex, param);
     }
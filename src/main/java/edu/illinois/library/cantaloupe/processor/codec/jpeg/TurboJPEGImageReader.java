@@ -96,10 +96,17 @@ public final class TurboJPEGImageReader implements AutoCloseable {
     private byte[] jpegBytes;
 
     /**
-     * Decompressor initialized with {@link #jpegBytes}.
+     * Decompressor initialized with {@link #jpegBytes}, borrowed from {@link
+     * TurboJPEGPool} unless {@link #isTransformed}.
      */
     private TJDecompressor decompressor;
 
+    /**
+     * Whether {@link #decompressor} has been replaced with one initialized
+     * with the result of a lossless transformation.
+     */
+    private boolean isTransformed;
+
     /**
      * Cached from {@link #getSubsampling()}.
      */
@@ -197,7 +204,12 @@ public final class TurboJPEGImageReader implements AutoCloseable {
         jpegBytes = null;
         try {
             if (decompressor != null) {
-                decompressor.close();
+                if (isTransformed) {
+                    decompressor.close();
+                } else {
+                    TurboJPEGPool.release(decompressor);
+                }
+                decompressor = null;
             }
         } catch (IOException ignore) {
         } finally {
@@ -293,6 +305,27 @@ public final class TurboJPEGImageReader implements AutoCloseable {
                 getHeight() % getBlockHeight() == 0;
     }
 
+    /**
+     * @param region    Region in the coordinate space of the image after the
+     *                  given transform has been applied.
+     * @param transform Transform that will be applied. May be {@code null}.
+     * @return          Whether the given region is aligned to the MCU block
+     *                  boundaries, so that it can be cropped losslessly with
+     *                  no margin left over, in which case {@link #read()} can
+     *                  return it without decompressing it.
+     */
+    public boolean isRegionLossless(Rectangle region, Transform transform)
+            throws IOException {
+        final boolean isTransposing = isTransposing(transform);
+        final Rectangle safeRegion = getMCUSafeRegion(region,
+                isTransposing ? getHeight() : getWidth(),
+                isTransposing ? getWidth() : getHeight(),
+                isTransposing ? getBlockHeight() : getBlockWidth(),
+                isTransposing ? getBlockWidth() : getBlockHeight(),
+                new Rectangle());
+        return safeRegion.equals(region);
+    }
+
     /**
      * <p>Performs lossless cropping on the input image.</p>
      *
@@ -424,14 +457,36 @@ public final class TurboJPEGImageReader implements AutoCloseable {
             return null;
         }
         if (mcuSafeRegion == null) {
+            // The region is relative to the transformed image.
+            final boolean isTransposing = isTransposing(transform);
             mcuSafeRegion = getMCUSafeRegion(region,
-                    getWidth(), getHeight(),
-                    getBlockWidth(), getBlockHeight(),
+                    isTransposing ? getHeight() : getWidth(),
+                    isTransposing ? getWidth() : getHeight(),
+                    isTransposing ? getBlockHeight() : getBlockWidth(),
+                    isTransposing ? getBlockWidth() : getBlockHeight(),
                     roiWithinRegion);
         }
         return mcuSafeRegion;
     }
 
+    /**
+     * @return Whether the given transform swaps the axes of the image.
+     */
+    private static boolean isTransposing(Transform transform) {
+        if (transform == null) {
+            return false;
+        }
+        switch (transform) {
+            case TRANSPOSE:
+            case TRANSVERSE:
+            case ROTATE_90:
+            case ROTATE_270:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /**
      * @return One of the {@link TJ#FLAG_ACCURATEDCT TJ#FLAG_*} constant
      *         values.
@@ -471,9 +526,12 @@ public final class TurboJPEGImageReader implements AutoCloseable {
     private void initDecompressor() throws IOException {
         if (decompressor == null) {
             jpegBytes = readInputStream();
+            final TJDecompressor tjd = TurboJPEGPool.acquireDecompressor();
             try {
-                decompressor = new TJDecompressor(jpegBytes);
+                tjd.setSourceImage(jpegBytes, jpegBytes.length);
+                decompressor = tjd;
             } catch (TJException e) {
+                TurboJPEGPool.release(tjd);
                 if (e.getMessage().contains("Not a JPEG file")) {
                     throw new SourceFormatException();
                 }
@@ -508,11 +566,12 @@ public final class TurboJPEGImageReader implements AutoCloseable {
 
         if (isTransforming(xform)) {
             try (TJTransformer tjt = new TJTransformer(jpegBytes)) {
-                decompressor.close();
                 TJTransform[] xforms  = new TJTransform[] { xform };
                 xform.options        |= TJTransform.OPT_TRIM;
                 TJDecompressor[] tjds = tjt.transform(xforms, 0);
+                TurboJPEGPool.release(decompressor);
                 decompressor          = tjds[0];
+                isTransformed         = true;
             } catch (TJException e) {
                 if (e.getMessage().contains("Not a JPEG file")) {
                     throw new SourceFormatException();
@@ -539,7 +598,10 @@ public final class TurboJPEGImageReader implements AutoCloseable {
 
     /**
      * @return Relatively raw data that is expected to eventually be written
-     *         by {@link TurboJPEGImageWriter}.
+     *         by {@link TurboJPEGImageWriter}. If the image has been
+     *         transformed losslessly, and neither a margin around the {@link
+     *         #setRegion region} nor scaling is needed, it is the compressed
+     *         result of the transformation. Otherwise, it is decompressed.
      */
     public TurboJPEGImage read() throws IOException {
         final Rectangle margin  = new Rectangle();
@@ -559,12 +621,17 @@ public final class TurboJPEGImageReader implements AutoCloseable {
         image.setScaledWidth(width);
         image.setScaledHeight(height);
 
-
+        if (isTransformed && scalingFactor.isOne() &&
+                (safeRegion == null || safeRegion.equals(region))) {
+            image.setData(decompressor.getJPEGBuf());
+            image.setDataLength(decompressor.getJPEGSize());
+            image.setDecompressed(false);
+        } else {
             byte[] data = decompressor.decompress(width, 0, height,
                     TJ.PF_BGRX, getFlags());
             image.setData(data);
             image.setDecompressed(true);
-
+        }
         return image;
     }
 
@@ -12,6 +12,9 @@ import java.io.OutputStream;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * <p>Compressors and their output buffers are borrowed from {@link
+ * TurboJPEGPool}.</p>
+ *
  * @see org.libjpegturbo.turbojpeg for libjpeg-turbo setup.
  * @author Alex Dolski UIUC
  */
@@ -126,7 +129,11 @@ public final class TurboJPEGImageWriter {
     public void write(TurboJPEGImage image,
                       OutputStream os) throws IOException { // TODO: XMP
         if (image.isDecompressed()) {
-            try (TJCompressor tjc = new TJCompressor()) {
+            final TJCompressor tjc = TurboJPEGPool.acquireCompressor();
+            final byte[] jpegBuf = TurboJPEGPool.acquireBuffer(TJ.bufSize(
+                    image.getScaledWidth(), image.getScaledHeight(),
+                    subsampling));
+            try {
                 tjc.setSubsamp(subsampling);
                 tjc.setJPEGQuality(quality);
                 tjc.setSourceImage(image.getData(), 0, 0,
@@ -134,8 +141,11 @@ public final class TurboJPEGImageWriter {
                         0,           // pitch
                         image.getScaledHeight(),
                         TJ.PF_BGRX); // pixel format
-                byte[] jpegBuf = tjc.compress(getFlags());
+                tjc.compress(jpegBuf, getFlags());
                 os.write(jpegBuf, 0, tjc.getCompressedSize());
+            } finally {
+                TurboJPEGPool.release(tjc);
+                TurboJPEGPool.release(jpegBuf);
             }
         } else {
             os.write(image.getData(), 0, image.getDataLength());
@@ -172,11 +182,14 @@ public final class TurboJPEGImageWriter {
             setSubsampling(TJ.SAMP_GRAY);
         }
 
-        try (TJCompressor tjc = new TJCompressor()) {
+        final TJCompressor tjc = TurboJPEGPool.acquireCompressor();
+        final byte[] jpegBuf = TurboJPEGPool.acquireBuffer(TJ.bufSize(
+                image.getWidth(), image.getHeight(), subsampling));
+        try {
             tjc.setSubsamp(subsampling);
             tjc.setJPEGQuality(quality);
             tjc.setSourceImage(image, 0, 0, 0, 0);
-            byte[] jpegBuf = tjc.compress(getFlags());
+            tjc.compress(jpegBuf, getFlags());
             // Write SOI
             os.write(jpegBuf, 0, APP1_OFFSET);
             // Write the APP1 segment, if necessary.
@@ -185,6 +198,9 @@ public final class TurboJPEGImageWriter {
             }
             // Write the rest of the image data.
             os.write(jpegBuf, APP1_OFFSET, tjc.getCompressedSize() - APP1_OFFSET);
+        } finally {
+            TurboJPEGPool.release(tjc);
+            TurboJPEGPool.release(jpegBuf);
         }
     }
 
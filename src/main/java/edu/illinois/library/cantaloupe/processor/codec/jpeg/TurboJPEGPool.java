@@ -0,0 +1,183 @@
+package edu.illinois.library.cantaloupe.processor.codec.jpeg;
+
+import org.libjpegturbo.turbojpeg.TJ;
+import org.libjpegturbo.turbojpeg.TJCompressor;
+import org.libjpegturbo.turbojpeg.TJDecompressor;
+import org.libjpegturbo.turbojpeg.TJException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * <p>Pool of TurboJPEG compressor and decompressor instances, and of the
+ * buffers that compressors write into, shared by {@link
+ * TurboJPEGImageReader} and {@link TurboJPEGImageWriter}.</p>
+ *
+ * <p>Each compressor and decompressor owns a native handle that is costly to
+ * set up and tear down, and the worst-case size of a compressed image, which
+ * is what a compressor needs to be given to write into, runs to several
+ * megabytes for larger images. Reusing them keeps both out of the hot path
+ * of tile delivery.</p>
+ *
+ * <p>Every acquired instance must be released exactly once, and must not be
+ * used afterwards. A released compressor or decompressor has its reference
+ * to its last image swapped out for a tiny placeholder, so that the pool
+ * doesn't keep images reachable. At most {@link #MAX_POOL_SIZE} instances of
+ * each kind are kept; extras, as well as buffers larger than {@link
+ * #MAX_BUFFER_LENGTH}, are left for disposal.</p>
+ */
+final class TurboJPEGPool {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(TurboJPEGPool.class);
+
+    /**
+     * Maximum number of instances of each kind to keep.
+     */
+    static final int MAX_POOL_SIZE =
+            Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * Maximum length of a buffer to keep.
+     */
+    static final int MAX_BUFFER_LENGTH = 1024 * 1024 * 16;
+
+    /**
+     * Single gray pixel used as the source image of idle compressors.
+     */
+    private static final byte[] PLACEHOLDER_PIXEL = new byte[1];
+
+    private static final Deque<TJCompressor> COMPRESSORS =
+            new ConcurrentLinkedDeque<>();
+    private static final Deque<TJDecompressor> DECOMPRESSORS =
+            new ConcurrentLinkedDeque<>();
+    private static final Deque<byte[]> BUFFERS =
+            new ConcurrentLinkedDeque<>();
+
+    /**
+     * JPEG encoding of {@link #PLACEHOLDER_PIXEL}, used as the source image of
+     * idle decompressors. Created lazily, as it requires libjpeg-turbo.
+     */
+    private static byte[] placeholderJPEG;
+
+    static TJCompressor acquireCompressor() throws TJException {
+        TJCompressor compressor = COMPRESSORS.pollFirst();
+        return (compressor != null) ? compressor : new TJCompressor();
+    }
+
+    static TJDecompressor acquireDecompressor() throws TJException {
+        TJDecompressor decompressor = DECOMPRESSORS.pollFirst();
+        return (decompressor != null) ? decompressor : new TJDecompressor();
+    }
+
+    /**
+     * @param minLength Minimum length of the buffer.
+     * @return          Buffer of at least the given length, whose contents
+     *                  are undefined.
+     */
+    static byte[] acquireBuffer(int minLength) {
+        for (byte[] buffer : BUFFERS) {
+            if (buffer.length >= minLength &&
+                    BUFFERS.removeFirstOccurrence(buffer)) {
+                return buffer;
+            }
+        }
+        return new byte[minLength];
+    }
+
+    static void release(TJCompressor compressor) {
+        try {
+            compressor.setSourceImage(PLACEHOLDER_PIXEL, 0, 0, 1, 0, 1,
+                    TJ.PF_GRAY);
+            if (COMPRESSORS.size() < MAX_POOL_SIZE) {
+                COMPRESSORS.offerFirst(compressor);
+            } else {
+                compressor.close();
+            }
+        } catch (TJException e) {
+            LOGGER.debug("release(TJCompressor): {}", e.getMessage());
+        }
+    }
+
+    static void release(TJDecompressor decompressor) {
+        try {
+            final byte[] placeholder = getPlaceholderJPEG();
+            decompressor.setSourceImage(placeholder, placeholder.length);
+            if (DECOMPRESSORS.size() < MAX_POOL_SIZE) {
+                DECOMPRESSORS.offerFirst(decompressor);
+            } else {
+                decompressor.close();
+            }
+        } catch (TJException e) {
+            LOGGER.debug("release(TJDecompressor): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a buffer to the pool, which is kept roughly ordered from largest
+     * to smallest buffer. When the pool is full, the buffer replaces the
+     * smallest one if it is larger, so that the pooled buffers grow along
+     * with the images being compressed.
+     */
+    static void release(byte[] buffer) {
+        if (buffer.length > MAX_BUFFER_LENGTH) {
+            return;
+        }
+        if (BUFFERS.size() >= MAX_POOL_SIZE) {
+            final byte[] last = BUFFERS.peekLast();
+            if (last == null || last.length >= buffer.length ||
+                    !BUFFERS.removeLastOccurrence(last)) {
+                return;
+            }
+        }
+        final byte[] first = BUFFERS.peekFirst();
+        if (first == null || buffer.length >= first.length) {
+            BUFFERS.offerFirst(buffer);
+        } else {
+            BUFFERS.offerLast(buffer);
+        }
+    }
+
+    private static synchronized byte[] getPlaceholderJPEG()
+            throws TJException {
+        if (placeholderJPEG == null) {
+            try (TJCompressor compressor = new TJCompressor()) {
+                compressor.setSubsamp(TJ.SAMP_GRAY);
+                compressor.setJPEGQuality(1);
+                compressor.setSourceImage(PLACEHOLDER_PIXEL, 0, 0, 1, 0, 1,
+                        TJ.PF_GRAY);
+                final byte[] buffer = compressor.compress(0);
+                final byte[] jpeg = new byte[compressor.getCompressedSize()];
+                System.arraycopy(buffer, 0, jpeg, 0, jpeg.length);
+                placeholderJPEG = jpeg;
+            }
+        }
+        return placeholderJPEG;
+    }
+
+    /**
+     * For testing only.
+     */
+    static int getNumPooledCompressors() {
+        return COMPRESSORS.size();
+    }
+
+    /**
+     * For testing only.
+     */
+    static int getNumPooledBuffers() {
+        return BUFFERS.size();
+    }
+
+    /**
+     * For testing only.
+     */
+    static int getNumPooledDecompressors() {
+        return DECOMPRESSORS.size();
+    }
+
+    private TurboJPEGPool() {}
+
+}
@@ -0,0 +1,223 @@
+package edu.illinois.library.cantaloupe.processor.codec.pnm;
+
+import edu.illinois.library.cantaloupe.util.Stopwatch;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.WritableRaster;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * <p>Decodes binary Netpbm images&mdash;PGM ({@literal P5}), PPM
+ * ({@literal P6}), and PAM ({@literal P7})&mdash;straight into the raster of
+ * a {@link BufferedImage}.</p>
+ *
+ * <p>These formats consist of a short text header followed by uncompressed
+ * samples in row-major, top-to-bottom order, so unlike e.g. BMP, they can be
+ * decoded from a non-seekable stream as it arrives, without buffering it.
+ * This makes them ideal for reading the output of command-line decoders.</p>
+ *
+ * <p>Images with 1, 2, 3, or 4 channels are decoded into {@link
+ * BufferedImage#TYPE_BYTE_GRAY}, 8-bit gray + alpha, {@link
+ * BufferedImage#TYPE_3BYTE_BGR}, and {@link BufferedImage#TYPE_4BYTE_ABGR}
+ * images, respectively. Samples with a maximum value other than 255 are
+ * rescaled to 8 bits.</p>
+ *
+ * @see <a href="http://netpbm.sourceforge.net/doc/pam.html">PAM format
+ *      specification</a>
+ * @since 6.0
+ */
+public final class PNMDecoder {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(PNMDecoder.class);
+
+    /**
+     * @param inputStream Stream to read from. It will not be closed.
+     * @return            Decoded image.
+     * @throws IOException if the stream does not contain a supported image,
+     *                     or if it ends prematurely.
+     */
+    public static BufferedImage decode(InputStream inputStream)
+            throws IOException {
+        final Stopwatch watch = new Stopwatch();
+        final InputStream is = new BufferedInputStream(inputStream);
+
+        if (is.read() != 'P') {
+            throw new IOException("Not a PNM image");
+        }
+        final int magic = is.read();
+        int width, height, depth, maxValue;
+        switch (magic) {
+            case '5':
+            case '6':
+                width    = Integer.parseInt(readToken(is));
+                height   = Integer.parseInt(readToken(is));
+                maxValue = Integer.parseInt(readToken(is));
+                depth    = (magic == '5') ? 1 : 3;
+                break;
+            case '7':
+                width = height = depth = maxValue = 0;
+                String token;
+                while (!"ENDHDR".equals(token = readToken(is))) {
+                    switch (token) {
+                        case "WIDTH":
+                            width = Integer.parseInt(readToken(is));
+                            break;
+                        case "HEIGHT":
+                            height = Integer.parseInt(readToken(is));
+                            break;
+                        case "DEPTH":
+                            depth = Integer.parseInt(readToken(is));
+                            break;
+                        case "MAXVAL":
+                            maxValue = Integer.parseInt(readToken(is));
+                            break;
+                        case "TUPLTYPE":
+                            readToken(is);
+                            break;
+                    }
+                }
+                break;
+            default:
+                throw new IOException("Unsupported PNM type: P" + (char) magic);
+        }
+        if (width < 1 || height < 1 || depth < 1 || depth > 4 ||
+                maxValue < 1 || maxValue > 65535) {
+            throw new IOException(String.format(
+                    "Unsupported PNM image: %dx%d, %d channels, max value %d",
+                    width, height, depth, maxValue));
+        }
+
+        final BufferedImage image = newImage(width, height, depth);
+        final byte[] data = ((DataBufferByte) image.getRaster()
+                .getDataBuffer()).getData();
+        final int rowLength = width * depth;
+        final int bytesPerSample = (maxValue < 256) ? 1 : 2;
+        final byte[] table = (maxValue != 255) ? newTable(maxValue) : null;
+        final byte[] row = (table != null) ?
+                new byte[rowLength * bytesPerSample] : null;
+
+        for (int y = 0; y < height; y++) {
+            final int offset = y * rowLength;
+            if (row == null) {
+                IOUtils.readFully(is, data, offset, rowLength);
+            } else {
+                IOUtils.readFully(is, row);
+                if (bytesPerSample == 1) {
+                    for (int i = 0; i < rowLength; i++) {
+                        data[offset + i] = table[row[i] & 0xff];
+                    }
+                } else {
+                    for (int i = 0; i < rowLength; i++) {
+                        final int sample = ((row[i * 2] & 0xff) << 8) |
+                                (row[i * 2 + 1] & 0xff);
+                        data[offset + i] =
+                                table[Math.min(sample, maxValue)];
+                    }
+                }
+            }
+            reorderChannels(data, offset, width, depth);
+        }
+        LOGGER.trace("decode(): decoded {}x{}x{} image in {}",
+                width, height, depth, watch);
+        return image;
+    }
+
+    private static BufferedImage newImage(int width, int height, int depth) {
+        switch (depth) {
+            case 1:
+                return new BufferedImage(width, height,
+                        BufferedImage.TYPE_BYTE_GRAY);
+            case 2:
+                final ColorModel cm = new ComponentColorModel(
+                        ColorSpace.getInstance(ColorSpace.CS_GRAY),
+                        new int[] { 8, 8 }, true, false,
+                        Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE);
+                final WritableRaster raster =
+                        cm.createCompatibleWritableRaster(width, height);
+                return new BufferedImage(cm, raster, false, null);
+            case 3:
+                return new BufferedImage(width, height,
+                        BufferedImage.TYPE_3BYTE_BGR);
+            default:
+                return new BufferedImage(width, height,
+                        BufferedImage.TYPE_4BYTE_ABGR);
+        }
+    }
+
+    /**
+     * @return Table that maps samples from {@literal 0} to {@code maxValue}
+     *         to 8-bit samples.
+     */
+    private static byte[] newTable(int maxValue) {
+        final byte[] table = new byte[Math.max(maxValue + 1, 256)];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (byte) Math.round(Math.min(i, maxValue) * 255.0 / maxValue);
+        }
+        return table;
+    }
+
+    /**
+     * Converts a row of RGB(A) samples, in the order in which they appear in
+     * a PNM image, into the BGR or ABGR order of the image's raster. Gray
+     * samples need no conversion.
+     */
+    private static void reorderChannels(byte[] data,
+                                        int offset,
+                                        int width,
+                                        int depth) {
+        if (depth == 3) {
+            for (int i = offset, end = offset + width * 3; i < end; i += 3) {
+                final byte r = data[i];
+                data[i]     = data[i + 2];
+                data[i + 2] = r;
+            }
+        } else if (depth == 4) {
+            for (int i = offset, end = offset + width * 4; i < end; i += 4) {
+                final byte r = data[i], g = data[i + 1];
+                data[i]     = data[i + 3];
+                data[i + 1] = data[i + 2];
+                data[i + 2] = g;
+                data[i + 3] = r;
+            }
+        }
+    }
+
+    /**
+     * Reads the next whitespace-delimited header token, skipping comments.
+     * The single whitespace character that follows the token is consumed.
+     */
+    private static String readToken(InputStream is) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        int b;
+        while ((b = is.read()) != -1) {
+            if (b == '#' && builder.length() == 0) {
+                while ((b = is.read()) != -1 && b != '\n' && b != '\r') {
+                    // skip the rest of the comment
+                }
+            } else if (Character.isWhitespace(b)) {
+                if (builder.length() > 0) {
+                    return builder.toString();
+                }
+            } else {
+                builder.append((char) b);
+            }
+        }
+        throw new EOFException("Unexpected end of PNM header");
+    }
+
+    private PNMDecoder() {}
+
+}
@@ -171,8 +171,8 @@ public final class TIFFImageReader extends AbstractIIOImageReader
                 throw new SourceFormatException();
             }
         } else {
-            image = readMonoResolution(
-                    imageIndex, crop, scaleConstraint, hints);
+            image = readMonoResolution(imageIndex, crop, scale,
+                    scaleConstraint, reductionFactor, hints);
         }
         if (image == null) {
             throw new SourceFormatException(iioReader.getFormatName());
@@ -6,6 +6,8 @@
  */
 package edu.illinois.library.cantaloupe.processor.resample;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import edu.illinois.library.cantaloupe.async.ThreadPool;
 
 import java.awt.Transparency;
@@ -13,16 +15,76 @@ import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
 import java.awt.image.ComponentColorModel;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
 import java.awt.image.WritableRaster;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
 
 /**
+ * <p>Resamples an image in two passes: first horizontally, from the source
+ * image into an intermediate work buffer, and then vertically, from the work
+ * buffer into the destination image.</p>
+ *
+ * <p>The destination image is divided into horizontal bands which are
+ * resampled independently and in parallel. Each band needs only the source
+ * rows that contribute to it, so the work buffer scales with the band height
+ * rather than with the source height. Work buffers are reused by each thread
+ * across invocations, and bands are written directly into the destination
+ * image's {@link DataBuffer} when its layout allows it.</p>
+ *
  * @author Morten Nobel-Joergensen
  * @author Heinz Doerr
  * @author Alex Dolski UIUC
  */
 public class ResampleOp extends AdvancedResizeOp {
 
+    /**
+     * Key of a {@link SubSamplingData} in the {@link #SUB_SAMPLING_CACHE}.
+     * Filters are compared by identity, which works for the shared instances
+     * in {@link ResampleFilters}.
+     */
+    private static final class SubSamplingKey {
+
+        private final ResampleFilter filter;
+        private final int srcSize, dstSize;
+
+        private SubSamplingKey(ResampleFilter filter, int srcSize, int dstSize) {
+            this.filter  = filter;
+            this.srcSize = srcSize;
+            this.dstSize = dstSize;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (obj instanceof SubSamplingKey) {
+                SubSamplingKey other = (SubSamplingKey) obj;
+                return filter == other.filter &&
+                        srcSize == other.srcSize &&
+                        dstSize == other.dstSize;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(filter),
+                    srcSize, dstSize);
+        }
+
+    }
+
+    /**
+     * Immutable once created, so instances can be shared by any number of
+     * threads.
+     */
     private static class SubSamplingData {
 
         /**
@@ -53,17 +115,148 @@ public class ResampleOp extends AdvancedResizeOp {
             this.numContributors = numContributors;
         }
 
+        /**
+         * @return Approximate size of the instance in bytes.
+         */
+        private int getByteSize() {
+            return 64 + arrN.length * Integer.BYTES +
+                    arrPixel.length * Integer.BYTES +
+                    arrWeight.length * Float.BYTES;
+        }
+
+    }
+
+    /**
+     * Buffers that are reused across invocations, via {@link #WORK_BUFFERS}.
+     */
+    private static final class WorkBuffers {
+
+        private byte[] work = new byte[0], band = new byte[0], srcRow;
+        private int[] tempRow;
+
+        /**
+         * @return Buffer of at least the given length, which is not
+         *         necessarily zeroed.
+         */
+        private byte[] getWork(int length) {
+            if (work.length >= length) {
+                return work;
+            }
+            byte[] buffer = new byte[length];
+            if (length <= MAX_POOLED_BUFFER_SIZE) {
+                work = buffer;
+            }
+            return buffer;
+        }
+
+        /**
+         * @return Buffer of at least the given length, which is not
+         *         necessarily zeroed.
+         */
+        private byte[] getBand(int length) {
+            if (band.length >= length) {
+                return band;
+            }
+            byte[] buffer = new byte[length];
+            if (length <= MAX_POOLED_BUFFER_SIZE) {
+                band = buffer;
+            }
+            return buffer;
+        }
+
+        /**
+         * @return Buffer of exactly the given length, as required by {@link
+         *         ImageUtils#readPixelsBGR}.
+         */
+        private byte[] getSrcRow(int length) {
+            if (srcRow == null || srcRow.length != length) {
+                srcRow = new byte[length];
+            }
+            return srcRow;
+        }
+
+        /**
+         * @return Buffer of exactly the given length, as required by {@link
+         *         ImageUtils#readPixelsBGR}.
+         */
+        private int[] getTempRow(int length) {
+            if (tempRow == null || tempRow.length != length) {
+                tempRow = new int[length];
+            }
+            return tempRow;
+        }
+
     }
 
     private static final int MAX_CHANNEL_VALUE = 255;
 
-    private static final int THREAD_COUNT =
-            Runtime.getRuntime().availableProcessors();
+    /**
+     * Minimum and maximum height of a band of destination rows, when it is
+     * determined automatically. Smaller bands allow more parallelism, but the
+     * source rows at the edges of each band have to be resampled
+     * horizontally once for each band that they contribute to.
+     */
+    private static final int MIN_BAND_HEIGHT = 16, MAX_BAND_HEIGHT = 64;
+
+    /**
+     * Maximum size of a buffer that will be retained in {@link #WORK_BUFFERS}
+     * for reuse. Larger buffers, which are needed only for very wide images,
+     * are allocated on demand.
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024 * 8;
+
+    /**
+     * Idle buffers, shared by all threads. Bands are resampled on compute
+     * threads as well as on the calling threads, of which there may be many,
+     * so rather than each thread holding on to its own buffers, no more
+     * buffers are retained than there are {@link
+     * ThreadPool#getNumComputeThreads() compute threads}.
+     */
+    private static final Deque<WorkBuffers> WORK_BUFFERS =
+            new ConcurrentLinkedDeque<>();
+
+    /**
+     * Lookup tables that convert between 8-bit sRGB-encoded and 8-bit linear
+     * samples, used when {@link #setLinearizing(boolean) linearizing}.
+     */
+    private static final byte[] SRGB_TO_LINEAR = new byte[256],
+            LINEAR_TO_SRGB = new byte[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            final double v = i / 255.0;
+            final double linear = (v <= 0.04045) ?
+                    v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+            final double srgb = (v <= 0.0031308) ?
+                    v * 12.92 : 1.055 * Math.pow(v, 1 / 2.4) - 0.055;
+            SRGB_TO_LINEAR[i] = (byte) Math.round(linear * 255);
+            LINEAR_TO_SRGB[i] = (byte) Math.round(srgb * 255);
+        }
+    }
+
+    /**
+     * Maximum combined size of the instances in the {@link
+     * #SUB_SAMPLING_CACHE}.
+     */
+    private static final long MAX_SUB_SAMPLING_CACHE_SIZE = 1024 * 1024 * 32;
+
+    /**
+     * Cache of sub-sampling weight tables, which are expensive to compute and
+     * tend to be needed over and over again, because tiled clients request
+     * the same few source and destination sizes.
+     */
+    private static final Cache<SubSamplingKey,SubSamplingData> SUB_SAMPLING_CACHE =
+            Caffeine.newBuilder()
+                    .maximumWeight(MAX_SUB_SAMPLING_CACHE_SIZE)
+                    .weigher((SubSamplingKey key, SubSamplingData data) ->
+                            data.getByteSize())
+                    .build();
 
     private int numChannels;
     private int srcWidth, srcHeight;
     private int destWidth, destHeight;
-    private boolean isLinear;
+    private boolean isLinear, isLinearizing;
+    private int bandHeight;
 
     private SubSamplingData horizontalSubsamplingData;
     private SubSamplingData verticalSubsamplingData;
@@ -73,6 +266,34 @@ public class ResampleOp extends AdvancedResizeOp {
      */
     private ResampleFilter filter = ResampleFilters.getLanczos3Filter();
 
+    /**
+     * Clears the cache of sub-sampling weight tables. This is mainly useful
+     * in testing.
+     */
+    public static void clearSubSamplingCache() {
+        SUB_SAMPLING_CACHE.invalidateAll();
+    }
+
+    /**
+     * @return Number of entries in the cache of sub-sampling weight tables.
+     */
+    static long getSubSamplingCacheSize() {
+        SUB_SAMPLING_CACHE.cleanUp();
+        return SUB_SAMPLING_CACHE.estimatedSize();
+    }
+
+    /**
+     * @return Cached instance corresponding to the given arguments, which is
+     *         created if it does not already exist.
+     */
+    private static SubSamplingData getSubSampling(ResampleFilter filter,
+                                                  int srcSize,
+                                                  int dstSize) {
+        return SUB_SAMPLING_CACHE.get(
+                new SubSamplingKey(filter, srcSize, dstSize),
+                key -> createSubSampling(key.filter, key.srcSize, key.dstSize));
+    }
+
     private static SubSamplingData createSubSampling(ResampleFilter filter,
                                                      int srcSize,
                                                      int dstSize) {
@@ -208,6 +429,33 @@ public class ResampleOp extends AdvancedResizeOp {
         this.filter = filter;
     }
 
+    /**
+     * <p>Sets whether to resample an sRGB-encoded source image in linear
+     * light. When {@code true}, the color channels of each source row are
+     * linearized as the row is read, and the color channels of each
+     * destination band are re-encoded as the band is written, so that the
+     * source image does not need to be converted to a linear color space
+     * beforehand, and the result converted back afterwards. Alpha channels
+     * are left alone.</p>
+     *
+     * <p>The source image should have three or four channels. This is not
+     * compatible with {@link #ResampleOp(int, int, boolean) linear RGB
+     * output}.</p>
+     */
+    public void setLinearizing(boolean isLinearizing) {
+        this.isLinearizing = isLinearizing;
+    }
+
+    /**
+     * For testing.
+     *
+     * @param bandHeight Height of each band of destination rows, or {@code 0}
+     *                   to determine it automatically.
+     */
+    void setBandHeight(int bandHeight) {
+        this.bandHeight = bandHeight;
+    }
+
     @Override
     public BufferedImage doFilter(BufferedImage srcImage,
                                   BufferedImage destImage,
@@ -231,46 +479,10 @@ public class ResampleOp extends AdvancedResizeOp {
         this.srcWidth = srcImage.getWidth();
         this.srcHeight = srcImage.getHeight();
 
-        byte[][] workPixels = new byte[srcHeight][dstWidth * numChannels];
-
         // Pre-calculate sub-sampling
-        horizontalSubsamplingData = createSubSampling(filter, srcWidth, dstWidth);
-        verticalSubsamplingData = createSubSampling(filter, srcHeight, dstHeight);
-
-        final ThreadPool threadPool = ThreadPool.getInstance();
-        final CountDownLatch inputLatch = new CountDownLatch(THREAD_COUNT - 1);
-        final BufferedImage scrImgCopy = srcImage;
-        final byte[][] workPixelsCopy = workPixels;
+        horizontalSubsamplingData = getSubSampling(filter, srcWidth, dstWidth);
+        verticalSubsamplingData = getSubSampling(filter, srcHeight, dstHeight);
 
-        for (int i = 1; i < THREAD_COUNT; i++) {
-            final int finalI = i;
-            threadPool.submit(() -> {
-                horizontalFromSrcToWork(scrImgCopy, workPixelsCopy, finalI,
-                        THREAD_COUNT);
-                inputLatch.countDown();
-            });
-        }
-        horizontalFromSrcToWork(scrImgCopy, workPixelsCopy, 0, THREAD_COUNT);
-        waitOnLatch(inputLatch);
-
-        final CountDownLatch outputLatch = new CountDownLatch(THREAD_COUNT - 1);
-        byte[] outPixels = new byte[dstWidth * dstHeight * numChannels];
-
-        // Apply filter to sample vertically from Work to Dst.
-        final byte[] outPixelsCopy = outPixels;
-        for (int i = 1; i < THREAD_COUNT; i++) {
-            final int finalI = i;
-            threadPool.submit(() -> {
-                verticalFromWorkToDst(workPixelsCopy, outPixelsCopy, finalI,
-                        THREAD_COUNT);
-                outputLatch.countDown();
-            });
-        }
-        verticalFromWorkToDst(workPixelsCopy, outPixelsCopy, 0, THREAD_COUNT);
-        waitOnLatch(outputLatch);
-
-        //noinspection UnusedAssignment
-        workPixels = null; // free memory
         BufferedImage out;
         if (destImage != null && dstWidth == destImage.getWidth() &&
                 dstHeight == destImage.getHeight()) {
@@ -295,11 +507,212 @@ public class ResampleOp extends AdvancedResizeOp {
                     getResultBufferedImageType(srcImage));
         }
 
-        ImageUtils.setBGRPixels(outPixels, out, 0, 0, dstWidth, dstHeight);
-
+        final int numThreads = ThreadPool.getInstance().getNumComputeThreads();
+        final int bandHeight = getBandHeight(numThreads);
+        final int numBands   = (dstHeight + bandHeight - 1) / bandHeight;
+        final BufferedImage scrImgCopy = srcImage;
+        final BufferedImage outCopy    = out;
+        runPartitioned(numBands, Math.min(numBands, numThreads), band ->
+                resampleBand(scrImgCopy, outCopy, band * bandHeight,
+                        Math.min(dstHeight, (band + 1) * bandHeight)));
         return out;
     }
 
+    private int getBandHeight(int numThreads) {
+        if (bandHeight > 0) {
+            return bandHeight;
+        }
+        final int height = (destHeight + numThreads - 1) / numThreads;
+        return Math.max(MIN_BAND_HEIGHT, Math.min(MAX_BAND_HEIGHT, height));
+    }
+
+    /**
+     * @return Whether the given raster is laid out in a way that allows
+     *         {@link #resampleBand} to write into its {@link DataBuffer}
+     *         directly.
+     */
+    private boolean isDirectlyWritable(WritableRaster raster) {
+        return raster.getDataBuffer() instanceof DataBufferByte &&
+                raster.getDataBuffer().getNumBanks() == 1 &&
+                raster.getSampleModel() instanceof PixelInterleavedSampleModel &&
+                raster.getNumBands() == numChannels &&
+                ((PixelInterleavedSampleModel) raster.getSampleModel())
+                        .getPixelStride() == numChannels &&
+                raster.getSampleModelTranslateX() == 0 &&
+                raster.getSampleModelTranslateY() == 0;
+    }
+
+    /**
+     * Resamples the destination rows from {@code dstY0} (inclusive) to
+     * {@code dstY1} (exclusive).
+     */
+    private void resampleBand(BufferedImage srcImage,
+                              BufferedImage dstImage,
+                              int dstY0, int dstY1) {
+        WorkBuffers buffers = WORK_BUFFERS.pollFirst();
+        if (buffers == null) {
+            buffers = new WorkBuffers();
+        }
+        try {
+            resampleBand(srcImage, dstImage, dstY0, dstY1, buffers);
+        } finally {
+            if (WORK_BUFFERS.size() <
+                    ThreadPool.getInstance().getNumComputeThreads()) {
+                WORK_BUFFERS.offerFirst(buffers);
+            }
+        }
+    }
+
+    private void resampleBand(BufferedImage srcImage,
+                              BufferedImage dstImage,
+                              int dstY0, int dstY1,
+                              WorkBuffers buffers) {
+
+        // Find the range of source rows that contribute to the band.
+        int srcY0 = Integer.MAX_VALUE, srcY1 = -1;
+        for (int y = dstY0; y < dstY1; y++) {
+            final int index = y * verticalSubsamplingData.numContributors;
+            for (int j = verticalSubsamplingData.arrN[y] - 1; j >= 0; j--) {
+                final int srcY = verticalSubsamplingData.arrPixel[index + j];
+                srcY0 = Math.min(srcY0, srcY);
+                srcY1 = Math.max(srcY1, srcY);
+            }
+        }
+        if (srcY1 < srcY0) {
+            srcY0 = srcY1 = 0;
+        }
+
+        // Apply filter to sample horizontally from Src to Work.
+        final int workStride = destWidth * numChannels;
+        final byte[] workPixels =
+                buffers.getWork((srcY1 - srcY0 + 1) * workStride);
+        final byte[] srcPixels = buffers.getSrcRow(srcWidth * numChannels);
+        final int[] tempPixels = buffers.getTempRow(srcWidth);
+        for (int srcY = srcY0; srcY <= srcY1; srcY++) {
+            ImageUtils.readPixelsBGR(srcImage, srcY, srcWidth, srcPixels,
+                    tempPixels);
+            if (isLinearizing) {
+                convertColorChannels(srcPixels, 0, srcWidth, 1, 0,
+                        new int[] { 0, 1, 2 }, SRGB_TO_LINEAR);
+            }
+            horizontalFromSrcToWork(srcPixels, workPixels,
+                    (srcY - srcY0) * workStride);
+        }
+
+        // Apply filter to sample vertically from Work to Dst.
+        final WritableRaster raster = dstImage.getRaster();
+        if (isDirectlyWritable(raster)) {
+            final PixelInterleavedSampleModel sampleModel =
+                    (PixelInterleavedSampleModel) raster.getSampleModel();
+            final DataBufferByte dataBuffer =
+                    (DataBufferByte) raster.getDataBuffer();
+            verticalFromWorkToDst(workPixels, srcY0, workStride,
+                    dataBuffer.getData(),
+                    dataBuffer.getOffset() +
+                            dstY0 * sampleModel.getScanlineStride(),
+                    sampleModel.getScanlineStride(),
+                    sampleModel.getBandOffsets(),
+                    dstY0, dstY1);
+            if (isLinearizing) {
+                convertColorChannels(dataBuffer.getData(),
+                        dataBuffer.getOffset() +
+                                dstY0 * sampleModel.getScanlineStride(),
+                        destWidth, dstY1 - dstY0,
+                        sampleModel.getScanlineStride(),
+                        sampleModel.getBandOffsets(), LINEAR_TO_SRGB);
+            }
+        } else {
+            final byte[] bandPixels =
+                    buffers.getBand((dstY1 - dstY0) * workStride);
+            verticalFromWorkToDst(workPixels, srcY0, workStride,
+                    bandPixels, 0, workStride,
+                    new int[] { 0, 1, 2, 3 },
+                    dstY0, dstY1);
+            if (isLinearizing) {
+                convertColorChannels(bandPixels, 0, destWidth,
+                        dstY1 - dstY0, workStride, new int[] { 0, 1, 2 },
+                        LINEAR_TO_SRGB);
+            }
+            ImageUtils.setBGRPixels(bandPixels, dstImage, 0, dstY0,
+                    destWidth, dstY1 - dstY0);
+        }
+    }
+
+    /**
+     * Passes the first three channels of each of the given pixels through a
+     * lookup table.
+     *
+     * @param pixels      Pixels to convert in place.
+     * @param offset      Offset of the first row in {@code pixels}.
+     * @param width       Number of pixels in each row.
+     * @param height      Number of rows.
+     * @param stride      Length of a row of {@code pixels}. Ignored when
+     *                    {@code height} is {@code 1}.
+     * @param bandOffsets Offset of each channel within a pixel.
+     * @param table       Lookup table.
+     */
+    private void convertColorChannels(byte[] pixels,
+                                      int offset,
+                                      int width,
+                                      int height,
+                                      int stride,
+                                      int[] bandOffsets,
+                                      byte[] table) {
+        final int offset0 = bandOffsets[0];
+        final int offset1 = bandOffsets[1];
+        final int offset2 = bandOffsets[2];
+        for (int y = 0; y < height; y++) {
+            final int rowLocation = offset + y * stride;
+            for (int x = 0; x < width; x++) {
+                final int i = rowLocation + x * numChannels;
+                pixels[i + offset0] = table[pixels[i + offset0] & 0xff];
+                pixels[i + offset1] = table[pixels[i + offset1] & 0xff];
+                pixels[i + offset2] = table[pixels[i + offset2] & 0xff];
+            }
+        }
+    }
+
+    /**
+     * Runs the given function once for each partition, in parallel, using the
+     * {@link ThreadPool#submitCompute(Runnable) compute pool}. The calling
+     * thread works on partitions too, and any partitions that the pool has
+     * not started yet by the time the calling thread is free are run in the
+     * calling thread, so that a busy pool doesn't leave it waiting idly.
+     *
+     * @param numPartitions Number of partitions.
+     * @param numWorkers    Maximum number of threads, including the calling
+     *                      thread, to work on the partitions.
+     * @param function      Function to invoke with each partition index.
+     */
+    private void runPartitioned(int numPartitions,
+                                int numWorkers,
+                                IntConsumer function) {
+        final AtomicInteger nextPartition = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(numPartitions);
+        final AtomicReference<RuntimeException> error = new AtomicReference<>();
+        final Runnable worker = () -> {
+            int partition;
+            while ((partition = nextPartition.getAndIncrement()) < numPartitions) {
+                try {
+                    function.accept(partition);
+                } catch (RuntimeException e) {
+                    error.compareAndSet(null, e);
+                } finally {
+                    latch.countDown();
+                }
+            }
+        };
+        final ThreadPool threadPool = ThreadPool.getInstance();
+        for (int i = 1; i < numWorkers; i++) {
+            threadPool.submitCompute(worker);
+        }
+        worker.run();
+        waitOnLatch(latch);
+        if (error.get() != null) {
+            throw error.get();
+        }
+    }
+
     private void waitOnLatch(CountDownLatch latch) {
         try {
             latch.await();
@@ -309,21 +722,48 @@ public class ResampleOp extends AdvancedResizeOp {
         }
     }
 
-    private void verticalFromWorkToDst(byte[][] workPixels, byte[] outPixels,
-                                       int start, int delta) {
+    /**
+     * @param workPixels   Horizontally resampled source rows.
+     * @param workY0       Source row corresponding to the first row of
+     *                     {@code workPixels}.
+     * @param workStride   Length of a row of {@code workPixels}.
+     * @param dstPixels    Array to write to.
+     * @param dstOffset    Offset of row {@code dstY0} in {@code dstPixels}.
+     * @param dstStride    Length of a row of {@code dstPixels}.
+     * @param bandOffsets  Offset of each channel within a pixel of {@code
+     *                     dstPixels}.
+     * @param dstY0        First destination row (inclusive).
+     * @param dstY1        Last destination row (exclusive).
+     */
+    private void verticalFromWorkToDst(byte[] workPixels,
+                                       int workY0,
+                                       int workStride,
+                                       byte[] dstPixels,
+                                       int dstOffset,
+                                       int dstStride,
+                                       int[] bandOffsets,
+                                       int dstY0, int dstY1) {
         if (numChannels == 1) {
-            verticalFromWorkToDstGray(workPixels, outPixels, start,
-                    THREAD_COUNT);
+            verticalFromWorkToDstGray(workPixels, workY0, workStride,
+                    dstPixels, dstOffset, dstStride, bandOffsets[0],
+                    dstY0, dstY1);
             return;
         }
-        boolean useChannel3 = numChannels > 3;
-        for (int x = start; x < destWidth; x += delta) {
-            final int xLocation = x * numChannels;
-            for (int y = destHeight - 1; y >= 0; y--) {
-                final int yTimesNumContributors =
-                        y * verticalSubsamplingData.numContributors;
-                final int max = verticalSubsamplingData.arrN[y];
-                final int sampleLocation = (y * destWidth + x) * numChannels;
+        final boolean useChannel3 = numChannels > 3;
+        final int offset0 = bandOffsets[0];
+        final int offset1 = bandOffsets[1];
+        final int offset2 = bandOffsets[2];
+        final int offset3 = useChannel3 ? bandOffsets[3] : 0;
+
+        for (int y = dstY0; y < dstY1; y++) {
+            final int yTimesNumContributors =
+                    y * verticalSubsamplingData.numContributors;
+            final int max = verticalSubsamplingData.arrN[y];
+            final int rowLocation = dstOffset + (y - dstY0) * dstStride;
+
+            for (int x = 0; x < destWidth; x++) {
+                final int xLocation = x * numChannels;
+                final int sampleLocation = rowLocation + xLocation;
 
                 float sample0 = 0.0f;
                 float sample1 = 0.0f;
@@ -331,132 +771,126 @@ public class ResampleOp extends AdvancedResizeOp {
                 float sample3 = 0.0f;
                 int index = yTimesNumContributors;
                 for (int j = max - 1; j >= 0; j--) {
-                    int valueLocation = verticalSubsamplingData.arrPixel[index];
+                    int valueLocation = (verticalSubsamplingData.arrPixel[index] - workY0) *
+                            workStride + xLocation;
                     float arrWeight = verticalSubsamplingData.arrWeight[index];
-                    sample0 += (workPixels[valueLocation][xLocation] & 0xff) * arrWeight;
-                    sample1 += (workPixels[valueLocation][xLocation + 1] & 0xff) * arrWeight;
-                    sample2 += (workPixels[valueLocation][xLocation + 2] & 0xff) * arrWeight;
+                    sample0 += (workPixels[valueLocation] & 0xff) * arrWeight;
+                    sample1 += (workPixels[valueLocation + 1] & 0xff) * arrWeight;
+                    sample2 += (workPixels[valueLocation + 2] & 0xff) * arrWeight;
                     if (useChannel3) {
-                        sample3 += (workPixels[valueLocation][xLocation + 3] & 0xff) * arrWeight;
+                        sample3 += (workPixels[valueLocation + 3] & 0xff) * arrWeight;
                     }
                     index++;
                 }
 
-                outPixels[sampleLocation]     = toByte(sample0);
-                outPixels[sampleLocation + 1] = toByte(sample1);
-                outPixels[sampleLocation + 2] = toByte(sample2);
+                dstPixels[sampleLocation + offset0] = toByte(sample0);
+                dstPixels[sampleLocation + offset1] = toByte(sample1);
+                dstPixels[sampleLocation + offset2] = toByte(sample2);
                 if (useChannel3) {
-                    outPixels[sampleLocation + 3] = toByte(sample3);
+                    dstPixels[sampleLocation + offset3] = toByte(sample3);
                 }
             }
         }
     }
 
-    private void verticalFromWorkToDstGray(byte[][] workPixels, byte[] outPixels,
-                                           int start, int delta) {
-        for (int x = start; x < destWidth; x += delta) {
-            for (int y = destHeight - 1; y >= 0; y--) {
-                final int yTimesNumContributors =
-                        y * verticalSubsamplingData.numContributors;
-                final int max = verticalSubsamplingData.arrN[y];
-                final int sampleLocation = (y * destWidth + x);
-
+    private void verticalFromWorkToDstGray(byte[] workPixels,
+                                           int workY0,
+                                           int workStride,
+                                           byte[] dstPixels,
+                                           int dstOffset,
+                                           int dstStride,
+                                           int bandOffset,
+                                           int dstY0, int dstY1) {
+        for (int y = dstY0; y < dstY1; y++) {
+            final int yTimesNumContributors =
+                    y * verticalSubsamplingData.numContributors;
+            final int max = verticalSubsamplingData.arrN[y];
+            final int rowLocation = dstOffset + (y - dstY0) * dstStride +
+                    bandOffset;
+
+            for (int x = 0; x < destWidth; x++) {
                 float sample0 = 0.0f;
                 int index = yTimesNumContributors;
                 for (int j = max - 1; j >= 0; j--) {
-                    int valueLocation = verticalSubsamplingData.arrPixel[index];
+                    int valueLocation = (verticalSubsamplingData.arrPixel[index] - workY0) *
+                            workStride + x;
                     float arrWeight = verticalSubsamplingData.arrWeight[index];
-                    sample0 += (workPixels[valueLocation][x] & 0xff) * arrWeight;
+                    sample0 += (workPixels[valueLocation] & 0xff) * arrWeight;
                     index++;
                 }
 
-                outPixels[sampleLocation] = toByte(sample0);
+                dstPixels[rowLocation + x] = toByte(sample0);
             }
         }
     }
 
     /**
-     * Apply filter to sample horizontally from Src to Work
+     * Apply filter to sample one row horizontally from Src to Work.
+     *
+     * @param srcPixels  Source row.
+     * @param workPixels Work buffer.
+     * @param workOffset Offset of the row in {@code workPixels}.
      */
-    private void horizontalFromSrcToWork(BufferedImage srcImg,
-                                         byte[][] workPixels,
-                                         int start, int delta) {
+    private void horizontalFromSrcToWork(byte[] srcPixels,
+                                         byte[] workPixels,
+                                         int workOffset) {
         if (numChannels == 1) {
-            horizontalFromSrcToWorkGray(srcImg, workPixels, start, delta);
+            horizontalFromSrcToWorkGray(srcPixels, workPixels, workOffset);
             return;
         }
-
-        // create reusable row to minimize memory overhead
-        final byte[] srcPixels    = new byte[srcWidth * numChannels];
-        // Used if we work on int based bitmaps
-        final int[] tempPixels    = new int[srcWidth];
         final boolean useChannel3 = numChannels > 3;
 
-        for (int k = start; k < srcHeight; k = k + delta) {
-            ImageUtils.readPixelsBGR(srcImg, k, srcWidth, srcPixels, tempPixels);
-
-            for (int i = destWidth - 1; i >= 0; i--) {
-                int sampleLocation = i * numChannels;
-                final int max = horizontalSubsamplingData.arrN[i];
-
-                float sample0 = 0.0f;
-                float sample1 = 0.0f;
-                float sample2 = 0.0f;
-                float sample3 = 0.0f;
-                int index = i * horizontalSubsamplingData.numContributors;
-                for (int j = max - 1; j >= 0; j--) {
-                    float arrWeight = horizontalSubsamplingData.arrWeight[index];
-                    int pixelIndex = horizontalSubsamplingData.arrPixel[index] * numChannels;
-
-                    sample0 += (srcPixels[pixelIndex] & 0xff) * arrWeight;
-                    sample1 += (srcPixels[pixelIndex + 1] & 0xff) * arrWeight;
-                    sample2 += (srcPixels[pixelIndex + 2] & 0xff) * arrWeight;
-                    if (useChannel3) {
-                        sample3 += (srcPixels[pixelIndex + 3] & 0xff) * arrWeight;
-                    }
-                    index++;
-                }
-
-                workPixels[k][sampleLocation] = toByte(sample0);
-                workPixels[k][sampleLocation + 1] = toByte(sample1);
-                workPixels[k][sampleLocation + 2] = toByte(sample2);
+        for (int i = destWidth - 1; i >= 0; i--) {
+            int sampleLocation = workOffset + i * numChannels;
+            final int max = horizontalSubsamplingData.arrN[i];
+
+            float sample0 = 0.0f;
+            float sample1 = 0.0f;
+            float sample2 = 0.0f;
+            float sample3 = 0.0f;
+            int index = i * horizontalSubsamplingData.numContributors;
+            for (int j = max - 1; j >= 0; j--) {
+                float arrWeight = horizontalSubsamplingData.arrWeight[index];
+                int pixelIndex = horizontalSubsamplingData.arrPixel[index] * numChannels;
+
+                sample0 += (srcPixels[pixelIndex] & 0xff) * arrWeight;
+                sample1 += (srcPixels[pixelIndex + 1] & 0xff) * arrWeight;
+                sample2 += (srcPixels[pixelIndex + 2] & 0xff) * arrWeight;
                 if (useChannel3) {
-                    workPixels[k][sampleLocation + 3] = toByte(sample3);
+                    sample3 += (srcPixels[pixelIndex + 3] & 0xff) * arrWeight;
                 }
+                index++;
+            }
+
+            workPixels[sampleLocation] = toByte(sample0);
+            workPixels[sampleLocation + 1] = toByte(sample1);
+            workPixels[sampleLocation + 2] = toByte(sample2);
+            if (useChannel3) {
+                workPixels[sampleLocation + 3] = toByte(sample3);
             }
         }
     }
 
     /**
-     * Apply filter to sample horizontally from Src to Work
+     * Apply filter to sample one row horizontally from Src to Work.
      */
-    private void horizontalFromSrcToWorkGray(BufferedImage srcImage,
-                                             byte[][] workPixels,
-                                             int start, int delta) {
-        // Used if we work on int-based bitmaps. Later used to keep channel
-        // values
-        final int[] tempPixels = new int[srcWidth];
-        // Create reusable row to minimize memory overhead.
-        final byte[] srcPixels = new byte[srcWidth];
-
-        for (int k = start; k < srcHeight; k = k + delta) {
-            ImageUtils.readPixelsBGR(srcImage, k, srcWidth, srcPixels, tempPixels);
-
-            for (int i = destWidth - 1; i >= 0; i--) {
-                final int max = horizontalSubsamplingData.arrN[i];
-                float sample0 = 0.0f;
-                int index = i * horizontalSubsamplingData.numContributors;
-
-                for (int j = max - 1; j >= 0; j--) {
-                    float arrWeight = horizontalSubsamplingData.arrWeight[index];
-                    int pixelIndex = horizontalSubsamplingData.arrPixel[index];
-
-                    sample0 += (srcPixels[pixelIndex] & 0xff) * arrWeight;
-                    index++;
-                }
-
-                workPixels[k][i] = toByte(sample0);
+    private void horizontalFromSrcToWorkGray(byte[] srcPixels,
+                                             byte[] workPixels,
+                                             int workOffset) {
+        for (int i = destWidth - 1; i >= 0; i--) {
+            final int max = horizontalSubsamplingData.arrN[i];
+            float sample0 = 0.0f;
+            int index = i * horizontalSubsamplingData.numContributors;
+
+            for (int j = max - 1; j >= 0; j--) {
+                float arrWeight = horizontalSubsamplingData.arrWeight[index];
+                int pixelIndex = horizontalSubsamplingData.arrPixel[index];
+
+                sample0 += (srcPixels[pixelIndex] & 0xff) * arrWeight;
+                index++;
             }
+
+            workPixels[workOffset + i] = toByte(sample0);
         }
     }
 
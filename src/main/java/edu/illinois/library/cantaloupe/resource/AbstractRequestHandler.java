@@ -5,16 +5,27 @@ import edu.illinois.library.cantaloupe.cache.CacheFactory;
 import edu.illinois.library.cantaloupe.cache.DerivativeCache;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.processor.Processor;
 import edu.illinois.library.cantaloupe.delegate.DelegateProxy;
+import edu.illinois.library.cantaloupe.source.LookupCache;
+import edu.illinois.library.cantaloupe.source.Source;
 import org.slf4j.Logger;
 
 import java.io.IOException;
+import java.util.Iterator;
 
 abstract class AbstractRequestHandler {
 
+    /**
+     * Formats of source images that have been read successfully, keyed by
+     * source class name.
+     */
+    private static final LookupCache<String,Format> SOURCE_FORMATS =
+            new LookupCache<>("SourceFormats");
+
     DelegateProxy delegateProxy;
     boolean isBypassingCache;
     boolean isBypassingCacheRead;
@@ -33,12 +44,34 @@ abstract class AbstractRequestHandler {
      */
     Info getOrReadInfo(final Identifier identifier,
                        final Processor proc) throws IOException {
+        return getOrReadInfo(identifier, proc, null);
+    }
+
+    /**
+     * Variant of {@link #getOrReadInfo(Identifier, Processor)} that also
+     * records the {@link Info#getSourceVersion() version} of the source
+     * image in the returned instance and in any cache it is written to.
+     *
+     * @param identifier    Image identifier.
+     * @param proc          Processor from which to read the info if it can't
+     *                      be retrieved from a cache.
+     * @param sourceVersion Entity tag or last-modified time of the source
+     *                      image, or {@code null} if it has not been
+     *                      accessed.
+     * @return              Instance for the image with the given identifier.
+     */
+    Info getOrReadInfo(final Identifier identifier,
+                       final Processor proc,
+                       final String sourceVersion) throws IOException {
         Info info;
         if (!isBypassingCache) {
             if (!isBypassingCacheRead) {
-                info = new CacheFacade().getOrReadInfo(identifier, proc).orElseThrow();
+                info = new CacheFacade()
+                        .getOrReadInfo(identifier, proc, sourceVersion)
+                        .orElseThrow();
             } else {
                 info = proc.readInfo();
+                info.setSourceVersion(sourceVersion);
                 DerivativeCache cache = CacheFactory.getDerivativeCache().orElse(null);
                 if (cache != null) {
                     cache.put(identifier, info);
@@ -49,10 +82,55 @@ abstract class AbstractRequestHandler {
             getLogger().debug("getOrReadInfo(): bypassing the cache, as requested");
             info = proc.readInfo();
             info.setIdentifier(identifier);
+            info.setSourceVersion(sourceVersion);
         }
         return info;
     }
 
+    /**
+     * Returns an iterator over the possible formats of the given source's
+     * image. If the format was {@link #sourceFormatRead recorded} recently,
+     * it is tried first, and the source is only consulted if the processor
+     * rejects it.
+     *
+     * @param source Source whose image's format to infer.
+     * @return       Iterator to use instead of {@link
+     *               Source#getFormatIterator()}.
+     */
+    static Iterator<Format> getFormatIterator(final Source source) {
+        final Format cachedFormat = SOURCE_FORMATS.getIfPresent(
+                source.getIdentifier(), source.getClass().getName());
+        if (cachedFormat == null) {
+            return source.getFormatIterator();
+        }
+        return new Iterator<>() {
+            private Iterator<Format> sourceIterator;
+
+            @Override
+            public boolean hasNext() {
+                return sourceIterator == null || sourceIterator.hasNext();
+            }
+
+            @Override
+            public Format next() {
+                if (sourceIterator == null) {
+                    sourceIterator = source.getFormatIterator();
+                    return cachedFormat;
+                }
+                return sourceIterator.next();
+            }
+        };
+    }
+
+    /**
+     * Records the format of the given source's image after a processor has
+     * read it successfully, for use by {@link #getFormatIterator(Source)}.
+     */
+    static void sourceFormatRead(Source source, Format format) {
+        SOURCE_FORMATS.put(source.getIdentifier(),
+                source.getClass().getName(), format);
+    }
+
     boolean isResolvingFirst() {
         return Configuration.getInstance().
                 getBoolean(Key.CACHE_SERVER_RESOLVE_FIRST, true);
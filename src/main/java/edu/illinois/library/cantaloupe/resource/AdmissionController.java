@@ -0,0 +1,299 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.operation.OperationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Limits the amount of concurrent work done by image and information
+ * requests, so that expensive requests can't starve cheap ones, and so that
+ * a flood of expensive requests can't exhaust the heap or CPU.</p>
+ *
+ * <p>There is a separate {@link Budget} for each of {@link
+ * Budget#CACHE_HITS derivative cache hits}, {@link Budget#INFO information
+ * requests}, and {@link Budget#PROCESSING image processing}. Each budget has
+ * a capacity, and each request that is admitted to it consumes some of that
+ * capacity until it {@link Permit#close() completes}. For cache hits and
+ * information requests, each request costs 1; for image processing, each
+ * request costs the number of pixels it will produce, so that, for example,
+ * many small tiles can be processed at the same time as a few full-size
+ * images. The processing budget is only held while an image is being
+ * processed, so images that turn out to be in the derivative cache draw from
+ * the cache hits budget instead, and images that are merely copied from
+ * their source or from a coalesced request draw from neither.</p>
+ *
+ * <p>Requests that arrive when their budget is exhausted wait for up to
+ * {@link Key#ADMISSION_CONTROL_TIMEOUT} seconds for capacity to become
+ * available, after which they are rejected with a {@link
+ * ServiceUnavailableException}, which results in an HTTP 503 response with a
+ * {@code Retry-After} header.</p>
+ *
+ * <p>The budgets are read from the configuration every time a request is
+ * admitted, so changes take effect without restarting.</p>
+ *
+ * @since 6.0
+ */
+public final class AdmissionController {
+
+    /**
+     * Concurrency budget.
+     */
+    enum Budget {
+
+        CACHE_HITS(Key.ADMISSION_CONTROL_CACHE_HITS_MAX_CONCURRENT, 64),
+        INFO(Key.ADMISSION_CONTROL_INFO_MAX_CONCURRENT, 32),
+        PROCESSING(Key.ADMISSION_CONTROL_PROCESSING_MAX_PIXELS, 100000000);
+
+        private final Key capacityKey;
+        private final long defaultCapacity;
+
+        Budget(Key capacityKey, long defaultCapacity) {
+            this.capacityKey     = capacityKey;
+            this.defaultCapacity = defaultCapacity;
+        }
+
+        /**
+         * @return Capacity of the budget. A value less than 1 means
+         *         unlimited.
+         */
+        long getCapacity() {
+            return Configuration.getInstance().getLong(
+                    capacityKey, defaultCapacity);
+        }
+
+        private String getName() {
+            switch (this) {
+                case CACHE_HITS:
+                    return "cacheHits";
+                case INFO:
+                    return "info";
+                default:
+                    return "processing";
+            }
+        }
+
+    }
+
+    /**
+     * Admission to a {@link Budget}, which must be {@link #close() closed}
+     * when the admitted work has been completed.
+     */
+    static final class Permit implements AutoCloseable {
+
+        /**
+         * Instance that holds nothing, for use when admission control is
+         * disabled.
+         */
+        private static final Permit UNLIMITED = new Permit(null, 0);
+
+        private final BudgetState state;
+        private final long cost;
+        private boolean isClosed;
+
+        private Permit(BudgetState state, long cost) {
+            this.state = state;
+            this.cost  = cost;
+        }
+
+        /**
+         * Releases the capacity held by the instance back to its budget.
+         * Subsequent calls have no effect.
+         */
+        @Override
+        public void close() {
+            if (state != null && !isClosed) {
+                isClosed = true;
+                state.release(cost);
+            }
+        }
+
+        long getCost() {
+            return cost;
+        }
+
+    }
+
+    /**
+     * Tracks the usage of a {@link Budget}.
+     */
+    private static final class BudgetState {
+
+        private final Budget budget;
+        private long usage;
+        private int numActive, numWaiting;
+        private long numAdmitted, numRejected;
+
+        private BudgetState(Budget budget) {
+            this.budget = budget;
+        }
+
+        /**
+         * @param cost         Cost of the request.
+         * @param timeoutMsec  Maximum time to wait for capacity.
+         * @return             Cost that was actually consumed, which may be
+         *                     less than the given cost if the given cost
+         *                     exceeds the capacity of the budget, or {@code
+         *                     -1} if the request timed out.
+         */
+        synchronized long acquire(long cost, long timeoutMsec)
+                throws InterruptedException {
+            final long deadline = System.currentTimeMillis() + timeoutMsec;
+            numWaiting++;
+            try {
+                while (true) {
+                    final long capacity = budget.getCapacity();
+                    if (capacity < 1) {
+                        cost = 0;
+                        break;
+                    }
+                    // A request that costs more than the whole budget is
+                    // admitted when it has the whole budget to itself.
+                    cost = Math.min(cost, capacity);
+                    if (usage + cost <= capacity) {
+                        break;
+                    }
+                    final long remainingMsec =
+                            deadline - System.currentTimeMillis();
+                    if (remainingMsec <= 0) {
+                        numRejected++;
+                        return -1;
+                    }
+                    wait(remainingMsec);
+                }
+            } finally {
+                numWaiting--;
+            }
+            usage += cost;
+            numActive++;
+            numAdmitted++;
+            return cost;
+        }
+
+        synchronized void release(long cost) {
+            usage -= cost;
+            numActive--;
+            notifyAll();
+        }
+
+        synchronized Map<String,Object> getStatistics() {
+            final Map<String,Object> stats = new LinkedHashMap<>();
+            stats.put("capacity", budget.getCapacity());
+            stats.put("usage", usage);
+            stats.put("numActive", numActive);
+            stats.put("numWaiting", numWaiting);
+            stats.put("numAdmitted", numAdmitted);
+            stats.put("numRejected", numRejected);
+            return stats;
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(AdmissionController.class);
+
+    /**
+     * Minimum cost of a {@link Budget#PROCESSING} request, which accounts for
+     * the overhead of reading and decoding even a very small image.
+     */
+    static final long MIN_PROCESSING_COST = 256 * 256;
+
+    private static final int DEFAULT_RETRY_AFTER_SECONDS = 5;
+    private static final int DEFAULT_TIMEOUT_SECONDS     = 10;
+
+    private static final AdmissionController INSTANCE =
+            new AdmissionController();
+
+    private final Map<Budget,BudgetState> states = new LinkedHashMap<>();
+
+    /**
+     * @return Shared instance.
+     */
+    public static AdmissionController getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param opList   Operation list describing the image to produce.
+     * @param fullSize Full size of the source image.
+     * @return         Cost of processing the given operation list, for use
+     *                 with {@link Budget#PROCESSING}.
+     */
+    static long getProcessingCost(OperationList opList, Dimension fullSize) {
+        final Dimension size = opList.getResultingSize(fullSize);
+        final long numPixels =
+                Math.round(size.width()) * Math.round(size.height());
+        return Math.max(MIN_PROCESSING_COST, numPixels);
+    }
+
+    private static boolean isEnabled() {
+        return Configuration.getInstance().getBoolean(
+                Key.ADMISSION_CONTROL_ENABLED, false);
+    }
+
+    AdmissionController() {
+        for (Budget budget : Budget.values()) {
+            states.put(budget, new BudgetState(budget));
+        }
+    }
+
+    /**
+     * Acquires the given amount of the given budget, waiting if necessary.
+     * If admission control is disabled, a no-op instance is returned
+     * immediately.
+     *
+     * @param budget Budget to draw from.
+     * @param cost   Amount of the budget to consume.
+     * @return       Instance that must be closed when the admitted work has
+     *               been completed.
+     * @throws ServiceUnavailableException if the budget did not become
+     *         available in time.
+     * @throws InterruptedIOException if the calling thread was interrupted
+     *         while waiting.
+     */
+    Permit acquire(Budget budget, long cost)
+            throws ServiceUnavailableException, InterruptedIOException {
+        if (!isEnabled()) {
+            return Permit.UNLIMITED;
+        }
+        final BudgetState state = states.get(budget);
+        final Configuration config = Configuration.getInstance();
+        final long timeoutMsec = 1000L * config.getInt(
+                Key.ADMISSION_CONTROL_TIMEOUT, DEFAULT_TIMEOUT_SECONDS);
+        try {
+            final long actualCost = state.acquire(cost, timeoutMsec);
+            if (actualCost < 0) {
+                final int retryAfter = config.getInt(
+                        Key.ADMISSION_CONTROL_RETRY_AFTER,
+                        DEFAULT_RETRY_AFTER_SECONDS);
+                LOGGER.debug("acquire(): {} budget exhausted; rejecting " +
+                        "request with a cost of {}", budget, cost);
+                throw new ServiceUnavailableException(
+                        "The server is too busy to handle this request.",
+                        retryAfter);
+            }
+            return new Permit(state, actualCost);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * @return Map of budget names to statistics about each budget.
+     */
+    public Map<String,Object> getStatistics() {
+        final Map<String,Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        states.forEach((budget, state) ->
+                stats.put(budget.getName(), state.getStatistics()));
+        return stats;
+    }
+
+}
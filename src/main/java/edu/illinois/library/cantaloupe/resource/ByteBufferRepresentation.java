@@ -0,0 +1,68 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.util.Stopwatch;
+import org.eclipse.jetty.server.HttpOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * <p>Writes the contents of a list of buffers directly to the response.</p>
+ *
+ * <p>When the output stream is Jetty's own response stream, each buffer is
+ * handed to Jetty, which writes it to the connection without copying it
+ * into the heap when it is a direct buffer. Otherwise, the buffers are
+ * copied to the stream in the usual way.</p>
+ *
+ * @since 6.0
+ */
+public class ByteBufferRepresentation implements Representation {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ByteBufferRepresentation.class);
+
+    private static final int COPY_BUFFER_SIZE = 1024 * 16;
+
+    private final List<ByteBuffer> buffers;
+
+    /**
+     * @param buffers Buffers to write, from their current positions to their
+     *                limits. Their positions are not changed.
+     */
+    public ByteBufferRepresentation(List<ByteBuffer> buffers) {
+        this.buffers = buffers;
+    }
+
+    @Override
+    public void write(OutputStream outputStream) throws IOException {
+        final Stopwatch watch = new Stopwatch();
+        long length = 0;
+
+        if (outputStream instanceof HttpOutput) {
+            final HttpOutput httpOutput = (HttpOutput) outputStream;
+            for (ByteBuffer buffer : buffers) {
+                length += buffer.remaining();
+                httpOutput.write(buffer.duplicate());
+            }
+            LOGGER.debug("Sent {} bytes from buffers in {}", length, watch);
+            return;
+        }
+
+        final byte[] copyBuffer = new byte[COPY_BUFFER_SIZE];
+        for (ByteBuffer buffer : buffers) {
+            final ByteBuffer view = buffer.duplicate();
+            length += view.remaining();
+            while (view.hasRemaining()) {
+                final int len = Math.min(copyBuffer.length, view.remaining());
+                view.get(copyBuffer, 0, len);
+                outputStream.write(copyBuffer, 0, len);
+            }
+        }
+        LOGGER.debug("Copied {} bytes in {}", length, watch);
+    }
+
+}
@@ -111,6 +111,10 @@ class ErrorResource extends AbstractResource {
 
         getResponse().setStatus(status.getCode());
         getResponse().setHeader("Cache-Control", "no-cache, must-revalidate");
+        if (error instanceof ServiceUnavailableException) {
+            getResponse().setHeader("Retry-After", String.valueOf(
+                    ((ServiceUnavailableException) error).getRetryAfter()));
+        }
         getResponse().setHeader("Content-Type", mediaType + ";charset=UTF-8");
 
         new VelocityRepresentation(template, templateVars)
@@ -0,0 +1,82 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.util.Stopwatch;
+import org.eclipse.jetty.server.HttpOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * <p>Writes the contents of a file directly to the response.</p>
+ *
+ * <p>When the output stream is Jetty's own response stream, and nothing has
+ * been written to it yet, the file is handed to Jetty, which writes it to the
+ * connection from its pool of direct buffers, bypassing the heap. Files
+ * larger than {@link #MAPPING_THRESHOLD} are memory-mapped instead, so that
+ * the kernel can write them straight from the page cache. (Smaller files are
+ * not mapped because mappings are only released upon garbage collection, and
+ * tiles are usually small and numerous.) Otherwise, the file is copied to
+ * the stream in the usual way.</p>
+ *
+ * @since 6.0
+ */
+public class FileChannelRepresentation implements Representation {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(FileChannelRepresentation.class);
+
+    /**
+     * Files at least this large are memory-mapped when possible.
+     */
+    static final long MAPPING_THRESHOLD = 1024 * 1024;
+
+    private final FileChannel channel;
+
+    /**
+     * @param channel Channel to read from, starting at its current position.
+     *                It is the client's responsibility to close it.
+     */
+    public FileChannelRepresentation(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void write(OutputStream outputStream) throws IOException {
+        final Stopwatch watch = new Stopwatch();
+        final long position = channel.position();
+        final long length   = channel.size() - position;
+
+        if (outputStream instanceof HttpOutput &&
+                !((HttpOutput) outputStream).isWritten()) {
+            final HttpOutput httpOutput = (HttpOutput) outputStream;
+            if (length >= MAPPING_THRESHOLD && length <= Integer.MAX_VALUE) {
+                httpOutput.sendContent(channel.map(
+                        FileChannel.MapMode.READ_ONLY, position, length));
+                LOGGER.debug("Sent {} mapped bytes in {}", length, watch);
+            } else {
+                httpOutput.sendContent(channel);
+                LOGGER.debug("Sent {} bytes from a channel in {}",
+                        length, watch);
+            }
+            return;
+        }
+
+        final WritableByteChannel target = Channels.newChannel(outputStream);
+        long transferred = 0;
+        while (transferred < length) {
+            long count = channel.transferTo(
+                    position + transferred, length - transferred, target);
+            if (count <= 0) { // the file was truncated
+                break;
+            }
+            transferred += count;
+        }
+        LOGGER.debug("Copied {} bytes in {}", length, watch);
+    }
+
+}
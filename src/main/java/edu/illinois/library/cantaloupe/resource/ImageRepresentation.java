@@ -3,6 +3,7 @@ package edu.illinois.library.cantaloupe.resource;
 import edu.illinois.library.cantaloupe.cache.CacheFacade;
 import edu.illinois.library.cantaloupe.cache.CompletableOutputStream;
 import edu.illinois.library.cantaloupe.cache.DerivativeCache;
+import edu.illinois.library.cantaloupe.cache.SizedInputStream;
 import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Info;
@@ -21,13 +22,22 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.function.LongConsumer;
 
 /**
- * Representation that {@link Processor#process} processes} an image and writes
- * the result to the response (possibly also caching it).
+ * <p>Representation that {@link Processor#process} processes} an image and
+ * writes the result to the response (possibly also caching it).</p>
+ *
+ * <p>Images streamed from the derivative cache draw from the {@link
+ * AdmissionController.Budget#CACHE_HITS} budget while they are being
+ * written, and images that are processed draw from the {@link
+ * AdmissionController.Budget#PROCESSING} budget while they are being
+ * processed. When a budget doesn't become available in time, {@link #write}
+ * throws an {@link IOException} whose cause is a {@link
+ * ServiceUnavailableException}, before anything has been written.</p>
  */
 public class ImageRepresentation implements Representation {
 
@@ -38,26 +48,32 @@ public class ImageRepresentation implements Representation {
     private final Info imageInfo;
     private final OperationList opList;
     private final Processor processor;
+    private final LongConsumer contentLengthConsumer;
 
     /**
-     * @param imageInfo        Info corresponding to the source image.
-     * @param processor        Processor configured for writing the image.
-     * @param opList           Instance describing the image.
-     * @param bypassCacheRead  If {@code true}, the cache will not be read
-     *                         from.
-     * @param bypassCacheWrite If {@code true}, the cache will not be written
-     *                         to.
+     * @param imageInfo             Info corresponding to the source image.
+     * @param processor             Processor configured for writing the
+     *                              image.
+     * @param opList                Instance describing the image.
+     * @param bypassCacheRead       If {@code true}, the cache will not be
+     *                              read from.
+     * @param bypassCacheWrite      If {@code true}, the cache will not be
+     *                              written to.
+     * @param contentLengthConsumer Receives the length of the image before
+     *                              it is written, if it is known in advance.
      */
     public ImageRepresentation(final Info imageInfo,
                                final Processor processor,
                                final OperationList opList,
                                final boolean bypassCacheRead,
-                               final boolean bypassCacheWrite) {
-        this.imageInfo        = imageInfo;
-        this.processor        = processor;
-        this.opList           = opList;
-        this.bypassCacheRead  = bypassCacheRead;
-        this.bypassCacheWrite = bypassCacheWrite;
+                               final boolean bypassCacheWrite,
+                               final LongConsumer contentLengthConsumer) {
+        this.imageInfo             = imageInfo;
+        this.processor             = processor;
+        this.opList                = opList;
+        this.bypassCacheRead       = bypassCacheRead;
+        this.bypassCacheWrite      = bypassCacheWrite;
+        this.contentLengthConsumer = contentLengthConsumer;
     }
 
     /**
@@ -75,11 +91,18 @@ public class ImageRepresentation implements Representation {
         }
 
         // If no derivative cache is available, write directly to the response.
+        // Copies are left out of request coalescing so that they can still
+        // be sent from the source file without passing through the heap.
         final CacheFacade cacheFacade = new CacheFacade();
         if (!cacheFacade.isDerivativeCacheAvailable()) {
             LOGGER.debug("Derivative cache not available; writing directly " +
                     "to the response");
-            copyOrProcess(responseOS);
+            if (isCopy()) {
+                copy(responseOS);
+            } else {
+                RequestCoalescer.getInstance().write(
+                        opList, responseOS, this::copyOrProcess);
+            }
             return;
         }
 
@@ -92,14 +115,27 @@ public class ImageRepresentation implements Representation {
                 try (InputStream cacheIS = cache.newDerivativeImageInputStream(opList)) {
                     if (cacheIS != null) {
                         // The image is available, so write it to the response.
+                        // The permit is acquired before anything about the
+                        // response is committed, so that a rejection can
+                        // still be reported with a 503.
                         final Stopwatch watch = new Stopwatch();
-                        cacheIS.transferTo(responseOS);
+                        try (AdmissionController.Permit permit = acquire(
+                                AdmissionController.Budget.CACHE_HITS, 1)) {
+                            if (cacheIS instanceof SizedInputStream) {
+                                contentLengthConsumer.accept(
+                                        ((SizedInputStream) cacheIS).getSize());
+                            }
+                            newCacheRepresentation(cacheIS).write(responseOS);
+                        }
 
                         LOGGER.debug("Streamed from {} in {}: {}",
                                 cache.getClass().getSimpleName(), watch, opList);
                         return;
                     }
                 } catch (IOException e) {
+                    if (isRejection(e)) {
+                        throw e;
+                    }
                     LOGGER.debug("Error while streaming from {} to the response: {}",
                             cache.getClass().getSimpleName(),
                             e.getMessage());
@@ -111,9 +147,10 @@ public class ImageRepresentation implements Representation {
         }
 
         // At this point, a derivative cache may be available, but it doesn't
-        // contain an image that can fulfill the request. So, we will create a
-        // TeeOutputStream to write to the response output stream and the cache
-        // pseudo-simultaneously.
+        // contain an image that can fulfill the request. If an identical
+        // request is already being processed, we will wait for it and copy
+        // its output. Otherwise, we will create a TeeOutputStream to write to
+        // the response output stream and the cache pseudo-simultaneously.
         //
         // N.B.: Closing responseOS is the Servlet container's responsibility.
         // This means we also can't close teeOS, because doing so would close
@@ -121,19 +158,13 @@ public class ImageRepresentation implements Representation {
         // finalizer. But, when teeOS is closed, its wrapped streams' close()
         // methods will have been called twice, so it's important that these
         // two streams' close() methods can deal with that.
-        try (CompletableOutputStream cacheOS =
-                     cacheFacade.newDerivativeImageOutputStream(opList)) {
-            if (cacheOS != null) {
-                OutputStream teeOS = new TeeOutputStream(responseOS, cacheOS);
-                LOGGER.debug("Writing to the response & derivative " +
-                        "cache simultaneously");
-                copyOrProcess(teeOS);
-                cacheOS.flush();
-                cacheOS.setComplete(true);
-            } else {
-                copyOrProcess(responseOS);
-            }
+        try {
+            RequestCoalescer.getInstance().write(opList, responseOS,
+                    os -> copyOrProcessIntoCache(os, cacheFacade));
         } catch (IOException e) {
+            if (isRejection(e)) {
+                throw e;
+            }
             LOGGER.debug("write(): {}", e.getMessage(), e);
             // TODO: uncommenting this can cause KakaduNativeProcessor to crash
             //  the JVM (see
@@ -148,6 +179,73 @@ public class ImageRepresentation implements Representation {
         }
     }
 
+    /**
+     * @param cacheIS Stream returned from {@link
+     *                DerivativeCache#newDerivativeImageInputStream}.
+     * @return        Representation that writes the cached image from the
+     *                file channel or buffers backing the given stream, if
+     *                any, or else from the stream itself.
+     */
+    static Representation newCacheRepresentation(InputStream cacheIS) {
+        if (cacheIS instanceof SizedInputStream) {
+            SizedInputStream sis = (SizedInputStream) cacheIS;
+            if (sis.getChannel() != null) {
+                return new FileChannelRepresentation(sis.getChannel());
+            } else if (sis.getBuffers() != null) {
+                return new ByteBufferRepresentation(sis.getBuffers());
+            }
+        }
+        return new InputStreamRepresentation(cacheIS);
+    }
+
+    /**
+     * @return Whether the given exception was thrown by {@link
+     *         #acquire(AdmissionController.Budget, long)}, or is a rejection
+     *         passed through by {@link #copyOrProcess(OutputStream)}.
+     */
+    private static boolean isRejection(IOException e) {
+        return (e.getCause() instanceof ServiceUnavailableException);
+    }
+
+    /**
+     * Acquires a permit from the {@link AdmissionController}, wrapping any
+     * {@link ServiceUnavailableException} in an {@link IOException} so that
+     * it can pass through {@link #write(OutputStream)}.
+     */
+    private static AdmissionController.Permit acquire(
+            AdmissionController.Budget budget, long cost) throws IOException {
+        try {
+            return AdmissionController.getInstance().acquire(budget, cost);
+        } catch (ServiceUnavailableException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Invokes {@link #copyOrProcess(OutputStream)} with a tee stream that
+     * writes to the given output stream and the derivative cache
+     * pseudo-simultaneously.
+     *
+     * @param responseOS Will not be closed.
+     */
+    private void copyOrProcessIntoCache(OutputStream responseOS,
+                                        CacheFacade cacheFacade)
+            throws IOException {
+        try (CompletableOutputStream cacheOS =
+                     cacheFacade.newDerivativeImageOutputStream(opList)) {
+            if (cacheOS != null) {
+                OutputStream teeOS = new TeeOutputStream(responseOS, cacheOS);
+                LOGGER.debug("Writing to the response & derivative " +
+                        "cache simultaneously");
+                copyOrProcess(teeOS);
+                cacheOS.flush();
+                cacheOS.setComplete(true);
+            } else {
+                copyOrProcess(responseOS);
+            }
+        }
+    }
+
     /**
      * If {@link #opList} {@link OperationList#hasEffect(Dimension, Format) has
      * no effect}, streams the image from its source. Otherwise, invokes
@@ -160,17 +258,34 @@ public class ImageRepresentation implements Representation {
     private void copyOrProcess(OutputStream responseOS) throws IOException {
         // If the operations are effectively a no-op, the source image can be
         // streamed through with no processing.
-        if (!opList.hasEffect(imageInfo.getSize(), imageInfo.getSourceFormat())) {
+        if (isCopy()) {
             copy(responseOS);
         } else {
             try {
                 process(responseOS);
             } catch (ProcessorException e) {
+                // A processor that was refused a decoder process by the
+                // ProcessLauncher is rejected the same way as by acquire().
+                for (Throwable t = e; t != null; t = t.getCause()) {
+                    if (t instanceof ServiceUnavailableException) {
+                        throw new IOException(t.getMessage(), t);
+                    }
+                }
                 throw new IOException(e.getMessage(), e);
             }
         }
     }
 
+    /**
+     * @return Whether {@link #opList} {@link OperationList#hasEffect(Dimension,
+     *         Format) has no effect}, in which case the source image can be
+     *         copied as-is.
+     */
+    private boolean isCopy() {
+        return !opList.hasEffect(imageInfo.getSize(),
+                imageInfo.getSourceFormat());
+    }
+
     /**
      * Copies a source resource directly to a given {@link OutputStream} with
      * no processing or caching.
@@ -182,7 +297,10 @@ public class ImageRepresentation implements Representation {
         if (processor instanceof FileProcessor) {
             Path sourceFile = ((FileProcessor) processor).getSourceFile();
             if (sourceFile != null) {
-                Files.copy(sourceFile, responseOS);
+                try (FileChannel channel = FileChannel.open(sourceFile)) {
+                    contentLengthConsumer.accept(channel.size());
+                    new FileChannelRepresentation(channel).write(responseOS);
+                }
                 done = true;
             }
         }
@@ -199,13 +317,18 @@ public class ImageRepresentation implements Representation {
     }
 
     private void process(OutputStream outputStream)
-            throws FormatException, ProcessorException {
-        final Stopwatch watch = new Stopwatch();
+            throws IOException, FormatException, ProcessorException {
+        final long cost = AdmissionController.getProcessingCost(
+                opList, imageInfo.getSize(opList.getPageIndex()));
+        try (AdmissionController.Permit permit =
+                     acquire(AdmissionController.Budget.PROCESSING, cost)) {
+            final Stopwatch watch = new Stopwatch();
 
-        processor.process(opList, imageInfo, outputStream);
+            processor.process(opList, imageInfo, outputStream);
 
-        LOGGER.debug("{} processed in {}: {}",
-                processor.getClass().getSimpleName(), watch, opList);
+            LOGGER.debug("{} processed in {}: {}",
+                    processor.getClass().getSimpleName(), watch, opList);
+        }
     }
 
 }
@@ -2,6 +2,7 @@ package edu.illinois.library.cantaloupe.resource;
 
 import edu.illinois.library.cantaloupe.async.TaskQueue;
 import edu.illinois.library.cantaloupe.cache.CacheFacade;
+import edu.illinois.library.cantaloupe.cache.SizedInputStream;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Dimension;
@@ -19,6 +20,7 @@ import edu.illinois.library.cantaloupe.source.StatResult;
 import edu.illinois.library.cantaloupe.status.HealthChecker;
 import edu.illinois.library.cantaloupe.source.Source;
 import edu.illinois.library.cantaloupe.source.SourceFactory;
+import edu.illinois.library.cantaloupe.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -191,6 +193,35 @@ public class ImageRequestHandler extends AbstractRequestHandler
          */
         void sourceAccessed(StatResult result);
 
+        /**
+         * <p>Called when a strong entity tag identifying the response entity
+         * is available, which is the case when the source image has an
+         * entity tag or last-modified time of its own, either obtained when
+         * it was {@link #sourceAccessed(StatResult) accessed} or recorded in
+         * its {@link Info#getSourceVersion() info}. When the image is
+         * streamed from the derivative cache, this is called before {@link
+         * #contentLengthAvailable(long)}; otherwise, authorization has been
+         * performed, but processing has not begun.</p>
+         *
+         * <p>Implementations should send the tag in an {@code ETag} header,
+         * and if it matches one in an {@code If-None-Match} request header,
+         * send a {@code 304 Not Modified} response.</p>
+         *
+         * @param eTag Strong entity tag, including quotes.
+         * @return     Whether to continue handling the request; {@code
+         *             false} if a {@code 304} response has been sent.
+         */
+        boolean entityTagAvailable(String eTag) throws Exception;
+
+        /**
+         * Called when the length of the response entity is known in advance,
+         * which is the case when it is streamed from a derivative cache that
+         * can report it, before any of it has been written.
+         *
+         * @param length Length of the entity in bytes.
+         */
+        void contentLengthAvailable(long length);
+
         /**
          * Called when image information is available; always before {@link
          * #willProcessImage(Processor, Info)} and {@link
@@ -243,6 +274,13 @@ public class ImageRequestHandler extends AbstractRequestHandler
         public void sourceAccessed(StatResult result) {
         }
         @Override
+        public boolean entityTagAvailable(String eTag) {
+            return true;
+        }
+        @Override
+        public void contentLengthAvailable(long length) {
+        }
+        @Override
         public void willStreamImageFromDerivativeCache() {
         }
         @Override
@@ -314,6 +352,10 @@ public class ImageRequestHandler extends AbstractRequestHandler
             if (optInfo.isPresent()) {
                 Info info = optInfo.get();
                 operationList.applyNonEndpointMutations(info, delegateProxy);
+                if (operationList.getPageIndex() < info.getNumPages()) {
+                    operationList.canonicalize(
+                            info.getSize(operationList.getPageIndex()));
+                }
 
                 InputStream cacheStream = null;
                 try {
@@ -325,9 +367,27 @@ public class ImageRequestHandler extends AbstractRequestHandler
                 }
 
                 if (cacheStream != null) {
-                    callback.infoAvailable(info);
-                    callback.willStreamImageFromDerivativeCache();
-                    new InputStreamRepresentation(cacheStream).write(outputStream);
+                    try (InputStream is = cacheStream;
+                         AdmissionController.Permit permit =
+                                 AdmissionController.getInstance().acquire(
+                                         AdmissionController.Budget.CACHE_HITS, 1)) {
+                        callback.infoAvailable(info);
+                        // The source isn't accessed here, so the entity tag
+                        // is derived from the source version recorded when
+                        // the info was cached.
+                        final String eTag =
+                                newEntityTag(info.getSourceVersion());
+                        if (eTag != null && !callback.entityTagAvailable(eTag)) {
+                            return;
+                        }
+                        if (is instanceof SizedInputStream) {
+                            callback.contentLengthAvailable(
+                                    ((SizedInputStream) is).getSize());
+                        }
+                        callback.willStreamImageFromDerivativeCache();
+                        ImageRepresentation.newCacheRepresentation(is)
+                                .write(outputStream);
+                    }
                     return;
                 } else {
                     Format infoFormat = info.getSourceFormat();
@@ -346,10 +406,11 @@ public class ImageRequestHandler extends AbstractRequestHandler
         // the source cache (if enabled), check access to it in preparation for
         // retrieval.
         final Optional<Path> sourceImage = cacheFacade.getSourceCacheFile(identifier);
+        StatResult statResult = null;
         if (sourceImage.isEmpty() || isResolvingFirst()) {
             try {
-                StatResult result = source.stat();
-                callback.sourceAccessed(result);
+                statResult = source.stat();
+                callback.sourceAccessed(statResult);
             } catch (NoSuchFileException e) { // this needs to be rethrown!
                 if (config.getBoolean(Key.CACHE_SERVER_PURGE_MISSING, false)) {
                     // If the image was not found, purge it from the cache.
@@ -374,7 +435,7 @@ public class ImageRequestHandler extends AbstractRequestHandler
                             .iterator();
                 }
             } else {
-                formatIterator = source.getFormatIterator();
+                formatIterator = getFormatIterator(source);
             }
         }
 
@@ -391,7 +452,9 @@ public class ImageRequestHandler extends AbstractRequestHandler
 
                 final Info info = getOrReadInfo(
                         operationList.getIdentifier(),
-                        processor);
+                        processor,
+                        getSourceVersion(statResult));
+                sourceFormatRead(source, format);
                 callback.infoAvailable(info);
 
                 Dimension fullSize;
@@ -403,6 +466,7 @@ public class ImageRequestHandler extends AbstractRequestHandler
                     // This must be done *after* the request context is fully
                     // populated, as some of the mutations may depend on it.
                     operationList.applyNonEndpointMutations(info, delegateProxy);
+                    operationList.canonicalize(fullSize);
                     operationList.freeze();
                 } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
                     throw new IllegalClientArgumentException(e);
@@ -412,13 +476,30 @@ public class ImageRequestHandler extends AbstractRequestHandler
                     return;
                 }
 
+                // If the source was not accessed, fall back to the version
+                // recorded in a cached info.
+                final String eTag = newEntityTag(info.getSourceVersion());
+                if (eTag != null && !callback.entityTagAvailable(eTag)) {
+                    return;
+                }
+
                 processor.validate(operationList, fullSize);
 
                 callback.willProcessImage(processor, info);
 
-                new ImageRepresentation(info, processor, operationList,
-                        isBypassingCacheRead, isBypassingCache)
-                        .write(outputStream);
+                // The representation draws from the admission control
+                // budget that corresponds to the way it fulfills the request.
+                try {
+                    new ImageRepresentation(info, processor, operationList,
+                            isBypassingCacheRead, isBypassingCache,
+                            callback::contentLengthAvailable)
+                            .write(outputStream);
+                } catch (IOException e) {
+                    if (e.getCause() instanceof ServiceUnavailableException) {
+                        throw (ServiceUnavailableException) e.getCause();
+                    }
+                    throw e;
+                }
 
                 // Notify the health checker of a successful response.
                 HealthChecker.addSourceUsage(source);
@@ -450,4 +531,38 @@ public class ImageRequestHandler extends AbstractRequestHandler
         throw new SourceFormatException();
     }
 
+    /**
+     * @param statResult Result of accessing the source image. May be {@code
+     *                   null}.
+     * @return           The source image's entity tag or last-modified time,
+     *                   or {@code null} if neither is available.
+     */
+    private static String getSourceVersion(StatResult statResult) {
+        if (statResult == null) {
+            return null;
+        }
+        if (statResult.getETag() != null) {
+            return statResult.getETag();
+        } else if (statResult.getLastModified() != null) {
+            return statResult.getLastModified().toString();
+        }
+        return null;
+    }
+
+    /**
+     * @param sourceVersion {@link #getSourceVersion(StatResult) Version} of
+     *                      the source image. May be {@code null}.
+     * @return              Strong entity tag derived from the {@link
+     *                      OperationList#canonicalize canonical} {@link
+     *                      #operationList} and the given source version, or
+     *                      {@code null} if the source version is {@code
+     *                      null}.
+     */
+    private String newEntityTag(String sourceVersion) {
+        if (sourceVersion == null) {
+            return null;
+        }
+        return "\"" + StringUtils.md5(operationList.toString() + "_" + sourceVersion) + "\"";
+    }
+
 }
@@ -224,7 +224,14 @@ public class InformationRequestHandler extends AbstractRequestHandler
         if (!callback.authorize()) {
             return null;
         }
+        try (AdmissionController.Permit permit =
+                     AdmissionController.getInstance().acquire(
+                             AdmissionController.Budget.INFO, 1)) {
+            return handleAdmitted();
+        }
+    }
 
+    private Info handleAdmitted() throws Exception {
         final Configuration config    = Configuration.getInstance();
         final CacheFacade cacheFacade = new CacheFacade();
 
@@ -286,7 +293,7 @@ public class InformationRequestHandler extends AbstractRequestHandler
                         .iterator();
             }
         } else {
-            formatIterator = source.getFormatIterator();
+            formatIterator = getFormatIterator(source);
         }
 
         while (formatIterator.hasNext()) {
@@ -301,6 +308,7 @@ public class InformationRequestHandler extends AbstractRequestHandler
                 callback.knowAvailableOutputFormats(
                         processor.getAvailableOutputFormats());
                 Info info = getOrReadInfo(identifier, processor);
+                sourceFormatRead(source, format);
                 setRequestContextKeys(info);
                 return info;
             } catch (SourceFormatException e) {
@@ -0,0 +1,482 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.operation.OperationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Coalesces concurrent requests for identical derivative images (sometimes
+ * called "single-flight").</p>
+ *
+ * <p>The first request for a given {@link OperationList} (the "leader")
+ * produces the image normally, writing it to its response as it goes, and
+ * sharing it with a {@link Flight}. Any identical requests (the "followers")
+ * that arrive while the leader is still producing join the flight and write
+ * its output to their own responses as it becomes available, rather than
+ * producing their own.</p>
+ *
+ * <p>The flight holds on to the leader's output until it exceeds {@link
+ * Key#PROCESSOR_COALESCE_MAX_SIZE}, so that followers can join late. After
+ * that, requests no longer join it, and it only holds on to what its
+ * followers haven't read yet; followers that fall further behind than that
+ * are dropped. A follower that is dropped, or that has waited longer than
+ * {@link Key#PROCESSOR_COALESCE_TIMEOUT} for more output, or whose leader
+ * fails, produces the image itself if it hasn't written anything yet, and
+ * fails otherwise. A leader whose client goes away keeps producing for as
+ * long as it has followers.</p>
+ *
+ * @since 6.0
+ */
+public final class RequestCoalescer {
+
+    /**
+     * Produces an image into an {@link OutputStream}.
+     */
+    @FunctionalInterface
+    interface Producer {
+        void produce(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * Thrown by {@link Flight#next} when a follower can't read any further
+     * output from its flight.
+     */
+    static final class AbandonedFlightException extends IOException {
+        AbandonedFlightException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Output of a leader, shared with its followers as it is produced. Each
+     * write of the leader is retained as a separate chunk, which followers
+     * read in order via their own {@link Cursor}.
+     */
+    static final class Flight {
+
+        /**
+         * Position of a follower in its flight.
+         */
+        static final class Cursor {
+            private int index;
+            private boolean isDropped;
+        }
+
+        private final long maxSize;
+        private final List<byte[]> chunks = new ArrayList<>();
+        private final List<Cursor> cursors = new ArrayList<>();
+        /** Index of the first chunk that hasn't been released. */
+        private int firstRetainedIndex;
+        private long retainedLength, length;
+        private boolean isJoinable = true, isDone, isFailed;
+
+        Flight(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Invoked by the leader with every chunk of its output.
+         */
+        synchronized void append(byte[] b, int off, int len) {
+            length += len;
+            if (length > maxSize) {
+                isJoinable = false;
+            }
+            if (!isJoinable && cursors.isEmpty()) {
+                release(chunks.size());
+                return;
+            }
+            chunks.add(Arrays.copyOfRange(b, off, off + len));
+            retainedLength += len;
+            if (!isJoinable) {
+                release(getSlowestIndex());
+                while (retainedLength > maxSize && !cursors.isEmpty()) {
+                    final Cursor slowest = cursors.stream()
+                            .min((c1, c2) -> Integer.compare(c1.index, c2.index))
+                            .get();
+                    slowest.isDropped = true;
+                    cursors.remove(slowest);
+                    release(getSlowestIndex());
+                }
+            }
+            notifyAll();
+        }
+
+        /**
+         * Invoked by the leader when it is done.
+         *
+         * @param isSucceeded Whether the whole output was appended.
+         */
+        synchronized void complete(boolean isSucceeded) {
+            isDone     = true;
+            isFailed   = !isSucceeded;
+            isJoinable = false;
+            if (isFailed) {
+                release(chunks.size());
+            }
+            notifyAll();
+        }
+
+        synchronized boolean hasFollowers() {
+            return !cursors.isEmpty();
+        }
+
+        synchronized boolean isJoinable() {
+            return isJoinable;
+        }
+
+        /**
+         * @return Cursor positioned at the start of the output, or {@code
+         *         null} if the flight can no longer be joined.
+         */
+        synchronized Cursor join() {
+            if (!isJoinable) {
+                return null;
+            }
+            final Cursor cursor = new Cursor();
+            cursors.add(cursor);
+            return cursor;
+        }
+
+        /**
+         * Must be invoked by every follower that has {@link #join() joined},
+         * when it is done reading.
+         */
+        synchronized void leave(Cursor cursor) {
+            if (cursors.remove(cursor) && !isJoinable) {
+                release(getSlowestIndex());
+            }
+        }
+
+        /**
+         * Waits for and returns the next chunk of output.
+         *
+         * @param cursor      Cursor of the calling follower.
+         * @param timeoutMsec Maximum time to wait for the chunk.
+         * @return            Next chunk, or {@code null} if the whole output
+         *                    has been read.
+         * @throws AbandonedFlightException if the follower was dropped, the
+         *         leader failed, or the wait timed out.
+         */
+        synchronized byte[] next(Cursor cursor, long timeoutMsec)
+                throws IOException {
+            final long deadline = System.nanoTime() +
+                    TimeUnit.MILLISECONDS.toNanos(timeoutMsec);
+            while (true) {
+                if (cursor.isDropped) {
+                    throw new AbandonedFlightException(
+                            "Fell too far behind the leader");
+                } else if (isFailed) {
+                    throw new AbandonedFlightException("The leader failed");
+                } else if (cursor.index < chunks.size()) {
+                    final byte[] chunk = chunks.get(cursor.index++);
+                    if (!isJoinable) {
+                        release(getSlowestIndex());
+                    }
+                    return chunk;
+                } else if (isDone) {
+                    return null;
+                }
+                final long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new AbandonedFlightException(
+                            "Timed out waiting for the leader");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * For testing only.
+         */
+        synchronized long getRetainedLength() {
+            return retainedLength;
+        }
+
+        private int getSlowestIndex() {
+            int index = chunks.size();
+            for (Cursor cursor : cursors) {
+                index = Math.min(index, cursor.index);
+            }
+            return index;
+        }
+
+        /**
+         * Releases all chunks before the given index.
+         */
+        private void release(int index) {
+            for (; firstRetainedIndex < index; firstRetainedIndex++) {
+                retainedLength -= chunks.get(firstRetainedIndex).length;
+                chunks.set(firstRetainedIndex, null);
+            }
+        }
+
+    }
+
+    /**
+     * Wraps a leader's response stream, appending everything written to it
+     * to a {@link Flight}. If writing to the response fails while the flight
+     * has followers, the failure is held back until the output is complete,
+     * so that the followers can still receive it.
+     */
+    private final class LeaderOutputStream extends OutputStream {
+
+        private final String key;
+        private final Flight flight;
+        private final OutputStream responseOS;
+        private IOException responseException;
+
+        LeaderOutputStream(String key, Flight flight, OutputStream responseOS) {
+            this.key        = key;
+            this.flight     = flight;
+            this.responseOS = responseOS;
+        }
+
+        private void checkResponseException() throws IOException {
+            if (responseException != null && !flight.hasFollowers()) {
+                throw responseException;
+            }
+        }
+
+        /**
+         * Does not close the wrapped stream.
+         */
+        @Override
+        public void close() {}
+
+        @Override
+        public void flush() throws IOException {
+            checkResponseException();
+            if (responseException == null) {
+                try {
+                    responseOS.flush();
+                } catch (IOException e) {
+                    responseException = e;
+                    checkResponseException();
+                }
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkResponseException();
+            flight.append(b, off, len);
+            if (!flight.isJoinable()) {
+                flights.remove(key, flight);
+            }
+            if (responseException == null) {
+                try {
+                    responseOS.write(b, off, len);
+                } catch (IOException e) {
+                    responseException = e;
+                    checkResponseException();
+                }
+            }
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private static final long DEFAULT_MAX_SIZE = 1024 * 1024 * 10;
+
+    private static final long DEFAULT_TIMEOUT_SECONDS = 30;
+
+    private static final RequestCoalescer INSTANCE = new RequestCoalescer();
+
+    /**
+     * Map of in-flight requests keyed by {@link OperationList#toString()}.
+     */
+    private final ConcurrentMap<String, Flight> flights =
+            new ConcurrentHashMap<>();
+
+    private final AtomicInteger numFollowing = new AtomicInteger();
+    private final AtomicLong numCoalesced   = new AtomicLong();
+    private final AtomicLong numFallbacks   = new AtomicLong();
+
+    /**
+     * @return Shared instance.
+     */
+    public static RequestCoalescer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * For testing only.
+     */
+    RequestCoalescer() {}
+
+    /**
+     * @return Number of requests that were fulfilled using the output of
+     *         another request since the application was started.
+     */
+    long getNumCoalescedRequests() {
+        return numCoalesced.get();
+    }
+
+    /**
+     * @return Number of requests that joined another request but had to be
+     *         produced independently since the application was started.
+     */
+    long getNumFallbackRequests() {
+        return numFallbacks.get();
+    }
+
+    /**
+     * @return Number of requests currently receiving the output of another
+     *         request.
+     */
+    int getNumFollowingRequests() {
+        return numFollowing.get();
+    }
+
+    /**
+     * @return Number of requests currently being produced by a leader that
+     *         can still be joined.
+     */
+    int getNumInFlightRequests() {
+        return flights.size();
+    }
+
+    /**
+     * @return Statistics about coalesced requests.
+     */
+    public Map<String,Object> getStatistics() {
+        final Map<String,Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("numInFlightRequests", getNumInFlightRequests());
+        stats.put("numFollowingRequests", getNumFollowingRequests());
+        stats.put("numCoalescedRequests", getNumCoalescedRequests());
+        stats.put("numFallbackRequests", getNumFallbackRequests());
+        return stats;
+    }
+
+    private static boolean isEnabled() {
+        return Configuration.getInstance().getBoolean(
+                Key.PROCESSOR_COALESCE_ENABLED, true);
+    }
+
+    private static long getMaxSize() {
+        return Configuration.getInstance().getLongBytes(
+                Key.PROCESSOR_COALESCE_MAX_SIZE, DEFAULT_MAX_SIZE);
+    }
+
+    private static long getTimeoutMsec() {
+        return TimeUnit.SECONDS.toMillis(Configuration.getInstance().getLong(
+                Key.PROCESSOR_COALESCE_TIMEOUT, DEFAULT_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Writes the image described by the given operation list to the given
+     * output stream, either by invoking the given producer, or by copying the
+     * output of an identical request that is already in flight.
+     *
+     * @param opList     Frozen instance describing the image.
+     * @param responseOS Stream to write the image to. Will not be closed.
+     * @param producer   Produces the image when there is no identical
+     *                   request in flight.
+     */
+    void write(OperationList opList,
+               OutputStream responseOS,
+               Producer producer) throws IOException {
+        if (!isEnabled()) {
+            producer.produce(responseOS);
+            return;
+        }
+
+        final String key = opList.toString();
+        final Flight flight = new Flight(getMaxSize());
+        final Flight existingFlight = flights.putIfAbsent(key, flight);
+
+        if (existingFlight == null) {
+            lead(key, flight, responseOS, producer);
+        } else if (follow(existingFlight, responseOS)) {
+            LOGGER.debug("Coalesced with an in-flight request: {}", opList);
+            numCoalesced.incrementAndGet();
+        } else {
+            LOGGER.debug("Could not coalesce with an in-flight request; " +
+                    "producing independently: {}", opList);
+            numFallbacks.incrementAndGet();
+            producer.produce(responseOS);
+        }
+    }
+
+    private void lead(String key,
+                      Flight flight,
+                      OutputStream responseOS,
+                      Producer producer) throws IOException {
+        final LeaderOutputStream leaderOS =
+                new LeaderOutputStream(key, flight, responseOS);
+        boolean isSucceeded = false;
+        try {
+            producer.produce(leaderOS);
+            isSucceeded = true;
+        } finally {
+            flights.remove(key, flight);
+            flight.complete(isSucceeded);
+        }
+        if (leaderOS.responseException != null) {
+            throw leaderOS.responseException;
+        }
+    }
+
+    /**
+     * @return Whether the whole output of the given flight was written to
+     *         the given stream. If {@code false}, nothing was written to it.
+     */
+    private boolean follow(Flight flight,
+                           OutputStream responseOS) throws IOException {
+        final Flight.Cursor cursor = flight.join();
+        if (cursor == null) {
+            return false;
+        }
+        final long timeoutMsec = getTimeoutMsec();
+        long numBytesWritten = 0;
+        numFollowing.incrementAndGet();
+        try {
+            byte[] chunk;
+            while ((chunk = flight.next(cursor, timeoutMsec)) != null) {
+                responseOS.write(chunk);
+                numBytesWritten += chunk.length;
+            }
+            return true;
+        } catch (AbandonedFlightException e) {
+            if (numBytesWritten == 0) {
+                LOGGER.debug("follow(): {}", e.getMessage());
+                return false;
+            }
+            throw e;
+        } finally {
+            flight.leave(cursor);
+            numFollowing.decrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.http.Status;
+
+/**
+ * Results in an HTTP 503 response with a {@code Retry-After} header.
+ *
+ * @since 6.0
+ */
+public class ServiceUnavailableException extends ResourceException {
+
+    private final int retryAfter;
+
+    /**
+     * @param message    Message.
+     * @param retryAfter Number of seconds after which the client may retry.
+     */
+    public ServiceUnavailableException(String message, int retryAfter) {
+        super(Status.SERVICE_UNAVAILABLE, message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return Number of seconds after which the client may retry.
+     */
+    public int getRetryAfter() {
+        return retryAfter;
+    }
+
+}
@@ -2,6 +2,7 @@ package edu.illinois.library.cantaloupe.resource.iiif;
 
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.http.Status;
 import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.operation.Crop;
 import edu.illinois.library.cantaloupe.operation.OperationList;
@@ -16,6 +17,32 @@ import java.util.Locale;
 
 public abstract class IIIFResource extends PublicResource {
 
+    /**
+     * Sets an {@code ETag} response header. If the given tag matches one in
+     * an {@code If-None-Match} request header, also sets the response status
+     * to {@code 304 Not Modified}, after which no entity should be sent.
+     *
+     * @param eTag Strong entity tag, including quotes.
+     * @return     Whether the response status has been set to {@code 304}.
+     */
+    protected boolean setETagHeader(String eTag) {
+        getResponse().setHeader("ETag", eTag);
+        final String ifNoneMatch = getRequest().getHeaders()
+                .getFirstValue("If-None-Match", "");
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            // If-None-Match uses the weak comparison function.
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || eTag.equals(tag)) {
+                getResponse().setStatus(Status.NOT_MODIFIED.getCode());
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected void setLastModifiedHeader(Instant lastModified) {
         getResponse().setHeader("Last-Modified",
                 DateTimeFormatter.RFC_1123_DATE_TIME
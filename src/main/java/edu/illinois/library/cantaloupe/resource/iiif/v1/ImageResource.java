@@ -84,6 +84,16 @@ public class ImageResource extends IIIF1Resource {
                 }
             }
 
+            @Override
+            public boolean entityTagAvailable(String eTag) {
+                return !setETagHeader(eTag);
+            }
+
+            @Override
+            public void contentLengthAvailable(long length) {
+                getResponse().setContentLengthLong(length);
+            }
+
             @Override
             public void infoAvailable(Info info) {
             }
@@ -92,6 +92,16 @@ public class ImageResource extends IIIF2Resource {
                 }
             }
 
+            @Override
+            public boolean entityTagAvailable(String eTag) {
+                return !setETagHeader(eTag);
+            }
+
+            @Override
+            public void contentLengthAvailable(long length) {
+                getResponse().setContentLengthLong(length);
+            }
+
             @Override
             public void infoAvailable(Info info) {
                 if (Size.ScaleMode.MAX.equals(params.getSize().getScaleMode())) {
@@ -95,6 +95,16 @@ public class ImageResource extends IIIF3Resource {
                 }
             }
 
+            @Override
+            public boolean entityTagAvailable(String eTag) {
+                return !setETagHeader(eTag);
+            }
+
+            @Override
+            public void contentLengthAvailable(long length) {
+                getResponse().setContentLengthLong(length);
+            }
+
             @Override
             public void infoAvailable(Info info) {
                 if (Size.Type.MAX.equals(params.getSize().getType())) {
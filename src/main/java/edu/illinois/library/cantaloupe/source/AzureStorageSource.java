@@ -11,6 +11,7 @@ import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.MediaType;
 import edu.illinois.library.cantaloupe.delegate.DelegateMethod;
+import edu.illinois.library.cantaloupe.util.ClientRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,6 +23,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.NoSuchFileException;
 import java.security.InvalidKeyException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -186,8 +188,22 @@ final class AzureStorageSource extends AbstractSource implements Source {
      */
     private static final int FORMAT_INFERENCE_RANGE_LENGTH = 32;
 
-    private static CloudStorageAccount account;
-    private static CloudBlobClient client;
+    /**
+     * Accounts keyed by account name and key.
+     */
+    private static final ClientRegistry<List<String>,CloudStorageAccount,Exception>
+            ACCOUNTS = new ClientRegistry<>(
+                    AzureStorageSource.class.getSimpleName(), 1,
+                    AzureStorageSource::newAccount, account -> {});
+
+    /**
+     * Clients keyed by account name and key.
+     */
+    private static final ClientRegistry<List<String>,CloudBlobClient,RuntimeException>
+            CLIENTS = new ClientRegistry<>(
+                    AzureStorageSource.class.getSimpleName(), 1,
+                    settings -> getAccount().createCloudBlobClient(),
+                    client -> {});
 
     private CloudBlockBlob cachedBlob;
     private IOException cachedBlobException;
@@ -195,40 +211,54 @@ final class AzureStorageSource extends AbstractSource implements Source {
 
     private FormatIterator<Format> formatIterator = new FormatIterator<>();
 
-    static synchronized CloudStorageAccount getAccount() {
-        if (account == null) {
-            try {
-                final Configuration config = Configuration.getInstance();
-                final String accountName =
-                        config.getString(Key.AZURESTORAGESOURCE_ACCOUNT_NAME);
-                final String accountKey =
-                        config.getString(Key.AZURESTORAGESOURCE_ACCOUNT_KEY);
-
-                final String connectionString = String.format(
-                        "DefaultEndpointsProtocol=https;" +
-                                "AccountName=%s;" +
-                                "AccountKey=%s", accountName, accountKey);
-                account = CloudStorageAccount.parse(connectionString);
-
-                LOGGER.info("Using account: {}", accountName);
-            } catch (URISyntaxException | InvalidKeyException e) {
-                LOGGER.error(e.getMessage());
-            }
+    /**
+     * @return Shared account, or {@code null} if the configured account name
+     *         or key is invalid.
+     */
+    static CloudStorageAccount getAccount() {
+        try {
+            return ACCOUNTS.get(getAccountSettings());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage());
+            return null;
         }
+    }
+
+    /**
+     * @return Account name and key from the application configuration.
+     */
+    private static List<String> getAccountSettings() {
+        final Configuration config = Configuration.getInstance();
+        return Arrays.asList(
+                config.getString(Key.AZURESTORAGESOURCE_ACCOUNT_NAME),
+                config.getString(Key.AZURESTORAGESOURCE_ACCOUNT_KEY));
+    }
+
+    private static CloudStorageAccount newAccount(List<String> settings)
+            throws URISyntaxException, InvalidKeyException {
+        final String accountName = settings.get(0);
+        final String accountKey  = settings.get(1);
+        final String connectionString = String.format(
+                "DefaultEndpointsProtocol=https;" +
+                        "AccountName=%s;" +
+                        "AccountKey=%s", accountName, accountKey);
+        final CloudStorageAccount account =
+                CloudStorageAccount.parse(connectionString);
+        LOGGER.info("Using account: {}", accountName);
         return account;
     }
 
-    private static synchronized CloudBlobClient getClientInstance() {
-        if (client == null) {
-            client = getAccount().createCloudBlobClient();
-        }
-        return client;
+    private static CloudBlobClient getClientInstance() {
+        return CLIENTS.get(getAccountSettings());
     }
 
     @Override
     public StatResult stat() throws IOException {
         CloudBlockBlob blob = fetchBlob();
         StatResult result = new StatResult();
+        result.setETag(blob.getProperties().getEtag());
         result.setLastModified(blob.getProperties().getLastModified().toInstant());
         return result;
     }
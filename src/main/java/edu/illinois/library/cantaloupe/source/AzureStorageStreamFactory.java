@@ -4,6 +4,7 @@ import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.CloudBlockBlob;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.source.stream.ChunkCache;
 import edu.illinois.library.cantaloupe.source.stream.HTTPImageInputStream;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
@@ -61,8 +62,18 @@ class AzureStorageStreamFactory implements StreamFactory {
                     client, blob.getProperties().getLength());
             try {
                 stream.setWindowSize(chunkSize);
+                stream.setReadAheadCount(getReadAheadCount());
                 if (isChunkCacheEnabled()) {
-                    stream.setMaxChunkCacheSize(getMaxChunkCacheSize());
+                    final String eTag = blob.getProperties().getEtag();
+                    if (eTag != null) {
+                        stream.setChunkCache(
+                                ChunkCache.getSharedInstance(
+                                        AzureStorageSource.class.getSimpleName(),
+                                        getMaxChunkCacheSize()),
+                                blob.getUri() + " " + eTag);
+                    } else {
+                        stream.setMaxChunkCacheSize(getMaxChunkCacheSize());
+                    }
                 }
                 return stream;
             } catch (Throwable t) {
@@ -90,13 +101,18 @@ class AzureStorageStreamFactory implements StreamFactory {
                 Key.AZURESTORAGESOURCE_CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
     }
 
+    private int getReadAheadCount() {
+        return Configuration.getInstance().getInt(
+                Key.AZURESTORAGESOURCE_CHUNK_READ_AHEAD, 0);
+    }
+
     private boolean isChunkCacheEnabled() {
         return Configuration.getInstance().getBoolean(
                 Key.AZURESTORAGESOURCE_CHUNK_CACHE_ENABLED, true);
     }
 
-    private int getMaxChunkCacheSize() {
-        return (int) Configuration.getInstance().getLongBytes(
+    private long getMaxChunkCacheSize() {
+        return Configuration.getInstance().getLongBytes(
                 Key.AZURESTORAGESOURCE_CHUNK_CACHE_MAX_SIZE,
                 DEFAULT_CHUNK_CACHE_SIZE);
     }
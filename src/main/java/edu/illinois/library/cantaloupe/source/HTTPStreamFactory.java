@@ -3,6 +3,7 @@ package edu.illinois.library.cantaloupe.source;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.http.Headers;
+import edu.illinois.library.cantaloupe.source.stream.ChunkCache;
 import edu.illinois.library.cantaloupe.source.stream.HTTPImageInputStream;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -27,13 +28,25 @@ final class HTTPStreamFactory implements StreamFactory {
     private final HTTPRequestInfo requestInfo;
     private final long contentLength;
     private final boolean serverAcceptsRanges;
-
+    private final String resourceVersion;
+
+    /**
+     * @param requestInfo         Request info.
+     * @param contentLength       Resource length.
+     * @param serverAcceptsRanges Whether the server supports ranged requests.
+     * @param resourceVersion     Version of the resource, such as its {@code
+     *                            ETag}, which enables chunks of it to be
+     *                            shared across requests. May be {@code
+     *                            null}.
+     */
     HTTPStreamFactory(HTTPRequestInfo requestInfo,
                       long contentLength,
-                      boolean serverAcceptsRanges) {
+                      boolean serverAcceptsRanges,
+                      String resourceVersion) {
         this.requestInfo         = requestInfo;
         this.contentLength       = contentLength;
         this.serverAcceptsRanges = serverAcceptsRanges;
+        this.resourceVersion     = resourceVersion;
     }
 
     @Override
@@ -75,8 +88,20 @@ final class HTTPStreamFactory implements StreamFactory {
                 HTTPImageInputStream stream = new HTTPImageInputStream(
                         rangingClient, contentLength);
                 stream.setWindowSize(chunkSize);
+                stream.setReadAheadCount(getReadAheadCount());
                 if (isChunkCacheEnabled()) {
-                    stream.setMaxChunkCacheSize(getMaxChunkCacheSize());
+                    if (resourceVersion != null) {
+                        stream.setChunkCache(
+                                ChunkCache.getSharedInstance(
+                                        HttpSource.class.getSimpleName(),
+                                        getMaxChunkCacheSize()),
+                                requestInfo.getURI() + " " + resourceVersion);
+                    } else {
+                        // Without a version, chunks of a resource that has
+                        // changed could get mixed up with chunks of its
+                        // previous version, so they can't be shared.
+                        stream.setMaxChunkCacheSize(getMaxChunkCacheSize());
+                    }
                 }
                 return stream;
             } else {
@@ -105,13 +130,18 @@ final class HTTPStreamFactory implements StreamFactory {
                 Key.HTTPSOURCE_CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
     }
 
+    private int getReadAheadCount() {
+        return Configuration.getInstance().getInt(
+                Key.HTTPSOURCE_CHUNK_READ_AHEAD, 0);
+    }
+
     private boolean isChunkCacheEnabled() {
         return Configuration.getInstance().getBoolean(
                 Key.HTTPSOURCE_CHUNK_CACHE_ENABLED, true);
     }
 
-    private int getMaxChunkCacheSize() {
-        return (int) Configuration.getInstance().getLongBytes(
+    private long getMaxChunkCacheSize() {
+        return Configuration.getInstance().getLongBytes(
                 Key.HTTPSOURCE_CHUNK_CACHE_MAX_SIZE, DEFAULT_CHUNK_CACHE_SIZE);
     }
 
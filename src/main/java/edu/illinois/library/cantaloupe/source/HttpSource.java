@@ -8,6 +8,7 @@ import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.MediaType;
 import edu.illinois.library.cantaloupe.delegate.DelegateMethod;
 import edu.illinois.library.cantaloupe.delegate.DelegateProxy;
+import edu.illinois.library.cantaloupe.util.ClientRegistry;
 import okhttp3.Headers;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -34,6 +35,7 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -160,6 +162,22 @@ class HttpSource extends AbstractSource implements Source {
             return (value != null) ? Long.parseLong(value) : 0;
         }
 
+        /**
+         * @return Value of the {@code ETag} header. May be {@code null}.
+         */
+        String eTag() {
+            return headers.get("ETag");
+        }
+
+        /**
+         * @return Value of the {@code ETag} header, or else of the {@code
+         *         Last-Modified} header. May be {@code null}.
+         */
+        String version() {
+            String value = eTag();
+            return (value != null) ? value : headers.get("Last-Modified");
+        }
+
         String contentType() {
             return headers.get("Content-Type");
         }
@@ -383,7 +401,23 @@ class HttpSource extends AbstractSource implements Source {
     private static final int DEFAULT_REQUEST_TIMEOUT = 30;
     private static final int RANGE_LENGTH            = 32;
 
-    private static OkHttpClient httpClient;
+    /**
+     * Clients keyed by {@link #getHTTPClientSettings() settings}.
+     */
+    private static final ClientRegistry<List<Object>,OkHttpClient,RuntimeException>
+            HTTP_CLIENTS = new ClientRegistry<>(
+                    HttpSource.class.getSimpleName(), 1,
+                    HttpSource::newHTTPClient, HttpSource::closeHTTPClient);
+
+    /**
+     * Responses to {@literal HEAD} and ranged {@literal GET} requests, keyed
+     * by request method, URI, credentials, and headers. Only successful and
+     * not-found responses are cached.
+     */
+    private static final LookupCache<List<Object>,ResourceInfo> RESOURCE_INFOS =
+            new LookupCache<>(HttpSource.class.getSimpleName(), info ->
+                    (info.status >= 200 && info.status < 300) ||
+                            info.status == 404 || info.status == 410);
 
     /**
      * Cached by {@link #getRequestInfo()}.
@@ -403,57 +437,79 @@ class HttpSource extends AbstractSource implements Source {
     /**
      * @return Already-initialized instance shared by all threads.
      */
-    static synchronized OkHttpClient getHTTPClient() {
-        if (httpClient == null) {
-            final OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                    .followRedirects(true)
-                    .connectTimeout(getRequestTimeout().getSeconds(), TimeUnit.SECONDS)
-                    .readTimeout(getRequestTimeout().getSeconds(), TimeUnit.SECONDS)
-                    .writeTimeout(getRequestTimeout().getSeconds(), TimeUnit.SECONDS);
-            final Configuration config = Configuration.getInstance();
-
-            final String proxyHost =
-                    config.getString(Key.HTTPSOURCE_HTTP_PROXY_HOST, "");
-            if (!proxyHost.isBlank()) {
-                final int proxyPort =
-                        config.getInt(Key.HTTPSOURCE_HTTP_PROXY_PORT);
-                if (proxyPort == 0) {
-                    throw new RuntimeException("Proxy port setting " +
-                            Key.HTTPSOURCE_HTTP_PROXY_PORT + " must be set");
-                }
-                LOGGER.debug("Using HTTP proxy: {}:{}", proxyHost, proxyPort);
-                Proxy httpProxy = new Proxy(Proxy.Type.HTTP,
-                        new InetSocketAddress(proxyHost, proxyPort));
-                builder.proxy(httpProxy);
+    static OkHttpClient getHTTPClient() {
+        return HTTP_CLIENTS.get(getHTTPClientSettings());
+    }
+
+    /**
+     * @return Settings of the shared client from the application
+     *         configuration, in the order expected by {@link
+     *         #newHTTPClient(List)}.
+     */
+    private static List<Object> getHTTPClientSettings() {
+        final Configuration config = Configuration.getInstance();
+        final String proxyHost =
+                config.getString(Key.HTTPSOURCE_HTTP_PROXY_HOST, "");
+        final int proxyPort = proxyHost.isBlank() ?
+                0 : config.getInt(Key.HTTPSOURCE_HTTP_PROXY_PORT, 0);
+        return Arrays.asList(
+                getRequestTimeout(),
+                proxyHost,
+                proxyPort,
+                config.getBoolean(Key.HTTPSOURCE_ALLOW_INSECURE, false));
+    }
+
+    private static OkHttpClient newHTTPClient(List<Object> settings) {
+        final Duration timeout = (Duration) settings.get(0);
+        final OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .followRedirects(true)
+                .connectTimeout(timeout.getSeconds(), TimeUnit.SECONDS)
+                .readTimeout(timeout.getSeconds(), TimeUnit.SECONDS)
+                .writeTimeout(timeout.getSeconds(), TimeUnit.SECONDS);
+
+        final String proxyHost = (String) settings.get(1);
+        if (!proxyHost.isBlank()) {
+            final int proxyPort = (int) settings.get(2);
+            if (proxyPort == 0) {
+                throw new RuntimeException("Proxy port setting " +
+                        Key.HTTPSOURCE_HTTP_PROXY_PORT + " must be set");
             }
+            LOGGER.debug("Using HTTP proxy: {}:{}", proxyHost, proxyPort);
+            Proxy httpProxy = new Proxy(Proxy.Type.HTTP,
+                    new InetSocketAddress(proxyHost, proxyPort));
+            builder.proxy(httpProxy);
+        }
 
-            if (config.getBoolean(Key.HTTPSOURCE_ALLOW_INSECURE, false)) {
-                try {
-                    X509TrustManager[] tm = new X509TrustManager[]{
-                            new X509TrustManager() {
-                                @Override
-                                public void checkClientTrusted(X509Certificate[] chain,
-                                                               String authType) {}
-                                @Override
-                                public void checkServerTrusted(X509Certificate[] chain,
-                                                               String authType) {}
-                                @Override
-                                public X509Certificate[] getAcceptedIssuers() {
-                                    return new X509Certificate[0];
-                                }
-                            }};
-                    SSLContext sslContext = SSLContext.getInstance("TLS");
-                    sslContext.init(null, tm, new SecureRandom());
-                    builder.sslSocketFactory(sslContext.getSocketFactory(), tm[0]);
-                    builder.hostnameVerifier((s, sslSession) -> true);
-                } catch (KeyManagementException | NoSuchAlgorithmException e) {
-                    LOGGER.error("getHTTPClient(): {}", e.getMessage(), e);
-                    throw new RuntimeException(e);
-                }
+        if ((boolean) settings.get(3)) {
+            try {
+                X509TrustManager[] tm = new X509TrustManager[]{
+                        new X509TrustManager() {
+                            @Override
+                            public void checkClientTrusted(X509Certificate[] chain,
+                                                           String authType) {}
+                            @Override
+                            public void checkServerTrusted(X509Certificate[] chain,
+                                                           String authType) {}
+                            @Override
+                            public X509Certificate[] getAcceptedIssuers() {
+                                return new X509Certificate[0];
+                            }
+                        }};
+                SSLContext sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(null, tm, new SecureRandom());
+                builder.sslSocketFactory(sslContext.getSocketFactory(), tm[0]);
+                builder.hostnameVerifier((s, sslSession) -> true);
+            } catch (KeyManagementException | NoSuchAlgorithmException e) {
+                LOGGER.error("newHTTPClient(): {}", e.getMessage(), e);
+                throw new RuntimeException(e);
             }
-            httpClient = builder.build();
         }
-        return httpClient;
+        return builder.build();
+    }
+
+    private static void closeHTTPClient(OkHttpClient client) {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
     }
 
     /**
@@ -535,6 +591,7 @@ class HttpSource extends AbstractSource implements Source {
             }
         }
         StatResult result = new StatResult();
+        result.setETag(info.eTag());
         result.setLastModified(info.lastModified());
         return result;
     }
@@ -566,22 +623,38 @@ class HttpSource extends AbstractSource implements Source {
     }
 
     private ResourceInfo fetchResourceInfoViaHEAD() throws Exception {
-        requestInfo = getRequestInfo();
-        try (Response response = request("HEAD", Collections.emptyMap())) {
-            resourceInfo = ResourceInfo.fromResponse(response);
-        }
+        requestInfo  = getRequestInfo();
+        resourceInfo = fetchResourceInfo("HEAD", Collections.emptyMap());
         return resourceInfo;
     }
 
     private ResourceInfo fetchResourceInfoViaGET() throws Exception {
         requestInfo = getRequestInfo();
         var extraHeaders = Map.of("Range", "bytes=0-" + (RANGE_LENGTH - 1));
-        try (Response response = request("GET", extraHeaders)) {
-            resourceInfo = ResourceInfo.fromResponse(response);
-        }
+        resourceInfo = fetchResourceInfo("GET", extraHeaders);
         return resourceInfo;
     }
 
+    /**
+     * Sends a request for the {@link #requestInfo current resource}, or
+     * retrieves the response to an identical one from the {@link
+     * #RESOURCE_INFOS lookup cache}.
+     */
+    private ResourceInfo fetchResourceInfo(String method,
+                                           Map<String,String> extraHeaders)
+            throws IOException {
+        final List<Object> key = Arrays.asList(method,
+                requestInfo.getURI(),
+                requestInfo.getUsername(),
+                requestInfo.getSecret(),
+                requestInfo.getHeaders().getAll());
+        return RESOURCE_INFOS.get(identifier, key, () -> {
+            try (Response response = request(method, extraHeaders)) {
+                return ResourceInfo.fromResponse(response);
+            }
+        });
+    }
+
     private Response request(String method,
                              Map<String,String> extraHeaders) throws IOException {
         return request(requestInfo, method, extraHeaders);
@@ -667,7 +740,8 @@ class HttpSource extends AbstractSource implements Source {
             return new HTTPStreamFactory(
                     info,
                     resourceInfo.contentLength(),
-                    resourceInfo.acceptsRanges());
+                    resourceInfo.acceptsRanges(),
+                    resourceInfo.version());
         }
         return null;
     }
@@ -688,12 +762,7 @@ class HttpSource extends AbstractSource implements Source {
      */
     @Override
     public void shutdown() {
-        synchronized (HttpSource.class) {
-            if (httpClient != null) {
-                httpClient.dispatcher().executorService().shutdown();
-                httpClient.connectionPool().evictAll();
-            }
-        }
+        HTTP_CLIENTS.clear();
     }
 
 }
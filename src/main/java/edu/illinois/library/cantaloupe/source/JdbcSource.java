@@ -7,6 +7,7 @@ import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.MediaType;
 import edu.illinois.library.cantaloupe.delegate.DelegateMethod;
+import edu.illinois.library.cantaloupe.util.ClientRegistry;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +24,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -174,42 +176,67 @@ class JdbcSource extends AbstractSource implements Source {
      */
     private static final int FORMAT_DETECTION_RANGE_LENGTH = 32;
 
-    private static HikariDataSource dataSource;
+    /**
+     * Connection pools keyed by {@link #getDataSourceSettings() settings}.
+     */
+    private static final ClientRegistry<List<Object>,HikariDataSource,SQLException>
+            DATA_SOURCES = new ClientRegistry<>(
+                    JdbcSource.class.getSimpleName(), 1,
+                    JdbcSource::newDataSource, HikariDataSource::close);
+
+    /**
+     * Results of last-modified queries, keyed by SQL and database identifier.
+     */
+    private static final LookupCache<List<String>,Instant> LAST_MODIFIEDS =
+            new LookupCache<>(JdbcSource.class.getSimpleName());
 
     private FormatIterator<Format> formatIterator = new FormatIterator<>();
 
     /**
      * @return Connection from the pool. Must be close()d!
      */
-    static synchronized Connection getConnection() throws SQLException {
-        if (dataSource == null) {
-            final Configuration config = Configuration.getInstance();
-
-            final String connectionString =
-                    config.getString(Key.JDBCSOURCE_JDBC_URL, "");
-            final int connectionTimeout =
-                    1000 * config.getInt(Key.JDBCCACHE_CONNECTION_TIMEOUT, 10);
-            final int maxPoolSize =
-                    Runtime.getRuntime().availableProcessors() * 2 + 1;
-            final String user = config.getString(Key.JDBCSOURCE_USER, "");
-            final String password = config.getString(Key.JDBCSOURCE_PASSWORD, "");
-
-            dataSource = new HikariDataSource();
-            dataSource.setJdbcUrl(connectionString);
-            dataSource.setUsername(user);
-            dataSource.setPassword(password);
-            dataSource.setPoolName(JdbcSource.class.getSimpleName() + "Pool");
-            dataSource.setMaximumPoolSize(maxPoolSize);
-            dataSource.setConnectionTimeout(connectionTimeout);
-
-            try (Connection connection = dataSource.getConnection()) {
-                LOGGER.info("Using {} {}", connection.getMetaData().getDriverName(),
-                        connection.getMetaData().getDriverVersion());
-                LOGGER.info("Connection string: {}",
-                        config.getString(Key.JDBCSOURCE_JDBC_URL));
-            }
+    static Connection getConnection() throws SQLException {
+        return DATA_SOURCES.get(getDataSourceSettings()).getConnection();
+    }
+
+    /**
+     * @return Settings of the connection pool from the application
+     *         configuration, in the order expected by {@link
+     *         #newDataSource(List)}.
+     */
+    private static List<Object> getDataSourceSettings() {
+        final Configuration config = Configuration.getInstance();
+        return Arrays.asList(
+                config.getString(Key.JDBCSOURCE_JDBC_URL, ""),
+                config.getString(Key.JDBCSOURCE_USER, ""),
+                config.getString(Key.JDBCSOURCE_PASSWORD, ""),
+                config.getInt(Key.JDBCCACHE_CONNECTION_TIMEOUT, 10));
+    }
+
+    private static HikariDataSource newDataSource(List<Object> settings)
+            throws SQLException {
+        final String connectionString = (String) settings.get(0);
+        final int connectionTimeout   = 1000 * (int) settings.get(3);
+        final int maxPoolSize =
+                Runtime.getRuntime().availableProcessors() * 2 + 1;
+
+        final HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(connectionString);
+        dataSource.setUsername((String) settings.get(1));
+        dataSource.setPassword((String) settings.get(2));
+        dataSource.setPoolName(JdbcSource.class.getSimpleName() + "Pool");
+        dataSource.setMaximumPoolSize(maxPoolSize);
+        dataSource.setConnectionTimeout(connectionTimeout);
+
+        try (Connection connection = dataSource.getConnection()) {
+            LOGGER.info("Using {} {}", connection.getMetaData().getDriverName(),
+                    connection.getMetaData().getDriverVersion());
+            LOGGER.info("Connection string: {}", connectionString);
+        } catch (SQLException e) {
+            dataSource.close();
+            throw e;
         }
-        return dataSource.getConnection();
+        return dataSource;
     }
 
     @Override
@@ -243,26 +270,38 @@ class JdbcSource extends AbstractSource implements Source {
                     // It's called readability, IntelliJ!
                     //noinspection UnnecessaryLocalVariable
                     final String sql = methodResult;
-                    LOGGER.debug(sql);
-                    try (Connection connection = getConnection();
-                         PreparedStatement statement = connection.prepareStatement(sql)) {
-                        statement.setString(1, getDatabaseIdentifier());
-                        try (ResultSet resultSet = statement.executeQuery()) {
-                            if (resultSet.next()) {
-                                Timestamp value = resultSet.getTimestamp(1);
-                                if (value != null) {
-                                    return value.toInstant();
-                                }
-                            } else {
-                                throw new NoSuchFileException(sql);
-                            }
-                        }
-                    }
+                    final String databaseIdentifier = getDatabaseIdentifier();
+                    return LAST_MODIFIEDS.get(identifier,
+                            Arrays.asList(sql, databaseIdentifier),
+                            () -> queryLastModified(sql, databaseIdentifier));
                 } else {
                     return Instant.parse(methodResult);
                 }
             }
-        } catch (SQLException | ScriptException e) {
+        } catch (ScriptException e) {
+            throw new IOException(e);
+        }
+        return null;
+    }
+
+    private static Instant queryLastModified(String sql,
+                                             String databaseIdentifier)
+            throws IOException {
+        LOGGER.debug(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, databaseIdentifier);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    Timestamp value = resultSet.getTimestamp(1);
+                    if (value != null) {
+                        return value.toInstant();
+                    }
+                } else {
+                    throw new NoSuchFileException(sql);
+                }
+            }
+        } catch (SQLException e) {
             throw new IOException(e);
         }
         return null;
@@ -309,13 +348,8 @@ class JdbcSource extends AbstractSource implements Source {
     }
 
     @Override
-    public synchronized void shutdown() {
-        synchronized (JdbcSource.class) {
-            if (dataSource != null) {
-                dataSource.close();
-                dataSource = null;
-            }
-        }
+    public void shutdown() {
+        DATA_SOURCES.clear();
     }
 
 }
@@ -0,0 +1,373 @@
+package edu.illinois.library.cantaloupe.source;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * <p>Cross-request cache of the results of lookups that sources perform
+ * against their backing stores, like {@literal HEAD} requests and SQL
+ * queries, in order to obtain metadata about source images. When many
+ * requests for the same image arrive within a short period of time, as they
+ * do when a viewer loads the tiles of an image, the lookups are performed
+ * once rather than once per request.</p>
+ *
+ * <p>Lookups that fail with a {@link NoSuchFileException} are cached too, so
+ * that repeated requests for a missing image don't all reach the backing
+ * store. Other failures are not cached.</p>
+ *
+ * <p>When several threads need the same result at the same time, only one of
+ * them performs the lookup, and the others wait for it. Lookups happen
+ * outside of the cache's own locks, so a slow lookup doesn't hold up any
+ * other.</p>
+ *
+ * <p>Entries expire {@link Key#LOOKUP_CACHE_TTL} seconds after they are
+ * cached, and are bounded to {@link Key#LOOKUP_CACHE_MAX_SIZE} per instance.
+ * They are also removed by {@link #purgeAll()} and {@link
+ * #purgeAll(Identifier)}, which are invoked when the other server caches are
+ * purged. When {@link Key#LOOKUP_CACHE_ENABLED} is {@code false}, every
+ * lookup is performed.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @param <K> Type of the lookup key, which must have value semantics and
+ *            should include everything that could affect the result, like
+ *            a URI and credentials.
+ * @param <V> Type of the lookup result, which must not be modified after it
+ *            has been cached.
+ * @since 6.0
+ */
+public final class LookupCache<K,V> {
+
+    /**
+     * Performs a lookup.
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws IOException;
+    }
+
+    private static final class CacheKey {
+
+        private final Identifier identifier;
+        private final Object key;
+
+        private CacheKey(Identifier identifier, Object key) {
+            this.identifier = identifier;
+            this.key        = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (obj instanceof CacheKey) {
+                CacheKey other = (CacheKey) obj;
+                return Objects.equals(identifier, other.identifier) &&
+                        Objects.equals(key, other.key);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(identifier, key);
+        }
+
+    }
+
+    /**
+     * Cached result of a lookup that failed with a {@link
+     * NoSuchFileException}.
+     */
+    private static final class Missing {
+
+        private final String message;
+
+        private Missing(String message) {
+            this.message = message;
+        }
+
+    }
+
+    /**
+     * Expires all entries after {@link Key#LOOKUP_CACHE_TTL}, as of when they
+     * are created, so that changes to it take effect immediately.
+     */
+    private static final class TTLExpiry implements Expiry<CacheKey,Object> {
+
+        @Override
+        public long expireAfterCreate(CacheKey key, Object value,
+                                      long currentTime) {
+            final long ttl = Configuration.getInstance().
+                    getLong(Key.LOOKUP_CACHE_TTL, DEFAULT_TTL);
+            return (ttl > 0) ? TimeUnit.SECONDS.toNanos(ttl) : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheKey key, Object value,
+                                      long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(CacheKey key, Object value,
+                                    long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(LookupCache.class);
+
+    private static final long DEFAULT_MAX_SIZE = 10000;
+    private static final long DEFAULT_TTL      = 60;
+
+    /**
+     * Stands in for {@code null} results, which {@link Cache} doesn't
+     * support.
+     */
+    private static final Object NULL = new Object();
+
+    private static final Map<String,LookupCache<?,?>> ALL_INSTANCES =
+            new ConcurrentHashMap<>();
+
+    private final String name;
+    private final Predicate<V> isCacheable;
+    private final Cache<CacheKey,Object> cache;
+    private final ConcurrentMap<CacheKey,CompletableFuture<Object>> lookups =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @return Whether {@link Key#LOOKUP_CACHE_ENABLED} is {@code true}.
+     */
+    static boolean isEnabled() {
+        return Configuration.getInstance().
+                getBoolean(Key.LOOKUP_CACHE_ENABLED, false);
+    }
+
+    /**
+     * Removes all entries from all instances.
+     */
+    public static void purgeAll() {
+        LOGGER.debug("purgeAll(): purging all instances");
+        ALL_INSTANCES.values().forEach(LookupCache::purge);
+    }
+
+    /**
+     * Removes all entries relating to the given identifier from all
+     * instances.
+     *
+     * @param identifier Identifier of the source image.
+     */
+    public static void purgeAll(Identifier identifier) {
+        LOGGER.debug("purgeAll(): purging {} from all instances", identifier);
+        ALL_INSTANCES.values().forEach(c -> c.purge(identifier));
+    }
+
+    /**
+     * @param name Name of the instance, for logging. If another instance with
+     *             the same name exists, it is no longer purged by {@link
+     *             #purgeAll()} and {@link #purgeAll(Identifier)}.
+     */
+    public LookupCache(String name) {
+        this(name, value -> true);
+    }
+
+    /**
+     * @param name        Name of the instance, for logging. If another
+     *                    instance with the same name exists, it is no
+     *                    longer purged by {@link #purgeAll()} and {@link
+     *                    #purgeAll(Identifier)}.
+     * @param isCacheable Tests whether a successful lookup result should be
+     *                    cached. This is useful for results that represent
+     *                    transient failures, like HTTP 5xx responses.
+     */
+    public LookupCache(String name, Predicate<V> isCacheable) {
+        this.name        = name;
+        this.isCacheable = isCacheable;
+        this.cache       = Caffeine.newBuilder()
+                .maximumSize(Configuration.getInstance().getLong(
+                        Key.LOOKUP_CACHE_MAX_SIZE, DEFAULT_MAX_SIZE))
+                .expireAfter(new TTLExpiry())
+                .build();
+        ALL_INSTANCES.put(name, this);
+    }
+
+    /**
+     * Returns the result of the lookup with the given key, invoking the given
+     * loader to perform it if it has not been performed within the TTL. If
+     * another thread is already performing it, waits for that thread
+     * instead.
+     *
+     * @param identifier Identifier of the image to which the lookup relates.
+     * @param key        Lookup key.
+     * @param loader     Performs the lookup if necessary.
+     * @return           Lookup result.
+     * @throws NoSuchFileException if the lookup failed, or previously failed,
+     *         with a {@link NoSuchFileException}.
+     * @throws IOException if the lookup failed for any other reason.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Identifier identifier,
+                 K key,
+                 Loader<V> loader) throws IOException {
+        if (!isEnabled()) {
+            return loader.load();
+        }
+        final CacheKey cacheKey = new CacheKey(identifier, key);
+        Object value = cache.getIfPresent(cacheKey);
+        if (value == null) {
+            final CompletableFuture<Object> lookup = new CompletableFuture<>();
+            final CompletableFuture<Object> existingLookup =
+                    lookups.putIfAbsent(cacheKey, lookup);
+            if (existingLookup != null) {
+                value = await(existingLookup);
+                if (value == null) {
+                    value = loadAndPut(cacheKey, loader);
+                }
+            } else {
+                try {
+                    // The result may have been cached since it was checked
+                    // for.
+                    value = cache.getIfPresent(cacheKey);
+                    if (value == null) {
+                        value = loadAndPut(cacheKey, loader);
+                    }
+                    lookup.complete(value);
+                } catch (IOException | RuntimeException e) {
+                    lookup.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    lookups.remove(cacheKey, lookup);
+                }
+            }
+        }
+        if (value instanceof Missing) {
+            throw new NoSuchFileException(((Missing) value).message);
+        } else if (value == NULL) {
+            return null;
+        }
+        return (V) value;
+    }
+
+    /**
+     * @return Result of the given lookup, or {@code null} if it failed with
+     *         an exception other than {@link NoSuchFileException}.
+     */
+    private static Object await(CompletableFuture<Object> lookup)
+            throws IOException {
+        try {
+            return lookup.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Performs a lookup and caches its result, if it is cacheable. Threads
+     * that were waiting for an uncacheable result can still use it, but the
+     * next lookup will be performed anew.
+     *
+     * @return Lookup result, {@link #NULL}, or a {@link Missing} instance.
+     */
+    @SuppressWarnings("unchecked")
+    private Object loadAndPut(CacheKey cacheKey,
+                              Loader<V> loader) throws IOException {
+        LOGGER.trace("loadAndPut(): {} miss for {}",
+                name, cacheKey.identifier);
+        Object value;
+        try {
+            V result = loader.load();
+            value = (result != null) ? result : NULL;
+        } catch (NoSuchFileException e) {
+            value = new Missing(e.getMessage());
+        }
+        if (value == NULL || value instanceof Missing ||
+                isCacheable.test((V) value)) {
+            cache.put(cacheKey, value);
+        }
+        return value;
+    }
+
+    /**
+     * @param identifier Identifier of the image to which the lookup relates.
+     * @param key        Lookup key.
+     * @return           Cached result of the lookup with the given key, or
+     *                   {@code null} if it is not present, not successful,
+     *                   or the instance is disabled.
+     */
+    @SuppressWarnings("unchecked")
+    public V getIfPresent(Identifier identifier, K key) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final Object value = cache.getIfPresent(new CacheKey(identifier, key));
+        if (value == null || value == NULL || value instanceof Missing) {
+            return null;
+        }
+        return (V) value;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    void purge() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Removes all entries relating to the given identifier.
+     */
+    void purge(Identifier identifier) {
+        cache.asMap().keySet().removeIf(k ->
+                Objects.equals(identifier, k.identifier));
+    }
+
+    /**
+     * Records the result of a lookup that was performed outside of {@link
+     * #get}.
+     *
+     * @param identifier Identifier of the image to which the lookup relates.
+     * @param key        Lookup key.
+     * @param value      Lookup result.
+     */
+    public void put(Identifier identifier, K key, V value) {
+        if (isEnabled() && isCacheable.test(value)) {
+            cache.put(new CacheKey(identifier, key),
+                    (value != null) ? value : NULL);
+        }
+    }
+
+    /**
+     * @return Number of entries, including expired ones that have not been
+     *         evicted yet.
+     */
+    long size() {
+        return cache.estimatedSize();
+    }
+
+}
@@ -6,7 +6,7 @@ package edu.illinois.library.cantaloupe.source;
 final class S3ObjectInfo {
 
     private String region, endpoint, accessKeyID, secretAccessKey, bucketName,
-            key;
+            key, eTag;
     private long length = -1;
 
     /**
@@ -27,6 +27,13 @@ final class S3ObjectInfo {
         return endpoint;
     }
 
+    /**
+     * @return ETag of the object. May be {@code null}.
+     */
+    String getETag() {
+        return eTag;
+    }
+
     String getKey() {
         return key;
     }
@@ -62,6 +69,10 @@ final class S3ObjectInfo {
         this.endpoint = endpoint;
     }
 
+    void setETag(String eTag) {
+        this.eTag = eTag;
+    }
+
     void setKey(String key) {
         this.key = key;
     }
@@ -7,6 +7,7 @@ import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.MediaType;
 import edu.illinois.library.cantaloupe.delegate.DelegateMethod;
+import edu.illinois.library.cantaloupe.util.ClientRegistry;
 import edu.illinois.library.cantaloupe.util.S3ClientBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,7 +30,7 @@ import java.net.URISyntaxException;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.NoSuchFileException;
 import java.time.Instant;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -85,7 +86,7 @@ import java.util.NoSuchElementException;
 final class S3Source extends AbstractSource implements Source {
 
     private static class S3ObjectAttributes {
-        String contentType;
+        String contentType, eTag;
         Instant lastModified;
         long length;
     }
@@ -195,11 +196,21 @@ final class S3Source extends AbstractSource implements Source {
     private static final Range FORMAT_INFERENCE_RANGE = new Range(0, 32);
 
     /**
-     * The keys are endpoint URIs. The default client's key is {@code null}.
-     * This is not thread-safe, so should only be accessed via {@link
-     * #getClientInstance(S3ObjectInfo)}.
+     * Clients keyed by endpoint, region, access key ID, and secret access
+     * key, which may vary per request.
      */
-    private static final Map<String,S3Client> CLIENTS = new HashMap<>();
+    private static final ClientRegistry<List<String>,S3Client,RuntimeException>
+            CLIENTS = new ClientRegistry<>(
+                    S3Source.class.getSimpleName(), Integer.MAX_VALUE,
+                    S3Source::newClient, S3Client::close);
+
+    /**
+     * Attributes of objects, keyed by endpoint, region, credentials, bucket,
+     * and key.
+     */
+    private static final LookupCache<List<String>,S3ObjectAttributes>
+            OBJECT_ATTRIBUTES = new LookupCache<>(
+                    S3Source.class.getSimpleName());
 
     /**
      * Cached by {@link #getObjectInfo()}.
@@ -213,46 +224,57 @@ final class S3Source extends AbstractSource implements Source {
 
     private FormatIterator<Format> formatIterator = new FormatIterator<>();
 
-    static synchronized S3Client getClientInstance(S3ObjectInfo info) {
+    /**
+     * @param info Object info, whose endpoint, region, and credentials, if
+     *             set, override the ones in the application configuration.
+     * @return     Client shared by all requests for the same endpoint,
+     *             region, and credentials.
+     */
+    static S3Client getClientInstance(S3ObjectInfo info) {
+        final Configuration config = Configuration.getInstance();
         String endpoint = info.getEndpoint();
-        S3Client client = CLIENTS.get(endpoint);
-        if (client == null) {
-            final Configuration config = Configuration.getInstance();
-            if (endpoint == null) {
-                endpoint = config.getString(Key.S3SOURCE_ENDPOINT);
-            }
-            // Convert the endpoint string into a URI which is required by the
-            // client builder.
-            URI endpointURI = null;
-            if (endpoint != null) {
-                try {
-                    endpointURI = new URI(endpoint);
-                } catch (URISyntaxException e) {
-                    LOGGER.error("Invalid URI for {}: {}",
-                            Key.S3SOURCE_ENDPOINT, e.getMessage());
-                }
-            }
-            String region = info.getRegion();
-            if (region == null) {
-                region = config.getString(Key.S3SOURCE_REGION);
-            }
-            String accessKeyID = info.getAccessKeyID();
-            if (accessKeyID == null) {
-                accessKeyID = config.getString(Key.S3SOURCE_ACCESS_KEY_ID);
-            }
-            String secretAccessKey = info.getSecretAccessKey();
-            if (secretAccessKey == null) {
-                secretAccessKey = config.getString(Key.S3SOURCE_SECRET_KEY);
+        if (endpoint == null) {
+            endpoint = config.getString(Key.S3SOURCE_ENDPOINT);
+        }
+        String region = info.getRegion();
+        if (region == null) {
+            region = config.getString(Key.S3SOURCE_REGION);
+        }
+        String accessKeyID = info.getAccessKeyID();
+        if (accessKeyID == null) {
+            accessKeyID = config.getString(Key.S3SOURCE_ACCESS_KEY_ID);
+        }
+        String secretAccessKey = info.getSecretAccessKey();
+        if (secretAccessKey == null) {
+            secretAccessKey = config.getString(Key.S3SOURCE_SECRET_KEY);
+        }
+        return CLIENTS.get(
+                Arrays.asList(endpoint, region, accessKeyID, secretAccessKey));
+    }
+
+    /**
+     * @param settings Endpoint, region, access key ID, and secret access key,
+     *                 in that order, any of which may be {@code null}.
+     */
+    private static S3Client newClient(List<String> settings) {
+        final String endpoint = settings.get(0);
+        // Convert the endpoint string into a URI which is required by the
+        // client builder.
+        URI endpointURI = null;
+        if (endpoint != null) {
+            try {
+                endpointURI = new URI(endpoint);
+            } catch (URISyntaxException e) {
+                LOGGER.error("Invalid URI for {}: {}",
+                        Key.S3SOURCE_ENDPOINT, e.getMessage());
             }
-            client = new S3ClientBuilder()
-                    .accessKeyID(accessKeyID)
-                    .secretAccessKey(secretAccessKey)
-                    .endpointURI(endpointURI)
-                    .region(region)
-                    .build();
-            CLIENTS.put(endpoint, client);
         }
-        return client;
+        return new S3ClientBuilder()
+                .accessKeyID(settings.get(2))
+                .secretAccessKey(settings.get(3))
+                .endpointURI(endpointURI)
+                .region(settings.get(1))
+                .build();
     }
 
     /**
@@ -303,6 +325,7 @@ final class S3Source extends AbstractSource implements Source {
     public StatResult stat() throws IOException {
         S3ObjectAttributes attrs = getObjectAttributes();
         StatResult result = new StatResult();
+        result.setETag(attrs.eTag);
         result.setLastModified(attrs.lastModified);
         return result;
     }
@@ -314,36 +337,48 @@ final class S3Source extends AbstractSource implements Source {
 
     private S3ObjectAttributes getObjectAttributes() throws IOException {
         if (objectAttributes == null) {
-            // https://docs.aws.amazon.com/AmazonS3/latest/API/ErrorResponses.html#ErrorCodeList
             final S3ObjectInfo info = getObjectInfo();
-            final String bucket     = info.getBucketName();
-            final String key        = info.getKey();
-            final S3Client client   = getClientInstance(info);
-            try {
-                HeadObjectResponse response = client.headObject(HeadObjectRequest.builder()
-                        .bucket(bucket)
-                        .key(key)
-                        .build());
-                objectAttributes              = new S3ObjectAttributes();
-                objectAttributes.length       = response.contentLength();
-                objectAttributes.contentType  = response.contentType();
-                objectAttributes.lastModified = response.lastModified();
-            } catch (NoSuchBucketException | NoSuchKeyException e) {
-                throw new NoSuchFileException(info.toString());
-            } catch (S3Exception e) {
-                final int code = e.statusCode();
-                if (code == 403) {
-                    throw new AccessDeniedException(info.toString());
-                } else {
-                    LOGGER.error(e.getMessage(), e);
-                    throw new IOException(e);
-                }
-            } catch (SdkClientException e) {
+            final List<String> key  = Arrays.asList(
+                    info.getEndpoint(), info.getRegion(),
+                    info.getAccessKeyID(), info.getSecretAccessKey(),
+                    info.getBucketName(), info.getKey());
+            objectAttributes = OBJECT_ATTRIBUTES.get(identifier, key,
+                    () -> fetchObjectAttributes(info));
+        }
+        return objectAttributes;
+    }
+
+    private static S3ObjectAttributes fetchObjectAttributes(S3ObjectInfo info)
+            throws IOException {
+        // https://docs.aws.amazon.com/AmazonS3/latest/API/ErrorResponses.html#ErrorCodeList
+        final String bucket     = info.getBucketName();
+        final String key        = info.getKey();
+        final S3Client client   = getClientInstance(info);
+        try {
+            HeadObjectResponse response = client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .build());
+            S3ObjectAttributes attrs = new S3ObjectAttributes();
+            attrs.length       = response.contentLength();
+            attrs.contentType  = response.contentType();
+            attrs.eTag         = response.eTag();
+            attrs.lastModified = response.lastModified();
+            return attrs;
+        } catch (NoSuchBucketException | NoSuchKeyException e) {
+            throw new NoSuchFileException(info.toString());
+        } catch (S3Exception e) {
+            final int code = e.statusCode();
+            if (code == 403) {
+                throw new AccessDeniedException(info.toString());
+            } else {
                 LOGGER.error(e.getMessage(), e);
-                throw new IOException(info.toString(), e);
+                throw new IOException(e);
             }
+        } catch (SdkClientException e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new IOException(info.toString(), e);
         }
-        return objectAttributes;
     }
 
     /**
@@ -425,7 +460,9 @@ final class S3Source extends AbstractSource implements Source {
     public StreamFactory newStreamFactory() throws IOException {
         return new S3StreamFactory(() -> {
             S3ObjectInfo info = getObjectInfo();
-            info.setLength(getObjectAttributes().length);
+            S3ObjectAttributes attrs = getObjectAttributes();
+            info.setLength(attrs.length);
+            info.setETag(attrs.eTag);
             return info;
         });
     }
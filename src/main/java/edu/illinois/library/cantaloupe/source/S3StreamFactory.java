@@ -3,6 +3,7 @@ package edu.illinois.library.cantaloupe.source;
 import edu.illinois.library.cantaloupe.async.ThreadPool;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.source.stream.ChunkCache;
 import edu.illinois.library.cantaloupe.source.stream.HTTPImageInputStream;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
@@ -11,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.Future;
 
 /**
  * Source of streams for {@link S3Source}, returned from {@link
@@ -52,7 +54,7 @@ class S3StreamFactory implements StreamFactory {
                 if (!isClosed) {
                     isClosed = true;
 
-                    ThreadPool.getInstance().submit(() -> {
+                    final Future<?> drain = ThreadPool.getInstance().submitOptional(() -> {
                         try {
                             try {
                                 while (responseStream.read() != -1) {
@@ -69,6 +71,15 @@ class S3StreamFactory implements StreamFactory {
                             LOGGER.warn(e.getMessage(), e);
                         }
                     });
+                    if (drain.isCancelled()) {
+                        // The pool is saturated, so give up the connection
+                        // rather than draining it in this thread.
+                        try {
+                            responseStream.close();
+                        } catch (IOException e) {
+                            LOGGER.warn(e.getMessage(), e);
+                        }
+                    }
                 }
             }
 
@@ -109,8 +120,17 @@ class S3StreamFactory implements StreamFactory {
                     client, objectInfo.getLength());
             try {
                 stream.setWindowSize(chunkSize);
+                stream.setReadAheadCount(getReadAheadCount());
                 if (isChunkCacheEnabled()) {
-                    stream.setMaxChunkCacheSize(getMaxChunkCacheSize());
+                    if (objectInfo.getETag() != null) {
+                        stream.setChunkCache(
+                                ChunkCache.getSharedInstance(
+                                        S3Source.class.getSimpleName(),
+                                        getMaxChunkCacheSize()),
+                                getResourceID(objectInfo));
+                    } else {
+                        stream.setMaxChunkCacheSize(getMaxChunkCacheSize());
+                    }
                 }
                 return stream;
             } catch (Throwable t) {
@@ -128,6 +148,16 @@ class S3StreamFactory implements StreamFactory {
         return isChunkingEnabled();
     }
 
+    /**
+     * @return Identity of the object for the purpose of sharing its chunks
+     *         across requests.
+     */
+    private static String getResourceID(S3ObjectInfo info) {
+        return info.getEndpoint() + " " + info.getRegion() + " " +
+                info.getBucketName() + "/" + info.getKey() + " " +
+                info.getETag();
+    }
+
     private boolean isChunkingEnabled() {
         return Configuration.getInstance().getBoolean(
                 Key.S3SOURCE_CHUNKING_ENABLED, true);
@@ -138,13 +168,18 @@ class S3StreamFactory implements StreamFactory {
                 Key.S3SOURCE_CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
     }
 
+    private int getReadAheadCount() {
+        return Configuration.getInstance().getInt(
+                Key.S3SOURCE_CHUNK_READ_AHEAD, 0);
+    }
+
     private boolean isChunkCacheEnabled() {
         return Configuration.getInstance().getBoolean(
                 Key.S3SOURCE_CHUNK_CACHE_ENABLED, true);
     }
 
-    private int getMaxChunkCacheSize() {
-        return (int) Configuration.getInstance().getLongBytes(
+    private long getMaxChunkCacheSize() {
+        return Configuration.getInstance().getLongBytes(
                 Key.S3SOURCE_CHUNK_CACHE_MAX_SIZE, DEFAULT_CHUNK_CACHE_SIZE);
     }
 
@@ -7,12 +7,27 @@ import java.time.Instant;
  */
 public final class StatResult {
 
+    private String eTag;
     private Instant lastModified;
 
+    /**
+     * @return Opaque string that changes whenever the source image changes,
+     *         like an HTTP entity tag, or {@code null} if the source does not
+     *         supply one.
+     * @since 6.0
+     */
+    public String getETag() {
+        return eTag;
+    }
+
     public Instant getLastModified() {
         return lastModified;
     }
 
+    void setETag(String eTag) {
+        this.eTag = eTag;
+    }
+
     void setLastModified(Instant lastModified) {
         this.lastModified = lastModified;
     }
@@ -0,0 +1,232 @@
+package edu.illinois.library.cantaloupe.source.stream;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.illinois.library.cantaloupe.http.Range;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * <p>Byte-size-bounded heap cache of chunks of remote resources, which can be
+ * shared by any number of {@link HTTPImageInputStream}s, even across
+ * requests. Chunks are keyed by the identity of the resource they belong to
+ * (which must change whenever the resource changes, so it should include
+ * something like an {@literal ETag} or last-modified time) and by their
+ * range.</p>
+ *
+ * <p>When several streams need the same chunk at the same time, only one of
+ * them downloads it, and the others wait for it. Downloads happen outside of
+ * the cache's map, so that they don't hold up access to other chunks. If a
+ * download fails, the streams that were waiting for it download the chunk
+ * themselves.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @since 6.0
+ */
+public final class ChunkCache {
+
+    /**
+     * Downloads a chunk.
+     */
+    @FunctionalInterface
+    interface Loader {
+        byte[] load(Range range) throws IOException;
+    }
+
+    private static final class Key {
+
+        private final String resourceID;
+        private final Range range;
+
+        private Key(String resourceID, Range range) {
+            this.resourceID = resourceID;
+            this.range      = range;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (obj instanceof Key) {
+                Key other = (Key) obj;
+                return resourceID.equals(other.resourceID) &&
+                        range.equals(other.range);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resourceID, range);
+        }
+
+    }
+
+    private static final Map<String,ChunkCache> SHARED_INSTANCES =
+            new ConcurrentHashMap<>();
+
+    private final Cache<Key,byte[]> cache;
+
+    /**
+     * Downloads in progress, which are removed upon completion.
+     */
+    private final ConcurrentMap<Key,CompletableFuture<byte[]>> downloads =
+            new ConcurrentHashMap<>();
+
+    private volatile long maxSize;
+
+    /**
+     * Returns the shared instance with the given name, creating it if it does
+     * not already exist. If it does exist with a different max size, it is
+     * resized.
+     *
+     * @param name    Name of the shared instance, such as the name of the
+     *                source that uses it.
+     * @param maxSize Maximum byte size of the instance.
+     * @return        Shared instance.
+     */
+    public static ChunkCache getSharedInstance(String name, long maxSize) {
+        final ChunkCache instance = SHARED_INSTANCES.computeIfAbsent(
+                name, n -> new ChunkCache(maxSize));
+        instance.setMaxSize(maxSize);
+        return instance;
+    }
+
+    /**
+     * @param maxSize Maximum byte size of the instance.
+     */
+    public ChunkCache(long maxSize) {
+        this.maxSize = maxSize;
+        this.cache   = Caffeine.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((Key key, byte[] chunk) -> chunk.length)
+                .build();
+    }
+
+    /**
+     * Returns the chunk of the given resource in the given range, invoking
+     * the given loader to download it if it is not present. If another thread
+     * is already downloading it, waits for that thread instead.
+     *
+     * @param resourceID Resource identity.
+     * @param range      Chunk range.
+     * @param loader     Downloads the chunk if necessary.
+     * @return           Chunk data.
+     */
+    byte[] get(String resourceID,
+               Range range,
+               Loader loader) throws IOException {
+        final Key key = new Key(resourceID, range);
+        byte[] chunk = cache.getIfPresent(key);
+        if (chunk != null) {
+            return chunk;
+        }
+
+        final CompletableFuture<byte[]> download = new CompletableFuture<>();
+        final CompletableFuture<byte[]> existingDownload =
+                downloads.putIfAbsent(key, download);
+        if (existingDownload != null) {
+            chunk = await(existingDownload);
+            return (chunk != null) ? chunk : loadAndPut(key, loader);
+        }
+        try {
+            // The chunk may have been added since it was checked for.
+            chunk = cache.getIfPresent(key);
+            if (chunk == null) {
+                chunk = loadAndPut(key, loader);
+            }
+            download.complete(chunk);
+            return chunk;
+        } catch (IOException | RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloads.remove(key, download);
+        }
+    }
+
+    /**
+     * @return Downloaded chunk, or {@code null} if the download failed.
+     */
+    private static byte[] await(CompletableFuture<byte[]> download)
+            throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private byte[] loadAndPut(Key key, Loader loader) throws IOException {
+        final byte[] chunk = loader.load(key.range);
+        cache.put(key, chunk);
+        return chunk;
+    }
+
+    /**
+     * @param resourceID Resource identity.
+     * @param range      Chunk range.
+     * @return           Chunk data, or {@code null} if not present.
+     */
+    byte[] getIfPresent(String resourceID, Range range) {
+        return cache.getIfPresent(new Key(resourceID, range));
+    }
+
+    /**
+     * @return Maximum byte size of the instance.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return Current byte size of the instance.
+     */
+    public long getSize() {
+        cache.cleanUp();
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    /**
+     * Adds a chunk.
+     *
+     * @param resourceID Resource identity.
+     * @param range      Chunk range.
+     * @param chunk      Chunk data.
+     */
+    void put(String resourceID, Range range, byte[] chunk) {
+        cache.put(new Key(resourceID, range), chunk);
+    }
+
+    /**
+     * Removes all chunks.
+     */
+    public void purge() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @param maxSize Maximum byte size of the instance.
+     */
+    public void setMaxSize(long maxSize) {
+        if (maxSize != this.maxSize) {
+            this.maxSize = maxSize;
+            cache.policy().eviction()
+                    .ifPresent(eviction -> eviction.setMaximum(maxSize));
+        }
+    }
+
+}
@@ -1,14 +1,23 @@
 package edu.illinois.library.cantaloupe.source.stream;
 
+import edu.illinois.library.cantaloupe.async.ThreadPool;
 import edu.illinois.library.cantaloupe.http.Range;
 import edu.illinois.library.cantaloupe.http.Response;
-import edu.illinois.library.cantaloupe.util.ObjectCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageInputStreamImpl;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * <p>Input stream that supports pseudo-seeking over HTTP.</p>
@@ -20,9 +29,21 @@ import java.io.IOException;
  * over low-bandwidth connections. Conversely, it may reduce efficiency when
  * reading large portions of images.</p>
  *
- * <p>Downloaded chunks can be cached in memory by passing a positive value to
- * {@link #setMaxChunkCacheSize(long)}. This could help readers that seek
- * around a lot beyond the window size. The cache is per-instance.</p>
+ * <p>Downloaded chunks can be cached in memory by passing a {@link ChunkCache}
+ * to {@link #setChunkCache(ChunkCache, String)}. A cache that is shared by
+ * all instances reading from the same source enables chunks downloaded by one
+ * instance, like image headers and tile indexes, to be reused by others,
+ * including ones that serve later requests. Alternatively, a positive value
+ * can be passed to {@link #setMaxChunkCacheSize(long)} to use a cache that is
+ * private to the instance, which could still help readers that seek around a
+ * lot beyond the window size.</p>
+ *
+ * <p>When a positive value is passed to {@link #setReadAheadCount(int)}, the
+ * instance detects sequential reading across window boundaries and responds
+ * by downloading that many of the following windows concurrently in the
+ * background, so that a sequential read of a large resource is limited more
+ * by bandwidth than by latency. Downloaded windows are added to the chunk
+ * cache, if there is one.</p>
  *
  * <p>The HTTP client is abstracted into the exceedingly simple {@link
  * HTTPImageInputStreamClient} interface, so probably any existing client
@@ -54,15 +75,26 @@ public class HTTPImageInputStream extends ImageInputStreamImpl
     private static final int DEFAULT_WINDOW_SIZE = 1024 * 512;
 
     private HTTPImageInputStreamClient client;
-    private ObjectCache<Range,byte[]> chunkCache;
+    private ChunkCache chunkCache;
+    private String resourceID;
     private long streamLength   = -1;
     private int windowPos;
     private int windowSize      = DEFAULT_WINDOW_SIZE;
     private int windowIndex     = -1;
     private byte[] windowBuffer = new byte[windowSize];
+    private int readAheadCount;
+
+    /**
+     * Map of window indexes to read-ahead downloads of those windows.
+     */
+    private final Map<Integer,FutureTask<byte[]>> readAheads = new HashMap<>();
+
+    // These are updated by read-ahead threads.
+    private final AtomicInteger numChunkDownloads  = new AtomicInteger();
+    private final AtomicLong numBytesDownloaded    = new AtomicLong();
 
-    private int numChunkDownloads, numChunkCacheHits, numChunkCacheMisses;
-    private long numBytesDownloaded, numBytesRead;
+    private int numChunkCacheHits, numChunkCacheMisses, numReadAheadHits;
+    private long numBytesRead;
 
     private static void debug(String message, Object... vars) {
         if (DEBUG) {
@@ -99,31 +131,68 @@ public class HTTPImageInputStream extends ImageInputStreamImpl
         this.streamLength = resourceLength;
     }
 
+    /**
+     * @return Maximum byte size of the chunk cache, or {@literal 0} if there
+     *         is no chunk cache.
+     */
     public long getMaxChunkCacheSize() {
         if (chunkCache != null) {
-            return chunkCache.maxSize();
+            return chunkCache.getMaxSize();
         }
         return 0;
     }
 
+    public int getReadAheadCount() {
+        return readAheadCount;
+    }
+
     public int getWindowSize() {
         return windowSize;
     }
 
     /**
-     * Must be called before any reading or seeking occurs, but
-     * <strong>after</strong> {@link #setWindowSize(int)}.
+     * Sets a chunk cache, which may be shared with other instances. Must be
+     * called before any reading or seeking occurs.
      *
-     * @param maxChunkCacheSize Maximum byte size of the shared chunk cache.
-     *                          Supply {@literal 0} to disable the chunk cache.
+     * @param chunkCache Chunk cache.
+     * @param resourceID Identity of the resource, which must be different
+     *                   for different resources, and for different versions
+     *                   of the same resource, that may share the same cache.
+     */
+    public void setChunkCache(ChunkCache chunkCache, String resourceID) {
+        this.chunkCache = chunkCache;
+        this.resourceID = resourceID;
+    }
+
+    /**
+     * Sets up a chunk cache that is private to the instance. Must be called
+     * before any reading or seeking occurs.
+     *
+     * @param maxChunkCacheSize Maximum byte size of the chunk cache. Supply
+     *                          {@literal 0} to disable the chunk cache.
+     * @see #setChunkCache(ChunkCache, String)
      */
     public void setMaxChunkCacheSize(long maxChunkCacheSize) {
-        long count = Math.round(maxChunkCacheSize / (double) getWindowSize());
-        if (count > 0) {
-            chunkCache = new ObjectCache<>(count);
+        if (maxChunkCacheSize > 0) {
+            setChunkCache(new ChunkCache(maxChunkCacheSize),
+                    UUID.randomUUID().toString());
         }
     }
 
+    /**
+     * Sets the maximum number of windows to download ahead of a sequential
+     * read. Must be called before any reading or seeking occurs. When this is
+     * positive, the {@link HTTPImageInputStreamClient client} must be safe
+     * for concurrent use.
+     *
+     * @param readAheadCount Maximum number of windows to download ahead,
+     *                       concurrently. Supply {@literal 0} to disable
+     *                       read-ahead.
+     */
+    public void setReadAheadCount(int readAheadCount) {
+        this.readAheadCount = readAheadCount;
+    }
+
     /**
      * <p>Sets the window size. Must be called before any reading or seeking
      * occurs.</p>
@@ -163,6 +232,8 @@ public class HTTPImageInputStream extends ImageInputStreamImpl
     @Override
     public void close() throws IOException {
         logStatistics();
+        readAheads.values().forEach(task -> task.cancel(false));
+        readAheads.clear();
         try {
             super.close();
         } finally {
@@ -173,29 +244,18 @@ public class HTTPImageInputStream extends ImageInputStreamImpl
     }
 
     private void logStatistics() {
+        final long numBytesDownloaded = this.numBytesDownloaded.get();
         LOGGER.debug("Downloaded {} chunks ({} ({}%) of {} bytes); " +
-                        "read {}% of chunk data; {} cache hits; {} cache misses",
-                numChunkDownloads,
+                        "read {}% of chunk data; {} cache hits; {} cache misses; " +
+                        "{} read-ahead hits",
+                numChunkDownloads.get(),
                 numBytesDownloaded,
                 String.format("%.2f", numBytesDownloaded * 100 / (double) streamLength),
                 streamLength,
                 String.format("%.2f", numBytesRead * 100 / (double) numBytesDownloaded),
                 numChunkCacheHits,
-                numChunkCacheMisses);
-    }
-
-    /**
-     * Invalidates any cached data lying entirely before the stream position.
-     */
-    @Override
-    public void flushBefore(long pos) throws IOException {
-        super.flushBefore(pos);
-        if (chunkCache != null) {
-            chunkCache.asMap().keySet()
-                    .stream()
-                    .filter(range -> range.end < streamPos)
-                    .forEach(range -> chunkCache.remove(range));
-        }
+                numChunkCacheMisses,
+                numReadAheadHits);
     }
 
     @Override
@@ -306,11 +366,37 @@ public class HTTPImageInputStream extends ImageInputStreamImpl
     private void prepareWindowBuffer() throws IOException {
         final int neededWindowIndex = getStreamWindowIndex();
         if (neededWindowIndex != windowIndex) {
-            Range range  = getRange(neededWindowIndex);
-            windowBuffer = fetchChunk(range);
+            final boolean isSequential = (windowIndex >= 0 &&
+                    neededWindowIndex == windowIndex + 1);
+            windowBuffer = fetchWindow(neededWindowIndex);
             windowIndex  = neededWindowIndex;
             windowPos    = getIndexWithinWindow();
+            if (isSequential && readAheadCount > 0) {
+                readAhead(neededWindowIndex);
+            }
+        }
+    }
+
+    /**
+     * Fetches a window by either waiting for its read-ahead download, if
+     * there is one, or else {@link #fetchChunk(Range) fetching} it.
+     */
+    private byte[] fetchWindow(int index) throws IOException {
+        final FutureTask<byte[]> readAhead = readAheads.remove(index);
+        if (readAhead != null) {
+            try {
+                final byte[] chunk = readAhead.get();
+                numReadAheadHits++;
+                return chunk;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            } catch (ExecutionException | CancellationException e) {
+                LOGGER.debug("Read-ahead of window {} failed; retrying: {}",
+                        index, e.getMessage());
+            }
         }
+        return fetchChunk(getRange(index));
     }
 
     /**
@@ -318,30 +404,74 @@ public class HTTPImageInputStream extends ImageInputStreamImpl
      * chunk cache or downloading it.
      */
     private byte[] fetchChunk(Range range) throws IOException {
-        byte[] chunk;
         if (chunkCache != null) {
-            chunk = chunkCache.get(range);
-            if (chunk != null) {
+            final boolean[] isMiss = new boolean[1];
+            final byte[] chunk = chunkCache.get(resourceID, range, r -> {
+                isMiss[0] = true;
+                return downloadChunk(client, r);
+            });
+            if (isMiss[0]) {
+                numChunkCacheMisses++;
+            } else {
                 LOGGER.trace("Chunk cache hit for range: {}", range);
                 numChunkCacheHits++;
-            } else {
-                numChunkCacheMisses++;
-                chunk = downloadChunk(range);
-                chunkCache.put(range, chunk);
             }
-        } else {
-            numChunkCacheMisses++;
-            chunk = downloadChunk(range);
+            return chunk;
+        }
+        numChunkCacheMisses++;
+        return downloadChunk(client, range);
+    }
+
+    /**
+     * Starts background downloads of up to {@link #readAheadCount} windows
+     * following the one at the given index that are not already downloading
+     * or cached, and cancels any that are no longer needed.
+     */
+    private void readAhead(int index) {
+        readAheads.entrySet().removeIf(entry -> {
+            if (entry.getKey() < index) {
+                entry.getValue().cancel(false);
+                return true;
+            }
+            return false;
+        });
+        // The tasks may outlive the instance, which nulls these out when it
+        // is closed.
+        final HTTPImageInputStreamClient client = this.client;
+        final ChunkCache chunkCache             = this.chunkCache;
+        final String resourceID                 = this.resourceID;
+        final int lastIndex = (int) ((streamLength - 1) / windowSize);
+        final int endIndex  = Math.min(index + readAheadCount, lastIndex);
+        for (int i = index + 1; i <= endIndex; i++) {
+            if (readAheads.containsKey(i)) {
+                continue;
+            }
+            final Range range = getRange(i);
+            if (chunkCache != null &&
+                    chunkCache.getIfPresent(resourceID, range) != null) {
+                continue;
+            }
+            debug("Reading ahead range: {}", range);
+            final FutureTask<byte[]> task = new FutureTask<>(() ->
+                    (chunkCache != null) ?
+                            chunkCache.get(resourceID, range,
+                                    r -> downloadChunk(client, r)) :
+                            downloadChunk(client, range));
+            if (ThreadPool.getInstance().submitOptional(task).isCancelled()) {
+                debug("Pool is saturated; skipping read-ahead");
+                break;
+            }
+            readAheads.put(i, task);
         }
-        return chunk;
     }
 
-    private byte[] downloadChunk(Range range) throws IOException {
+    private byte[] downloadChunk(HTTPImageInputStreamClient client,
+                                 Range range) throws IOException {
         debug("Downloading range: {}", range);
-        Response response  = client.sendGETRequest(range);
-        byte[] entity      = response.getBody();
-        numBytesDownloaded += entity.length;
-        numChunkDownloads++;
+        Response response = client.sendGETRequest(range);
+        byte[] entity     = response.getBody();
+        numBytesDownloaded.addAndGet(entity.length);
+        numChunkDownloads.incrementAndGet();
         return entity;
     }
 
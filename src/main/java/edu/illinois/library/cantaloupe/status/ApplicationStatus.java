@@ -1,8 +1,13 @@
 package edu.illinois.library.cantaloupe.status;
 
 import edu.illinois.library.cantaloupe.Application;
+import edu.illinois.library.cantaloupe.async.TaskQueue;
+import edu.illinois.library.cantaloupe.async.ThreadPool;
+import edu.illinois.library.cantaloupe.cache.CacheFacade;
 import edu.illinois.library.cantaloupe.cache.InfoCache;
 import edu.illinois.library.cantaloupe.cache.InfoService;
+import edu.illinois.library.cantaloupe.resource.AdmissionController;
+import edu.illinois.library.cantaloupe.resource.RequestCoalescer;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
@@ -15,10 +20,26 @@ import java.util.Map;
  */
 public final class ApplicationStatus {
 
+    /**
+     * @return Statistics about the usage of each {@link AdmissionController}
+     *         budget.
+     */
+    public Map<String,Object> getAdmissionControlStatistics() {
+        return AdmissionController.getInstance().getStatistics();
+    }
+
     public String getApplicationVersion() {
         return Application.getVersion();
     }
 
+    /**
+     * @return Statistics about the derivative cache. This will be empty
+     *         unless it is a heap cache.
+     */
+    public Map<String,Object> getDerivativeCacheStatistics() {
+        return new CacheFacade().getDerivativeCacheStatistics();
+    }
+
     /**
      * @return Max {@link InfoCache} size in bytes.
      */
@@ -43,6 +64,28 @@ public final class ApplicationStatus {
         return runtime.availableProcessors();
     }
 
+    /**
+     * @return Statistics about the {@link RequestCoalescer}.
+     */
+    public Map<String,Object> getRequestCoalescingStatistics() {
+        return RequestCoalescer.getInstance().getStatistics();
+    }
+
+    /**
+     * @return Statistics about the {@link TaskQueue}, including its depth and
+     *         the state of its write-behind buffers.
+     */
+    public Map<String,Object> getTaskQueueStatistics() {
+        return TaskQueue.getInstance().getStatistics();
+    }
+
+    /**
+     * @return Statistics about each of the {@link ThreadPool}'s pools.
+     */
+    public Map<String,Object> getThreadPoolStatistics() {
+        return ThreadPool.getInstance().getStatistics();
+    }
+
     /**
      * @return Free VM heap in bytes.
      */
@@ -125,6 +168,24 @@ public final class ApplicationStatus {
             section.put("maxSize", getInfoCacheMaxSize());
             status.put("infoCache", section);
         }
+        { // Derivative cache
+            var statistics = getDerivativeCacheStatistics();
+            if (!statistics.isEmpty()) {
+                status.put("derivativeCache", statistics);
+            }
+        }
+        { // Admission control
+            status.put("admissionControl", getAdmissionControlStatistics());
+        }
+        { // Request coalescing
+            status.put("requestCoalescing", getRequestCoalescingStatistics());
+        }
+        { // Thread pools
+            status.put("threadPools", getThreadPoolStatistics());
+        }
+        { // Task queue
+            status.put("taskQueue", getTaskQueueStatistics());
+        }
         { // VM
             var section = new LinkedHashMap<>();
             section.put("vendor", getVMVendor());
@@ -0,0 +1,232 @@
+package edu.illinois.library.cantaloupe.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Lazily creates and shares expensive thread-safe clients, like connection
+ * pools and HTTP clients, among all threads, without holding any lock once a
+ * client exists.</p>
+ *
+ * <p>Clients are keyed by the settings that they were created from, like an
+ * endpoint URI and credentials, which callers are expected to read from the
+ * application configuration on every access. So when the configuration
+ * changes, a new client is created for the new settings the next time one is
+ * needed, and, if the registry is {@link #ClientRegistry(String, int,
+ * ClientFactory, ClientCloser) limited} to fewer clients than it holds, the
+ * other clients are closed. As threads that got hold of one of those clients
+ * just before may still be using it, it is closed only after a {@link
+ * #DEFAULT_CLOSE_DELAY_MSEC grace period}.</p>
+ *
+ * <p>When several threads need a client that doesn't exist yet, only one of
+ * them creates it, and the others wait for it.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @param <K> Settings type, which must have value semantics. {@link
+ *            java.util.Arrays#asList(Object[])} is a convenient choice, as
+ *            it supports {@code null} elements.
+ * @param <C> Client type.
+ * @param <E> Type of checked exception thrown by the {@link ClientFactory}.
+ * @since 6.0
+ */
+public final class ClientRegistry<K,C,E extends Exception> {
+
+    /**
+     * Creates a client.
+     */
+    @FunctionalInterface
+    public interface ClientFactory<K,C,E extends Exception> {
+
+        /**
+         * @param settings Settings from which to create the client.
+         */
+        C newClient(K settings) throws E;
+
+    }
+
+    /**
+     * Releases the resources of a client that is no longer needed.
+     */
+    @FunctionalInterface
+    public interface ClientCloser<C> {
+
+        void close(C client) throws Exception;
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ClientRegistry.class);
+
+    /**
+     * Time after which a client that has been replaced is closed. This
+     * should be longer than any request is expected to use a client for.
+     */
+    static final long DEFAULT_CLOSE_DELAY_MSEC = 1000 * 60 * 5;
+
+    private final String name;
+    private final int maxClients;
+    private final long closeDelayMsec;
+    private final ClientFactory<K,C,E> factory;
+    private final ClientCloser<C> closer;
+    private final ConcurrentMap<K,FutureTask<C>> clients =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param name       Name of the instance, for logging.
+     * @param maxClients Maximum number of clients to hold. When a client is
+     *                   created for new settings that would exceed this,
+     *                   the clients for all other settings are removed and
+     *                   closed. {@literal 1} is appropriate for clients
+     *                   that are configured by the application
+     *                   configuration, and {@link Integer#MAX_VALUE} for
+     *                   clients whose settings may vary per request.
+     * @param factory    Creates clients.
+     * @param closer     Closes clients that are removed.
+     */
+    public ClientRegistry(String name,
+                          int maxClients,
+                          ClientFactory<K,C,E> factory,
+                          ClientCloser<C> closer) {
+        this(name, maxClients, factory, closer, DEFAULT_CLOSE_DELAY_MSEC);
+    }
+
+    /**
+     * For testing only.
+     *
+     * @param closeDelayMsec Time after which a client that has been replaced
+     *                       is closed.
+     */
+    ClientRegistry(String name,
+                   int maxClients,
+                   ClientFactory<K,C,E> factory,
+                   ClientCloser<C> closer,
+                   long closeDelayMsec) {
+        this.name           = name;
+        this.maxClients     = Math.max(1, maxClients);
+        this.factory        = factory;
+        this.closer         = closer;
+        this.closeDelayMsec = closeDelayMsec;
+    }
+
+    /**
+     * Removes and immediately closes all clients. This is meant to be
+     * invoked at shutdown, when they are no longer being used.
+     */
+    public void clear() {
+        clients.forEach((settings, task) -> remove(settings, task, 0));
+    }
+
+    /**
+     * @param settings Settings of the client.
+     * @return         Existing client for the given settings, or a new one
+     *                 if none exists yet.
+     * @throws E if the client does not exist and cannot be created. In that
+     *           case, the next invocation will try again.
+     */
+    public C get(K settings) throws E {
+        FutureTask<C> task = clients.get(settings);
+        if (task == null) {
+            final FutureTask<C> newTask =
+                    new FutureTask<>(() -> factory.newClient(settings));
+            task = clients.putIfAbsent(settings, newTask);
+            if (task == null) {
+                task = newTask;
+                LOGGER.debug("get(): creating a new {} client", name);
+                newTask.run();
+                if (clients.size() > maxClients) {
+                    clients.forEach((otherSettings, otherTask) -> {
+                        if (!Objects.equals(settings, otherSettings)) {
+                            remove(otherSettings, otherTask, closeDelayMsec);
+                        }
+                    });
+                }
+            }
+        }
+        return await(settings, task);
+    }
+
+    /**
+     * @return Number of clients, including ones that are being created.
+     */
+    public int size() {
+        return clients.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private C await(K settings, FutureTask<C> task) throws E {
+        boolean isInterrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    // The client is probably seconds away, and a caller
+                    // that has been interrupted is going to be checking
+                    // the flag anyway.
+                    isInterrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            clients.remove(settings, task);
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // The factory can only throw checked exceptions of type E.
+            throw (E) cause;
+        } finally {
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @param delayMsec Time after which to close the client.
+     */
+    private void remove(K settings, FutureTask<C> task, long delayMsec) {
+        if (!clients.remove(settings, task)) {
+            return;
+        }
+        final C client;
+        try {
+            client = task.get();
+        } catch (ExecutionException e) {
+            // A client that failed to be created has nothing to close.
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (delayMsec > 0) {
+            LOGGER.debug("remove(): closing a {} client in {} msec",
+                    name, delayMsec);
+            CompletableFuture.delayedExecutor(delayMsec, TimeUnit.MILLISECONDS)
+                    .execute(() -> close(client));
+        } else {
+            close(client);
+        }
+    }
+
+    private void close(C client) {
+        LOGGER.debug("close(): closing a {} client", name);
+        try {
+            closer.close(client);
+        } catch (Exception e) {
+            LOGGER.warn("close(): failed to close a {} client: {}",
+                    name, e.getMessage(), e);
+        }
+    }
+
+}
@@ -1,11 +1,16 @@
 package edu.illinois.library.cantaloupe.async;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.test.BaseTest;
 import org.apache.tika.utils.SystemUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
@@ -17,10 +22,45 @@ public class TaskQueueTest extends BaseTest {
     @BeforeEach
     public void setUp() throws Exception {
         super.setUp();
+        // Most of these tests assume that tasks run one at a time.
+        Configuration.getInstance().setProperty(Key.TASK_QUEUE_WORKERS, 1);
         TaskQueue.clearInstance();
         instance = TaskQueue.getInstance();
     }
 
+    /* clearInstance() */
+
+    @Test
+    void testClearInstanceStopsWorkersOfPreviousInstance() throws Exception {
+        final Thread[] worker = new Thread[1];
+        final CountDownLatch latch = new CountDownLatch(1);
+        instance.submit(() -> {
+            worker[0] = Thread.currentThread();
+            latch.countDown();
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        TaskQueue.clearInstance();
+        worker[0].join(5000);
+        assertFalse(worker[0].isAlive());
+    }
+
+    /* getStatistics() */
+
+    @Test
+    void testGetStatistics() throws Exception {
+        instance.submit(new MockRunnable());
+        Thread.sleep(MockRunnable.WAIT * 2);
+
+        Map<String,Object> stats = instance.getStatistics();
+        assertEquals(1, stats.get("numWorkers"));
+        assertEquals(0, stats.get("numActiveWorkers"));
+        assertEquals(0, stats.get("queueSize"));
+        assertEquals(1L, stats.get("numCompletedTasks"));
+        assertEquals(0L, stats.get("numRejectedTasks"));
+        assertTrue(stats.containsKey("writeBehindBuffers"));
+    }
+
     /* queuedTasks() */
 
     @Test
@@ -60,6 +100,47 @@ public class TaskQueueTest extends BaseTest {
 
     /* submit(Runnable) */
 
+    @Test
+    void testSubmitRunnableWithMultipleWorkers() throws Exception {
+        Configuration.getInstance().setProperty(Key.TASK_QUEUE_WORKERS, 3);
+        TaskQueue.clearInstance();
+        instance = TaskQueue.getInstance();
+
+        // Each task waits for all of the others to start, which can only
+        // happen if they are running concurrently.
+        final CountDownLatch latch = new CountDownLatch(3);
+        final CountDownLatch doneLatch = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            instance.submit(() -> {
+                latch.countDown();
+                try {
+                    if (latch.await(5, TimeUnit.SECONDS)) {
+                        doneLatch.countDown();
+                    }
+                } catch (InterruptedException ignore) {
+                }
+            });
+        }
+        assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmitRunnableWhenQueueIsFullRunsInCallingThread()
+            throws Exception {
+        Configuration.getInstance().setProperty(Key.TASK_QUEUE_SIZE, 1);
+        TaskQueue.clearInstance();
+        instance = TaskQueue.getInstance();
+
+        instance.submit(new MockRunnable()); // taken by the worker
+        Thread.sleep(Math.round(MockRunnable.WAIT / 2.0));
+        instance.submit(new MockRunnable()); // fills the queue
+
+        final Thread[] ranIn = new Thread[1];
+        instance.submit(() -> ranIn[0] = Thread.currentThread());
+        assertSame(Thread.currentThread(), ranIn[0]);
+        assertEquals(1L, instance.getStatistics().get("numRejectedTasks"));
+    }
+
     @Test
     void testSubmitRunnable() throws Exception {
         MockRunnable runnable1 = new MockRunnable();
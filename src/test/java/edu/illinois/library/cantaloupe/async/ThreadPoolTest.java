@@ -1,11 +1,18 @@
 package edu.illinois.library.cantaloupe.async;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.test.BaseTest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,6 +35,33 @@ public class ThreadPoolTest extends BaseTest {
         instance = null;
     }
 
+    @Test
+    void testGetNumComputeThreads() {
+        assertEquals(Runtime.getRuntime().availableProcessors(),
+                instance.getNumComputeThreads());
+    }
+
+    @Test
+    void testGetNumComputeThreadsWithConfiguredValue() {
+        ThreadPool.clearInstance();
+        Configuration.getInstance().setProperty(
+                Key.THREAD_POOL_COMPUTE_THREADS, 3);
+        instance = ThreadPool.getInstance();
+        assertEquals(3, instance.getNumComputeThreads());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testGetStatistics() {
+        Map<String,Object> stats = instance.getStatistics();
+        assertEquals(4, stats.size());
+        Map<String,Object> normal = (Map<String,Object>) stats.get("normal");
+        assertEquals(256, normal.get("maxThreads"));
+        assertEquals(0, normal.get("queueSize"));
+        assertEquals(1024, normal.get("maxQueueSize"));
+        assertEquals(0L, normal.get("numRejectedTasks"));
+    }
+
     @Test
     void testIsShutdown() {
         assertFalse(instance.isShutdown());
@@ -42,6 +76,17 @@ public class ThreadPoolTest extends BaseTest {
         assertTrue(instance.isShutdown());
     }
 
+    @Test
+    void testStartThread() throws Exception {
+        final AtomicReference<String> threadName = new AtomicReference<>();
+        Thread thread = instance.startThread("test", () ->
+                threadName.set(Thread.currentThread().getName()));
+        thread.join(5000);
+        assertTrue(threadName.get().startsWith("work-dd-"));
+        assertTrue(threadName.get().endsWith("-test"));
+        assertTrue(thread.isDaemon());
+    }
+
     @Test
     void testSubmitCallable() throws Exception {
         final AtomicInteger atomicInt = new AtomicInteger(0);
@@ -64,6 +109,85 @@ public class ThreadPoolTest extends BaseTest {
         assertEquals(1, atomicInt.get());
     }
 
+    @Test
+    void testSubmitCompute() throws Exception {
+        final AtomicReference<String> threadName = new AtomicReference<>();
+        instance.submitCompute(() ->
+                threadName.set(Thread.currentThread().getName())).get();
+        assertTrue(threadName.get().startsWith("work-cp-"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSubmitWhenSaturatedRunsInCallingThread() throws Exception {
+        ThreadPool.clearInstance();
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.THREAD_POOL_MAX_THREADS, 1);
+        config.setProperty(Key.THREAD_POOL_QUEUE_SIZE, 1);
+        instance = ThreadPool.getInstance();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable blocker = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignore) {
+            }
+        };
+        try {
+            instance.submit(blocker); // occupies the only thread
+            instance.submit(blocker); // occupies the only queue slot
+            final AtomicReference<Thread> thread = new AtomicReference<>();
+            instance.submit(() -> thread.set(Thread.currentThread()));
+            assertSame(Thread.currentThread(), thread.get());
+
+            Map<String,Object> stats = (Map<String,Object>)
+                    instance.getStatistics().get("normal");
+            assertEquals(1L, stats.get("numRejectedTasks"));
+            assertEquals(1, stats.get("queueSize"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testSubmitOptional() throws Exception {
+        final AtomicInteger atomicInt = new AtomicInteger(0);
+        instance.submitOptional(atomicInt::incrementAndGet).get();
+        assertEquals(1, atomicInt.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSubmitOptionalWhenSaturatedDiscardsTheTask() throws Exception {
+        ThreadPool.clearInstance();
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.THREAD_POOL_MAX_THREADS, 1);
+        config.setProperty(Key.THREAD_POOL_QUEUE_SIZE, 1);
+        instance = ThreadPool.getInstance();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable blocker = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignore) {
+            }
+        };
+        try {
+            instance.submit(blocker); // occupies the only thread
+            instance.submit(blocker); // occupies the only queue slot
+            final AtomicInteger atomicInt = new AtomicInteger(0);
+            Future<?> future = instance.submitOptional(atomicInt::incrementAndGet);
+            assertTrue(future.isCancelled());
+            assertEquals(0, atomicInt.get());
+
+            Map<String,Object> stats = (Map<String,Object>)
+                    instance.getStatistics().get("normal");
+            assertEquals(1L, stats.get("numRejectedTasks"));
+        } finally {
+            release.countDown();
+        }
+    }
+
     @Test
     void testSubmitRunnable() throws Exception {
         final AtomicInteger atomicInt = new AtomicInteger(0);
@@ -0,0 +1,150 @@
+package edu.illinois.library.cantaloupe.async;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindBufferTest extends BaseTest {
+
+    private final List<Map<String,Integer>> batches =
+            new CopyOnWriteArrayList<>();
+
+    /**
+     * Blocks the writer, when it is invoked by a thread other than the test
+     * thread, until it is counted down, so that tests can control when
+     * queued batches are written.
+     */
+    private CountDownLatch writerLatch;
+
+    private WriteBehindBuffer<String,Integer> instance;
+
+    private final Thread testThread = Thread.currentThread();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        TaskQueue.clearInstance();
+        writerLatch = new CountDownLatch(0);
+        instance    = new WriteBehindBuffer<>("test", 3, 5, batch -> {
+            if (Thread.currentThread() != testThread) {
+                writerLatch.await(5, TimeUnit.SECONDS);
+            }
+            batches.add(batch);
+        });
+    }
+
+    private int getNumWritten() {
+        return batches.stream().mapToInt(Map::size).sum();
+    }
+
+    private void waitForWrites(int count) throws InterruptedException {
+        for (int i = 0; i < 500 && getNumWritten() < count; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    /* flush() */
+
+    @Test
+    void testFlush() {
+        writerLatch = new CountDownLatch(1);
+        for (int i = 0; i < 5; i++) {
+            instance.put("key" + i, i);
+        }
+        writerLatch.countDown();
+        instance.flush();
+        assertEquals(0, instance.size());
+    }
+
+    /* getStatistics() */
+
+    @Test
+    void testGetStatistics() throws Exception {
+        instance.put("cats", 1);
+        waitForWrites(1);
+
+        Map<String,Object> stats = instance.getStatistics();
+        assertEquals(0, stats.get("size"));
+        assertEquals(5, stats.get("maxSize"));
+        assertEquals(1L, stats.get("numSubmitted"));
+        assertEquals(1L, stats.get("numWritten"));
+        assertEquals(0L, stats.get("numFailed"));
+    }
+
+    @Test
+    void testGetStatisticsCountsFailures() throws Exception {
+        instance = new WriteBehindBuffer<>("test", 3, 5, batch -> {
+            throw new Exception("Failed, as requested");
+        });
+        instance.put("cats", 1);
+        for (int i = 0; i < 500 &&
+                (long) instance.getStatistics().get("numFailed") < 1; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1L, instance.getStatistics().get("numFailed"));
+    }
+
+    /* put() */
+
+    @Test
+    void testPutCoalescesDuplicateKeys() throws Exception {
+        writerLatch = new CountDownLatch(1);
+        instance.put("first", 0); // taken by the queued flush, which blocks
+        Thread.sleep(100);
+        instance.put("cats", 1);
+        instance.put("dogs", 1);
+        instance.put("cats", 2);
+        instance.put("cats", 3);
+        writerLatch.countDown();
+        waitForWrites(3);
+
+        assertEquals(2, batches.size());
+        assertEquals(Map.of("cats", 3, "dogs", 1), batches.get(1));
+        assertEquals(2L, instance.getStatistics().get("numCoalesced"));
+    }
+
+    @Test
+    void testPutWritesInBatchesOfMaxBatchSize() throws Exception {
+        writerLatch = new CountDownLatch(1);
+        instance.put("first", 0);
+        Thread.sleep(100);
+        for (int i = 0; i < 5; i++) {
+            instance.put("key" + i, i);
+        }
+        writerLatch.countDown();
+        waitForWrites(6);
+
+        assertEquals(3, batches.size());
+        assertEquals(3, batches.get(1).size());
+        assertEquals(2, batches.get(2).size());
+    }
+
+    @Test
+    void testPutWhenFullWritesInCallingThread() throws Exception {
+        writerLatch = new CountDownLatch(1);
+        instance.put("first", 0);
+        Thread.sleep(100);
+        for (int i = 0; i < 5; i++) {
+            instance.put("key" + i, i);
+        }
+        assertEquals(5, instance.size());
+
+        instance.put("key5", 5);
+        assertEquals(1L, instance.getStatistics().get("numCallerFlushes"));
+        assertEquals(3, instance.size());
+        assertEquals(3, getNumWritten());
+
+        writerLatch.countDown();
+        waitForWrites(7);
+        assertEquals(7, getNumWritten());
+    }
+
+}
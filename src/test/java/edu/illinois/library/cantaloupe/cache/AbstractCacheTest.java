@@ -18,6 +18,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -590,6 +592,30 @@ abstract class AbstractCacheTest extends BaseTest {
         assertFalse(actualInfo.isPresent());
     }
 
+    /* putAll(Map<Identifier, Info>) */
+
+    @Test
+    void testPutAll() throws Exception {
+        final DerivativeCache instance = newInstance();
+        final Info info1 = new Info();
+        final Info info2 = new Info();
+        info2.setNumResolutions(3);
+        final Info info3 = new Info();
+        info3.setPersistable(false);
+        final Map<Identifier,Info> infos = new LinkedHashMap<>();
+        infos.put(new Identifier("cats"), info1);
+        infos.put(new Identifier("dogs"), info2);
+        infos.put(new Identifier("incomplete"), info3);
+
+        instance.putAll(infos);
+
+        assertEquals(info1,
+                instance.getInfo(new Identifier("cats")).orElseThrow());
+        assertEquals(info2,
+                instance.getInfo(new Identifier("dogs")).orElseThrow());
+        assertFalse(instance.getInfo(new Identifier("incomplete")).isPresent());
+    }
+
     /* put(Identifier, String) */
 
     @Test
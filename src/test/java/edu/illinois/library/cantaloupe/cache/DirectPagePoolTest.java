@@ -0,0 +1,132 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectPagePoolTest extends BaseTest {
+
+    private DirectPagePool instance;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        instance = new DirectPagePool();
+    }
+
+    /* acquire() */
+
+    @Test
+    void testAcquire() {
+        ByteBuffer page = instance.acquire();
+        assertTrue(page.isDirect());
+        assertEquals(DirectPagePool.PAGE_SIZE, page.capacity());
+        assertEquals(0, page.position());
+        assertEquals(DirectPagePool.PAGE_SIZE, page.remaining());
+        assertTrue(instance.getAllocatedBytes() > 0);
+    }
+
+    @Test
+    void testAcquireWithMinSize() {
+        ByteBuffer page = instance.acquire(5000);
+        assertTrue(page.isDirect());
+        assertEquals(8192, page.capacity());
+        assertEquals(8192, page.remaining());
+    }
+
+    @Test
+    void testAcquireWithMinSizeLargerThanPageSize() {
+        ByteBuffer page = instance.acquire(DirectPagePool.PAGE_SIZE * 2);
+        assertEquals(DirectPagePool.PAGE_SIZE, page.capacity());
+    }
+
+    @Test
+    void testAcquireReusesReleasedPages() {
+        ByteBuffer page = instance.acquire();
+        page.put((byte) 1);
+        instance.release(page);
+        final long allocatedBytes = instance.getAllocatedBytes();
+
+        for (int i = 0; i < allocatedBytes / DirectPagePool.PAGE_SIZE; i++) {
+            ByteBuffer other = instance.acquire();
+            assertEquals(0, other.position());
+        }
+        assertEquals(allocatedBytes, instance.getAllocatedBytes());
+        assertEquals(0, instance.getFreeBytes());
+    }
+
+    @Test
+    void testAcquireReturnsNonOverlappingPages() {
+        ByteBuffer page1 = instance.acquire();
+        ByteBuffer page2 = instance.acquire();
+        page1.put(0, (byte) 1);
+        page2.put(0, (byte) 2);
+        assertEquals(1, page1.get(0));
+        assertEquals(2, page2.get(0));
+    }
+
+    /* getPageSize() */
+
+    @Test
+    void testGetPageSize() {
+        assertEquals(DirectPagePool.MIN_PAGE_SIZE, DirectPagePool.getPageSize(0));
+        assertEquals(DirectPagePool.MIN_PAGE_SIZE, DirectPagePool.getPageSize(4096));
+        assertEquals(8192, DirectPagePool.getPageSize(4097));
+        assertEquals(DirectPagePool.PAGE_SIZE,
+                DirectPagePool.getPageSize(DirectPagePool.PAGE_SIZE + 1));
+    }
+
+    /* getFreeBytes() */
+
+    @Test
+    void testGetFreeBytes() {
+        assertEquals(0, instance.getFreeBytes());
+        ByteBuffer page = instance.acquire();
+        final long freeBytes = instance.getFreeBytes();
+        assertEquals(instance.getAllocatedBytes() - DirectPagePool.PAGE_SIZE,
+                freeBytes);
+        instance.release(page);
+        assertEquals(freeBytes + DirectPagePool.PAGE_SIZE,
+                instance.getFreeBytes());
+    }
+
+    /* trim() */
+
+    @Test
+    void testTrimGivesUpSlabsWhosePagesAreAllFree() {
+        ByteBuffer largePage = instance.acquire();
+        ByteBuffer smallPage = instance.acquire(1);
+        final long allocatedBytes = instance.getAllocatedBytes();
+
+        // Both slabs are in use.
+        assertEquals(0, instance.trim(0));
+
+        instance.release(smallPage);
+        assertTrue(instance.trim(0) > 0);
+        assertTrue(instance.getAllocatedBytes() < allocatedBytes);
+        assertEquals(instance.getAllocatedBytes() - DirectPagePool.PAGE_SIZE,
+                instance.getFreeBytes());
+
+        instance.release(largePage);
+        instance.trim(0);
+        assertEquals(0, instance.getAllocatedBytes());
+        assertEquals(0, instance.getFreeBytes());
+        // The pool can still allocate afterwards.
+        assertNotNull(instance.acquire());
+    }
+
+    @Test
+    void testTrimStopsAtTheGivenSize() {
+        instance.release(instance.acquire());
+        instance.release(instance.acquire(1));
+        final long allocatedBytes = instance.getAllocatedBytes();
+
+        assertEquals(0, instance.trim(allocatedBytes));
+        assertEquals(allocatedBytes, instance.getAllocatedBytes());
+    }
+
+}
@@ -0,0 +1,190 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.util.DeletingFileVisitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeapCacheStoreTest extends BaseTest {
+
+    private Path dir;
+    private Path indexPath;
+    private HeapCacheStore instance;
+    private final Map<HeapCache.Key,HeapCache.Item> items =
+            new LinkedHashMap<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        dir       = Files.createTempDirectory("heapcachestore");
+        indexPath = dir.resolve("heap.cache");
+        instance  = new HeapCacheStore(indexPath);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        super.tearDown();
+        instance.close();
+        Files.walkFileTree(dir, new DeletingFileVisitor());
+    }
+
+    private HeapCache.Item putItem(String opList, String data) {
+        HeapCache.Item item =
+                new HeapCache.Item(data.getBytes(StandardCharsets.UTF_8));
+        items.put(new HeapCache.Key("cats", opList), item);
+        return item;
+    }
+
+    private String read(HeapCacheStore.Entry entry) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(entry.getLength());
+        instance.read(entry, 0, buffer);
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    /* isIndex() */
+
+    @Test
+    void testIsIndex() throws Exception {
+        putItem("op1", "cats");
+        instance.write(items.entrySet());
+        assertTrue(HeapCacheStore.isIndex(indexPath));
+
+        Path otherPath = dir.resolve("other");
+        Files.writeString(otherPath, "cats");
+        assertFalse(HeapCacheStore.isIndex(otherPath));
+    }
+
+    /* read() */
+
+    @Test
+    void testReadWithPosition() throws Exception {
+        putItem("op1", "cats");
+        putItem("op2", "dogs");
+        instance.write(items.entrySet());
+
+        HeapCacheStore.Entry entry = instance.readIndex().stream()
+                .filter(e -> "op2".equals(e.getKey().getOperationList()))
+                .findFirst()
+                .orElseThrow();
+        ByteBuffer buffer = ByteBuffer.allocate(2);
+        instance.read(entry, 2, buffer);
+        assertEquals("gs", new String(buffer.array(), StandardCharsets.UTF_8));
+    }
+
+    /* readIndex() */
+
+    @Test
+    void testReadIndex() throws Exception {
+        HeapCache.Item item = putItem("op1", "cats");
+        item.setLastAccessedTime(500);
+        items.put(new HeapCache.Key("dogs"),
+                new HeapCache.Item("{}".getBytes(StandardCharsets.UTF_8)));
+        instance.write(items.entrySet());
+
+        HeapCacheStore store = new HeapCacheStore(indexPath);
+        List<HeapCacheStore.Entry> entries = store.readIndex();
+        assertEquals(2, entries.size());
+
+        HeapCacheStore.Entry entry = entries.get(0);
+        assertEquals(new HeapCache.Key("cats", "op1"), entry.getKey());
+        assertEquals(500, entry.getLastAccessedTime());
+        assertEquals(4, entry.getLength());
+        assertTrue(store.isValid(entry.getLocation()));
+        assertFalse(instance.isValid(entry.getLocation()));
+
+        entry = entries.get(1);
+        assertEquals(new HeapCache.Key("dogs"), entry.getKey());
+        assertNull(entry.getKey().getOperationList());
+        store.close();
+    }
+
+    @Test
+    void testReadIndexSkipsEntriesWithMissingData() throws Exception {
+        putItem("op1", "cats");
+        instance.write(items.entrySet());
+        Files.write(instance.getSegmentPath(0), new byte[2]);
+
+        HeapCacheStore store = new HeapCacheStore(indexPath);
+        assertTrue(store.readIndex().isEmpty());
+    }
+
+    /* write() */
+
+    @Test
+    void testWrite() throws Exception {
+        HeapCache.Item item = putItem("op1", "cats");
+        instance.write(items.entrySet());
+
+        assertTrue(instance.isValid(item.getStoreLocation()));
+        List<HeapCacheStore.Entry> entries = instance.readIndex();
+        assertEquals(1, entries.size());
+        assertEquals("cats", read(entries.get(0)));
+    }
+
+    @Test
+    void testWriteAppendsOnlyNewItems() throws Exception {
+        putItem("op1", "cats");
+        instance.write(items.entrySet());
+        assertEquals(4, instance.getSegmentsSize());
+
+        instance.write(items.entrySet());
+        assertEquals(4, instance.getSegmentsSize());
+
+        putItem("op2", "dogs");
+        instance.write(items.entrySet());
+        assertEquals(8, instance.getSegmentsSize());
+        assertEquals(8, Files.size(instance.getSegmentPath(0)));
+
+        for (HeapCacheStore.Entry entry : instance.readIndex()) {
+            assertEquals((entry.getKey().getOperationList().equals("op1")) ?
+                    "cats" : "dogs", read(entry));
+        }
+    }
+
+    @Test
+    void testWriteCompactsWhenMostDataIsDead() throws Exception {
+        putItem("op1", "cats");
+        putItem("op2", "dogs");
+        putItem("op3", "pigs");
+        instance.write(items.entrySet());
+        assertEquals(12, instance.getSegmentsSize());
+
+        items.remove(new HeapCache.Key("cats", "op1"));
+        instance.write(items.entrySet());
+        assertEquals(12, instance.getSegmentsSize());
+
+        items.remove(new HeapCache.Key("cats", "op2"));
+        instance.write(items.entrySet());
+        assertEquals(4, instance.getSegmentsSize());
+        assertFalse(Files.exists(instance.getSegmentPath(0)));
+        assertTrue(Files.exists(instance.getSegmentPath(1)));
+
+        List<HeapCacheStore.Entry> entries = instance.readIndex();
+        assertEquals(1, entries.size());
+        assertEquals("pigs", read(entries.get(0)));
+    }
+
+    @Test
+    void testWriteDeletesUnreferencedSegments() throws Exception {
+        Path orphan = instance.getSegmentPath(5);
+        Files.writeString(orphan, "cats");
+
+        putItem("op1", "cats");
+        instance.write(items.entrySet());
+
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(instance.getSegmentPath(6)));
+    }
+
+}
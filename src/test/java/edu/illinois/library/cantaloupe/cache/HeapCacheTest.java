@@ -1,5 +1,6 @@
 package edu.illinois.library.cantaloupe.cache;
 
+import com.google.protobuf.ByteString;
 import edu.illinois.library.cantaloupe.config.ConfigurationException;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Info;
@@ -8,12 +9,18 @@ import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.operation.OperationList;
 import edu.illinois.library.cantaloupe.test.TestUtil;
+import edu.illinois.library.cantaloupe.util.DeletingFileVisitor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -88,9 +95,9 @@ public class HeapCacheTest extends AbstractCacheTest {
         Configuration config = Configuration.getInstance();
         config.setProperty(Key.HEAPCACHE_PERSIST, true);
 
-        Path cacheFile = Files.createTempFile("heapcache", "tmp");
+        Path dir = Files.createTempDirectory("heapcache");
         try {
-            Files.delete(cacheFile);
+            Path cacheFile = dir.resolve("heap.cache");
             config.setProperty(Key.HEAPCACHE_PATHNAME, cacheFile.toString());
 
             // Seed an image
@@ -104,10 +111,43 @@ public class HeapCacheTest extends AbstractCacheTest {
             instance.dumpToPersistentStore();
 
             assertTrue(Files.exists(cacheFile));
-            long size = Files.size(cacheFile);
+            long size = Files.size(dir.resolve("heap.cache.0"));
             assertTrue(size > 5000);
+            assertFalse(instance.isDirty());
+            // The contents remain in the cache.
+            assertEquals(1, instance.size());
         } finally {
-            Files.deleteIfExists(cacheFile);
+            Files.walkFileTree(dir, new DeletingFileVisitor());
+        }
+    }
+
+    @Test
+    void testDumpToPersistentStoreWritesOnlyNewItems() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.HEAPCACHE_PERSIST, true);
+
+        Path dir = Files.createTempDirectory("heapcache");
+        try {
+            Path cacheFile = dir.resolve("heap.cache");
+            config.setProperty(Key.HEAPCACHE_PATHNAME, cacheFile.toString());
+
+            OperationList ops = new OperationList(new Identifier("cats"));
+            try (CompletableOutputStream os =
+                         instance.newDerivativeImageOutputStream(ops)) {
+                Files.copy(TestUtil.getImage(IMAGE), os);
+                os.setComplete(true);
+            }
+            instance.dumpToPersistentStore();
+            final long size = Files.size(dir.resolve("heap.cache.0"));
+
+            instance.dumpToPersistentStore();
+            assertEquals(size, Files.size(dir.resolve("heap.cache.0")));
+
+            instance.put(new Identifier("cats"), new Info());
+            instance.dumpToPersistentStore();
+            assertTrue(Files.size(dir.resolve("heap.cache.0")) > size);
+        } finally {
+            Files.walkFileTree(dir, new DeletingFileVisitor());
         }
     }
 
@@ -149,6 +189,28 @@ public class HeapCacheTest extends AbstractCacheTest {
     @Override
     void testGetInfoWithExistingInvalidImage() {}
 
+    /* getStatistics() */
+
+    @Test
+    void testGetStatistics() throws Exception {
+        OperationList ops = new OperationList(new Identifier("cats"));
+        assertNull(instance.newDerivativeImageInputStream(ops));
+
+        try (CompletableOutputStream os =
+                     instance.newDerivativeImageOutputStream(ops)) {
+            Files.copy(TestUtil.getImage(IMAGE), os);
+            os.setComplete(true);
+        }
+        assertNotNull(instance.newDerivativeImageInputStream(ops));
+
+        Map<String,Object> stats = instance.getStatistics();
+        assertEquals(1L, stats.get("size"));
+        assertEquals(5439L, stats.get("byteSize"));
+        assertEquals(1L, stats.get("hitCount"));
+        assertEquals(1L, stats.get("missCount"));
+        assertEquals(0L, stats.get("evictionCount"));
+    }
+
     /* getTargetByteSize() */
 
     @Test
@@ -201,6 +263,19 @@ public class HeapCacheTest extends AbstractCacheTest {
         assertEquals(base * (long) Math.pow(1024, 5), instance.getTargetByteSize(), delta);
     }
 
+    /* isOffHeapEnabled() */
+
+    @Test
+    void testIsOffHeapEnabled() {
+        Configuration config = Configuration.getInstance();
+
+        config.setProperty(Key.HEAPCACHE_OFF_HEAP, true);
+        assertTrue(instance.isOffHeapEnabled());
+
+        config.setProperty(Key.HEAPCACHE_OFF_HEAP, false);
+        assertFalse(instance.isOffHeapEnabled());
+    }
+
     /* isPersistenceEnabled() */
 
     @Test
@@ -221,9 +296,9 @@ public class HeapCacheTest extends AbstractCacheTest {
         Configuration config = Configuration.getInstance();
         config.setProperty(Key.HEAPCACHE_PERSIST, true);
 
-        Path cacheFile = Files.createTempFile("heapcache", "tmp");
+        Path dir = Files.createTempDirectory("heapcache");
         try {
-            Files.delete(cacheFile);
+            Path cacheFile = dir.resolve("heap.cache");
             config.setProperty(Key.HEAPCACHE_PATHNAME, cacheFile.toString());
 
             // Seed an image
@@ -240,9 +315,116 @@ public class HeapCacheTest extends AbstractCacheTest {
             instance.loadFromPersistentStore();
             assertEquals(1, instance.size());
 
-            assertNotNull(instance.newDerivativeImageInputStream(ops));
+            try (InputStream is = instance.newDerivativeImageInputStream(ops)) {
+                assertArrayEquals(
+                        Files.readAllBytes(TestUtil.getImage(IMAGE)),
+                        is.readAllBytes());
+            }
+        } finally {
+            Files.walkFileTree(dir, new DeletingFileVisitor());
+        }
+    }
+
+    @Test
+    void testLoadFromPersistentStoreWithOffHeapEnabled() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.HEAPCACHE_PERSIST, true);
+
+        Path dir = Files.createTempDirectory("heapcache");
+        try {
+            Path cacheFile = dir.resolve("heap.cache");
+            config.setProperty(Key.HEAPCACHE_PATHNAME, cacheFile.toString());
+
+            OperationList ops = new OperationList(new Identifier("cats"));
+            try (CompletableOutputStream os =
+                         instance.newDerivativeImageOutputStream(ops)) {
+                Files.copy(TestUtil.getImage(IMAGE), os);
+                os.setComplete(true);
+            }
+            instance.dumpToPersistentStore();
+
+            config.setProperty(Key.HEAPCACHE_OFF_HEAP, true);
+            instance = new HeapCache();
+            instance.loadFromPersistentStore();
+
+            try (InputStream is = instance.newDerivativeImageInputStream(ops)) {
+                assertArrayEquals(
+                        Files.readAllBytes(TestUtil.getImage(IMAGE)),
+                        is.readAllBytes());
+            }
+            assertTrue((long) instance.getStatistics()
+                    .get("offHeapAllocatedBytes") > 0);
+        } finally {
+            Files.walkFileTree(dir, new DeletingFileVisitor());
+        }
+    }
+
+    @Test
+    void testLoadFromPersistentStoreLoadsOnlyMostRecentItemsThatFit()
+            throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.HEAPCACHE_PERSIST, true);
+
+        Path dir = Files.createTempDirectory("heapcache");
+        try {
+            Path cacheFile = dir.resolve("heap.cache");
+            config.setProperty(Key.HEAPCACHE_PATHNAME, cacheFile.toString());
+
+            OperationList ops1 = new OperationList(new Identifier("cats"));
+            OperationList ops2 = new OperationList(new Identifier("dogs"));
+            for (OperationList ops : new OperationList[] { ops1, ops2 }) {
+                try (CompletableOutputStream os =
+                             instance.newDerivativeImageOutputStream(ops)) {
+                    Files.copy(TestUtil.getImage(IMAGE), os);
+                    os.setComplete(true);
+                }
+                Thread.sleep(2);
+            }
+            instance.dumpToPersistentStore();
+
+            config.setProperty(Key.HEAPCACHE_TARGET_SIZE, 8000);
+            instance = new HeapCache();
+            instance.loadFromPersistentStore();
+
+            assertEquals(1, instance.size());
+            assertNotNull(instance.newDerivativeImageInputStream(ops2));
+        } finally {
+            Files.walkFileTree(dir, new DeletingFileVisitor());
+        }
+    }
+
+    @Test
+    void testLoadFromPersistentStoreWithLegacyFile() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.HEAPCACHE_PERSIST, true);
+
+        Path dir = Files.createTempDirectory("heapcache");
+        try {
+            Path cacheFile = dir.resolve("heap.cache");
+            config.setProperty(Key.HEAPCACHE_PATHNAME, cacheFile.toString());
+
+            OperationList ops = new OperationList(new Identifier("cats"));
+            byte[] data = Files.readAllBytes(TestUtil.getImage(IMAGE));
+            HeapCacheProtos.Cache protoCache = HeapCacheProtos.Cache.newBuilder()
+                    .addImage(HeapCacheProtos.Image.newBuilder()
+                            .setIdentifier("cats")
+                            .setOperationList(ops.toString())
+                            .setLastAccessed(System.currentTimeMillis())
+                            .setData(ByteString.copyFrom(data))
+                            .build())
+                    .build();
+            try (OutputStream os = Files.newOutputStream(cacheFile)) {
+                protoCache.writeTo(os);
+            }
+
+            instance.loadFromPersistentStore();
+            assertEquals(1, instance.size());
+
+            // The next dump replaces the legacy file.
+            instance.dumpToPersistentStore();
+            assertTrue(HeapCacheStore.isIndex(cacheFile));
         } finally {
-            Files.deleteIfExists(cacheFile);
+            Files.walkFileTree(dir, new DeletingFileVisitor());
         }
     }
 
@@ -256,8 +438,47 @@ public class HeapCacheTest extends AbstractCacheTest {
     @Test
     void testNewDerivativeImageInputStreamWithNonzeroTTL() {}
 
+    @Test
+    void testNewDerivativeImageInputStreamWithOffHeapEnabled()
+            throws Exception {
+        Configuration.getInstance().setProperty(Key.HEAPCACHE_OFF_HEAP, true);
+        OperationList ops = new OperationList(new Identifier("cats"));
+        try (CompletableOutputStream os =
+                     instance.newDerivativeImageOutputStream(ops)) {
+            Files.copy(TestUtil.getImage(IMAGE), os);
+            os.setComplete(true);
+        }
+
+        // The image occupies a page of the smallest size that holds it.
+        assertEquals(DirectPagePool.getPageSize(5439), instance.getByteSize());
+        try (InputStream is = instance.newDerivativeImageInputStream(ops)) {
+            final byte[] expected = Files.readAllBytes(TestUtil.getImage(IMAGE));
+            final List<ByteBuffer> buffers =
+                    ((SizedInputStream) is).getBuffers();
+            assertEquals(1, buffers.size());
+            assertEquals(expected.length, buffers.get(0).remaining());
+            assertArrayEquals(expected, is.readAllBytes());
+        }
+    }
+
     /* newDerivativeImageOutputStream(OperationList) */
 
+    @Test
+    void testNewDerivativeImageOutputStreamWithOffHeapEnabledAndIncompleteStream()
+            throws Exception {
+        Configuration.getInstance().setProperty(Key.HEAPCACHE_OFF_HEAP, true);
+        OperationList ops = new OperationList(new Identifier("cats"));
+        try (CompletableOutputStream os =
+                     instance.newDerivativeImageOutputStream(ops)) {
+            Files.copy(TestUtil.getImage(IMAGE), os);
+        }
+
+        assertNull(instance.newDerivativeImageInputStream(ops));
+        Map<String,Object> stats = instance.getStatistics();
+        assertEquals(stats.get("offHeapAllocatedBytes"),
+                stats.get("offHeapFreeBytes"));
+    }
+
     @Test
     void testNewDerivativeImageOutputStreamSetsDirtyFlag() {
         OperationList ops = new OperationList(new Identifier("cats"));
@@ -329,6 +550,28 @@ public class HeapCacheTest extends AbstractCacheTest {
         assertEquals(size, instance.getByteSize());
     }
 
+    @Test
+    void testPurgeExcessEvictsInlineAfterTargetSizeIsApplied()
+            throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.HEAPCACHE_TARGET_SIZE, 8000);
+        instance.purgeExcess();
+
+        // Seed two images whose combined size exceeds the target size
+        for (String id : new String[] { "cats", "dogs" }) {
+            OperationList ops = new OperationList(new Identifier(id));
+            try (CompletableOutputStream os =
+                         instance.newDerivativeImageOutputStream(ops)) {
+                Files.copy(TestUtil.getImage(IMAGE), os);
+                os.setComplete(true);
+            }
+        }
+
+        assertEquals(1, instance.size());
+        assertEquals(5439, instance.getByteSize());
+        assertEquals(1L, instance.getStatistics().get("evictionCount"));
+    }
+
     @Test
     void testPurgeExcessThrowsConfigurationExceptionWhenMaxSizeIsInvalid() {
         Configuration config = Configuration.getInstance();
@@ -337,6 +580,55 @@ public class HeapCacheTest extends AbstractCacheTest {
         assertThrows(ConfigurationException.class, () -> instance.purgeExcess());
     }
 
+    @Test
+    void testPurgeExcessWithOffHeapEnabledGivesUpFreePages()
+            throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.HEAPCACHE_OFF_HEAP, true);
+        OperationList ops = new OperationList(new Identifier("cats"));
+        try (CompletableOutputStream os =
+                     instance.newDerivativeImageOutputStream(ops)) {
+            Files.copy(TestUtil.getImage(IMAGE), os);
+            os.setComplete(true);
+        }
+        assertTrue((long) instance.getStatistics()
+                .get("offHeapAllocatedBytes") > 0);
+
+        config.setProperty(Key.HEAPCACHE_TARGET_SIZE, 1000);
+        instance.purgeExcess();
+
+        Map<String,Object> stats = instance.getStatistics();
+        assertEquals(0L, stats.get("offHeapAllocatedBytes"));
+        assertEquals(0L, stats.get("offHeapFreeBytes"));
+    }
+
+    /* purge() */
+
+    @Test
+    void testPurgeWithOffHeapEnabledReleasesPages() throws Exception {
+        Configuration.getInstance().setProperty(Key.HEAPCACHE_OFF_HEAP, true);
+        OperationList ops = new OperationList(new Identifier("cats"));
+        try (CompletableOutputStream os =
+                     instance.newDerivativeImageOutputStream(ops)) {
+            Files.copy(TestUtil.getImage(IMAGE), os);
+            os.setComplete(true);
+        }
+
+        // An open stream retains the pages until it is closed.
+        try (InputStream is = instance.newDerivativeImageInputStream(ops)) {
+            instance.purge();
+            Map<String,Object> stats = instance.getStatistics();
+            assertNotEquals(stats.get("offHeapAllocatedBytes"),
+                    stats.get("offHeapFreeBytes"));
+            assertEquals(5439, is.readAllBytes().length);
+        }
+
+        Map<String,Object> stats = instance.getStatistics();
+        assertEquals(stats.get("offHeapAllocatedBytes"),
+                stats.get("offHeapFreeBytes"));
+        assertNull(instance.newDerivativeImageInputStream(ops));
+    }
+
     /* purgeInvalid() */
 
     /**
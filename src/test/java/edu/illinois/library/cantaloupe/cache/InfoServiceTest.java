@@ -170,6 +170,42 @@ public class InfoServiceTest extends BaseTest {
         assertEquals(64, info.orElseThrow().getSize(0).width(), DELTA);
     }
 
+    @Test
+    void testGetOrReadInfoWithSourceVersionAndHitInProcessor()
+            throws Exception {
+        final Identifier identifier = new Identifier("jpg");
+
+        Optional<Info> info = instance.getOrReadInfo(
+                identifier, newFileProcessor(), "\"abc\"");
+        assertEquals("\"abc\"", info.orElseThrow().getSourceVersion());
+    }
+
+    @Test
+    void testGetOrReadInfoWithSourceVersionUpdatesCachedInfo()
+            throws Exception {
+        final Identifier identifier = new Identifier("jpg");
+        final Info info = new Info();
+        info.setSourceVersion("\"abc\"");
+        instance.putInObjectCache(identifier, info);
+
+        Optional<Info> actualInfo = instance.getOrReadInfo(
+                identifier, newMockProcessor(), "\"def\"");
+        assertEquals("\"def\"", actualInfo.orElseThrow().getSourceVersion());
+    }
+
+    @Test
+    void testGetOrReadInfoWithNullSourceVersionRetainsCachedSourceVersion()
+            throws Exception {
+        final Identifier identifier = new Identifier("jpg");
+        final Info info = new Info();
+        info.setSourceVersion("\"abc\"");
+        instance.putInObjectCache(identifier, info);
+
+        Optional<Info> actualInfo = instance.getOrReadInfo(
+                identifier, newMockProcessor(), null);
+        assertEquals("\"abc\"", actualInfo.orElseThrow().getSourceVersion());
+    }
+
     /* isObjectCacheEnabled() */
 
     @Test
@@ -589,6 +589,24 @@ public abstract class AbstractConfigurationTest extends BaseTest {
         }).numThreads(NUM_CONCURRENT_THREADS).run();
     }
 
+    /* getModificationCount() */
+
+    @Test
+    void testGetModificationCountChangesWhenModified() {
+        final Configuration instance = getInstance();
+        long count = instance.getModificationCount();
+        instance.setProperty("test1", "cats");
+        assertNotEquals(count, instance.getModificationCount());
+
+        count = instance.getModificationCount();
+        instance.clearProperty("test1");
+        assertNotEquals(count, instance.getModificationCount());
+
+        count = instance.getModificationCount();
+        instance.clear();
+        assertNotEquals(count, instance.getModificationCount());
+    }
+
     /* getLong(Key) */
 
     @Test
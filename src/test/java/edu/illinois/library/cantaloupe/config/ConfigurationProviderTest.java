@@ -1,12 +1,14 @@
 package edu.illinois.library.cantaloupe.config;
 
 import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.test.ConcurrentReaderWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -270,6 +272,61 @@ public class ConfigurationProviderTest extends BaseTest {
         assertEquals(2, instance.getLong("key", 2), DELTA);
     }
 
+    @Test
+    void testGetLongBytes() {
+        // set in config1
+        config1.setProperty("key", "5M");
+        assertEquals(5 * 1024 * 1024, instance.getLongBytes("key", 2));
+
+        // not set in config1, set in config2
+        config1.clear();
+        config2.setProperty("key", "1K");
+        assertEquals(1024, instance.getLongBytes("key", 2));
+
+        // invalid
+        config2.setProperty("key", "cats");
+        assertEquals(2, instance.getLongBytes("key", 2));
+
+        // not set in either
+        config2.clear();
+        assertEquals(2, instance.getLongBytes("key", 2));
+    }
+
+    @Test
+    void testGetModificationCount() {
+        long count = instance.getModificationCount();
+        config2.setProperty("key", "value");
+        assertNotEquals(count, instance.getModificationCount());
+    }
+
+    @Test
+    void testGetPreservesTypesOfMemoizedValues() {
+        config1.setProperty("key", "25");
+        assertEquals("25", instance.getString("key"));
+        assertEquals(25, instance.getInt("key"));
+        assertEquals(25L, instance.getLong("key"));
+        assertEquals(25.0, instance.getDouble("key"), DELTA);
+        assertEquals("25", instance.getProperty("key"));
+        assertFalse(instance.getBoolean("key", false));
+    }
+
+    @Test
+    void testGetConcurrentlyWithModifications() throws Exception {
+        final AtomicInteger value = new AtomicInteger();
+        config1.setProperty("key", value.get());
+
+        new ConcurrentReaderWriter(() -> {
+            config1.setProperty("key", value.incrementAndGet());
+            return null;
+        }, () -> {
+            instance.getInt("key", -1);
+            return null;
+        }).numThreads(50).run();
+
+        // Once the writers are done, the latest value must be visible.
+        assertEquals(config1.getInt("key"), instance.getInt("key", -1));
+    }
+
     @Test
     void testGetProperty() {
         // set in config1
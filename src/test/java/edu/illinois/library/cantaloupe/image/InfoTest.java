@@ -966,6 +966,14 @@ class InfoTest extends BaseTest {
         assertEquals(format, instance.getSourceFormat());
     }
 
+    /* setSourceVersion() */
+
+    @Test
+    void testSetSourceVersion() {
+        instance.setSourceVersion("\"abc\"");
+        assertEquals("\"abc\"", instance.getSourceVersion());
+    }
+
     /* toJSON() */
 
     @Test
@@ -998,6 +1006,13 @@ class InfoTest extends BaseTest {
         assertEquals(instance, info2);
     }
 
+    @Test
+    void testToJSONRoundTripWithSourceVersion() throws Exception {
+        instance.setSourceVersion("2021-01-01T00:00:00Z");
+        Info info2 = Info.fromJSON(instance.toJSON());
+        assertEquals("2021-01-01T00:00:00Z", info2.getSourceVersion());
+    }
+
     @Test
     void testToJSONOmitsNullValues() throws Exception {
         String json = instance.toJSON();
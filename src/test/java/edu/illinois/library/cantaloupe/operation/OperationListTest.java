@@ -574,6 +574,161 @@ class OperationListTest extends BaseTest {
                 () -> opList.applyNonEndpointMutations(info, proxy));
     }
 
+    /* canonicalize() */
+
+    private OperationList newCanonicalInstance(Dimension fullSize,
+                                               Operation... operations) {
+        OperationList opList = OperationList.builder()
+                .withIdentifier(new Identifier("cats"))
+                .withOperations(operations)
+                .build();
+        opList.canonicalize(fullSize);
+        return opList;
+    }
+
+    @Test
+    void canonicalizeWithEquivalentScales() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        final Encode encode      = new Encode(Format.get("jpg"));
+        OperationList opList1 = newCanonicalInstance(fullSize,
+                new ScaleByPercent(0.5), encode);
+        OperationList opList2 = newCanonicalInstance(fullSize,
+                new ScaleByPixels(500, null, ScaleByPixels.Mode.ASPECT_FIT_WIDTH),
+                encode);
+        OperationList opList3 = newCanonicalInstance(fullSize,
+                new ScaleByPixels(500, 500, ScaleByPixels.Mode.ASPECT_FIT_INSIDE),
+                encode);
+        assertEquals(opList1.toString(), opList2.toString());
+        assertEquals(opList1.toString(), opList3.toString());
+        assertEquals(opList1.toFilename(), opList2.toFilename());
+        assertEquals(opList1.toFilename(), opList3.toFilename());
+    }
+
+    @Test
+    void canonicalizeWithEquivalentCrops() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        final Encode encode      = new Encode(Format.get("jpg"));
+        OperationList opList1 = newCanonicalInstance(fullSize,
+                new CropByPercent(0.5, 0.5, 0.25, 0.25), encode);
+        OperationList opList2 = newCanonicalInstance(fullSize,
+                new CropByPixels(500, 400, 250, 200), encode);
+        assertEquals(opList1.toString(), opList2.toString());
+        assertEquals(opList1.toFilename(), opList2.toFilename());
+    }
+
+    @Test
+    void canonicalizeOmitsOperationsWithoutEffect() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        final Encode encode      = new Encode(Format.get("jpg"));
+        OperationList opList1 = newCanonicalInstance(fullSize,
+                new CropByPixels(0, 0, 1000, 800),
+                new ScaleByPixels(1000, 800, ScaleByPixels.Mode.NON_ASPECT_FILL),
+                new Rotate(0),
+                encode);
+        OperationList opList2 = newCanonicalInstance(fullSize, encode);
+        assertEquals(opList1.toString(), opList2.toString());
+    }
+
+    @Test
+    void canonicalizeOmitsOptions() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        OperationList opList1 = OperationList.builder()
+                .withIdentifier(new Identifier("cats"))
+                .withOperations(new Encode(Format.get("jpg")))
+                .withOptions(Map.of("cache", "false"))
+                .build();
+        opList1.canonicalize(fullSize);
+        OperationList opList2 = newCanonicalInstance(fullSize,
+                new Encode(Format.get("jpg")));
+        assertEquals(opList1.toString(), opList2.toString());
+        assertEquals(opList1.toFilename(), opList2.toFilename());
+    }
+
+    @Test
+    void canonicalizeDistinguishesDifferentResults() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        final Encode encode      = new Encode(Format.get("jpg"));
+        OperationList opList1 = newCanonicalInstance(fullSize,
+                new ScaleByPercent(0.5), encode);
+        OperationList opList2 = newCanonicalInstance(fullSize,
+                new ScaleByPercent(0.25), encode);
+        ScaleByPercent scale = new ScaleByPercent(0.5);
+        scale.setFilter(Scale.Filter.LANCZOS3);
+        OperationList opList3 = newCanonicalInstance(fullSize, scale, encode);
+        OperationList opList4 = newCanonicalInstance(fullSize,
+                new ScaleByPercent(0.5), new Encode(Format.get("png")));
+        assertNotEquals(opList1.toString(), opList2.toString());
+        assertNotEquals(opList1.toString(), opList3.toString());
+        assertNotEquals(opList1.toFilename(), opList4.toFilename());
+    }
+
+    @Test
+    void canonicalizeIsUndoneByAdd() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        final Encode encode      = new Encode(Format.get("jpg"));
+        OperationList opList = newCanonicalInstance(fullSize,
+                new ScaleByPercent(0.5), encode);
+        Rotate rotate = new Rotate(90);
+        opList.addBefore(rotate, Encode.class);
+
+        OperationList expected = OperationList.builder()
+                .withIdentifier(new Identifier("cats"))
+                .withOperations(new ScaleByPercent(0.5), rotate, encode)
+                .build();
+        assertEquals(expected.toString(), opList.toString());
+        assertEquals(expected.toFilename(), opList.toFilename());
+    }
+
+    @Test
+    void canonicalizeIsUndoneByRemove() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        final Encode encode      = new Encode(Format.get("jpg"));
+        final Rotate rotate      = new Rotate(90);
+        OperationList opList = newCanonicalInstance(fullSize, rotate, encode);
+        opList.remove(rotate);
+
+        OperationList expected = OperationList.builder()
+                .withIdentifier(new Identifier("cats"))
+                .withOperations(encode)
+                .build();
+        assertEquals(expected.toString(), opList.toString());
+    }
+
+    @Test
+    void canonicalizeIsUndoneByIteratorRemove() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        final Encode encode      = new Encode(Format.get("jpg"));
+        OperationList opList = newCanonicalInstance(fullSize,
+                new Rotate(90), encode);
+        Iterator<Operation> it = opList.iterator();
+        it.next();
+        it.remove();
+
+        OperationList expected = OperationList.builder()
+                .withIdentifier(new Identifier("cats"))
+                .withOperations(encode)
+                .build();
+        assertEquals(expected.toString(), opList.toString());
+    }
+
+    @Test
+    void canonicalizeIsUndoneBySetPageIndex() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        final Encode encode      = new Encode(Format.get("jpg"));
+        OperationList opList = newCanonicalInstance(fullSize,
+                new ScaleByPercent(0.5), encode);
+        final String canonicalString = opList.toString();
+        opList.setPageIndex(0);
+        assertNotEquals(canonicalString, opList.toString());
+    }
+
+    @Test
+    void canonicalizeWhileFrozen() {
+        instance.freeze();
+        assertThrows(IllegalStateException.class,
+                () -> instance.canonicalize(new Dimension(100, 100)));
+    }
+
     @Test
     void clear() {
         instance.add(new CropByPixels(10, 10, 10, 10));
@@ -0,0 +1,97 @@
+package edu.illinois.library.cantaloupe.perf.config;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.config.Key;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
+
+/**
+ * Measures the cost of a single configuration lookup, as done many times per
+ * request, by 64 threads at once, against a production-style configuration
+ * backed by the environment and a properties file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = WARMUP_ITERATIONS,
+        time = WARMUP_TIME)
+@Measurement(iterations = MEASUREMENT_ITERATIONS,
+        time = MEASUREMENT_TIME)
+@State(Scope.Benchmark)
+@Threads(64)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms512M", "-Xmx512M" })
+public class ConfigurationPerformance {
+
+    private Path configFile;
+
+    @Setup
+    public void setUp() throws Exception {
+        configFile = Files.createTempFile("cantaloupe", ".properties");
+        Files.write(configFile, List.of(
+                Key.INFO_CACHE_ENABLED.key() + " = true",
+                Key.MAX_SCALE.key() + " = 1.0",
+                Key.MAX_PIXELS.key() + " = 400000000",
+                Key.DERIVATIVE_CACHE.key() + " = FilesystemCache",
+                Key.THREAD_POOL_COMPUTE_THREADS.key() + " ="));
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT,
+                configFile.toString());
+        ConfigurationFactory.clearInstance();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        ConfigurationFactory.clearInstance();
+        Files.deleteIfExists(configFile);
+    }
+
+    @Benchmark
+    public boolean getBooleanWithPresentKey() {
+        return Configuration.getInstance()
+                .getBoolean(Key.INFO_CACHE_ENABLED, false);
+    }
+
+    @Benchmark
+    public boolean getBooleanWithMissingKey() {
+        return Configuration.getInstance()
+                .getBoolean(Key.ADMISSION_CONTROL_ENABLED, false);
+    }
+
+    @Benchmark
+    public double getDoubleWithPresentKey() {
+        return Configuration.getInstance().getDouble(Key.MAX_SCALE, 1.0);
+    }
+
+    @Benchmark
+    public int getIntWithEmptyValue() {
+        return Configuration.getInstance()
+                .getInt(Key.THREAD_POOL_COMPUTE_THREADS, 0);
+    }
+
+    @Benchmark
+    public long getLongWithPresentKey() {
+        return Configuration.getInstance().getLong(Key.MAX_PIXELS, 0);
+    }
+
+    @Benchmark
+    public String getStringWithPresentKey() {
+        return Configuration.getInstance().getString(Key.DERIVATIVE_CACHE);
+    }
+
+}
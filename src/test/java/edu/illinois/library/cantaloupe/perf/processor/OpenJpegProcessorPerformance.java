@@ -7,8 +7,10 @@ import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Info;
+import edu.illinois.library.cantaloupe.operation.CropByPixels;
 import edu.illinois.library.cantaloupe.operation.Encode;
 import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.operation.ScaleByPercent;
 import edu.illinois.library.cantaloupe.processor.FileProcessor;
 import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
 import edu.illinois.library.cantaloupe.test.TestUtil;
@@ -62,6 +64,19 @@ public class OpenJpegProcessorPerformance {
                 OutputStream.nullOutputStream());
     }
 
+    @Benchmark
+    public void processWithCropAndScale() throws Exception {
+        processor.setSourceFormat(Format.get("jp2"));
+        processor.setSourceFile(TestUtil.getImage("jp2-6res-rgb-64x56x8-multitiled-lossy.jp2"));
+        processor.process(
+                OperationList.builder().withOperations(
+                        new CropByPixels(16, 16, 32, 32),
+                        new ScaleByPercent(0.5),
+                        new Encode(OUTPUT_FORMAT)).build(),
+                Info.builder().withSize(64, 56).withNumResolutions(6).build(),
+                OutputStream.nullOutputStream());
+    }
+
     @Benchmark
     public void readInfo() throws Exception {
         processor.setSourceFormat(Format.get("jp2"));
@@ -1,8 +1,13 @@
 package edu.illinois.library.cantaloupe.perf.processor.codec.jpeg;
 
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
 import java.util.concurrent.TimeUnit;
 
+import edu.illinois.library.cantaloupe.processor.codec.jpeg.TurboJPEGImage;
+import edu.illinois.library.cantaloupe.processor.codec.jpeg.TurboJPEGImageReader;
 import edu.illinois.library.cantaloupe.processor.codec.jpeg.TurboJPEGImageReaderTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -27,10 +32,13 @@ import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
 @Fork(value = 1, jvmArgs = { "-server", "-Xms128M", "-Xmx128M", "-Dcantaloupe.config=memory" })
 public class TurboJPEGImageReaderPerformance extends TurboJPEGImageReaderTest {
 
+    private byte[] jpegBytes;
+
     @Setup
     @Override
     public void setUp() throws Exception {
         super.setUp();
+        jpegBytes = Files.readAllBytes(TestUtil.getImage("jpg"));
     }
 
     @TearDown
@@ -51,4 +59,12 @@ public class TurboJPEGImageReaderPerformance extends TurboJPEGImageReaderTest {
         super.testReadAsBufferedImage();
     }
 
+    @Benchmark
+    public TurboJPEGImage readTile() throws Exception {
+        try (TurboJPEGImageReader reader = new TurboJPEGImageReader()) {
+            reader.setSource(new ByteArrayInputStream(jpegBytes));
+            return reader.read();
+        }
+    }
+
 }
@@ -1,7 +1,11 @@
 package edu.illinois.library.cantaloupe.perf.processor.codec.jpeg;
 
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
+import edu.illinois.library.cantaloupe.processor.codec.jpeg.TurboJPEGImageWriter;
 import edu.illinois.library.cantaloupe.processor.codec.jpeg.TurboJPEGImageWriterTest;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -27,10 +31,19 @@ import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
 @Fork(value = 1, jvmArgs = { "-server", "-Xms128M", "-Xmx128M", "-Dcantaloupe.config=memory" })
 public class TurboJPEGImageWriterPerformance extends TurboJPEGImageWriterTest {
 
+    private BufferedImage tile;
+
     @Setup
     @Override
     public void setUp() throws Exception {
         super.setUp();
+        tile = new BufferedImage(512, 512, BufferedImage.TYPE_3BYTE_BGR);
+        final Random random = new Random(512);
+        for (int y = 0; y < tile.getHeight(); y++) {
+            for (int x = 0; x < tile.getWidth(); x++) {
+                tile.setRGB(x, y, random.nextInt());
+            }
+        }
     }
 
     @TearDown
@@ -45,4 +58,9 @@ public class TurboJPEGImageWriterPerformance extends TurboJPEGImageWriterTest {
         super.testWriteWithBufferedImage();
     }
 
+    @Benchmark
+    public void writeTile() throws Exception {
+        new TurboJPEGImageWriter().write(tile, OutputStream.nullOutputStream());
+    }
+
 }
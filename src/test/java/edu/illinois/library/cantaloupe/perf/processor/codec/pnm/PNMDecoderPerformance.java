@@ -0,0 +1,98 @@
+package edu.illinois.library.cantaloupe.perf.processor.codec.pnm;
+
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReader;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReaderFactory;
+import edu.illinois.library.cantaloupe.processor.codec.pnm.PNMDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
+
+/**
+ * Compares the two intermediate formats that OpenJpegProcessor has read from
+ * {@literal opj_decompress}: BMP, read by an {@link ImageReader}, and PAM,
+ * decoded by {@link PNMDecoder}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = WARMUP_ITERATIONS,
+        time = WARMUP_TIME)
+@Measurement(iterations = MEASUREMENT_ITERATIONS,
+        time = MEASUREMENT_TIME)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms128M", "-Xmx128M", "-Dcantaloupe.config=memory" })
+public class PNMDecoderPerformance {
+
+    private static final int SIZE = 1024;
+
+    private byte[] bmpBytes, pamBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        final BufferedImage image =
+                new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_3BYTE_BGR);
+        final Random random = new Random(SIZE);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ImageIO.write(image, "bmp", os);
+        bmpBytes = os.toByteArray();
+
+        os = new ByteArrayOutputStream();
+        os.write(("P7\nWIDTH " + SIZE + "\nHEIGHT " + SIZE + "\nDEPTH 3\n" +
+                "MAXVAL 255\nTUPLTYPE RGB\nENDHDR\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                int rgb = image.getRGB(x, y);
+                os.write(rgb >> 16);
+                os.write(rgb >> 8);
+                os.write(rgb);
+            }
+        }
+        pamBytes = os.toByteArray();
+    }
+
+    @Benchmark
+    public BufferedImage readBMP() throws Exception {
+        try (InputStream is = new ByteArrayInputStream(bmpBytes)) {
+            ImageReader reader = new ImageReaderFactory()
+                    .newImageReader(Format.get("bmp"), is);
+            try {
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    @Benchmark
+    public BufferedImage decodePAM() throws Exception {
+        try (InputStream is = new ByteArrayInputStream(pamBytes)) {
+            return PNMDecoder.decode(is);
+        }
+    }
+
+}
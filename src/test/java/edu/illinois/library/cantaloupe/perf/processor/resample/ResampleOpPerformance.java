@@ -0,0 +1,72 @@
+package edu.illinois.library.cantaloupe.perf.processor.resample;
+
+import java.util.concurrent.TimeUnit;
+
+import edu.illinois.library.cantaloupe.processor.resample.ResampleOp;
+import edu.illinois.library.cantaloupe.processor.resample.ResampleOpTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
+
+/**
+ * Compares scaling typical tiles with and without the sub-sampling weight
+ * table cache. The "uncached" benchmarks clear the cache before each
+ * invocation, which is how {@link ResampleOp} behaved before it had one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = WARMUP_ITERATIONS,
+        time = WARMUP_TIME)
+@Measurement(iterations = MEASUREMENT_ITERATIONS,
+        time = MEASUREMENT_TIME)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms512M", "-Xmx512M", "-Dcantaloupe.config=memory" })
+public class ResampleOpPerformance extends ResampleOpTest {
+
+    @Setup
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @TearDown
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    @Benchmark
+    @Override
+    public void testFilterDownscales1024TileTo512() {
+        super.testFilterDownscales1024TileTo512();
+    }
+
+    @Benchmark
+    public void testFilterDownscales1024TileTo512Uncached() {
+        ResampleOp.clearSubSamplingCache();
+        super.testFilterDownscales1024TileTo512();
+    }
+
+    @Benchmark
+    @Override
+    public void testFilterDownscales2048TileTo512() {
+        super.testFilterDownscales2048TileTo512();
+    }
+
+    @Benchmark
+    public void testFilterDownscales2048TileTo512Uncached() {
+        ResampleOp.clearSubSamplingCache();
+        super.testFilterDownscales2048TileTo512();
+    }
+
+}
@@ -0,0 +1,278 @@
+package edu.illinois.library.cantaloupe.perf.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.illinois.library.cantaloupe.ApplicationServer;
+import edu.illinois.library.cantaloupe.cache.CacheFacade;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import edu.illinois.library.cantaloupe.util.SocketUtils;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
+
+/**
+ * <p>End-to-end load benchmark of the IIIF Image API 3 endpoint. An
+ * in-process {@link ApplicationServer} serves a fixture image through the
+ * whole request path&mdash;resource, request handler, caches, processor, and
+ * response&mdash;to concurrent clients replaying one of several request
+ * mixes:</p>
+ *
+ * <dl>
+ *     <dt>{@literal tiles}</dt>
+ *     <dd>An OpenSeadragon session: {@literal info.json} followed by every
+ *     256&times;256 tile of every pyramid level, from the smallest level to
+ *     the full-resolution one.</dd>
+ *     <dt>{@literal thumbnails}</dt>
+ *     <dd>Thumbnails of various sizes, as requested by search results and
+ *     viewer navigators.</dd>
+ *     <dt>{@literal full}</dt>
+ *     <dd>Full images at maximum size.</dd>
+ *     <dt>{@literal mixed}</dt>
+ *     <dd>A seeded random interleaving of the above, weighted 80/15/5.</dd>
+ * </dl>
+ *
+ * <p>Each combination of {@link #cache}, {@link #processor}, and {@link #mix}
+ * runs in its own fork. Throughput and latency percentiles (p50, p90, p99,
+ * &hellip;) are reported by JMH. The number of concurrent clients is the
+ * number of benchmark threads, and the allocation rate, which includes that
+ * of the server, is reported by the GC profiler. For example:</p>
+ *
+ * <pre>mvn clean test -Pbenchmark -Dbenchmark="IIIFEndpointLoadPerformance -t 16 -prof gc -p cache=HeapCache"</pre>
+ *
+ * <p>When a cache is enabled, it is empty at the start of each fork, so
+ * warmup iterations fill it, and measurements mostly reflect cache hits.</p>
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = WARMUP_ITERATIONS,
+        time = WARMUP_TIME)
+@Measurement(iterations = MEASUREMENT_ITERATIONS,
+        time = MEASUREMENT_TIME)
+@Threads(8)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms512M", "-Xmx512M", "-Dcantaloupe.config=memory" })
+public class IIIFEndpointLoadPerformance {
+
+    private static final String ENDPOINT_PATH = "/iiif/3/";
+    private static final int TILE_SIZE        = 256;
+
+    /**
+     * Number of requests in the {@literal mixed} mix.
+     */
+    private static final int MIXED_LENGTH = 1000;
+
+    /**
+     * Derivative cache, or {@literal none}.
+     */
+    @Param({ "none", "HeapCache", "FilesystemCache" })
+    public String cache;
+
+    @Param({ "Java2dProcessor", "TurboJpegProcessor" })
+    public String processor;
+
+    @Param({ "tiles", "thumbnails", "full", "mixed" })
+    public String mix;
+
+    /**
+     * Fixture image, which must be readable by {@link #processor}.
+     */
+    @Param({ "jpg-rgb-594x522x8-baseline.jpg" })
+    public String fixture;
+
+    private final AtomicLong cursor = new AtomicLong();
+    private ApplicationServer appServer;
+    private HttpClient client;
+    private Path cacheDir;
+    private URI[] uris;
+
+    /**
+     * @return Paths of an OpenSeadragon session, relative to the image
+     *         identifier.
+     */
+    private static List<String> getTilePaths(int width, int height) {
+        final List<String> paths = new ArrayList<>();
+        paths.add("/info.json");
+        int scaleFactor = 1;
+        while (Math.max(width, height) > TILE_SIZE * scaleFactor) {
+            scaleFactor *= 2;
+        }
+        for (; scaleFactor >= 1; scaleFactor /= 2) {
+            final int regionSize = TILE_SIZE * scaleFactor;
+            for (int y = 0; y < height; y += regionSize) {
+                for (int x = 0; x < width; x += regionSize) {
+                    final int regionWidth  = Math.min(regionSize, width - x);
+                    final int regionHeight = Math.min(regionSize, height - y);
+                    paths.add(String.format("/%d,%d,%d,%d/%d,%d/0/default.jpg",
+                            x, y, regionWidth, regionHeight,
+                            (int) Math.ceil(regionWidth / (double) scaleFactor),
+                            (int) Math.ceil(regionHeight / (double) scaleFactor)));
+                }
+            }
+        }
+        return paths;
+    }
+
+    private static List<String> getThumbnailPaths() {
+        return List.of(
+                "/full/!64,64/0/default.jpg",
+                "/full/!100,100/0/default.jpg",
+                "/full/!150,150/0/default.jpg",
+                "/full/!200,200/0/default.jpg",
+                "/full/150,/0/default.jpg",
+                "/square/120,120/0/default.jpg");
+    }
+
+    private static List<String> getFullPaths() {
+        return List.of("/full/max/0/default.jpg");
+    }
+
+    /**
+     * @return Seeded random interleaving of the given mixes, each of which is
+     *         replayed in order.
+     */
+    private static List<String> getMixedPaths(List<String> tilePaths,
+                                              List<String> thumbnailPaths,
+                                              List<String> fullPaths) {
+        final Random random = new Random(MIXED_LENGTH);
+        final List<String> paths = new ArrayList<>(MIXED_LENGTH);
+        int tileIndex = 0, thumbnailIndex = 0, fullIndex = 0;
+        for (int i = 0; i < MIXED_LENGTH; i++) {
+            final int n = random.nextInt(100);
+            if (n < 80) {
+                paths.add(tilePaths.get(tileIndex++ % tilePaths.size()));
+            } else if (n < 95) {
+                paths.add(thumbnailPaths.get(thumbnailIndex++ % thumbnailPaths.size()));
+            } else {
+                paths.add(fullPaths.get(fullIndex++ % fullPaths.size()));
+            }
+        }
+        return paths;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final Configuration config = Configuration.getInstance();
+        config.setProperty(Key.SOURCE_STATIC, "FilesystemSource");
+        config.setProperty(Key.FILESYSTEMSOURCE_LOOKUP_STRATEGY,
+                "BasicLookupStrategy");
+        config.setProperty(Key.FILESYSTEMSOURCE_PATH_PREFIX,
+                TestUtil.getFixturePath() + "/images/");
+        config.setProperty(Key.PROCESSOR_SELECTION_STRATEGY,
+                "ManualSelectionStrategy");
+        config.setProperty(Key.PROCESSOR_FALLBACK, processor);
+        config.setProperty("processor.ManualSelectionStrategy.jpg", processor);
+        config.setProperty(Key.INFO_CACHE_ENABLED, true);
+        if ("none".equals(cache)) {
+            config.setProperty(Key.DERIVATIVE_CACHE_ENABLED, false);
+        } else {
+            cacheDir = Files.createTempDirectory("cantaloupe-perf");
+            config.setProperty(Key.DERIVATIVE_CACHE_ENABLED, true);
+            config.setProperty(Key.DERIVATIVE_CACHE, cache);
+            config.setProperty(Key.FILESYSTEMCACHE_PATHNAME, cacheDir.toString());
+            config.setProperty(Key.HEAPCACHE_TARGET_SIZE, "64M");
+        }
+        new CacheFacade().purge();
+
+        appServer = new ApplicationServer(config);
+        appServer.setHTTPEnabled(true);
+        appServer.setHTTPPort(SocketUtils.getOpenPort());
+        appServer.setHTTPSEnabled(false);
+        appServer.start();
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+
+        final String imageURI = "http://localhost:" + appServer.getHTTPPort() +
+                ENDPOINT_PATH + fixture;
+        final JsonNode info = new ObjectMapper().readTree(
+                send(URI.create(imageURI + "/info.json"),
+                        HttpResponse.BodyHandlers.ofString()).body());
+        final List<String> tilePaths = getTilePaths(
+                info.get("width").asInt(), info.get("height").asInt());
+
+        List<String> paths;
+        switch (mix) {
+            case "tiles":
+                paths = tilePaths;
+                break;
+            case "thumbnails":
+                paths = getThumbnailPaths();
+                break;
+            case "full":
+                paths = getFullPaths();
+                break;
+            case "mixed":
+                paths = getMixedPaths(tilePaths, getThumbnailPaths(),
+                        getFullPaths());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mix: " + mix);
+        }
+        uris = paths.stream()
+                .map(path -> URI.create(imageURI + path))
+                .toArray(URI[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (appServer != null) {
+            appServer.stop();
+        }
+        if (cacheDir != null) {
+            FileUtils.deleteDirectory(cacheDir.toFile());
+        }
+    }
+
+    private <T> HttpResponse<T> send(URI uri,
+                                     HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        final HttpResponse<T> response = client.send(
+                HttpRequest.newBuilder(uri).build(), handler);
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode() +
+                    " for " + uri);
+        }
+        return response;
+    }
+
+    /**
+     * Sends the next request of the mix, shared by all threads, and consumes
+     * the response body.
+     */
+    @Benchmark
+    public int request() throws Exception {
+        final URI uri = uris[(int) (cursor.getAndIncrement() % uris.length)];
+        return send(uri, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+
+}
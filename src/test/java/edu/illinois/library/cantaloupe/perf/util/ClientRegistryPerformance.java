@@ -0,0 +1,102 @@
+package edu.illinois.library.cantaloupe.perf.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.util.ClientRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
+
+/**
+ * Measures the throughput of checking out connections from a shared
+ * connection pool, backed by an in-memory database, the way that {@link
+ * edu.illinois.library.cantaloupe.source.JdbcSource} and {@link
+ * edu.illinois.library.cantaloupe.cache.JdbcCache} do it, by 200 threads at
+ * once. The thread count can be changed with JMH's {@literal -t} option to
+ * see how throughput scales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = WARMUP_ITERATIONS,
+        time = WARMUP_TIME)
+@Measurement(iterations = MEASUREMENT_ITERATIONS,
+        time = MEASUREMENT_TIME)
+@State(Scope.Benchmark)
+@Threads(200)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms512M", "-Xmx512M" })
+public class ClientRegistryPerformance {
+
+    private Path configFile;
+
+    private final ClientRegistry<List<Object>,HikariDataSource,SQLException> registry =
+            new ClientRegistry<>("test", 1, settings -> {
+                HikariDataSource dataSource = new HikariDataSource();
+                dataSource.setJdbcUrl((String) settings.get(0));
+                dataSource.setUsername((String) settings.get(1));
+                dataSource.setPassword((String) settings.get(2));
+                dataSource.setMaximumPoolSize(
+                        Runtime.getRuntime().availableProcessors() * 2 + 1);
+                return dataSource;
+            }, HikariDataSource::close);
+
+    @Setup
+    public void setUp() throws Exception {
+        configFile = Files.createTempFile("cantaloupe", ".properties");
+        Files.write(configFile, List.of(
+                Key.JDBCCACHE_JDBC_URL.key() + " = jdbc:h2:mem:test",
+                Key.JDBCCACHE_USER.key() + " = sa",
+                Key.JDBCCACHE_PASSWORD.key() + " ="));
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT,
+                configFile.toString());
+        ConfigurationFactory.clearInstance();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        registry.clear();
+        ConfigurationFactory.clearInstance();
+        Files.deleteIfExists(configFile);
+    }
+
+    private static List<Object> getSettings() {
+        final Configuration config = Configuration.getInstance();
+        return Arrays.asList(
+                config.getString(Key.JDBCCACHE_JDBC_URL, ""),
+                config.getString(Key.JDBCCACHE_USER, ""),
+                config.getString(Key.JDBCCACHE_PASSWORD, ""));
+    }
+
+    @Benchmark
+    public HikariDataSource get() throws SQLException {
+        return registry.get(getSettings());
+    }
+
+    @Benchmark
+    public boolean getConnection() throws SQLException {
+        try (Connection connection = registry.get(getSettings()).getConnection()) {
+            return connection.isClosed();
+        }
+    }
+
+}
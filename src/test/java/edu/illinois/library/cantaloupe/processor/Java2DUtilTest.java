@@ -7,6 +7,7 @@ import edu.illinois.library.cantaloupe.image.ScaleConstraint;
 import edu.illinois.library.cantaloupe.operation.Color;
 import edu.illinois.library.cantaloupe.operation.ColorTransform;
 import edu.illinois.library.cantaloupe.operation.Crop;
+import edu.illinois.library.cantaloupe.operation.Operation;
 import edu.illinois.library.cantaloupe.operation.CropByPercent;
 import edu.illinois.library.cantaloupe.operation.CropByPixels;
 import edu.illinois.library.cantaloupe.operation.CropToSquare;
@@ -39,6 +40,8 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Path;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static edu.illinois.library.cantaloupe.test.Assert.ImageAssert.*;
@@ -698,6 +701,100 @@ class Java2DUtilTest extends BaseTest {
         assertEquals(BufferedImage.TYPE_CUSTOM, outImage.getType());
     }
 
+    /* rotateAndTranspose() */
+
+    private static BufferedImage newNoiseImage(int width, int height, int type) {
+        final BufferedImage image = new BufferedImage(width, height, type);
+        final Random random = new Random(width * height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static void assertSamePixels(BufferedImage expected,
+                                         BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    void rotateAndTransposeMatchesSequentialOperations() {
+        final BufferedImage inImage =
+                newNoiseImage(31, 17, BufferedImage.TYPE_4BYTE_ABGR);
+        final List<List<Operation>> sequences = List.of(
+                List.of(new Rotate(90)),
+                List.of(new Rotate(180)),
+                List.of(new Rotate(270)),
+                List.of(Transpose.HORIZONTAL),
+                List.of(new Rotate(90), Transpose.HORIZONTAL),
+                List.of(Transpose.HORIZONTAL, new Rotate(90)),
+                List.of(new Rotate(270), Transpose.HORIZONTAL, new Rotate(180)));
+        for (List<Operation> ops : sequences) {
+            BufferedImage expected = inImage;
+            for (Operation op : ops) {
+                if (op instanceof Rotate) {
+                    expected = Java2DUtil.rotate(expected, (Rotate) op);
+                } else {
+                    expected = Java2DUtil.transpose(expected, (Transpose) op);
+                }
+            }
+            BufferedImage actual = Java2DUtil.rotateAndTranspose(inImage, ops);
+            assertSamePixels(expected, actual);
+            assertEquals(inImage.getType(), actual.getType());
+        }
+    }
+
+    @Test
+    void rotateAndTransposeWithVerticalTranspose() {
+        final BufferedImage inImage =
+                newNoiseImage(31, 17, BufferedImage.TYPE_3BYTE_BGR);
+        final BufferedImage outImage = Java2DUtil.rotateAndTranspose(
+                inImage, List.of(Transpose.VERTICAL));
+        assertEquals(inImage.getRGB(3, 0), outImage.getRGB(3, 16));
+        assertEquals(inImage.getRGB(30, 16), outImage.getRGB(30, 0));
+    }
+
+    @Test
+    void rotateAndTransposeWithOperationsThatCancelOut() {
+        final BufferedImage inImage =
+                newNoiseImage(31, 17, BufferedImage.TYPE_3BYTE_BGR);
+        assertSame(inImage, Java2DUtil.rotateAndTranspose(inImage,
+                List.of(new Rotate(90), new Rotate(270))));
+        assertSame(inImage, Java2DUtil.rotateAndTranspose(inImage,
+                List.of(Transpose.HORIZONTAL, Transpose.HORIZONTAL)));
+    }
+
+    @Test
+    void rotateAndTransposeWithVariousImageTypes() {
+        for (BufferedImage inImage : new BufferedImage[] {
+                newGrayImage(31, 17, 8, false),
+                newGrayImage(31, 17, 8, true),
+                newGrayImage(31, 17, 16, false),
+                newColorImage(31, 17, 16, true) }) {
+            BufferedImage outImage = Java2DUtil.rotateAndTranspose(inImage,
+                    List.of(Transpose.HORIZONTAL, new Rotate(90)));
+            assertEquals(17, outImage.getWidth());
+            assertEquals(31, outImage.getHeight());
+            assertEquals(inImage.getColorModel(), outImage.getColorModel());
+        }
+    }
+
+    @Test
+    void rotateAndTransposeWithIllegalOperation() {
+        final BufferedImage inImage = newColorImage(8, false);
+        assertThrows(IllegalArgumentException.class,
+                () -> Java2DUtil.rotateAndTranspose(inImage,
+                        List.of(new Rotate(45))));
+    }
+
     /* scale */
 
     @Test
@@ -799,6 +896,72 @@ class Java2DUtilTest extends BaseTest {
         assertEquals(1, outImage.getHeight());
     }
 
+    /* scaleLinearly() */
+
+    @Test
+    void scaleLinearlyMatchesScalingInLinearColorSpace() {
+        final BufferedImage inImage =
+                newNoiseImage(200, 150, BufferedImage.TYPE_3BYTE_BGR);
+        final ScaleByPercent scale = new ScaleByPercent(0.3);
+        final ScaleConstraint sc   = new ScaleConstraint(1, 1);
+        final ReductionFactor rf   = new ReductionFactor();
+
+        BufferedImage expected = Java2DUtil.convertColorToLinearRGB(inImage);
+        expected = Java2DUtil.scale(expected, scale, sc, rf, true);
+        expected = Java2DUtil.convertColorToSRGB(expected);
+        final BufferedImage actual =
+                Java2DUtil.scaleLinearly(inImage, scale, sc, rf);
+        final BufferedImage nonLinear =
+                Java2DUtil.scale(inImage, scale, sc, rf, false);
+
+        assertEquals(BufferedImage.TYPE_3BYTE_BGR, actual.getType());
+        assertTrue(meanDifference(expected, actual) < 1);
+        assertTrue(meanDifference(nonLinear, actual) > 5);
+    }
+
+    @Test
+    void scaleLinearlyWithAlpha() {
+        final BufferedImage inImage =
+                newNoiseImage(200, 150, BufferedImage.TYPE_4BYTE_ABGR);
+        final BufferedImage outImage = Java2DUtil.scaleLinearly(inImage,
+                new ScaleByPercent(0.5), new ScaleConstraint(1, 1),
+                new ReductionFactor());
+
+        assertEquals(100, outImage.getWidth());
+        assertEquals(75, outImage.getHeight());
+        assertTrue(outImage.getColorModel().hasAlpha());
+        assertTrue(outImage.getColorModel().getColorSpace().isCS_sRGB());
+    }
+
+    @Test
+    void scaleLinearlyWithGrayImage() {
+        final BufferedImage inImage = newGrayImage(200, 150, 8, false);
+        final BufferedImage outImage = Java2DUtil.scaleLinearly(inImage,
+                new ScaleByPercent(0.5), new ScaleConstraint(1, 1),
+                new ReductionFactor());
+
+        assertEquals(100, outImage.getWidth());
+        assertEquals(75, outImage.getHeight());
+        assertTrue(outImage.getColorModel().getColorSpace().isCS_sRGB());
+    }
+
+    /**
+     * @return Mean absolute difference between the color samples of two
+     *         same-sized images.
+     */
+    private static double meanDifference(BufferedImage a, BufferedImage b) {
+        long sum = 0;
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                int p1 = a.getRGB(x, y), p2 = b.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    sum += Math.abs(((p1 >> shift) & 0xff) - ((p2 >> shift) & 0xff));
+                }
+            }
+        }
+        return sum / (a.getWidth() * a.getHeight() * 3.0);
+    }
+
     /* sharpen() */
 
     @Test
@@ -0,0 +1,145 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.resource.ServiceUnavailableException;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class ProcessLauncherTest extends BaseTest {
+
+    private ProcessLauncher instance;
+
+    private static ProcessBuilder newShellProcess(String script) {
+        return new ProcessBuilder("sh", "-c", script);
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        assumeFalse(System.getProperty("os.name").toLowerCase().contains("win"));
+        ProcessLauncher.clearInstance();
+        instance = ProcessLauncher.getInstance();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        super.tearDown();
+        ProcessLauncher.clearInstance();
+    }
+
+    @Test
+    void testGetMaxProcesses() {
+        assertEquals(Runtime.getRuntime().availableProcessors(),
+                instance.getMaxProcesses());
+    }
+
+    @Test
+    void testGetMaxProcessesWithConfiguredValue() {
+        ProcessLauncher.clearInstance();
+        Configuration.getInstance().setProperty(
+                Key.PROCESSOR_EXTERNAL_MAX_PROCESSES, 3);
+        instance = ProcessLauncher.getInstance();
+        assertEquals(3, instance.getMaxProcesses());
+    }
+
+    @Test
+    void testLaunch() throws Exception {
+        final ByteArrayOutputStream errorOutput = new ByteArrayOutputStream();
+        try (ProcessLauncher.LaunchedProcess process = instance.launch(
+                newShellProcess("echo out; echo err >&2; exit 3"),
+                errorOutput)) {
+            assertEquals(1, instance.getNumRunningProcesses());
+            assertEquals("out\n", new String(
+                    process.getInputStream().readAllBytes(),
+                    StandardCharsets.UTF_8));
+            assertEquals(3, process.waitFor());
+            assertEquals("err\n", errorOutput.toString(StandardCharsets.UTF_8));
+        }
+        assertEquals(0, instance.getNumRunningProcesses());
+    }
+
+    @Test
+    void testLaunchWithNonexistentCommandReleasesItsSlot() throws Exception {
+        ProcessLauncher.clearInstance();
+        Configuration.getInstance().setProperty(
+                Key.PROCESSOR_EXTERNAL_MAX_PROCESSES, 1);
+        instance = ProcessLauncher.getInstance();
+
+        assertThrows(IOException.class, () -> instance.launch(
+                new ProcessBuilder("/bogus/command"),
+                new ByteArrayOutputStream()));
+        try (ProcessLauncher.LaunchedProcess process = instance.launch(
+                newShellProcess("exit 0"), new ByteArrayOutputStream())) {
+            assertEquals(0, process.waitFor());
+        }
+    }
+
+    @Test
+    void testLaunchWaitsForAFreeSlot() throws Exception {
+        ProcessLauncher.clearInstance();
+        Configuration.getInstance().setProperty(
+                Key.PROCESSOR_EXTERNAL_MAX_PROCESSES, 1);
+        instance = ProcessLauncher.getInstance();
+
+        final CountDownLatch launched = new CountDownLatch(1);
+        try (ProcessLauncher.LaunchedProcess process = instance.launch(
+                newShellProcess("sleep 10"), new ByteArrayOutputStream())) {
+            new Thread(() -> {
+                try (ProcessLauncher.LaunchedProcess process2 = instance.launch(
+                        newShellProcess("exit 0"), new ByteArrayOutputStream())) {
+                    launched.countDown();
+                } catch (Exception e) {
+                    fail(e);
+                }
+            }).start();
+            assertFalse(launched.await(200, TimeUnit.MILLISECONDS));
+        }
+        assertTrue(launched.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testLaunchRejectsWhenNoSlotBecomesFreeInTime() throws Exception {
+        ProcessLauncher.clearInstance();
+        final Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_EXTERNAL_MAX_PROCESSES, 1);
+        config.setProperty(Key.PROCESSOR_EXTERNAL_TIMEOUT, 1);
+        instance = ProcessLauncher.getInstance();
+
+        try (ProcessLauncher.LaunchedProcess process = instance.launch(
+                newShellProcess("sleep 10"), new ByteArrayOutputStream())) {
+            IOException e = assertThrows(IOException.class,
+                    () -> instance.launch(newShellProcess("exit 0"),
+                            new ByteArrayOutputStream()));
+            assertTrue(e.getCause() instanceof ServiceUnavailableException);
+            assertTrue(ProcessLauncher.isRejection(
+                    new ProcessorException(e.getMessage(), e)));
+        }
+        assertEquals(0, instance.getNumRunningProcesses());
+    }
+
+    @Test
+    void testCloseTerminatesTheProcess() throws Exception {
+        final ProcessLauncher.LaunchedProcess process = instance.launch(
+                newShellProcess("sleep 10"), new ByteArrayOutputStream());
+        final long start = System.nanoTime();
+        process.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0, instance.getNumRunningProcesses());
+        // Closing again must not release another slot.
+        process.close();
+        assertEquals(0, instance.getNumRunningProcesses());
+    }
+
+}
@@ -1,12 +1,28 @@
 package edu.illinois.library.cantaloupe.processor;
 
+import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Info;
+import edu.illinois.library.cantaloupe.image.Rectangle;
+import edu.illinois.library.cantaloupe.operation.CropByPixels;
+import edu.illinois.library.cantaloupe.operation.Encode;
+import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.operation.Rotate;
+import edu.illinois.library.cantaloupe.operation.ScaleByPercent;
+import edu.illinois.library.cantaloupe.processor.codec.jpeg.TurboJPEGImageReader;
 import edu.illinois.library.cantaloupe.source.PathStreamFactory;
 import edu.illinois.library.cantaloupe.test.TestUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TurboJpegProcessorTest extends AbstractProcessorTest {
@@ -33,6 +49,34 @@ public class TurboJpegProcessorTest extends AbstractProcessorTest {
         return proc;
     }
 
+    /**
+     * @return Mean absolute difference between the RGB samples of the given
+     *         images, which must have the same dimensions.
+     */
+    private static double meanDifference(BufferedImage image1,
+                                         BufferedImage image2) {
+        long difference = 0;
+        for (int y = 0; y < image1.getHeight(); y++) {
+            for (int x = 0; x < image1.getWidth(); x++) {
+                int rgb1 = image1.getRGB(x, y), rgb2 = image2.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    difference += Math.abs(((rgb1 >> shift) & 0xff) -
+                            ((rgb2 >> shift) & 0xff));
+                }
+            }
+        }
+        return difference / (image1.getWidth() * image1.getHeight() * 3.0);
+    }
+
+    private BufferedImage process(Path fixture, OperationList opList)
+            throws Exception {
+        instance.setStreamFactory(new PathStreamFactory(fixture));
+        final Info info = instance.readInfo();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        instance.process(opList, info, os);
+        return ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+    }
+
     @Test
     void testGetInitializationErrorWithNoException() {
         assertNull(instance.getInitializationError());
@@ -67,6 +111,100 @@ public class TurboJpegProcessorTest extends AbstractProcessorTest {
         // This processor doesn't support this output format.
     }
 
+    /**
+     * Tests that the region read by the decompressor, which is aligned to the
+     * MCU block size and scaled, is cropped to the right pixels.
+     */
+    @Test
+    void testProcessWithCropAndScaleOperations() throws Exception {
+        final Path fixture = TestUtil.getImage("jpg-rgb-594x522x8-baseline.jpg");
+        final BufferedImage image = process(fixture, OperationList.builder()
+                .withOperations(
+                        new CropByPixels(101, 99, 250, 200),
+                        new ScaleByPercent(0.25),
+                        new Encode(Format.get("png")))
+                .build());
+        assertEquals(63, image.getWidth());
+        assertEquals(50, image.getHeight());
+
+        // Compare the result against a naïvely cropped and scaled image.
+        final BufferedImage expected = new BufferedImage(
+                image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2d = expected.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.drawImage(ImageIO.read(fixture.toFile()).getSubimage(101, 99, 250, 200),
+                0, 0, image.getWidth(), image.getHeight(), null);
+        g2d.dispose();
+        assertTrue(meanDifference(expected, image) < 10);
+    }
+
+    /**
+     * Tests that an MCU-aligned crop is performed losslessly, without
+     * recompression at the requested (very low) quality.
+     */
+    @Test
+    void testProcessWithLosslessCropOperation() throws Exception {
+        final Path fixture = TestUtil.getImage("jpg-rgb-594x522x8-baseline.jpg");
+        final Encode encode = new Encode(Format.get("jpg"));
+        encode.setQuality(5);
+        final BufferedImage image = process(fixture, OperationList.builder()
+                .withOperations(new CropByPixels(64, 128, 256, 192), encode)
+                .build());
+        assertEquals(256, image.getWidth());
+        assertEquals(192, image.getHeight());
+
+        final BufferedImage expected =
+                ImageIO.read(fixture.toFile()).getSubimage(64, 128, 256, 192);
+        assertTrue(meanDifference(expected, image) < 1);
+    }
+
+    @Test
+    void testProcessWithLosslessRotateOperation() throws Exception {
+        final Path fixture = TestUtil.getImage("jpg-rgb-128x96x8.jpg");
+        final Encode encode = new Encode(Format.get("jpg"));
+        encode.setQuality(5);
+        final BufferedImage image = process(fixture, OperationList.builder()
+                .withOperations(new Rotate(90), encode)
+                .build());
+        assertEquals(96, image.getWidth());
+        assertEquals(128, image.getHeight());
+
+        final BufferedImage source = ImageIO.read(fixture.toFile());
+        final BufferedImage expected = new BufferedImage(
+                96, 128, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                expected.setRGB(95 - y, x, source.getRGB(x, y));
+            }
+        }
+        assertTrue(meanDifference(expected, image) < 1);
+    }
+
+    @Test
+    void testProcessWithLosslessCropAndRotateOperations() throws Exception {
+        final Path fixture = TestUtil.getImage("jpg-rgb-128x96x8.jpg");
+        final Encode encode = new Encode(Format.get("jpg"));
+        encode.setQuality(5);
+        final BufferedImage image = process(fixture, OperationList.builder()
+                .withOperations(new CropByPixels(16, 32, 96, 64),
+                        new Rotate(270), encode)
+                .build());
+        assertEquals(64, image.getWidth());
+        assertEquals(96, image.getHeight());
+
+        final BufferedImage source =
+                ImageIO.read(fixture.toFile()).getSubimage(16, 32, 96, 64);
+        final BufferedImage expected = new BufferedImage(
+                64, 96, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                expected.setRGB(y, 95 - x, source.getRGB(x, y));
+            }
+        }
+        assertTrue(meanDifference(expected, image) < 1);
+    }
+
     @Test
     void testReadInfoEXIFAwareness() throws Exception {
         instance.setStreamFactory(new PathStreamFactory(TestUtil.getImage("jpg-exif.jpg")));
@@ -102,4 +240,27 @@ public class TurboJpegProcessorTest extends AbstractProcessorTest {
         }
     }
 
+    /* transformRegion() */
+
+    @Test
+    void testTransformRegion() {
+        final Dimension fullSize = new Dimension(100, 80);
+        final Rectangle region = new Rectangle(10, 20, 30, 40);
+        assertEquals(new Rectangle(60, 20, 30, 40),
+                TurboJpegProcessor.transformRegion(region, fullSize,
+                        TurboJPEGImageReader.Transform.FLIP_HORIZONTAL));
+        assertEquals(new Rectangle(10, 20, 30, 40),
+                TurboJpegProcessor.transformRegion(region, fullSize,
+                        TurboJPEGImageReader.Transform.FLIP_VERTICAL));
+        assertEquals(new Rectangle(20, 10, 40, 30),
+                TurboJpegProcessor.transformRegion(region, fullSize,
+                        TurboJPEGImageReader.Transform.ROTATE_90));
+        assertEquals(new Rectangle(60, 20, 30, 40),
+                TurboJpegProcessor.transformRegion(region, fullSize,
+                        TurboJPEGImageReader.Transform.ROTATE_180));
+        assertEquals(new Rectangle(20, 60, 40, 30),
+                TurboJpegProcessor.transformRegion(region, fullSize,
+                        TurboJPEGImageReader.Transform.ROTATE_270));
+    }
+
 }
@@ -164,6 +164,23 @@ public class TurboJPEGImageWriterTest extends BaseTest {
         }
     }
 
+    @Test
+    public void testWriteWithBufferedImagesOfDifferentSizesInSuccession()
+            throws Exception {
+        Path path = TestUtil.getImage("jpg");
+        BufferedImage image = ImageIO.read(path.toFile());
+        BufferedImage larger = new BufferedImage(
+                image.getWidth() * 4, image.getHeight() * 4,
+                BufferedImage.TYPE_INT_RGB);
+
+        for (BufferedImage img : new BufferedImage[] { image, larger, image }) {
+            try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+                instance.write(img, os);
+                assertDimensions(os, img.getWidth(), img.getHeight());
+            }
+        }
+    }
+
     /** 
      * Note the TurboJPEGImageWriter.write method is used in the PDFbox processor
      */
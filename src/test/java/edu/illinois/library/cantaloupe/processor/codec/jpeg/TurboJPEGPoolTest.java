@@ -0,0 +1,76 @@
+package edu.illinois.library.cantaloupe.processor.codec.jpeg;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.junit.jupiter.api.Test;
+import org.libjpegturbo.turbojpeg.TJCompressor;
+import org.libjpegturbo.turbojpeg.TJDecompressor;
+
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TurboJPEGPoolTest extends BaseTest {
+
+    @Test
+    void testAcquireCompressorReusesReleasedInstances() throws Exception {
+        TJCompressor compressor = TurboJPEGPool.acquireCompressor();
+        TurboJPEGPool.release(compressor);
+        assertSame(compressor, TurboJPEGPool.acquireCompressor());
+        TurboJPEGPool.release(compressor);
+    }
+
+    @Test
+    void testAcquireDecompressorReusesReleasedInstances() throws Exception {
+        TJDecompressor decompressor = TurboJPEGPool.acquireDecompressor();
+        TurboJPEGPool.release(decompressor);
+        assertSame(decompressor, TurboJPEGPool.acquireDecompressor());
+        TurboJPEGPool.release(decompressor);
+    }
+
+    @Test
+    void testReleaseDecompressorDropsItsSourceImage() throws Exception {
+        final byte[] jpeg = Files.readAllBytes(TestUtil.getImage("jpg"));
+        TJDecompressor decompressor = TurboJPEGPool.acquireDecompressor();
+        decompressor.setSourceImage(jpeg, jpeg.length);
+        TurboJPEGPool.release(decompressor);
+
+        assertNotSame(jpeg, decompressor.getJPEGBuf());
+        assertEquals(1, decompressor.getWidth());
+        assertEquals(1, decompressor.getHeight());
+    }
+
+    @Test
+    void testAcquireBuffer() {
+        byte[] buffer = TurboJPEGPool.acquireBuffer(1000);
+        assertTrue(buffer.length >= 1000);
+    }
+
+    @Test
+    void testAcquireBufferReusesReleasedBuffers() {
+        byte[] buffer = TurboJPEGPool.acquireBuffer(5000);
+        TurboJPEGPool.release(buffer);
+        assertSame(buffer, TurboJPEGPool.acquireBuffer(4000));
+        TurboJPEGPool.release(buffer);
+    }
+
+    @Test
+    void testReleaseDoesNotKeepOversizedBuffers() {
+        final int numBuffers = TurboJPEGPool.getNumPooledBuffers();
+        TurboJPEGPool.release(new byte[TurboJPEGPool.MAX_BUFFER_LENGTH + 1]);
+        assertEquals(numBuffers, TurboJPEGPool.getNumPooledBuffers());
+    }
+
+    @Test
+    void testReleaseDoesNotKeepMoreThanTheMaxPoolSize() throws Exception {
+        for (int i = 0; i < TurboJPEGPool.MAX_POOL_SIZE + 2; i++) {
+            TurboJPEGPool.release(new TJCompressor());
+            TurboJPEGPool.release(new byte[1]);
+        }
+        assertEquals(TurboJPEGPool.MAX_POOL_SIZE,
+                TurboJPEGPool.getNumPooledCompressors());
+        assertEquals(TurboJPEGPool.MAX_POOL_SIZE,
+                TurboJPEGPool.getNumPooledBuffers());
+    }
+
+}
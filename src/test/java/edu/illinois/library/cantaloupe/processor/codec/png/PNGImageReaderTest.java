@@ -2,12 +2,21 @@ package edu.illinois.library.cantaloupe.processor.codec.png;
 
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.image.Compression;
+import edu.illinois.library.cantaloupe.image.ScaleConstraint;
+import edu.illinois.library.cantaloupe.operation.CropByPixels;
+import edu.illinois.library.cantaloupe.operation.ReductionFactor;
+import edu.illinois.library.cantaloupe.operation.ScaleByPercent;
+import edu.illinois.library.cantaloupe.operation.ScaleByPixels;
 import edu.illinois.library.cantaloupe.processor.codec.AbstractImageReaderTest;
+import edu.illinois.library.cantaloupe.processor.codec.ReaderHint;
 import edu.illinois.library.cantaloupe.test.TestUtil;
 import org.junit.jupiter.api.Test;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -84,4 +93,49 @@ public class PNGImageReaderTest extends AbstractImageReaderTest {
                 ((PNGImageReader) instance).getUserPreferredIIOImplementation());
     }
 
+    /* read() */
+
+    @Test
+    void testRead2WithSmallScaleSubsamplesImage() throws Exception {
+        ReductionFactor rf    = new ReductionFactor();
+        Set<ReaderHint> hints = new HashSet<>();
+
+        BufferedImage image = instance.read(0, null, new ScaleByPercent(0.1),
+                new ScaleConstraint(1, 1), rf, hints);
+
+        // 0.1 would fit a 3x reduction factor, but only 2x is subsampled.
+        assertEquals(16, image.getWidth());
+        assertEquals(14, image.getHeight());
+        assertEquals(2, rf.factor);
+    }
+
+    @Test
+    void testRead2WithSmallScaleAndCropSubsamplesRegion() throws Exception {
+        ReductionFactor rf    = new ReductionFactor();
+        Set<ReaderHint> hints = new HashSet<>();
+
+        BufferedImage image = instance.read(0,
+                new CropByPixels(10, 10, 40, 40),
+                new ScaleByPixels(8, 8, ScaleByPixels.Mode.ASPECT_FIT_INSIDE),
+                new ScaleConstraint(1, 1), rf, hints);
+
+        assertEquals(20, image.getWidth());
+        assertEquals(20, image.getHeight());
+        assertEquals(1, rf.factor);
+        assertTrue(hints.contains(ReaderHint.ALREADY_CROPPED));
+    }
+
+    @Test
+    void testRead2WithLargeScaleDoesNotSubsampleImage() throws Exception {
+        ReductionFactor rf    = new ReductionFactor();
+        Set<ReaderHint> hints = new HashSet<>();
+
+        BufferedImage image = instance.read(0, null, new ScaleByPercent(0.3),
+                new ScaleConstraint(1, 1), rf, hints);
+
+        assertEquals(64, image.getWidth());
+        assertEquals(56, image.getHeight());
+        assertEquals(0, rf.factor);
+    }
+
 }
@@ -0,0 +1,106 @@
+package edu.illinois.library.cantaloupe.processor.codec.pnm;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PNMDecoderTest extends BaseTest {
+
+    private static BufferedImage decode(String header, int... samples)
+            throws IOException {
+        return decode(header, false, samples);
+    }
+
+    private static BufferedImage decode(String header,
+                                        boolean twoBytes,
+                                        int... samples) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        os.write(header.getBytes(StandardCharsets.US_ASCII));
+        for (int sample : samples) {
+            if (twoBytes) {
+                os.write(sample >> 8);
+            }
+            os.write(sample);
+        }
+        return PNMDecoder.decode(new ByteArrayInputStream(os.toByteArray()));
+    }
+
+    @Test
+    void testDecodeWithPGM() throws Exception {
+        BufferedImage image = decode("P5\n# comment\n2 1\n255\n", 10, 200);
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, image.getType());
+        assertEquals(2, image.getWidth());
+        assertEquals(1, image.getHeight());
+        assertEquals(10, image.getRaster().getSample(0, 0, 0));
+        assertEquals(200, image.getRaster().getSample(1, 0, 0));
+    }
+
+    @Test
+    void testDecodeWithPPM() throws Exception {
+        BufferedImage image = decode("P6\n1 2\n255\n",
+                255, 0, 0,
+                1, 2, 3);
+        assertEquals(BufferedImage.TYPE_3BYTE_BGR, image.getType());
+        assertEquals(0xffff0000, image.getRGB(0, 0));
+        assertEquals(0xff010203, image.getRGB(0, 1));
+    }
+
+    @Test
+    void testDecodeWithPAMWithAlpha() throws Exception {
+        BufferedImage image = decode("P7\n# OpenJPEG-2.5.0\nWIDTH 2\n" +
+                        "HEIGHT 1\nDEPTH 4\nMAXVAL 255\nTUPLTYPE RGB_ALPHA\n" +
+                        "ENDHDR\n",
+                1, 2, 3, 4,
+                5, 6, 7, 8);
+        assertEquals(BufferedImage.TYPE_4BYTE_ABGR, image.getType());
+        assertEquals(0x04010203, image.getRGB(0, 0));
+        assertEquals(0x08050607, image.getRGB(1, 0));
+    }
+
+    @Test
+    void testDecodeWithPAMWithGrayAndAlpha() throws Exception {
+        BufferedImage image = decode("P7\nWIDTH 1\nHEIGHT 1\nDEPTH 2\n" +
+                        "MAXVAL 255\nTUPLTYPE GRAYSCALE_ALPHA\nENDHDR\n",
+                100, 50);
+        assertTrue(image.getColorModel().hasAlpha());
+        assertEquals(100, image.getRaster().getSample(0, 0, 0));
+        assertEquals(50, image.getRaster().getSample(0, 0, 1));
+    }
+
+    @Test
+    void testDecodeWith16BitSamples() throws Exception {
+        BufferedImage image = decode("P5\n3 1\n65535\n", true,
+                0, 32768, 65535);
+        assertEquals(0, image.getRaster().getSample(0, 0, 0));
+        assertEquals(128, image.getRaster().getSample(1, 0, 0));
+        assertEquals(255, image.getRaster().getSample(2, 0, 0));
+    }
+
+    @Test
+    void testDecodeWithLowBitDepthSamples() throws Exception {
+        BufferedImage image = decode("P5\n2 1\n1\n", 0, 1);
+        assertEquals(0, image.getRaster().getSample(0, 0, 0));
+        assertEquals(255, image.getRaster().getSample(1, 0, 0));
+    }
+
+    @Test
+    void testDecodeWithTruncatedImage() {
+        assertThrows(EOFException.class,
+                () -> decode("P6\n2 2\n255\n", 1, 2, 3));
+    }
+
+    @Test
+    void testDecodeWithUnsupportedImage() {
+        assertThrows(IOException.class, () -> decode("P4\n1 1\n", 0));
+        assertThrows(IOException.class, () -> decode("GIF89a"));
+    }
+
+}
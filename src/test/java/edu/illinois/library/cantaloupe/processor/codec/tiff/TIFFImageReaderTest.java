@@ -199,6 +199,25 @@ public class TIFFImageReaderTest extends AbstractImageReaderTest {
         assertNotEquals(image1.getWidth(), image2.getWidth());
     }
 
+    @Test
+    void testRead2WithSmallScaleSubsamplesMonoResolutionImage()
+            throws Exception {
+        instance.setSource(TestUtil.getImage("tif-rgb-1res-64x56x8-tiled-uncompressed.tif"));
+        Crop crop                       = new CropByPercent(0, 0, 1, 1);
+        Scale scale                     = new ScaleByPercent(0.2);
+        ScaleConstraint scaleConstraint = new ScaleConstraint(1, 1);
+        ReductionFactor reductionFactor = new ReductionFactor();
+        Set<ReaderHint> hints           = new HashSet<>();
+
+        BufferedImage image = instance.read(
+                0, crop, scale, scaleConstraint, reductionFactor, hints);
+
+        assertEquals(32, image.getWidth());
+        assertEquals(28, image.getHeight());
+        assertEquals(1, reductionFactor.factor);
+        assertTrue(hints.contains(ReaderHint.ALREADY_CROPPED));
+    }
+
     /* readSequence() */
 
     @Test
@@ -0,0 +1,149 @@
+package edu.illinois.library.cantaloupe.processor.resample;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResampleOpTest extends BaseTest {
+
+    private BufferedImage tile1024, tile2048;
+
+    private static BufferedImage newImage(int size) {
+        final BufferedImage image =
+                new BufferedImage(size, size, BufferedImage.TYPE_3BYTE_BGR);
+        final Random random = new Random(size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        ResampleOp.clearSubSamplingCache();
+        tile1024 = newImage(1024);
+        tile2048 = newImage(2048);
+    }
+
+    @Test
+    void testFilterCachesSubSamplingData() {
+        ResampleOp op = new ResampleOp(512, 512, false);
+        op.filter(tile1024, null);
+        // The horizontal and vertical tables are the same.
+        assertEquals(1, ResampleOp.getSubSamplingCacheSize());
+
+        op = new ResampleOp(512, 256, false);
+        op.filter(tile1024, null);
+        assertEquals(2, ResampleOp.getSubSamplingCacheSize());
+
+        op = new ResampleOp(512, 256, false);
+        op.setFilter(ResampleFilters.getTriangleFilter());
+        op.filter(tile1024, null);
+        assertEquals(4, ResampleOp.getSubSamplingCacheSize());
+    }
+
+    @Test
+    void testFilterWithCachedSubSamplingDataProducesSameResult() {
+        BufferedImage uncached = new ResampleOp(512, 384, false)
+                .filter(tile1024, null);
+        BufferedImage cached = new ResampleOp(512, 384, false)
+                .filter(tile1024, null);
+        assertSamePixels(uncached, cached);
+    }
+
+    private static void assertSamePixels(BufferedImage expected,
+                                         BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    void testFilterWithDifferentBandHeightsProducesSameResult() {
+        ResampleOp op = new ResampleOp(300, 200, false);
+        op.setBandHeight(200);
+        final BufferedImage expected = op.filter(tile1024, null);
+
+        for (int bandHeight : new int[] { 1, 7, 64 }) {
+            op = new ResampleOp(300, 200, false);
+            op.setBandHeight(bandHeight);
+            assertSamePixels(expected, op.filter(tile1024, null));
+        }
+    }
+
+    @Test
+    void testFilterWithGrayImage() {
+        BufferedImage gray = new BufferedImage(
+                640, 480, BufferedImage.TYPE_BYTE_GRAY);
+        gray.getGraphics().drawImage(tile1024, 0, 0, null);
+
+        ResampleOp op = new ResampleOp(160, 120, false);
+        op.setBandHeight(120);
+        final BufferedImage expected = op.filter(gray, null);
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, expected.getType());
+
+        op = new ResampleOp(160, 120, false);
+        op.setBandHeight(5);
+        assertSamePixels(expected, op.filter(gray, null));
+    }
+
+    @Test
+    void testFilterWithDestinationImageThatIsNotDirectlyWritable() {
+        final BufferedImage expected = new ResampleOp(200, 150, false)
+                .filter(tile1024, null);
+
+        BufferedImage dest = new BufferedImage(
+                200, 150, BufferedImage.TYPE_INT_RGB);
+        BufferedImage actual = new ResampleOp(200, 150, false)
+                .filter(tile1024, dest);
+        assertSame(dest, actual);
+        assertSamePixels(expected, actual);
+    }
+
+    @Test
+    void testFilterWithLinearizing() {
+        final BufferedImage nonLinear = new ResampleOp(200, 150, false)
+                .filter(tile1024, null);
+        ResampleOp op = new ResampleOp(200, 150, false);
+        op.setLinearizing(true);
+        final BufferedImage expected = op.filter(tile1024, null);
+        assertEquals(BufferedImage.TYPE_3BYTE_BGR, expected.getType());
+        // Averaging noise in linear light comes out brighter.
+        assertTrue(expected.getRGB(100, 75) != nonLinear.getRGB(100, 75));
+
+        BufferedImage dest = new BufferedImage(
+                200, 150, BufferedImage.TYPE_INT_RGB);
+        op = new ResampleOp(200, 150, false);
+        op.setLinearizing(true);
+        assertSamePixels(expected, op.filter(tile1024, dest));
+    }
+
+    @Test
+    public void testFilterDownscales1024TileTo512() {
+        BufferedImage result = new ResampleOp(512, 512, false)
+                .filter(tile1024, null);
+        assertEquals(512, result.getWidth());
+        assertEquals(512, result.getHeight());
+    }
+
+    @Test
+    public void testFilterDownscales2048TileTo512() {
+        BufferedImage result = new ResampleOp(512, 512, false)
+                .filter(tile2048, null);
+        assertEquals(512, result.getWidth());
+        assertEquals(512, result.getHeight());
+    }
+
+}
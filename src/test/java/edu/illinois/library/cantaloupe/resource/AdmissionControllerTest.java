@@ -0,0 +1,155 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.operation.Encode;
+import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.operation.ScaleByPixels;
+import edu.illinois.library.cantaloupe.resource.AdmissionController.Budget;
+import edu.illinois.library.cantaloupe.resource.AdmissionController.Permit;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControllerTest extends BaseTest {
+
+    private AdmissionController instance;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.ADMISSION_CONTROL_ENABLED, true);
+        config.setProperty(Key.ADMISSION_CONTROL_INFO_MAX_CONCURRENT, 2);
+        config.setProperty(Key.ADMISSION_CONTROL_PROCESSING_MAX_PIXELS,
+                1000000);
+        config.setProperty(Key.ADMISSION_CONTROL_TIMEOUT, 0);
+        config.setProperty(Key.ADMISSION_CONTROL_RETRY_AFTER, 7);
+        instance = new AdmissionController();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String,Object> getStatistics(Budget budget) {
+        String name = (budget == Budget.INFO) ? "info" : "processing";
+        return (Map<String,Object>) instance.getStatistics().get(name);
+    }
+
+    /* acquire() */
+
+    @Test
+    void testAcquireWhenDisabled() throws Exception {
+        Configuration.getInstance().setProperty(
+                Key.ADMISSION_CONTROL_ENABLED, false);
+        for (int i = 0; i < 5; i++) {
+            instance.acquire(Budget.INFO, 1);
+        }
+        assertEquals(0, getStatistics(Budget.INFO).get("numActive"));
+    }
+
+    @Test
+    void testAcquireWithinCapacity() throws Exception {
+        try (Permit permit1 = instance.acquire(Budget.INFO, 1);
+             Permit permit2 = instance.acquire(Budget.INFO, 1)) {
+            Map<String,Object> stats = getStatistics(Budget.INFO);
+            assertEquals(2L, stats.get("usage"));
+            assertEquals(2, stats.get("numActive"));
+        }
+        Map<String,Object> stats = getStatistics(Budget.INFO);
+        assertEquals(0L, stats.get("usage"));
+        assertEquals(2L, stats.get("numAdmitted"));
+    }
+
+    @Test
+    void testAcquireBeyondCapacityThrowsException() throws Exception {
+        try (Permit permit1 = instance.acquire(Budget.INFO, 1);
+             Permit permit2 = instance.acquire(Budget.INFO, 1)) {
+            ServiceUnavailableException e =
+                    assertThrows(ServiceUnavailableException.class,
+                            () -> instance.acquire(Budget.INFO, 1));
+            assertEquals(7, e.getRetryAfter());
+            assertEquals(1L, getStatistics(Budget.INFO).get("numRejected"));
+        }
+    }
+
+    @Test
+    void testAcquireWaitsForCapacity() throws Exception {
+        Configuration.getInstance().setProperty(
+                Key.ADMISSION_CONTROL_TIMEOUT, 5);
+        final Permit permit1 = instance.acquire(Budget.PROCESSING, 600000);
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignore) {
+            }
+            permit1.close();
+        });
+        thread.start();
+        try (Permit permit2 = instance.acquire(Budget.PROCESSING, 600000)) {
+            assertEquals(600000, permit2.getCost());
+        }
+        thread.join();
+    }
+
+    @Test
+    void testAcquireWithCostGreaterThanCapacity() throws Exception {
+        try (Permit permit = instance.acquire(Budget.PROCESSING, 5000000)) {
+            assertEquals(1000000, permit.getCost());
+            assertThrows(ServiceUnavailableException.class,
+                    () -> instance.acquire(Budget.PROCESSING, 1));
+        }
+    }
+
+    @Test
+    void testAcquireWithUnlimitedCapacity() throws Exception {
+        Configuration.getInstance().setProperty(
+                Key.ADMISSION_CONTROL_INFO_MAX_CONCURRENT, 0);
+        for (int i = 0; i < 5; i++) {
+            instance.acquire(Budget.INFO, 1);
+        }
+        assertEquals(5, getStatistics(Budget.INFO).get("numActive"));
+    }
+
+    @Test
+    void testPermitCloseIsIdempotent() throws Exception {
+        Permit permit = instance.acquire(Budget.INFO, 1);
+        permit.close();
+        permit.close();
+        assertEquals(0L, getStatistics(Budget.INFO).get("usage"));
+        assertEquals(0, getStatistics(Budget.INFO).get("numActive"));
+    }
+
+    /* getProcessingCost() */
+
+    @Test
+    void testGetProcessingCost() {
+        OperationList opList = OperationList.builder()
+                .withIdentifier(new Identifier("cats"))
+                .withOperations(
+                        new ScaleByPixels(1000, 800, ScaleByPixels.Mode.NON_ASPECT_FILL),
+                        new Encode(Format.get("jpg")))
+                .build();
+        assertEquals(800000, AdmissionController.getProcessingCost(
+                opList, new Dimension(4000, 3000)));
+    }
+
+    @Test
+    void testGetProcessingCostWithSmallImage() {
+        OperationList opList = OperationList.builder()
+                .withIdentifier(new Identifier("cats"))
+                .withOperations(
+                        new ScaleByPixels(10, 10, ScaleByPixels.Mode.NON_ASPECT_FILL),
+                        new Encode(Format.get("jpg")))
+                .build();
+        assertEquals(AdmissionController.MIN_PROCESSING_COST,
+                AdmissionController.getProcessingCost(
+                        opList, new Dimension(4000, 3000)));
+    }
+
+}
@@ -0,0 +1,35 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteBufferRepresentationTest extends BaseTest {
+
+    @Test
+    void testWrite() throws Exception {
+        final ByteBuffer buffer1 = ByteBuffer.allocateDirect(40000);
+        final ByteBuffer buffer2 = ByteBuffer.wrap(new byte[] { 1, 2, 3 });
+        for (int i = 0; i < buffer1.capacity(); i++) {
+            buffer1.put((byte) i);
+        }
+        buffer1.flip();
+
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            new ByteBufferRepresentation(List.of(buffer1, buffer2)).write(os);
+            final byte[] bytes = os.toByteArray();
+            assertEquals(40003, bytes.length);
+            assertEquals((byte) 39999, bytes[39999]);
+            assertEquals(3, bytes[40002]);
+        }
+        // The buffers' positions are not changed.
+        assertEquals(0, buffer1.position());
+        assertEquals(0, buffer2.position());
+    }
+
+}
@@ -0,0 +1,42 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileChannelRepresentationTest extends BaseTest {
+
+    private static final String FIXTURE = "jpg-rgb-64x56x8-baseline.jpg";
+
+    @Test
+    void testWrite() throws Exception {
+        final Path file = TestUtil.getImage(FIXTURE);
+        try (FileChannel channel = FileChannel.open(file);
+             ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            new FileChannelRepresentation(channel).write(os);
+            assertArrayEquals(Files.readAllBytes(file), os.toByteArray());
+        }
+    }
+
+    @Test
+    void testWriteStartsAtTheCurrentPosition() throws Exception {
+        final Path file = TestUtil.getImage(FIXTURE);
+        final byte[] expected = Files.readAllBytes(file);
+        try (FileChannel channel = FileChannel.open(file);
+             ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            channel.position(100);
+            new FileChannelRepresentation(channel).write(os);
+            assertArrayEquals(Arrays.copyOfRange(expected, 100, expected.length),
+                    os.toByteArray());
+        }
+    }
+
+}
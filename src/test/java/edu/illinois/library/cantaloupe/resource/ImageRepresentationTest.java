@@ -0,0 +1,54 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.SizedInputStream;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageRepresentationTest extends BaseTest {
+
+    /* newCacheRepresentation() */
+
+    @Test
+    void testNewCacheRepresentationWithChannel() throws Exception {
+        Path file = Files.createTempFile(getClass().getSimpleName(), null);
+        try (FileChannel channel = FileChannel.open(file);
+             InputStream is = new SizedInputStream(channel)) {
+            assertTrue(ImageRepresentation.newCacheRepresentation(is)
+                    instanceof FileChannelRepresentation);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testNewCacheRepresentationWithBuffers() throws Exception {
+        final byte[] bytes = { 1, 2, 3 };
+        try (InputStream is = new SizedInputStream(
+                new ByteArrayInputStream(bytes), bytes.length,
+                List.of(ByteBuffer.wrap(bytes)))) {
+            assertTrue(ImageRepresentation.newCacheRepresentation(is)
+                    instanceof ByteBufferRepresentation);
+        }
+    }
+
+    @Test
+    void testNewCacheRepresentationWithPlainStream() throws Exception {
+        final byte[] bytes = { 1, 2, 3 };
+        try (InputStream is = new SizedInputStream(
+                new ByteArrayInputStream(bytes), bytes.length)) {
+            assertTrue(ImageRepresentation.newCacheRepresentation(is)
+                    instanceof InputStreamRepresentation);
+        }
+    }
+
+}
@@ -107,6 +107,8 @@ class ImageRequestHandlerTest extends BaseTest {
                 isSourceAccessedCalled,
                 isWillStreamImageFromDerivativeCacheCalled,
                 isInfoAvailableCalled, isWillProcessImageCalled;
+        private String eTag;
+        private long contentLength = -1;
 
         @Override
         public boolean preAuthorize() {
@@ -125,6 +127,17 @@ class ImageRequestHandlerTest extends BaseTest {
             isSourceAccessedCalled = true;
         }
 
+        @Override
+        public boolean entityTagAvailable(String eTag) {
+            this.eTag = eTag;
+            return true;
+        }
+
+        @Override
+        public void contentLengthAvailable(long length) {
+            contentLength = length;
+        }
+
         @Override
         public void willStreamImageFromDerivativeCache() {
             isWillStreamImageFromDerivativeCacheCalled = true;
@@ -268,6 +281,189 @@ class ImageRequestHandlerTest extends BaseTest {
              OutputStream outputStream = OutputStream.nullOutputStream()) {
             handler.handle(outputStream);
             assertTrue(callback.isWillStreamImageFromDerivativeCacheCalled);
+            assertEquals(3, callback.contentLength);
+        }
+    }
+
+    @Test
+    void handleWithResolveFirstDoesNotDrawProcessingBudgetForCacheHits()
+            throws Exception {
+        {   // Configure the application.
+            final Configuration config = Configuration.getInstance();
+            config.setProperty(Key.CACHE_SERVER_RESOLVE_FIRST, true);
+            config.setProperty(Key.SOURCE_STATIC, "FilesystemSource");
+            config.setProperty(Key.FILESYSTEMSOURCE_PATH_PREFIX,
+                    TestUtil.getImagesPath() + "/");
+            config.setProperty(Key.DERIVATIVE_CACHE_ENABLED, true);
+            config.setProperty(Key.DERIVATIVE_CACHE, "HeapCache");
+            config.setProperty(Key.ADMISSION_CONTROL_ENABLED, true);
+            config.setProperty(Key.ADMISSION_CONTROL_TIMEOUT, 0);
+        }
+
+        // Configure the request, which must be equal to the one that the
+        // handler will canonicalize it into.
+        final OperationList opList  = new OperationList();
+        final Identifier identifier = new Identifier("jpg-rgb-64x48x8.jpg");
+        opList.setIdentifier(identifier);
+        Encode encode = new Encode(Format.get("jpg"));
+        encode.setCompression(Compression.JPEG);
+        encode.setQuality(80);
+        encode.setMetadata(new Metadata());
+        opList.add(encode);
+
+        // Add an "image" to the derivative cache.
+        DerivativeCache cache =
+                new CacheFacade().getDerivativeCache().orElseThrow();
+        cache.purge();
+        try (CompletableOutputStream os =
+                     cache.newDerivativeImageOutputStream(opList)) {
+            os.write(new byte[] { 0x35, 0x35, 0x35 });
+            os.setComplete(true);
+        }
+
+        // Exhaust the processing budget.
+        final AdmissionController controller = AdmissionController.getInstance();
+        try (AdmissionController.Permit permit = controller.acquire(
+                AdmissionController.Budget.PROCESSING,
+                AdmissionController.Budget.PROCESSING.getCapacity())) {
+            // The cache hit is admitted...
+            try (ImageRequestHandler handler = ImageRequestHandler.builder()
+                    .withCallback(new IntrospectiveCallback())
+                    .withOperationList(opList)
+                    .build();
+                 ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+                handler.handle(outputStream);
+                assertEquals(3, outputStream.size());
+            }
+
+            // ...but a request that needs processing is rejected.
+            final OperationList opList2 = new OperationList();
+            opList2.setIdentifier(identifier);
+            opList2.add(new Encode(Format.get("png")));
+            try (ImageRequestHandler handler = ImageRequestHandler.builder()
+                    .withCallback(new IntrospectiveCallback())
+                    .withOperationList(opList2)
+                    .build();
+                 ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+                assertThrows(ServiceUnavailableException.class,
+                        () -> handler.handle(outputStream));
+                assertEquals(0, outputStream.size());
+            }
+        } finally {
+            cache.purge();
+        }
+    }
+
+    @Test
+    void handleWithResolveFirstDoesNotSendContentLengthForRejectedCacheHits()
+            throws Exception {
+        {   // Configure the application.
+            final Configuration config = Configuration.getInstance();
+            config.setProperty(Key.CACHE_SERVER_RESOLVE_FIRST, true);
+            config.setProperty(Key.SOURCE_STATIC, "FilesystemSource");
+            config.setProperty(Key.FILESYSTEMSOURCE_PATH_PREFIX,
+                    TestUtil.getImagesPath() + "/");
+            config.setProperty(Key.DERIVATIVE_CACHE_ENABLED, true);
+            config.setProperty(Key.DERIVATIVE_CACHE, "HeapCache");
+            config.setProperty(Key.ADMISSION_CONTROL_ENABLED, true);
+            config.setProperty(Key.ADMISSION_CONTROL_TIMEOUT, 0);
+        }
+
+        // Configure the request, which must be equal to the one that the
+        // handler will canonicalize it into.
+        final OperationList opList  = new OperationList();
+        final Identifier identifier = new Identifier("jpg-rgb-64x48x8.jpg");
+        opList.setIdentifier(identifier);
+        Encode encode = new Encode(Format.get("jpg"));
+        encode.setCompression(Compression.JPEG);
+        encode.setQuality(80);
+        encode.setMetadata(new Metadata());
+        opList.add(encode);
+
+        // Add an "image" to the derivative cache.
+        DerivativeCache cache =
+                new CacheFacade().getDerivativeCache().orElseThrow();
+        cache.purge();
+        try (CompletableOutputStream os =
+                     cache.newDerivativeImageOutputStream(opList)) {
+            os.write(new byte[] { 0x35, 0x35, 0x35 });
+            os.setComplete(true);
+        }
+
+        // Exhaust the cache hit budget.
+        final AdmissionController controller = AdmissionController.getInstance();
+        try (AdmissionController.Permit permit = controller.acquire(
+                AdmissionController.Budget.CACHE_HITS,
+                AdmissionController.Budget.CACHE_HITS.getCapacity())) {
+            final IntrospectiveCallback callback = new IntrospectiveCallback();
+            try (ImageRequestHandler handler = ImageRequestHandler.builder()
+                    .withCallback(callback)
+                    .withOperationList(opList)
+                    .build();
+                 ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+                assertThrows(ServiceUnavailableException.class,
+                        () -> handler.handle(outputStream));
+                assertEquals(-1, callback.contentLength);
+                assertEquals(0, outputStream.size());
+            }
+        } finally {
+            cache.purge();
+        }
+    }
+
+    @Test
+    void handleCallsEntityTagAvailableCallback() throws Exception {
+        { // Configure the application.
+            final Configuration config = Configuration.getInstance();
+            config.setProperty(Key.SOURCE_STATIC, "FilesystemSource");
+            config.setProperty(Key.FILESYSTEMSOURCE_PATH_PREFIX,
+                    TestUtil.getImagesPath() + "/");
+        }
+
+        // Configure the request.
+        final OperationList opList  = new OperationList();
+        opList.setIdentifier(new Identifier("jpg-rgb-64x48x8.jpg"));
+        opList.add(new Encode(Format.get("jpg")));
+
+        final IntrospectiveCallback callback = new IntrospectiveCallback();
+        try (ImageRequestHandler handler = ImageRequestHandler.builder()
+                .withCallback(callback)
+                .withOperationList(opList)
+                .build();
+             OutputStream outputStream = OutputStream.nullOutputStream()) {
+            handler.handle(outputStream);
+            assertTrue(callback.eTag.matches("\"[0-9a-f]+\""));
+        }
+    }
+
+    @Test
+    void handleWithUnmodifiedEntity() throws Exception {
+        { // Configure the application.
+            final Configuration config = Configuration.getInstance();
+            config.setProperty(Key.SOURCE_STATIC, "FilesystemSource");
+            config.setProperty(Key.FILESYSTEMSOURCE_PATH_PREFIX,
+                    TestUtil.getImagesPath() + "/");
+        }
+
+        // Configure the request.
+        final OperationList opList  = new OperationList();
+        opList.setIdentifier(new Identifier("jpg-rgb-64x48x8.jpg"));
+        opList.add(new Encode(Format.get("jpg")));
+
+        final IntrospectiveCallback callback = new IntrospectiveCallback() {
+            @Override
+            public boolean entityTagAvailable(String eTag) {
+                return false;
+            }
+        };
+        try (ImageRequestHandler handler = ImageRequestHandler.builder()
+                .withCallback(callback)
+                .withOperationList(opList)
+                .build();
+             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            handler.handle(outputStream);
+            assertFalse(callback.isWillProcessImageCalled);
+            assertEquals(0, outputStream.toByteArray().length);
         }
     }
 
@@ -429,6 +625,13 @@ class ImageRequestHandlerTest extends BaseTest {
                     public void sourceAccessed(StatResult result) {
                     }
                     @Override
+                    public boolean entityTagAvailable(String eTag) {
+                        return true;
+                    }
+                    @Override
+                    public void contentLengthAvailable(long length) {
+                    }
+                    @Override
                     public void willStreamImageFromDerivativeCache() {
                     }
                     @Override
@@ -474,6 +677,13 @@ class ImageRequestHandlerTest extends BaseTest {
                     public void sourceAccessed(StatResult result) {
                     }
                     @Override
+                    public boolean entityTagAvailable(String eTag) {
+                        return true;
+                    }
+                    @Override
+                    public void contentLengthAvailable(long length) {
+                    }
+                    @Override
                     public void willStreamImageFromDerivativeCache() {
                     }
                     @Override
@@ -0,0 +1,418 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.operation.Encode;
+import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCoalescerTest extends BaseTest {
+
+    private static final byte[] IMAGE_BYTES =
+            "image data".getBytes(StandardCharsets.UTF_8);
+
+    private RequestCoalescer instance;
+    private OperationList opList;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        instance = new RequestCoalescer();
+        opList = OperationList.builder()
+                .withIdentifier(new Identifier("cats"))
+                .withOperations(new Encode(Format.get("jpg")))
+                .build();
+        opList.freeze();
+    }
+
+    /**
+     * Starts a request that blocks inside its producer until {@code release}
+     * is counted down.
+     */
+    private Thread startBlockingLeader(CountDownLatch producing,
+                                       CountDownLatch release,
+                                       AtomicInteger numProduced,
+                                       ByteArrayOutputStream os) {
+        Thread thread = new Thread(() -> {
+            try {
+                instance.write(opList, os, out -> {
+                    numProduced.incrementAndGet();
+                    producing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    out.write(IMAGE_BYTES);
+                });
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void awaitInFlight(int count) throws InterruptedException {
+        while (instance.getNumInFlightRequests() < count) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testWriteWithNoConcurrentRequests() throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        instance.write(opList, os, out -> out.write(IMAGE_BYTES));
+
+        assertArrayEquals(IMAGE_BYTES, os.toByteArray());
+        assertEquals(0, instance.getNumInFlightRequests());
+        assertEquals(0, instance.getNumCoalescedRequests());
+    }
+
+    @Test
+    void testWriteCoalescesConcurrentIdenticalRequests() throws Exception {
+        final CountDownLatch producing     = new CountDownLatch(1);
+        final CountDownLatch release       = new CountDownLatch(1);
+        final AtomicInteger numProduced    = new AtomicInteger();
+        final ByteArrayOutputStream leaderOS   = new ByteArrayOutputStream();
+        final ByteArrayOutputStream followerOS = new ByteArrayOutputStream();
+
+        Thread leader = startBlockingLeader(
+                producing, release, numProduced, leaderOS);
+        assertTrue(producing.await(5, TimeUnit.SECONDS));
+
+        Thread follower = new Thread(() -> {
+            try {
+                instance.write(opList, followerOS, out -> {
+                    numProduced.incrementAndGet();
+                    out.write(IMAGE_BYTES);
+                });
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        follower.start();
+        Thread.sleep(50);
+        release.countDown();
+        leader.join();
+        follower.join();
+
+        assertEquals(1, numProduced.get());
+        assertEquals(1, instance.getNumCoalescedRequests());
+        assertArrayEquals(IMAGE_BYTES, leaderOS.toByteArray());
+        assertArrayEquals(IMAGE_BYTES, followerOS.toByteArray());
+        assertEquals(0, instance.getNumInFlightRequests());
+    }
+
+    @Test
+    void testWriteWithFailedLeader() throws Exception {
+        final CountDownLatch producing = new CountDownLatch(1);
+        final CountDownLatch release   = new CountDownLatch(1);
+        final ByteArrayOutputStream followerOS = new ByteArrayOutputStream();
+
+        Thread leader = new Thread(() -> {
+            try {
+                instance.write(opList, new ByteArrayOutputStream(), out -> {
+                    producing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignore) {
+                    }
+                    throw new IOException("failed");
+                });
+            } catch (IOException ignore) {
+            }
+        });
+        leader.start();
+        assertTrue(producing.await(5, TimeUnit.SECONDS));
+        awaitInFlight(1);
+
+        Thread follower = new Thread(() -> {
+            try {
+                instance.write(opList, followerOS,
+                        out -> out.write(IMAGE_BYTES));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        follower.start();
+        Thread.sleep(50);
+        release.countDown();
+        leader.join();
+        follower.join();
+
+        assertArrayEquals(IMAGE_BYTES, followerOS.toByteArray());
+        assertEquals(0, instance.getNumCoalescedRequests());
+    }
+
+    @Test
+    void testWriteWithOutputLargerThanMaxSize() throws Exception {
+        Configuration.getInstance().setProperty(
+                Key.PROCESSOR_COALESCE_MAX_SIZE, 4);
+        final CountDownLatch producing  = new CountDownLatch(1);
+        final CountDownLatch release    = new CountDownLatch(1);
+        final AtomicInteger numProduced = new AtomicInteger();
+        final ByteArrayOutputStream leaderOS   = new ByteArrayOutputStream();
+        final ByteArrayOutputStream followerOS = new ByteArrayOutputStream();
+
+        Thread leader = startBlockingLeader(
+                producing, release, numProduced, leaderOS);
+        assertTrue(producing.await(5, TimeUnit.SECONDS));
+
+        Thread follower = new Thread(() -> {
+            try {
+                instance.write(opList, followerOS, out -> {
+                    numProduced.incrementAndGet();
+                    out.write(IMAGE_BYTES);
+                });
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        follower.start();
+        Thread.sleep(50);
+        release.countDown();
+        leader.join();
+        follower.join();
+
+        assertEquals(2, numProduced.get());
+        assertArrayEquals(IMAGE_BYTES, leaderOS.toByteArray());
+        assertArrayEquals(IMAGE_BYTES, followerOS.toByteArray());
+    }
+
+    @Test
+    void testWriteStreamsToFollowersAsOutputIsProduced() throws Exception {
+        final CountDownLatch firstHalfWritten  = new CountDownLatch(1);
+        final CountDownLatch followerReceived  = new CountDownLatch(1);
+        final ByteArrayOutputStream leaderOS   = new ByteArrayOutputStream();
+        final ByteArrayOutputStream followerOS = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                super.write(b, off, len);
+                followerReceived.countDown();
+            }
+        };
+
+        Thread leader = new Thread(() -> {
+            try {
+                instance.write(opList, leaderOS, out -> {
+                    out.write(IMAGE_BYTES, 0, 5);
+                    firstHalfWritten.countDown();
+                    try {
+                        // The follower must receive the first half before
+                        // the second half is produced.
+                        assertTrue(followerReceived.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    out.write(IMAGE_BYTES, 5, IMAGE_BYTES.length - 5);
+                });
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        leader.start();
+        assertTrue(firstHalfWritten.await(5, TimeUnit.SECONDS));
+        // The leader's client receives its output immediately.
+        assertEquals(5, leaderOS.size());
+
+        instance.write(opList, followerOS, out -> fail());
+        leader.join();
+
+        assertArrayEquals(IMAGE_BYTES, leaderOS.toByteArray());
+        assertArrayEquals(IMAGE_BYTES, followerOS.toByteArray());
+        assertEquals(1, instance.getNumCoalescedRequests());
+    }
+
+    @Test
+    void testWriteWithFollowerTimeout() throws Exception {
+        Configuration.getInstance().setProperty(
+                Key.PROCESSOR_COALESCE_TIMEOUT, 0);
+        final CountDownLatch producing  = new CountDownLatch(1);
+        final CountDownLatch release    = new CountDownLatch(1);
+        final AtomicInteger numProduced = new AtomicInteger();
+
+        Thread leader = startBlockingLeader(
+                producing, release, numProduced, new ByteArrayOutputStream());
+        assertTrue(producing.await(5, TimeUnit.SECONDS));
+
+        final ByteArrayOutputStream followerOS = new ByteArrayOutputStream();
+        instance.write(opList, followerOS, out -> {
+            numProduced.incrementAndGet();
+            out.write(IMAGE_BYTES);
+        });
+        release.countDown();
+        leader.join();
+
+        assertEquals(2, numProduced.get());
+        assertArrayEquals(IMAGE_BYTES, followerOS.toByteArray());
+        assertEquals(0, instance.getNumCoalescedRequests());
+        assertEquals(1, instance.getNumFallbackRequests());
+    }
+
+    @Test
+    void testWriteWithFailedLeaderClientKeepsProducingForFollowers()
+            throws Exception {
+        final CountDownLatch producing = new CountDownLatch(1);
+        final CountDownLatch release   = new CountDownLatch(1);
+        final AtomicInteger numProduced = new AtomicInteger();
+        final AtomicReference<Exception> leaderException =
+                new AtomicReference<>();
+        final OutputStream brokenOS = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        final ByteArrayOutputStream followerOS = new ByteArrayOutputStream();
+
+        Thread leader = new Thread(() -> {
+            try {
+                instance.write(opList, brokenOS, out -> {
+                    numProduced.incrementAndGet();
+                    producing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    out.write(IMAGE_BYTES, 0, 5);
+                    out.write(IMAGE_BYTES, 5, IMAGE_BYTES.length - 5);
+                });
+            } catch (IOException e) {
+                leaderException.set(e);
+            }
+        });
+        leader.start();
+        assertTrue(producing.await(5, TimeUnit.SECONDS));
+
+        Thread follower = new Thread(() -> {
+            try {
+                instance.write(opList, followerOS, out -> {
+                    numProduced.incrementAndGet();
+                    out.write(IMAGE_BYTES);
+                });
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        follower.start();
+        while (instance.getNumFollowingRequests() < 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        leader.join();
+        follower.join();
+
+        assertEquals(1, numProduced.get());
+        assertArrayEquals(IMAGE_BYTES, followerOS.toByteArray());
+        assertEquals("Broken pipe", leaderException.get().getMessage());
+    }
+
+    @Test
+    void testGetStatistics() throws Exception {
+        instance.write(opList, new ByteArrayOutputStream(),
+                out -> out.write(IMAGE_BYTES));
+        Map<String,Object> stats = instance.getStatistics();
+        assertEquals(true, stats.get("enabled"));
+        assertEquals(0, stats.get("numInFlightRequests"));
+        assertEquals(0, stats.get("numFollowingRequests"));
+        assertEquals(0L, stats.get("numCoalescedRequests"));
+        assertEquals(0L, stats.get("numFallbackRequests"));
+    }
+
+    /* Flight */
+
+    @Test
+    void testFlightRetainsOutputForLateFollowersUpToMaxSize()
+            throws Exception {
+        RequestCoalescer.Flight flight = new RequestCoalescer.Flight(8);
+        flight.append(IMAGE_BYTES, 0, 4);
+        flight.append(IMAGE_BYTES, 4, 4);
+        assertTrue(flight.isJoinable());
+        assertEquals(8, flight.getRetainedLength());
+
+        RequestCoalescer.Flight.Cursor cursor = flight.join();
+        assertNotNull(cursor);
+        assertEquals(4, flight.next(cursor, 0).length);
+        // Nothing is released while the flight can still be joined.
+        assertEquals(8, flight.getRetainedLength());
+
+        flight.append(IMAGE_BYTES, 8, 2);
+        assertFalse(flight.isJoinable());
+        assertNull(flight.join());
+        // Chunks are released once the last follower has read them.
+        assertEquals(6, flight.getRetainedLength());
+        assertEquals(4, flight.next(cursor, 0).length);
+        assertEquals(2, flight.getRetainedLength());
+        assertEquals(2, flight.next(cursor, 0).length);
+        assertEquals(0, flight.getRetainedLength());
+        flight.complete(true);
+        assertNull(flight.next(cursor, 0));
+    }
+
+    @Test
+    void testFlightDropsFollowersThatFallTooFarBehind() throws Exception {
+        RequestCoalescer.Flight flight = new RequestCoalescer.Flight(8);
+        RequestCoalescer.Flight.Cursor slowCursor = flight.join();
+        RequestCoalescer.Flight.Cursor fastCursor = flight.join();
+        flight.append(IMAGE_BYTES, 0, 6);
+        assertEquals(6, flight.next(fastCursor, 0).length);
+        flight.append(IMAGE_BYTES, 6, 4);
+
+        assertThrows(RequestCoalescer.AbandonedFlightException.class,
+                () -> flight.next(slowCursor, 0));
+        assertEquals(4, flight.next(fastCursor, 0).length);
+        assertEquals(0, flight.getRetainedLength());
+    }
+
+    @Test
+    void testFlightNextWithFailedLeader() {
+        RequestCoalescer.Flight flight = new RequestCoalescer.Flight(8);
+        RequestCoalescer.Flight.Cursor cursor = flight.join();
+        flight.append(IMAGE_BYTES, 0, 4);
+        flight.complete(false);
+
+        assertThrows(RequestCoalescer.AbandonedFlightException.class,
+                () -> flight.next(cursor, 0));
+        assertEquals(0, flight.getRetainedLength());
+    }
+
+    @Test
+    void testFlightNextTimesOut() {
+        RequestCoalescer.Flight flight = new RequestCoalescer.Flight(8);
+        RequestCoalescer.Flight.Cursor cursor = flight.join();
+
+        assertThrows(RequestCoalescer.AbandonedFlightException.class,
+                () -> flight.next(cursor, 10));
+    }
+
+    @Test
+    void testWriteWhenDisabled() throws Exception {
+        Configuration.getInstance().setProperty(
+                Key.PROCESSOR_COALESCE_ENABLED, false);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        instance.write(opList, os, out -> {
+            assertEquals(0, instance.getNumInFlightRequests());
+            out.write(IMAGE_BYTES);
+        });
+        assertArrayEquals(IMAGE_BYTES, os.toByteArray());
+    }
+
+}
@@ -403,6 +403,94 @@ public class ImageResourceTester extends ImageAPIResourceTester {
         }
     }
 
+    public void testETagHeader(URI uri) throws Exception {
+        Client client = newClient(uri);
+        try {
+            Response response = client.send();
+            assertTrue(response.getHeaders().getFirstValue("ETag")
+                    .matches("\"[0-9a-f]+\""));
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testETagHeaderDiffersByOperations(URI uri1, URI uri2)
+            throws Exception {
+        Client client1 = newClient(uri1);
+        Client client2 = newClient(uri2);
+        try {
+            assertNotEquals(
+                    client1.send().getHeaders().getFirstValue("ETag"),
+                    client2.send().getHeaders().getFirstValue("ETag"));
+        } finally {
+            client1.stop();
+            client2.stop();
+        }
+    }
+
+    public void testIfNoneMatchWithMatchingETag(URI uri) throws Exception {
+        Client client = newClient(uri);
+        try {
+            Response response = client.send();
+            final String eTag = response.getHeaders().getFirstValue("ETag");
+
+            client.getHeaders().set("If-None-Match", "\"bogus\", " + eTag);
+            response = client.send();
+            assertEquals(304, response.getStatus());
+            assertEquals(eTag, response.getHeaders().getFirstValue("ETag"));
+            assertEquals(0, response.getBody().length);
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testIfNoneMatchWithMatchingETagAndWarmDerivativeCache(
+            URI uri, Path sourceFile) throws Exception {
+        final Path cacheDir = initializeFilesystemCache();
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.INFO_CACHE_ENABLED, true);
+        config.setProperty(Key.CACHE_SERVER_RESOLVE_FIRST, false);
+
+        // request an image to cache it
+        Client client = newClient(uri);
+        Response response = client.send();
+        final String eTag = response.getHeaders().getFirstValue("ETag");
+        assertNotNull(eTag);
+
+        Thread.sleep(1000); // the info may write asynchronously
+
+        // assert that a derivative and info have been added to the derivative
+        // cache
+        assertRecursiveFileCount(cacheDir, 2);
+
+        // move the source image out of the way to ensure that the next
+        // request is fulfilled from the cache
+        File movedFile = new File(sourceFile + ".tmp");
+        try {
+            Files.move(sourceFile, movedFile.toPath());
+
+            client.getHeaders().set("If-None-Match", eTag);
+            response = client.send();
+            assertEquals(304, response.getStatus());
+            assertEquals(eTag, response.getHeaders().getFirstValue("ETag"));
+            assertEquals(0, response.getBody().length);
+        } finally {
+            Files.move(movedFile.toPath(), sourceFile);
+            client.stop();
+        }
+    }
+
+    public void testIfNoneMatchWithNonMatchingETag(URI uri) throws Exception {
+        Client client = newClient(uri);
+        try {
+            client.getHeaders().set("If-None-Match", "\"bogus\"");
+            Response response = client.send();
+            assertEquals(200, response.getStatus());
+        } finally {
+            client.stop();
+        }
+    }
+
     public void testLessThanOrEqualToMaxScale(URI uri) {
         Configuration config = Configuration.getInstance();
         config.setProperty(Key.MAX_SCALE, 1.0);
@@ -263,6 +263,40 @@ public class ImageResourceTest extends ResourceTest {
         tester.testContentDispositionHeaderSetToAttachmentWithFilename(uri, expected);
     }
 
+    @Test
+    void testGETETagHeader() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testETagHeader(uri);
+    }
+
+    @Test
+    void testGETETagHeaderDiffersByOperations() throws Exception {
+        URI uri1 = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        URI uri2 = getHTTPURI("/" + IMAGE + "/0,0,32,32/full/0/color.jpg");
+        tester.testETagHeaderDiffersByOperations(uri1, uri2);
+    }
+
+    @Test
+    void testGETIfNoneMatchWithMatchingETag() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testIfNoneMatchWithMatchingETag(uri);
+    }
+
+    @Test
+    void testGETIfNoneMatchWithMatchingETagAndWarmDerivativeCache()
+            throws Exception {
+        // The image must be modified as unmodified images aren't cached.
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/1/color.jpg");
+        tester.testIfNoneMatchWithMatchingETagAndWarmDerivativeCache(
+                uri, TestUtil.getImage(IMAGE));
+    }
+
+    @Test
+    void testGETIfNoneMatchWithNonMatchingETag() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testIfNoneMatchWithNonMatchingETag(uri);
+    }
+
     @Test
     void testGETWithEndpointEnabled() {
         Configuration config = Configuration.getInstance();
@@ -544,7 +578,7 @@ public class ImageResourceTest extends ResourceTest {
         client = newClient("/" + IMAGE + "/full/full/0/color.jpg");
         Response response = client.send();
         Headers headers = response.getHeaders();
-        assertEquals(9, headers.size());
+        assertEquals(10, headers.size());
 
         // Access-Control-Allow-Origin
         assertEquals("*", headers.getFirstValue("Access-Control-Allow-Origin"));
@@ -554,6 +588,8 @@ public class ImageResourceTest extends ResourceTest {
         assertEquals("image/jpeg", headers.getFirstValue("Content-Type"));
         // Date
         assertNotNull(headers.getFirstValue("Date"));
+        // ETag
+        assertNotNull(headers.getFirstValue("ETag"));
         // Last-Modified
         assertNotNull(headers.getFirstValue("Last-Modified"));
         // Link
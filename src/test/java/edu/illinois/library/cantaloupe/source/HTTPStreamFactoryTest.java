@@ -60,7 +60,8 @@ public class HTTPStreamFactoryTest extends BaseTest {
         return new HTTPStreamFactory(
                 requestInfo,
                 5439,
-                serverAcceptsRanges);
+                serverAcceptsRanges,
+                "\"etag\"");
     }
 
     @Test
@@ -226,8 +227,7 @@ public class HTTPStreamFactoryTest extends BaseTest {
             assertTrue(is instanceof HTTPImageInputStream);
             HTTPImageInputStream htis = (HTTPImageInputStream) is;
             assertEquals(777 * 1024, htis.getWindowSize());
-            assertEquals(Math.round((5 * 1024 * 1024) / (double) htis.getWindowSize()),
-                    htis.getMaxChunkCacheSize());
+            assertEquals(5 * 1024 * 1024, htis.getMaxChunkCacheSize());
         }
     }
 
@@ -0,0 +1,234 @@
+package edu.illinois.library.cantaloupe.source;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LookupCacheTest extends BaseTest {
+
+    private static final Identifier IDENTIFIER = new Identifier("cats");
+
+    private final AtomicInteger numLookups = new AtomicInteger();
+
+    private LookupCache<String,String> instance;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        Configuration.getInstance().setProperty(Key.LOOKUP_CACHE_ENABLED, true);
+        instance = new LookupCache<>("test", value -> !"transient".equals(value));
+    }
+
+    private String lookUp(String value) {
+        numLookups.incrementAndGet();
+        return value;
+    }
+
+    /* get() */
+
+    @Test
+    void testGetPerformsTheLookupOnce() throws Exception {
+        assertEquals("value", instance.get(IDENTIFIER, "key", () -> lookUp("value")));
+        assertEquals("value", instance.get(IDENTIFIER, "key", () -> lookUp("value")));
+        assertEquals(1, numLookups.get());
+    }
+
+    @Test
+    void testGetPerformsConcurrentlyRequestedLookupsOnce() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        Thread loader = new Thread(() -> {
+            try {
+                instance.get(IDENTIFIER, "key", () -> {
+                    loading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return lookUp("value");
+                });
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        loader.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        final String[] waiterValue = new String[1];
+        Thread waiter = new Thread(() -> {
+            try {
+                waiterValue[0] = instance.get(IDENTIFIER, "key",
+                        () -> lookUp("value"));
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        waiter.start();
+        Thread.sleep(50);
+        release.countDown();
+        loader.join();
+        waiter.join();
+
+        assertEquals(1, numLookups.get());
+        assertEquals("value", waiterValue[0]);
+    }
+
+    @Test
+    void testGetDoesNotBlockOtherLookupsWhileLookingUp() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        Thread loader = new Thread(() -> {
+            try {
+                instance.get(IDENTIFIER, "key", () -> {
+                    loading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return "value";
+                });
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        loader.start();
+        try {
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            // Lookups of any other key can be performed in the meantime.
+            for (int i = 0; i < 50; i++) {
+                assertEquals("value", instance.get(IDENTIFIER, "key" + i,
+                        () -> lookUp("value")));
+            }
+        } finally {
+            release.countDown();
+            loader.join();
+        }
+    }
+
+    @Test
+    void testGetWithDifferentKeysPerformsSeparateLookups() throws Exception {
+        instance.get(IDENTIFIER, "key1", () -> lookUp("value"));
+        instance.get(IDENTIFIER, "key2", () -> lookUp("value"));
+        instance.get(new Identifier("dogs"), "key1", () -> lookUp("value"));
+        assertEquals(3, numLookups.get());
+    }
+
+    @Test
+    void testGetCachesNullResults() throws Exception {
+        assertNull(instance.get(IDENTIFIER, "key", () -> lookUp(null)));
+        assertNull(instance.get(IDENTIFIER, "key", () -> lookUp(null)));
+        assertEquals(1, numLookups.get());
+    }
+
+    @Test
+    void testGetCachesNoSuchFileExceptions() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(NoSuchFileException.class, () ->
+                    instance.get(IDENTIFIER, "key", () -> {
+                        numLookups.incrementAndGet();
+                        throw new NoSuchFileException("cats");
+                    }));
+        }
+        assertEquals(1, numLookups.get());
+    }
+
+    @Test
+    void testGetDoesNotCacheOtherExceptions() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IOException.class, () ->
+                    instance.get(IDENTIFIER, "key", () -> {
+                        numLookups.incrementAndGet();
+                        throw new IOException("cats");
+                    }));
+        }
+        assertEquals(2, numLookups.get());
+    }
+
+    @Test
+    void testGetDoesNotCacheUncacheableResults() throws Exception {
+        assertEquals("transient",
+                instance.get(IDENTIFIER, "key", () -> lookUp("transient")));
+        assertEquals("transient",
+                instance.get(IDENTIFIER, "key", () -> lookUp("transient")));
+        assertEquals(2, numLookups.get());
+    }
+
+    @Test
+    void testGetWhenDisabled() throws Exception {
+        Configuration.getInstance().setProperty(Key.LOOKUP_CACHE_ENABLED, false);
+        instance.get(IDENTIFIER, "key", () -> lookUp("value"));
+        instance.get(IDENTIFIER, "key", () -> lookUp("value"));
+        assertEquals(2, numLookups.get());
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    void testGetAfterTTL() throws Exception {
+        Configuration.getInstance().setProperty(Key.LOOKUP_CACHE_TTL, 1);
+        instance.get(IDENTIFIER, "key", () -> lookUp("value"));
+        Thread.sleep(1100);
+        instance.get(IDENTIFIER, "key", () -> lookUp("value"));
+        assertEquals(2, numLookups.get());
+    }
+
+    /* getIfPresent() */
+
+    @Test
+    void testGetIfPresent() throws Exception {
+        assertNull(instance.getIfPresent(IDENTIFIER, "key"));
+        instance.get(IDENTIFIER, "key", () -> lookUp("value"));
+        assertEquals("value", instance.getIfPresent(IDENTIFIER, "key"));
+    }
+
+    /* purgeAll() */
+
+    @Test
+    void testPurgeAll() throws Exception {
+        instance.get(IDENTIFIER, "key", () -> lookUp("value"));
+        LookupCache.purgeAll();
+        assertEquals(0, instance.size());
+    }
+
+    /* purgeAll(Identifier) */
+
+    @Test
+    void testPurgeAllWithIdentifier() throws Exception {
+        final Identifier otherIdentifier = new Identifier("dogs");
+        instance.get(IDENTIFIER, "key", () -> lookUp("value"));
+        instance.get(otherIdentifier, "key", () -> lookUp("value"));
+        LookupCache.purgeAll(IDENTIFIER);
+        assertNull(instance.getIfPresent(IDENTIFIER, "key"));
+        assertEquals("value", instance.getIfPresent(otherIdentifier, "key"));
+    }
+
+    /* put() */
+
+    @Test
+    void testPut() throws Exception {
+        instance.put(IDENTIFIER, "key", "value");
+        assertEquals("value", instance.get(IDENTIFIER, "key", () -> lookUp("other")));
+        assertEquals(0, numLookups.get());
+    }
+
+    @Test
+    void testPutWithUncacheableValue() {
+        instance.put(IDENTIFIER, "key", "transient");
+        assertNull(instance.getIfPresent(IDENTIFIER, "key"));
+    }
+
+}
@@ -0,0 +1,227 @@
+package edu.illinois.library.cantaloupe.source.stream;
+
+import edu.illinois.library.cantaloupe.http.Range;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkCacheTest extends BaseTest {
+
+    private ChunkCache instance;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        instance = new ChunkCache(1000);
+    }
+
+    /* getSharedInstance() */
+
+    @Test
+    void testGetSharedInstance() {
+        ChunkCache cache1 = ChunkCache.getSharedInstance("test", 1000);
+        ChunkCache cache2 = ChunkCache.getSharedInstance("test", 2000);
+        assertSame(cache1, cache2);
+        assertEquals(2000, cache1.getMaxSize());
+        assertNotSame(cache1, ChunkCache.getSharedInstance("other", 1000));
+    }
+
+    /* get() */
+
+    @Test
+    void testGetLoadsMissingChunksOnce() throws Exception {
+        final AtomicInteger numLoads = new AtomicInteger();
+        final Range range = new Range(0, 9, 100);
+        for (int i = 0; i < 3; i++) {
+            byte[] chunk = instance.get("cats", range, r -> {
+                numLoads.incrementAndGet();
+                return new byte[10];
+            });
+            assertEquals(10, chunk.length);
+        }
+        assertEquals(1, numLoads.get());
+    }
+
+    @Test
+    void testGetLoadsConcurrentlyRequestedChunksOnce() throws Exception {
+        final AtomicInteger numLoads  = new AtomicInteger();
+        final CountDownLatch loading  = new CountDownLatch(1);
+        final CountDownLatch release  = new CountDownLatch(1);
+        final Range range = new Range(0, 9, 100);
+
+        Thread loader = new Thread(() -> {
+            try {
+                instance.get("cats", range, r -> {
+                    numLoads.incrementAndGet();
+                    loading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return new byte[10];
+                });
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        loader.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        final byte[][] waiterChunk = new byte[1][];
+        Thread waiter = new Thread(() -> {
+            try {
+                waiterChunk[0] = instance.get("cats", range, r -> {
+                    numLoads.incrementAndGet();
+                    return new byte[10];
+                });
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        waiter.start();
+        Thread.sleep(50);
+        release.countDown();
+        loader.join();
+        waiter.join();
+
+        assertEquals(1, numLoads.get());
+        assertEquals(10, waiterChunk[0].length);
+    }
+
+    @Test
+    void testGetDoesNotBlockOtherChunksWhileLoading() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        Thread loader = new Thread(() -> {
+            try {
+                instance.get("cats", new Range(0, 9, 100), r -> {
+                    loading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return new byte[10];
+                });
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        loader.start();
+        try {
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            // Chunks of any other key can be loaded in the meantime.
+            for (int i = 1; i < 50; i++) {
+                final Range range = new Range(i * 10, i * 10 + 9, 1000);
+                assertEquals(1, instance.get("cats", range,
+                        r -> new byte[1]).length);
+            }
+        } finally {
+            release.countDown();
+            loader.join();
+        }
+    }
+
+    @Test
+    void testGetLoadsChunkItselfWhenConcurrentLoadFails() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Range range = new Range(0, 9, 100);
+
+        Thread loader = new Thread(() -> {
+            try {
+                instance.get("cats", range, r -> {
+                    loading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignore) {
+                    }
+                    throw new IOException("failed");
+                });
+            } catch (IOException ignore) {
+            }
+        });
+        loader.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        final byte[][] waiterChunk = new byte[1][];
+        Thread waiter = new Thread(() -> {
+            try {
+                waiterChunk[0] = instance.get("cats", range,
+                        r -> new byte[10]);
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        waiter.start();
+        Thread.sleep(50);
+        release.countDown();
+        loader.join();
+        waiter.join();
+
+        assertEquals(10, waiterChunk[0].length);
+        assertNotNull(instance.getIfPresent("cats", range));
+    }
+
+    @Test
+    void testGetDistinguishesResources() throws Exception {
+        final Range range = new Range(0, 9, 100);
+        instance.put("cats", range, new byte[] { 1 });
+        instance.put("dogs", range, new byte[] { 2 });
+        assertEquals(1, instance.get("cats", range, r -> null)[0]);
+        assertEquals(2, instance.get("dogs", range, r -> null)[0]);
+    }
+
+    @Test
+    void testGetRethrowsLoaderExceptions() {
+        assertThrows(IOException.class, () ->
+                instance.get("cats", new Range(0, 9, 100), r -> {
+                    throw new IOException("failed");
+                }));
+        assertNull(instance.getIfPresent("cats", new Range(0, 9, 100)));
+    }
+
+    /* getSize() */
+
+    @Test
+    void testGetSize() {
+        assertEquals(0, instance.getSize());
+        instance.put("cats", new Range(0, 9, 100), new byte[10]);
+        instance.put("cats", new Range(10, 19, 100), new byte[10]);
+        assertEquals(20, instance.getSize());
+    }
+
+    /* purge() */
+
+    @Test
+    void testPurge() {
+        instance.put("cats", new Range(0, 9, 100), new byte[10]);
+        instance.purge();
+        assertEquals(0, instance.getSize());
+    }
+
+    /* setMaxSize() */
+
+    @Test
+    void testSetMaxSizeEvicts() {
+        for (int i = 0; i < 10; i++) {
+            instance.put("cats", new Range(i * 100, i * 100 + 99, 1000),
+                    new byte[100]);
+        }
+        assertEquals(1000, instance.getSize());
+
+        instance.setMaxSize(500);
+        assertEquals(500, instance.getMaxSize());
+        assertTrue(instance.getSize() <= 500);
+    }
+
+}
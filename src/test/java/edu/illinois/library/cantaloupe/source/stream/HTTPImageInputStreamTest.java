@@ -28,13 +28,14 @@ public class HTTPImageInputStreamTest extends BaseTest {
             implements HTTPImageInputStreamClient {
 
         private Client backingClient;
+        private int numGETRequests;
 
         MockHTTPImageInputStreamClient(URI uri) {
             backingClient = new Client().builder().uri(uri).build();
         }
 
         @Override
-        public Response sendHEADRequest() throws IOException {
+        public synchronized Response sendHEADRequest() throws IOException {
             try {
                 backingClient.setMethod(Method.HEAD);
                 return backingClient.send();
@@ -46,7 +47,9 @@ public class HTTPImageInputStreamTest extends BaseTest {
         }
 
         @Override
-        public Response sendGETRequest(Range range) throws IOException {
+        public synchronized Response sendGETRequest(Range range)
+                throws IOException {
+            numGETRequests++;
             try {
                 backingClient.setMethod(Method.GET);
                 backingClient.getHeaders().set("Range",
@@ -117,6 +120,16 @@ public class HTTPImageInputStreamTest extends BaseTest {
         }
     }
 
+    @Test
+    void testGetMaxChunkCacheSize() throws Exception {
+        final Path fixture = TestUtil.getImage("tif");
+        try (HTTPImageInputStream instance = newInstanceFromConstructor2(fixture)) {
+            assertEquals(0, instance.getMaxChunkCacheSize());
+            instance.setMaxChunkCacheSize(5000);
+            assertEquals(5000, instance.getMaxChunkCacheSize());
+        }
+    }
+
     @Test
     void testGetWindowSize() throws Exception {
         final Path fixture = TestUtil.getImage("tif");
@@ -156,6 +169,81 @@ public class HTTPImageInputStreamTest extends BaseTest {
         assertArrayEquals(expectedBytes, actualBytes);
     }
 
+    @Test
+    void testReadWithSharedChunkCache() throws Exception {
+        final Path fixture         = TestUtil.getImage("tif");
+        final int fixtureLength    = (int) Files.size(fixture);
+        final byte[] expectedBytes = Files.readAllBytes(fixture);
+        final URI uri = webServer.getHTTPURI().resolve("/" + fixture.getFileName());
+        final ChunkCache chunkCache = new ChunkCache(1024 * 1024);
+
+        for (int i = 0; i < 2; i++) {
+            final MockHTTPImageInputStreamClient client =
+                    new MockHTTPImageInputStreamClient(uri);
+            final byte[] actualBytes = new byte[fixtureLength];
+            try (HTTPImageInputStream instance =
+                         new HTTPImageInputStream(client, fixtureLength)) {
+                instance.setWindowSize(1024);
+                instance.setChunkCache(chunkCache, uri.toString());
+                instance.read(actualBytes, 0, fixtureLength);
+            }
+            assertArrayEquals(expectedBytes, actualBytes);
+            // The second instance should not need to download anything.
+            assertEquals((i == 0) ?
+                            (int) Math.ceil(fixtureLength / 1024.0) : 0,
+                    client.numGETRequests);
+        }
+    }
+
+    @Test
+    void testReadWithReadAhead() throws Exception {
+        final Path fixture         = TestUtil.getImage("tif");
+        final int fixtureLength    = (int) Files.size(fixture);
+        final byte[] expectedBytes = Files.readAllBytes(fixture);
+        final byte[] actualBytes   = new byte[fixtureLength];
+        final URI uri = webServer.getHTTPURI().resolve("/" + fixture.getFileName());
+        final MockHTTPImageInputStreamClient client =
+                new MockHTTPImageInputStreamClient(uri);
+
+        try (HTTPImageInputStream instance =
+                     new HTTPImageInputStream(client, fixtureLength)) {
+            instance.setWindowSize(1024);
+            instance.setReadAheadCount(3);
+            assertEquals(3, instance.getReadAheadCount());
+            for (int i = 0; i < actualBytes.length; i++) {
+                actualBytes[i] = (byte) (instance.read() & 0xff);
+            }
+        }
+        assertArrayEquals(expectedBytes, actualBytes);
+        // Each window should have been downloaded exactly once.
+        assertEquals((int) Math.ceil(fixtureLength / 1024.0),
+                client.numGETRequests);
+    }
+
+    @Test
+    void testReadWithReadAheadAndSharedChunkCache() throws Exception {
+        final Path fixture         = TestUtil.getImage("tif");
+        final int fixtureLength    = (int) Files.size(fixture);
+        final URI uri = webServer.getHTTPURI().resolve("/" + fixture.getFileName());
+        final ChunkCache chunkCache = new ChunkCache(1024 * 1024);
+        final MockHTTPImageInputStreamClient client =
+                new MockHTTPImageInputStreamClient(uri);
+
+        try (HTTPImageInputStream instance =
+                     new HTTPImageInputStream(client, fixtureLength)) {
+            instance.setWindowSize(1024);
+            instance.setReadAheadCount(3);
+            instance.setChunkCache(chunkCache, uri.toString());
+            instance.read(new byte[2048], 0, 2048);
+            // Wait for the read-ahead downloads of windows 2-4 to land in the
+            // cache.
+            for (int i = 0; i < 100 && chunkCache.getSize() < 1024 * 5; i++) {
+                Thread.sleep(10);
+            }
+        }
+        assertEquals(1024 * 5, chunkCache.getSize());
+    }
+
     @Test
     void testSeek() throws Exception {
         final Path fixture         = TestUtil.getImage("tif");
@@ -18,6 +18,13 @@ public class ApplicationStatusTest extends BaseTest {
         instance = new ApplicationStatus();
     }
 
+    @Test
+    void getAdmissionControlStatistics() {
+        Map<String,Object> stats = instance.getAdmissionControlStatistics();
+        assertEquals(false, stats.get("enabled"));
+        assertTrue(stats.containsKey("processing"));
+    }
+
     @Test
     void getInfoCacheMaxSize() {
         assertTrue(instance.getInfoCacheMaxSize() > 100);
@@ -33,6 +40,20 @@ public class ApplicationStatusTest extends BaseTest {
         assertTrue(instance.getNumProcessors() >= 1);
     }
 
+    @Test
+    void getRequestCoalescingStatistics() {
+        Map<String,Object> stats = instance.getRequestCoalescingStatistics();
+        assertEquals(true, stats.get("enabled"));
+        assertTrue(stats.containsKey("numCoalescedRequests"));
+    }
+
+    @Test
+    void getThreadPoolStatistics() {
+        Map<String,Object> stats = instance.getThreadPoolStatistics();
+        assertEquals(4, stats.size());
+        assertTrue(stats.containsKey("compute"));
+    }
+
     @Test
     void getVMFreeHeap() {
         assertTrue(instance.getVMFreeHeap() > 1000);
@@ -81,7 +102,10 @@ public class ApplicationStatusTest extends BaseTest {
     @Test
     void toMap() {
         Map<String,Object> map = instance.toMap();
-        assertEquals(3, map.size());
+        assertEquals(7, map.size());
+        assertTrue(map.containsKey("threadPools"));
+        assertTrue(map.containsKey("taskQueue"));
+        assertTrue(map.containsKey("requestCoalescing"));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package edu.illinois.library.cantaloupe.util;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClientRegistryTest extends BaseTest {
+
+    private final AtomicInteger numCreated      = new AtomicInteger();
+    private final List<Object> closedClients    = new CopyOnWriteArrayList<>();
+
+    private ClientRegistry<String,Object,IOException> instance;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        instance = newInstance(1);
+    }
+
+    private ClientRegistry<String,Object,IOException> newInstance(int maxClients) {
+        return newInstance(maxClients,
+                ClientRegistry.DEFAULT_CLOSE_DELAY_MSEC);
+    }
+
+    private ClientRegistry<String,Object,IOException> newInstance(
+            int maxClients, long closeDelayMsec) {
+        return new ClientRegistry<>("test", maxClients, settings -> {
+            numCreated.incrementAndGet();
+            if ("bogus".equals(settings)) {
+                throw new IOException("Bogus settings");
+            }
+            return new Object();
+        }, closedClients::add, closeDelayMsec);
+    }
+
+    /* clear() */
+
+    @Test
+    void testClear() throws Exception {
+        Object client = instance.get("cats");
+        instance.clear();
+        assertEquals(0, instance.size());
+        assertEquals(List.of(client), closedClients);
+        assertNotSame(client, instance.get("cats"));
+    }
+
+    /* get() */
+
+    @Test
+    void testGetReturnsTheSameClientForTheSameSettings() throws Exception {
+        assertSame(instance.get("cats"), instance.get("cats"));
+        assertEquals(1, numCreated.get());
+    }
+
+    @Test
+    void testGetWithNewSettingsReplacesOldClient() throws Exception {
+        Object client1 = instance.get("cats");
+        Object client2 = instance.get("dogs");
+        assertNotSame(client1, client2);
+        assertEquals(1, instance.size());
+    }
+
+    @Test
+    void testGetWithNewSettingsDoesNotCloseOldClientImmediately()
+            throws Exception {
+        instance.get("cats");
+        instance.get("dogs");
+        assertTrue(closedClients.isEmpty());
+    }
+
+    @Test
+    void testGetWithNewSettingsClosesOldClientAfterDelay() throws Exception {
+        instance = newInstance(1, 50);
+        Object client1 = instance.get("cats");
+        instance.get("dogs");
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (closedClients.isEmpty() &&
+                System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(client1), closedClients);
+    }
+
+    @Test
+    void testGetWithNewSettingsRetainsOldClientsUpToMaxClients()
+            throws Exception {
+        instance = newInstance(2);
+        instance.get("cats");
+        instance.get("dogs");
+        assertEquals(2, instance.size());
+        assertTrue(closedClients.isEmpty());
+    }
+
+    @Test
+    void testGetPropagatesFactoryExceptionAndTriesAgain() {
+        assertThrows(IOException.class, () -> instance.get("bogus"));
+        assertEquals(0, instance.size());
+        assertThrows(IOException.class, () -> instance.get("bogus"));
+        assertEquals(2, numCreated.get());
+    }
+
+    @Test
+    void testGetConcurrentlyCreatesOneClient() throws Exception {
+        final int numThreads          = 100;
+        final Set<Object> clients     = ConcurrentHashMap.newKeySet();
+        final CountDownLatch start    = new CountDownLatch(1);
+        final List<Thread> threads    = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    clients.add(instance.get("cats"));
+                } catch (Exception e) {
+                    fail(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, clients.size());
+        assertEquals(1, numCreated.get());
+    }
+
+}